@@ -0,0 +1,72 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import Genetica.Codon;
+import Genetica.SequenciaCompacta;
+
+/**
+ * Mede a contagem de códons sobre a sequência em String e sobre a {@link SequenciaCompacta}, e a
+ * tradução de códons em aminoácidos.
+ * @author rezende
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class CodonBenchmark {
+
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String tamanho;
+
+    private String sequencia;
+    private SequenciaCompacta compacta;
+    private String[] codons;
+
+    @Setup
+    public void preparar() throws IOException {
+        String arquivo = DadosSinteticos.fasta(tamanho, false).toString();
+        sequencia = Codon.readFastaSequence(arquivo);
+        compacta = SequenciaCompacta.lerFasta(arquivo, true);
+        // Os códons na ordem em que aparecem na sequência, limitados a 1 milhão
+        int quantidade = (int) Math.min(sequencia.length() / 3, 1 << 20);
+        codons = new String[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            codons[i] = sequencia.substring(i * 3, i * 3 + 3);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Integer> calculateCodonFrequencyString() {
+        return Codon.calculateCodonFrequency(sequencia);
+    }
+
+    @Benchmark
+    public Map<String, Integer> calculateCodonFrequencyCompacta() {
+        return Codon.calculateCodonFrequency(compacta);
+    }
+
+    @Benchmark
+    public void getAminoacid(Blackhole buraco) {
+        for (String codon : codons) {
+            buraco.consume(Codon.getAminoacid(codon));
+        }
+    }
+}
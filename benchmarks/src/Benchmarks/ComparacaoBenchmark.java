@@ -0,0 +1,61 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Genetica.FastaComparar;
+import Genetica.SequenciaCompacta;
+
+/**
+ * Mede o cálculo de similaridade posicional entre uma sequência sintética e a sua versão mutada,
+ * sobre String e sobre {@link SequenciaCompacta}.
+ * @author rezende
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class ComparacaoBenchmark {
+
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String tamanho;
+
+    private String sequencia1;
+    private String sequencia2;
+    private SequenciaCompacta compacta1;
+    private SequenciaCompacta compacta2;
+
+    @Setup
+    public void preparar() throws IOException {
+        String arquivo1 = DadosSinteticos.fasta(tamanho, false).toString();
+        String arquivo2 = DadosSinteticos.fasta(tamanho, true).toString();
+        sequencia1 = FastaComparar.readFastaSequence(arquivo1);
+        sequencia2 = FastaComparar.readFastaSequence(arquivo2);
+        compacta1 = SequenciaCompacta.lerFasta(arquivo1, true);
+        compacta2 = SequenciaCompacta.lerFasta(arquivo2, true);
+    }
+
+    @Benchmark
+    public int calculateSimilarityString() {
+        return FastaComparar.calculateSimilarity(sequencia1, sequencia2);
+    }
+
+    @Benchmark
+    public long calculateSimilarityCompacta() {
+        return FastaComparar.calculateSimilarity(compacta1, compacta2);
+    }
+}
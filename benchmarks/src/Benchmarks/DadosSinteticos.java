@@ -0,0 +1,119 @@
+package Benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A classe DadosSinteticos gera os arquivos FASTA usados pelos benchmarks. O conteúdo depende só do
+ * tamanho e da semente, então todas as execuções medem exatamente a mesma entrada.
+ *
+ * <p>Os arquivos ficam em "genetica-benchmarks" dentro do diretório temporário do sistema (ou em
+ * -Dgenetica.benchmarks.dados) e são reaproveitados entre forks e execuções: o de 1 GB é gerado uma
+ * única vez. Cada tamanho tem uma versão "mutada", com 1% das bases trocadas nas mesmas posições,
+ * usada como segunda sequência nas comparações.</p>
+ * @author rezende
+ */
+public final class DadosSinteticos {
+
+    /** Semente usada por todos os benchmarks. */
+    public static final long SEMENTE = 42;
+    /** Substituições por mil bases na versão mutada. */
+    public static final int MUTACOES_POR_MIL = 10;
+
+    private static final int LARGURA_LINHA = 70;
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private DadosSinteticos() {
+    }
+
+    /**
+     * Converte um tamanho como "1KB", "64MB" ou "1GB" em número de bases.
+     *
+     * @param tamanho O tamanho, com sufixo KB, MB ou GB (potências de 1024).
+     * @return O número de bases.
+     */
+    public static long bases(String tamanho) {
+        String texto = tamanho.trim().toUpperCase();
+        long multiplicador = 1;
+        if (texto.endsWith("KB")) {
+            multiplicador = 1L << 10;
+        } else if (texto.endsWith("MB")) {
+            multiplicador = 1L << 20;
+        } else if (texto.endsWith("GB")) {
+            multiplicador = 1L << 30;
+        }
+        if (multiplicador > 1) {
+            texto = texto.substring(0, texto.length() - 2);
+        }
+        return Long.parseLong(texto) * multiplicador;
+    }
+
+    /**
+     * Retorna o arquivo FASTA sintético do tamanho pedido, gerando-o se ainda não existir.
+     *
+     * @param tamanho O número de bases, como em {@link #bases(String)}.
+     * @param mutado Se true, retorna a versão com {@link #MUTACOES_POR_MIL} substituições por mil bases.
+     * @return O caminho do arquivo.
+     * @throws IOException Se o arquivo não puder ser gerado.
+     */
+    public static Path fasta(String tamanho, boolean mutado) throws IOException {
+        long bases = bases(tamanho);
+        Path diretorio = Paths.get(System.getProperty("genetica.benchmarks.dados",
+                Paths.get(System.getProperty("java.io.tmpdir"), "genetica-benchmarks").toString()));
+        Files.createDirectories(diretorio);
+        Path arquivo = diretorio.resolve("sintetico_" + bases + "_" + SEMENTE + (mutado ? "_mutado" : "") + ".fasta");
+        if (Files.exists(arquivo)) {
+            return arquivo;
+        }
+        // Forks concorrentes geram cada um o seu temporário; o primeiro a renomear vence
+        Path temporario = Files.createTempFile(diretorio, arquivo.getFileName().toString(), ".parcial");
+        try {
+            gerar(temporario, bases, mutado);
+            try {
+                Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            if (!Files.exists(arquivo)) {
+                throw e;
+            }
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+        return arquivo;
+    }
+
+    private static void gerar(Path destino, long bases, boolean mutado) throws IOException {
+        long estado = SEMENTE;
+        long estadoMutacao = ~SEMENTE;
+        byte[] linha = new byte[LARGURA_LINHA + 1];
+        try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(destino), 1 << 20)) {
+            saida.write((">sintetico_" + bases + " semente=" + SEMENTE + (mutado ? " mutado" : "") + "\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            for (long escritas = 0; escritas < bases; ) {
+                int tamanho = (int) Math.min(LARGURA_LINHA, bases - escritas);
+                for (int i = 0; i < tamanho; i++) {
+                    estado = estado * 6364136223846793005L + 1442695040888963407L;
+                    int base = (int) (estado >>> 62);
+                    // O gerador de mutações avança nas duas versões, para que as posições coincidam
+                    estadoMutacao = estadoMutacao * 6364136223846793005L + 1442695040888963407L;
+                    if (mutado && Long.remainderUnsigned(estadoMutacao >>> 16, 1000) < MUTACOES_POR_MIL) {
+                        base = (base + 1 + (int) ((estadoMutacao >>> 8) % 3)) & 3;
+                    }
+                    linha[i] = BASES[base];
+                }
+                linha[tamanho] = '\n';
+                saida.write(linha, 0, tamanho + 1);
+                escritas += tamanho;
+            }
+        }
+    }
+}
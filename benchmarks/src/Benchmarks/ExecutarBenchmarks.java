@@ -0,0 +1,25 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do jar de benchmarks. Aceita as mesmas opções da linha de comando do JMH
+ * (por exemplo "Codon -p tamanho=1MB"); se nenhum profiler for pedido, o profiler de GC é
+ * adicionado para que a taxa de alocação apareça ao lado da vazão.
+ * @author rezende
+ */
+public class ExecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        ChainedOptionsBuilder opcoes = new OptionsBuilder().parent(linhaDeComando);
+        if (linhaDeComando.getProfilers().isEmpty()) {
+            opcoes.addProfiler(GCProfiler.class);
+        }
+        new Runner(opcoes.build()).run();
+    }
+}
@@ -0,0 +1,59 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Genetica.Codon;
+import Genetica.FastaComparar;
+import Genetica.SequenciaCompacta;
+
+/**
+ * Mede a leitura de arquivos FASTA: as duas versões de readFastaSequence, que montam uma String,
+ * e a leitura para {@link SequenciaCompacta}, de 2 bits por base.
+ * @author rezende
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class LeituraFastaBenchmark {
+
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String tamanho;
+
+    private String arquivo;
+
+    @Setup
+    public void preparar() throws IOException {
+        arquivo = DadosSinteticos.fasta(tamanho, false).toString();
+    }
+
+    @Benchmark
+    public String codonReadFastaSequence() throws IOException {
+        return Codon.readFastaSequence(arquivo);
+    }
+
+    @Benchmark
+    public String fastaCompararReadFastaSequence() throws IOException {
+        return FastaComparar.readFastaSequence(arquivo);
+    }
+
+    @Benchmark
+    public SequenciaCompacta lerFastaCompacta() throws IOException {
+        return SequenciaCompacta.lerFasta(arquivo, true);
+    }
+}
@@ -0,0 +1,552 @@
+package Genetica;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A classe Alinhamento alinha duas sequências com pontuação configurável, no modo global
+ * (Needleman-Wunsch) ou local (Smith-Waterman), opcionalmente restrito a uma banda diagonal.
+ *
+ * <p>A reconstrução do alinhamento usa a estratégia de Hirschberg: o problema é dividido ao meio
+ * combinando uma passada direta e uma reversa que guardam apenas uma linha da matriz, de modo que
+ * a memória usada é O(n + m) em vez de O(n * m). Com banda de largura w o tempo cai para
+ * O((n + m) * w). As lacunas têm custo linear.</p>
+ * @author rezende
+ */
+public class Alinhamento {
+
+    /** Modo de alinhamento. */
+    public enum Modo {
+        /** Needleman-Wunsch: alinha as sequências inteiras. */
+        GLOBAL,
+        /** Smith-Waterman: alinha o trecho de maior pontuação. */
+        LOCAL
+    }
+
+    /** Coluna com bases iguais. */
+    public static final byte IGUAL = '=';
+    /** Coluna com bases diferentes. */
+    public static final byte DIFERENTE = 'X';
+    /** Coluna com base apenas na primeira sequência (lacuna na segunda). */
+    public static final byte DELECAO = 'D';
+    /** Coluna com base apenas na segunda sequência (lacuna na primeira). */
+    public static final byte INSERCAO = 'I';
+
+    private static final int NEG = Integer.MIN_VALUE / 4;
+    // Subproblemas até este número de células são resolvidos com a matriz completa
+    private static final long LIMIAR_MATRIZ = 1 << 16;
+
+    private final Modo modo;
+    private final int acerto;
+    private final int erro;
+    private final int lacuna;
+    private final int banda;
+
+    /**
+     * Resultado de um alinhamento: a pontuação, a região alinhada e a lista de colunas.
+     */
+    public static class Resultado {
+        private final int pontuacao;
+        private final int inicio1;
+        private final int fim1;
+        private final int inicio2;
+        private final int fim2;
+        private final byte[] operacoes;
+        private int identicos;
+        private int diferentes;
+        private int lacunas;
+
+        Resultado(int pontuacao, int inicio1, int fim1, int inicio2, int fim2, byte[] operacoes) {
+            this.pontuacao = pontuacao;
+            this.inicio1 = inicio1;
+            this.fim1 = fim1;
+            this.inicio2 = inicio2;
+            this.fim2 = fim2;
+            this.operacoes = operacoes;
+            for (byte operacao : operacoes) {
+                if (operacao == IGUAL) {
+                    identicos++;
+                } else if (operacao == DIFERENTE) {
+                    diferentes++;
+                } else {
+                    lacunas++;
+                }
+            }
+        }
+
+        /**
+         * @return A pontuação do alinhamento.
+         */
+        public int pontuacao() {
+            return pontuacao;
+        }
+
+        /**
+         * @return A posição inicial (inclusiva) do trecho alinhado na primeira sequência.
+         */
+        public int inicio1() {
+            return inicio1;
+        }
+
+        /**
+         * @return A posição final (exclusiva) do trecho alinhado na primeira sequência.
+         */
+        public int fim1() {
+            return fim1;
+        }
+
+        /**
+         * @return A posição inicial (inclusiva) do trecho alinhado na segunda sequência.
+         */
+        public int inicio2() {
+            return inicio2;
+        }
+
+        /**
+         * @return A posição final (exclusiva) do trecho alinhado na segunda sequência.
+         */
+        public int fim2() {
+            return fim2;
+        }
+
+        /**
+         * Retorna as colunas do alinhamento: {@link #IGUAL}, {@link #DIFERENTE}, {@link #DELECAO}
+         * ou {@link #INSERCAO}.
+         *
+         * @return Uma cópia das operações, uma por coluna.
+         */
+        public byte[] operacoes() {
+            return operacoes.clone();
+        }
+
+        /**
+         * @return O número de colunas do alinhamento.
+         */
+        public int colunas() {
+            return operacoes.length;
+        }
+
+        /**
+         * @return O número de colunas com bases iguais.
+         */
+        public int identicos() {
+            return identicos;
+        }
+
+        /**
+         * @return O número de colunas com bases diferentes.
+         */
+        public int diferentes() {
+            return diferentes;
+        }
+
+        /**
+         * @return O número de colunas com lacuna em uma das sequências.
+         */
+        public int lacunas() {
+            return lacunas;
+        }
+
+        /**
+         * Retorna a identidade do alinhamento: colunas iguais sobre o total de colunas.
+         *
+         * @return A identidade, entre 0 e 1.
+         */
+        public double identidade() {
+            return operacoes.length == 0 ? 0 : (double) identicos / operacoes.length;
+        }
+
+        /**
+         * Retorna as operações no formato CIGAR estendido (por exemplo "10=1X3=2D5=").
+         *
+         * @return A String CIGAR.
+         */
+        public String cigar() {
+            StringBuilder cigar = new StringBuilder();
+            int i = 0;
+            while (i < operacoes.length) {
+                int j = i;
+                while (j < operacoes.length && operacoes[j] == operacoes[i]) {
+                    j++;
+                }
+                cigar.append(j - i).append((char) operacoes[i]);
+                i = j;
+            }
+            return cigar.toString();
+        }
+    }
+
+    /**
+     * Cria um alinhador sem banda.
+     *
+     * @param modo O modo de alinhamento.
+     * @param acerto A pontuação de bases iguais (positiva).
+     * @param erro A pontuação de bases diferentes (normalmente negativa).
+     * @param lacuna A pontuação de cada posição de lacuna (negativa).
+     */
+    public Alinhamento(Modo modo, int acerto, int erro, int lacuna) {
+        this(modo, acerto, erro, lacuna, -1);
+    }
+
+    /**
+     * Cria um alinhador restrito a uma banda diagonal.
+     *
+     * @param modo O modo de alinhamento.
+     * @param acerto A pontuação de bases iguais (positiva).
+     * @param erro A pontuação de bases diferentes (normalmente negativa).
+     * @param lacuna A pontuação de cada posição de lacuna (negativa).
+     * @param banda A largura da banda além da diferença de comprimento, ou -1 para não usar banda.
+     */
+    public Alinhamento(Modo modo, int acerto, int erro, int lacuna, int banda) {
+        if (lacuna >= 0) {
+            throw new IllegalArgumentException("A pontuação de lacuna deve ser negativa: " + lacuna);
+        }
+        this.modo = modo;
+        this.acerto = acerto;
+        this.erro = erro;
+        this.lacuna = lacuna;
+        this.banda = banda;
+    }
+
+    /**
+     * Cria um alinhador com a pontuação padrão: +1 para acerto, -1 para erro e -2 por lacuna.
+     *
+     * @param modo O modo de alinhamento.
+     * @return O alinhador.
+     */
+    public static Alinhamento padrao(Modo modo) {
+        return new Alinhamento(modo, 1, -1, -2);
+    }
+
+    /**
+     * @return O modo de alinhamento.
+     */
+    public Modo modo() {
+        return modo;
+    }
+
+    /**
+     * @return A largura da banda, ou -1 se não houver banda.
+     */
+    public int banda() {
+        return banda;
+    }
+
+    /**
+     * Alinha duas sequências de texto.
+     *
+     * @param seq1 A primeira sequência.
+     * @param seq2 A segunda sequência.
+     * @return O resultado do alinhamento.
+     */
+    public Resultado alinhar(String seq1, String seq2) {
+        return alinhar(seq1.getBytes(StandardCharsets.ISO_8859_1), seq2.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Alinha duas sequências compactas.
+     *
+     * @param seq1 A primeira sequência.
+     * @param seq2 A segunda sequência.
+     * @return O resultado do alinhamento.
+     */
+    public Resultado alinhar(SequenciaCompacta seq1, SequenciaCompacta seq2) {
+        return alinhar(seq1.paraBytes(), seq2.paraBytes());
+    }
+
+    /**
+     * Alinha duas sequências de bytes (ASCII).
+     *
+     * @param a A primeira sequência.
+     * @param b A segunda sequência.
+     * @return O resultado do alinhamento.
+     */
+    public Resultado alinhar(byte[] a, byte[] b) {
+        int n = a.length;
+        int m = b.length;
+        // Banda em diagonais absolutas (coluna - linha), sempre contendo os dois cantos da matriz
+        int diagMin = banda < 0 ? -n - 1 : Math.min(0, m - n) - banda;
+        int diagMax = banda < 0 ? m + 1 : Math.max(0, m - n) + banda;
+
+        Operacoes operacoes = new Operacoes();
+        if (modo == Modo.GLOBAL) {
+            int pontuacao = hirschberg(a, 0, n, b, 0, m, diagMin, diagMax, operacoes);
+            return new Resultado(pontuacao, 0, n, 0, m, operacoes.paraArray());
+        }
+
+        // Local: a passada direta acha o fim, a reversa acha o início e o trecho é alinhado globalmente
+        int[] fim = fimLocal(a, b, diagMin, diagMax);
+        if (fim[0] <= 0) {
+            return new Resultado(0, 0, 0, 0, 0, new byte[0]);
+        }
+        int[] inicio = inicioLocal(a, fim[1], b, fim[2], fim[0], diagMin, diagMax);
+        hirschberg(a, inicio[0], fim[1], b, inicio[1], fim[2], diagMin, diagMax, operacoes);
+        return new Resultado(fim[0], inicio[0], fim[1], inicio[1], fim[2], operacoes.paraArray());
+    }
+
+    /**
+     * Calcula apenas a pontuação do alinhamento, guardando uma única linha da matriz.
+     *
+     * @param a A primeira sequência.
+     * @param b A segunda sequência.
+     * @return A pontuação do alinhamento.
+     */
+    public int pontuacao(byte[] a, byte[] b) {
+        int n = a.length;
+        int m = b.length;
+        int diagMin = banda < 0 ? -n - 1 : Math.min(0, m - n) - banda;
+        int diagMax = banda < 0 ? m + 1 : Math.max(0, m - n) + banda;
+        if (modo == Modo.LOCAL) {
+            return Math.max(0, fimLocal(a, b, diagMin, diagMax)[0]);
+        }
+        return ultimaLinha(a, 0, n, b, 0, m, false, diagMin, diagMax)[m];
+    }
+
+    private int pontuar(byte x, byte y) {
+        return x == y ? acerto : erro;
+    }
+
+    /**
+     * Alinha globalmente a[a0..a1) com b[b0..b1), acrescentando as colunas em ordem.
+     */
+    private int hirschberg(byte[] a, int a0, int a1, byte[] b, int b0, int b1, int diagMin, int diagMax,
+            Operacoes operacoes) {
+        int n = a1 - a0;
+        int m = b1 - b0;
+        if (n == 0 || m == 0 || n == 1 || m == 1 || (long) (n + 1) * (m + 1) <= LIMIAR_MATRIZ) {
+            return matrizCompleta(a, a0, a1, b, b0, b1, diagMin, diagMax, operacoes);
+        }
+        int meio = a0 + n / 2;
+        int[] esquerda = ultimaLinha(a, a0, meio, b, b0, b1, false, diagMin, diagMax);
+        int[] direita = ultimaLinha(a, meio, a1, b, b0, b1, true, diagMin, diagMax);
+        int melhor = NEG;
+        int corte = 0;
+        for (int k = 0; k <= m; k++) {
+            if (esquerda[k] > NEG && direita[m - k] > NEG && esquerda[k] + direita[m - k] > melhor) {
+                melhor = esquerda[k] + direita[m - k];
+                corte = k;
+            }
+        }
+        hirschberg(a, a0, meio, b, b0, b0 + corte, diagMin, diagMax, operacoes);
+        hirschberg(a, meio, a1, b, b0 + corte, b1, diagMin, diagMax, operacoes);
+        return melhor;
+    }
+
+    /**
+     * Calcula a última linha da matriz global de a[a0..a1) contra b[b0..b1), guardando só duas
+     * linhas. No sentido reverso as sequências são lidas de trás para frente, e a posição k da
+     * linha retornada corresponde ao alinhamento com os últimos k símbolos de b.
+     */
+    private int[] ultimaLinha(byte[] a, int a0, int a1, byte[] b, int b0, int b1, boolean reverso,
+            int diagMin, int diagMax) {
+        int n = a1 - a0;
+        int m = b1 - b0;
+        // Converte a banda absoluta em limites para (j - i) dentro do subproblema
+        long lo;
+        long hi;
+        if (reverso) {
+            lo = (long) (b1 - a1) - diagMax;
+            hi = (long) (b1 - a1) - diagMin;
+        } else {
+            lo = (long) diagMin - (b0 - a0);
+            hi = (long) diagMax - (b0 - a0);
+        }
+        int[] anterior = new int[m + 1];
+        int[] atual = new int[m + 1];
+        Arrays.fill(anterior, NEG);
+        for (int j = 0; j <= Math.min(m, hi); j++) {
+            if (j >= lo) {
+                anterior[j] = j * lacuna;
+            }
+        }
+        for (int i = 1; i <= n; i++) {
+            byte x = reverso ? a[a1 - i] : a[a0 + i - 1];
+            int jMin = (int) Math.min(m + 1, Math.max(0, i + lo));
+            int jMax = (int) Math.max(-1, Math.min(m, i + hi));
+            if (jMin > 0) {
+                atual[jMin - 1] = NEG;
+            }
+            if (jMax < m) {
+                atual[jMax + 1] = NEG;
+            }
+            for (int j = jMin; j <= jMax; j++) {
+                if (j == 0) {
+                    atual[0] = i * lacuna;
+                    continue;
+                }
+                byte y = reverso ? b[b1 - j] : b[b0 + j - 1];
+                int valor = anterior[j - 1] + pontuar(x, y);
+                valor = Math.max(valor, anterior[j] + lacuna);
+                valor = Math.max(valor, atual[j - 1] + lacuna);
+                atual[j] = Math.max(valor, NEG);
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        // Fora da banda da última linha restam valores de linhas anteriores, que não podem virar corte
+        int jMin = (int) Math.min(m + 1, Math.max(0, n + lo));
+        int jMax = (int) Math.max(-1, Math.min(m, n + hi));
+        Arrays.fill(anterior, 0, jMin, NEG);
+        Arrays.fill(anterior, jMax + 1, m + 1, NEG);
+        return anterior;
+    }
+
+    /**
+     * Resolve o subproblema com a matriz completa e reconstrói o caminho. Usado apenas quando a
+     * matriz é pequena ou uma das dimensões é 0 ou 1, o que mantém a memória linear.
+     */
+    private int matrizCompleta(byte[] a, int a0, int a1, byte[] b, int b0, int b1, int diagMin, int diagMax,
+            Operacoes operacoes) {
+        int n = a1 - a0;
+        int m = b1 - b0;
+        long lo = (long) diagMin - (b0 - a0);
+        long hi = (long) diagMax - (b0 - a0);
+        int[][] h = new int[n + 1][m + 1];
+        for (int i = 0; i <= n; i++) {
+            for (int j = 0; j <= m; j++) {
+                if (j - i < lo || j - i > hi) {
+                    h[i][j] = NEG;
+                } else if (i == 0) {
+                    h[i][j] = j * lacuna;
+                } else if (j == 0) {
+                    h[i][j] = i * lacuna;
+                } else {
+                    int valor = h[i - 1][j - 1] + pontuar(a[a0 + i - 1], b[b0 + j - 1]);
+                    valor = Math.max(valor, h[i - 1][j] + lacuna);
+                    valor = Math.max(valor, h[i][j - 1] + lacuna);
+                    h[i][j] = Math.max(valor, NEG);
+                }
+            }
+        }
+        byte[] caminho = new byte[n + m];
+        int tamanho = 0;
+        int i = n;
+        int j = m;
+        while (i > 0 || j > 0) {
+            if (i > 0 && j > 0 && h[i][j] == h[i - 1][j - 1] + pontuar(a[a0 + i - 1], b[b0 + j - 1])) {
+                caminho[tamanho++] = a[a0 + i - 1] == b[b0 + j - 1] ? IGUAL : DIFERENTE;
+                i--;
+                j--;
+            } else if (i > 0 && h[i][j] == h[i - 1][j] + lacuna) {
+                caminho[tamanho++] = DELECAO;
+                i--;
+            } else {
+                caminho[tamanho++] = INSERCAO;
+                j--;
+            }
+        }
+        for (int k = tamanho - 1; k >= 0; k--) {
+            operacoes.adicionar(caminho[k]);
+        }
+        return h[n][m];
+    }
+
+    /**
+     * Passada Smith-Waterman guardando só duas linhas. Retorna {pontuação, fim1, fim2}.
+     */
+    private int[] fimLocal(byte[] a, byte[] b, int diagMin, int diagMax) {
+        int n = a.length;
+        int m = b.length;
+        int[] anterior = new int[m + 1];
+        int[] atual = new int[m + 1];
+        // Células fora da banda não podem iniciar nem continuar um caminho
+        Arrays.fill(anterior, NEG);
+        for (int j = 0; j <= Math.min(m, diagMax); j++) {
+            anterior[j] = 0;
+        }
+        int melhor = 0;
+        int fim1 = 0;
+        int fim2 = 0;
+        for (int i = 1; i <= n; i++) {
+            byte x = a[i - 1];
+            int jMin = (int) Math.max(1, (long) i + diagMin);
+            int jMax = (int) Math.min(m, (long) i + diagMax);
+            atual[jMin - 1] = jMin == 1 && (long) i + diagMin <= 0 ? 0 : NEG;
+            if (jMax < m) {
+                atual[jMax + 1] = NEG;
+            }
+            for (int j = jMin; j <= jMax; j++) {
+                int valor = anterior[j - 1] + pontuar(x, b[j - 1]);
+                valor = Math.max(valor, anterior[j] + lacuna);
+                valor = Math.max(valor, atual[j - 1] + lacuna);
+                valor = Math.max(valor, 0);
+                atual[j] = valor;
+                if (valor > melhor) {
+                    melhor = valor;
+                    fim1 = i;
+                    fim2 = j;
+                }
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return new int[] {melhor, fim1, fim2};
+    }
+
+    /**
+     * A partir do fim do alinhamento local, percorre os prefixos de trás para frente, com o caminho
+     * obrigatoriamente ancorado no fim, até encontrar a célula que atinge a pontuação local.
+     * Retorna {inicio1, inicio2}.
+     */
+    private int[] inicioLocal(byte[] a, int fim1, byte[] b, int fim2, int alvo, int diagMin, int diagMax) {
+        long lo = (long) (fim2 - fim1) - diagMax;
+        long hi = (long) (fim2 - fim1) - diagMin;
+        int[] anterior = new int[fim2 + 1];
+        int[] atual = new int[fim2 + 1];
+        Arrays.fill(anterior, NEG);
+        for (int j = 0; j <= Math.min(fim2, hi); j++) {
+            if (j >= lo) {
+                anterior[j] = j * lacuna;
+            }
+        }
+        for (int i = 1; i <= fim1; i++) {
+            byte x = a[fim1 - i];
+            int jMin = (int) Math.min(fim2 + 1, Math.max(0, i + lo));
+            int jMax = (int) Math.max(-1, Math.min(fim2, i + hi));
+            if (jMin > 0) {
+                atual[jMin - 1] = NEG;
+            }
+            if (jMax < fim2) {
+                atual[jMax + 1] = NEG;
+            }
+            for (int j = jMin; j <= jMax; j++) {
+                if (j == 0) {
+                    atual[0] = i * lacuna;
+                    continue;
+                }
+                int valor = anterior[j - 1] + pontuar(x, b[fim2 - j]);
+                valor = Math.max(valor, anterior[j] + lacuna);
+                valor = Math.max(valor, atual[j - 1] + lacuna);
+                atual[j] = Math.max(valor, NEG);
+                if (atual[j] == alvo) {
+                    return new int[] {fim1 - i, fim2 - j};
+                }
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return new int[] {0, 0};
+    }
+
+    /**
+     * Lista crescente de colunas do alinhamento.
+     */
+    private static class Operacoes {
+        private byte[] dados = new byte[64];
+        private int tamanho;
+
+        void adicionar(byte operacao) {
+            if (tamanho == dados.length) {
+                dados = Arrays.copyOf(dados, dados.length + (dados.length >> 1));
+            }
+            dados[tamanho++] = operacao;
+        }
+
+        byte[] paraArray() {
+            return Arrays.copyOf(dados, tamanho);
+        }
+    }
+}
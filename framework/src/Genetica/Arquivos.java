@@ -0,0 +1,148 @@
+package Genetica;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A classe Arquivos reúne as rotinas de apoio usadas por várias classes do pacote: a escrita
+ * atômica de arquivos (um temporário ao lado do destino, renomeado ao final), o SHA-256, os campos
+ * de CSV e a causa real de um erro assíncrono.
+ * @author rezende
+ */
+final class Arquivos {
+
+    private Arquivos() {
+    }
+
+    /** Escreve o conteúdo de um arquivo. */
+    interface Escrita {
+        void escrever(OutputStream saida) throws IOException;
+    }
+
+    /**
+     * Cria um arquivo temporário vazio no mesmo diretório do destino, para depois ser movido com
+     * {@link #mover(Path, Path)}. Quem o cria deve apagá-lo se não chegar a movê-lo.
+     *
+     * <p>O arquivo é criado com as permissões padrão (respeitando a umask), e não com as permissões
+     * restritas de {@link Files#createTempFile}, que seriam mantidas no destino depois da troca.</p>
+     *
+     * @param destino O arquivo que o temporário vai substituir.
+     * @return O arquivo temporário, terminado em ".parcial".
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    static Path temporario(Path destino) throws IOException {
+        Path absoluto = destino.toAbsolutePath();
+        while (true) {
+            Path temporario = absoluto.resolveSibling(absoluto.getFileName() + "."
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".parcial");
+            try {
+                return Files.createFile(temporario);
+            } catch (FileAlreadyExistsException e) {
+                // Nome já usado por outra escrita: sorteia outro
+            }
+        }
+    }
+
+    /**
+     * Renomeia um arquivo temporário para o destino, atomicamente quando o sistema de arquivos permitir.
+     *
+     * @param temporario O arquivo já escrito.
+     * @param destino O arquivo substituído.
+     * @throws IOException Se o arquivo não puder ser movido.
+     */
+    static void mover(Path temporario, Path destino) throws IOException {
+        try {
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Escreve em um arquivo temporário ao lado do destino e o move para o lugar ao final, de modo
+     * que quem lê o destino nunca encontra um arquivo pela metade. Se a escrita falhar, o destino
+     * anterior é mantido.
+     *
+     * @param destino O arquivo de saída.
+     * @param escrita Escreve o conteúdo.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro na escrita ou na troca dos arquivos.
+     */
+    static long gravar(Path destino, Escrita escrita) throws IOException {
+        Path temporario = temporario(destino);
+        try {
+            try (OutputStream saida = Files.newOutputStream(temporario)) {
+                escrita.escrever(saida);
+            }
+            long bytes = Files.size(temporario);
+            mover(temporario, destino.toAbsolutePath());
+            return bytes;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /**
+     * @return Um novo {@link MessageDigest} de SHA-256.
+     */
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM é obrigada a oferecer SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return Os bytes em hexadecimal, com letras minúsculas.
+     */
+    static String hexadecimal(byte[] bytes) {
+        StringBuilder texto = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            texto.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Prepara um texto para um campo de CSV (RFC 4180): textos com vírgula, aspas ou quebra de
+     * linha ficam entre aspas, com as aspas internas duplicadas.
+     *
+     * @param texto O valor do campo.
+     * @return O campo pronto para ser escrito.
+     */
+    static String campoCsv(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + texto.replace("\"", "\"\"") + '"';
+            }
+        }
+        return texto;
+    }
+
+    /**
+     * Retorna a causa de um erro de uma tarefa assíncrona, sem os embrulhos de
+     * {@link CompletionException} e {@link UncheckedIOException}.
+     *
+     * @param erro O erro recebido do {@link java.util.concurrent.CompletableFuture}.
+     * @return O erro original.
+     */
+    static Throwable causa(Throwable erro) {
+        while ((erro instanceof CompletionException || erro instanceof UncheckedIOException) && erro.getCause() != null) {
+            erro = erro.getCause();
+        }
+        return erro;
+    }
+}
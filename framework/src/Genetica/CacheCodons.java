@@ -0,0 +1,258 @@
+package Genetica;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * A classe CacheCodons guarda as contagens de códons de um arquivo FASTA ao lado dele, em
+ * "&lt;fasta&gt;.codons", para que uma nova análise do mesmo arquivo não o percorra de novo.
+ *
+ * <p>A entrada registra o tamanho e a data de modificação do arquivo contado, o SHA-256 do conteúdo
+ * contado e o estado completo da contagem no fim do arquivo (as 64 contagens, o códon em formação
+ * e se a leitura estava dentro de um cabeçalho). Com isso:</p>
+ * <ul>
+ *   <li>arquivo com o mesmo tamanho e data: as contagens são devolvidas sem ler o FASTA. Uma
+ *       edição que preserve tamanho e data ({@code cp -p}, {@code touch -r}) só é percebida com
+ *       {@link #contar(String, boolean)} conferindo o conteúdo;</li>
+ *   <li>arquivo que só cresceu (montagem estendida, registros acrescentados): o conteúdo anterior é
+ *       lido apenas para conferir o hash e, se não mudou, só o trecho novo é contado e somado às
+ *       contagens guardadas;</li>
+ *   <li>qualquer outro caso: o arquivo é contado do início e a entrada é substituída.</li>
+ * </ul>
+ *
+ * <p>Antes do hash são comparados os últimos {@value #JANELA} bytes do conteúdo anterior, o que
+ * descarta sem ler o arquivo inteiro duas vezes a maioria dos arquivos reescritos.</p>
+ * @author rezende
+ */
+public class CacheCodons {
+
+    /** Extensão do arquivo de cache, acrescentada ao nome do FASTA. */
+    public static final String EXTENSAO = ".codons";
+    /** Bytes do final do conteúdo conferidos antes de contar só o trecho acrescentado. */
+    public static final int JANELA = 1 << 16;
+
+    private static final int MAGICO = 0x43444E32; // "CDN2"
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    private static final int TAMANHO_HASH = 32;
+
+    private CacheCodons() {
+    }
+
+    /**
+     * Retorna as contagens de códons do arquivo, usando e atualizando o cache ao lado dele.
+     * As contagens são as mesmas de {@link ContadorCodons#contarArquivo(String, boolean)} com o
+     * cabeçalho exigido.
+     *
+     * @param fastaFile O nome do arquivo FASTA.
+     * @return O contador com os códons do arquivo.
+     * @throws IOException Se ocorrer um erro na leitura ou o arquivo não começar com um cabeçalho.
+     */
+    public static ContadorCodons contar(String fastaFile) throws IOException {
+        return contar(fastaFile, false);
+    }
+
+    /**
+     * Como {@link #contar(String)}, podendo conferir o hash do conteúdo mesmo quando o tamanho e
+     * a data do arquivo não mudaram.
+     *
+     * @param fastaFile O nome do arquivo FASTA.
+     * @param conferir true para ler o arquivo e conferir o hash antes de usar as contagens guardadas.
+     * @return O contador com os códons do arquivo.
+     * @throws IOException Se ocorrer um erro na leitura ou o arquivo não começar com um cabeçalho.
+     */
+    public static ContadorCodons contar(String fastaFile, boolean conferir) throws IOException {
+        Path fasta = Paths.get(fastaFile);
+        Path arquivo = Paths.get(nomeDoCache(fastaFile));
+        // Tamanho e data são lidos antes do conteúdo: se o arquivo mudar durante a leitura, a
+        // próxima chamada vê uma data diferente e confere de novo
+        long tamanho = Files.size(fasta);
+        long modificado = Files.getLastModifiedTime(fasta).toMillis();
+
+        Estado estado = ler(arquivo);
+        if (!conferir && estado != null && estado.tamanho == tamanho && estado.modificado == modificado) {
+            return estado.contador;
+        }
+        boolean inalterado;
+        try (FileChannel canal = FileChannel.open(fasta, StandardOpenOption.READ)) {
+            MessageDigest digest = Arquivos.sha256();
+            if (estado == null || tamanho < estado.tamanho
+                    || !Arrays.equals(estado.janela, hashJanela(canal, estado.tamanho))
+                    || !Arrays.equals(estado.hash, hashPrefixo(canal, fastaFile, estado.tamanho, digest))) {
+                estado = new Estado();
+                digest.reset();
+            }
+            inalterado = estado.tamanho == tamanho && estado.modificado == modificado;
+            continuar(canal, fastaFile, estado, tamanho, digest);
+            estado.modificado = modificado;
+        }
+        if (!inalterado) {
+            try {
+                salvar(arquivo, estado);
+            } catch (IOException e) {
+                System.out.println("Não foi possível salvar as contagens " + arquivo + ": " + e.getMessage());
+            }
+        }
+        return estado.contador;
+    }
+
+    /**
+     * Retorna o nome do arquivo de cache de um FASTA.
+     *
+     * @param fastaFile O nome do arquivo FASTA.
+     * @return O nome do arquivo ".codons".
+     */
+    public static String nomeDoCache(String fastaFile) {
+        return fastaFile + EXTENSAO;
+    }
+
+    /**
+     * O estado da contagem no fim do trecho já lido.
+     */
+    private static final class Estado {
+        long tamanho;
+        long modificado;
+        byte[] hash = new byte[TAMANHO_HASH];
+        byte[] janela;
+        boolean inicioLinha = true;
+        boolean cabecalho;
+        ContadorCodons contador = new ContadorCodons();
+    }
+
+    /**
+     * Conta o trecho [estado.tamanho, tamanho) a partir do estado salvo. O digest já deve conter o
+     * conteúdo anterior, e ao final o hash do estado passa a ser o do arquivo inteiro.
+     */
+    private static void continuar(FileChannel canal, String fastaFile, Estado estado, long tamanho,
+            MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+        byte[] bytes = buffer.array();
+        long posicao = estado.tamanho;
+        long basesAntes = estado.contador.total();
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.CODONS, Metricas.BASES)) {
+            while (posicao < tamanho) {
+                buffer.clear();
+                buffer.limit((int) Math.min(bytes.length, tamanho - posicao));
+                int lidos = canal.read(buffer, posicao);
+                if (lidos < 0) {
+                    throw new EOFException("O arquivo " + fastaFile + " diminuiu durante a leitura");
+                }
+                if (posicao == 0 && lidos > 0 && bytes[0] != '>') {
+                    throw new IOException("Arquivo FASTA inválido: " + fastaFile);
+                }
+                digest.update(bytes, 0, lidos);
+                for (int i = 0; i < lidos; i++) {
+                    int b = bytes[i];
+                    if (b == '\n' || b == '\r') {
+                        estado.inicioLinha = true;
+                        estado.cabecalho = false;
+                        continue;
+                    }
+                    if (estado.inicioLinha && b == '>') {
+                        estado.cabecalho = true;
+                    }
+                    estado.inicioLinha = false;
+                    if (!estado.cabecalho && !SequenciaCompacta.ehEspaco(b)) {
+                        estado.contador.adicionar(b);
+                    }
+                }
+                posicao += lidos;
+            }
+            medicao.unidades((estado.contador.total() - basesAntes) * 3).concluir();
+        }
+        estado.hash = digest.digest();
+        estado.tamanho = tamanho;
+        estado.janela = hashJanela(canal, tamanho);
+    }
+
+    /**
+     * Passa os primeiros bytes do arquivo, até fim, pelo digest e retorna o hash deles, deixando o
+     * digest pronto para continuar com o restante.
+     */
+    private static byte[] hashPrefixo(FileChannel canal, String fastaFile, long fim, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+        for (long posicao = 0; posicao < fim; ) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), fim - posicao));
+            int lidos = canal.read(buffer, posicao);
+            if (lidos < 0) {
+                throw new EOFException("O arquivo " + fastaFile + " diminuiu durante a leitura");
+            }
+            digest.update(buffer.array(), 0, lidos);
+            posicao += lidos;
+        }
+        try {
+            return ((MessageDigest) digest.clone()).digest();
+        } catch (CloneNotSupportedException e) {
+            // A implementação de SHA-256 da JVM pode ser clonada
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Calcula o SHA-256 dos últimos {@link #JANELA} bytes antes de fim.
+     */
+    private static byte[] hashJanela(FileChannel canal, long fim) throws IOException {
+        MessageDigest digest = Arquivos.sha256();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(JANELA, fim));
+        long posicao = fim - buffer.capacity();
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicao + buffer.position()) < 0) {
+                break;
+            }
+        }
+        digest.update(buffer.array(), 0, buffer.position());
+        return digest.digest();
+    }
+
+    private static Estado ler(Path arquivo) {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IOException("Arquivo de contagens inválido");
+            }
+            Estado estado = new Estado();
+            estado.tamanho = entrada.readLong();
+            estado.modificado = entrada.readLong();
+            entrada.readFully(estado.hash);
+            estado.janela = new byte[TAMANHO_HASH];
+            entrada.readFully(estado.janela);
+            estado.inicioLinha = entrada.readBoolean();
+            estado.cabecalho = entrada.readBoolean();
+            estado.contador = ContadorCodons.lerEstado(entrada);
+            return estado;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.out.println("Contagens " + arquivo + " inválidas, recalculando: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void salvar(Path arquivo, Estado estado) throws IOException {
+        Arquivos.gravar(arquivo, destino -> {
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(destino));
+            saida.writeInt(MAGICO);
+            saida.writeLong(estado.tamanho);
+            saida.writeLong(estado.modificado);
+            saida.write(estado.hash);
+            saida.write(estado.janela);
+            saida.writeBoolean(estado.inicioLinha);
+            saida.writeBoolean(estado.cabecalho);
+            estado.contador.salvarEstado(saida);
+            saida.flush();
+        });
+    }
+
+}
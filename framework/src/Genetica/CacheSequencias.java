@@ -0,0 +1,468 @@
+package Genetica;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A classe CacheSequencias guarda em um diretório local as sequências baixadas do NCBI, para que a
+ * mesma consulta não seja baixada de novo.
+ *
+ * <p>Cada entrada é endereçada pelo SHA-256 de "banco|consulta|acesso" e ocupa três arquivos:
+ * "chave.fasta" com os dados, "chave.meta" com os metadados (banco, consulta, acesso com versão,
+ * momento do download, tamanho e SHA-256 do conteúdo) e "chave.lock". As entradas expiram depois
+ * do TTL configurado, e quando o diretório passa da cota de disco as menos usadas recentemente são
+ * removidas primeiro; o horário de modificação do arquivo de metadados marca o último acesso. A cada
+ * acesso o SHA-256 dos dados é conferido com o dos metadados, e uma entrada que não confere é
+ * baixada de novo.</p>
+ *
+ * <p>O download de uma entrada acontece com o arquivo de lock bloqueado ({@link FileChannel#lock()}),
+ * então processos diferentes na mesma máquina nunca baixam o mesmo registro duas vezes: quem chega
+ * depois espera o lock e encontra a entrada pronta. Dentro da JVM um {@link ReentrantLock} por chave
+ * faz o mesmo papel, já que o lock de arquivo não pode ser obtido duas vezes pelo mesmo processo.
+ * Quando uma entrada é removida, os três arquivos e o lock da JVM são descartados.</p>
+ * @author rezende
+ */
+public class CacheSequencias {
+
+    /** Diretório usado pelo cache padrão. */
+    public static final String DIRETORIO_PADRAO = ".genetica_cache";
+    /** Cota de disco do cache padrão, em bytes. */
+    public static final long COTA_PADRAO = 2L << 30;
+    /** Validade das entradas do cache padrão. */
+    public static final Duration TTL_PADRAO = Duration.ofDays(30);
+
+    private static final String EXTENSAO_DADOS = ".fasta";
+    private static final String EXTENSAO_META = ".meta";
+    private static final String EXTENSAO_LOCK = ".lock";
+
+    private static CacheSequencias padrao;
+
+    /**
+     * Origem dos dados de uma entrada que ainda não está no cache.
+     */
+    public interface Fonte {
+        /**
+         * Grava o conteúdo da entrada no arquivo informado.
+         *
+         * @param destino O arquivo temporário que receberá os dados.
+         * @return O número de bytes gravados, ou 0 se não houver conteúdo.
+         * @throws IOException Se o download falhar.
+         * @throws InterruptedException Se a thread for interrompida.
+         */
+        long baixar(Path destino) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Uso dos dados de uma entrada enquanto ela está bloqueada, sem risco de ser removida.
+     */
+    public interface Leitura {
+        /**
+         * Lê o arquivo de dados da entrada.
+         *
+         * @param dados O arquivo de dados no cache.
+         * @throws IOException Se a leitura falhar.
+         */
+        void ler(Path dados) throws IOException;
+    }
+
+    private final Path diretorio;
+    private final long cota;
+    private final Duration ttl;
+    private final ConcurrentHashMap<String, Trava> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Cria um cache no diretório informado, criando o diretório se necessário.
+     *
+     * @param diretorio O diretório das entradas.
+     * @param cota O tamanho máximo, em bytes, da soma dos arquivos de dados.
+     * @param ttl A validade de cada entrada a partir do download.
+     * @throws IOException Se o diretório não puder ser criado.
+     */
+    public CacheSequencias(Path diretorio, long cota, Duration ttl) throws IOException {
+        if (cota <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cota e TTL devem ser positivos: " + cota + ", " + ttl);
+        }
+        this.diretorio = Files.createDirectories(diretorio);
+        this.cota = cota;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Retorna o cache compartilhado, em {@link #DIRETORIO_PADRAO} com a cota e o TTL padrão.
+     *
+     * @return O cache padrão.
+     * @throws IOException Se o diretório não puder ser criado.
+     */
+    public static synchronized CacheSequencias padrao() throws IOException {
+        if (padrao == null) {
+            padrao = new CacheSequencias(Paths.get(DIRETORIO_PADRAO), COTA_PADRAO, TTL_PADRAO);
+        }
+        return padrao;
+    }
+
+    /**
+     * Calcula a chave de uma entrada.
+     *
+     * @param banco O banco do NCBI, por exemplo "nucleotide".
+     * @param consulta A consulta, por exemplo o nome científico.
+     * @param acesso O número de acesso, ou null se a entrada for identificada só pela consulta.
+     * @return O SHA-256 de "banco|consulta|acesso" em hexadecimal.
+     */
+    public static String chave(String banco, String consulta, String acesso) {
+        String texto = banco + "|" + consulta + "|" + (acesso == null ? "" : acesso);
+        return Arquivos.hexadecimal(Arquivos.sha256().digest(texto.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Retorna o arquivo de dados da entrada, baixando-o com a fonte se ele não estiver no cache ou
+     * tiver expirado. Depois de um download, entradas antigas são removidas até a cota ser respeitada.
+     * O arquivo retornado pode ser removido por outra thread ou processo a qualquer momento; para
+     * copiá-lo ou lê-lo com segurança use {@link #obter(String, String, String, Fonte, Leitura)}.
+     *
+     * @param banco O banco do NCBI.
+     * @param consulta A consulta.
+     * @param acesso O número de acesso, ou null.
+     * @param fonte A origem dos dados, chamada apenas se a entrada precisar ser baixada.
+     * @return O arquivo de dados no cache, ou null se a fonte não retornou conteúdo.
+     * @throws IOException Se o download ou a escrita falharem.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    public Path obter(String banco, String consulta, String acesso, Fonte fonte) throws IOException, InterruptedException {
+        if (!obter(banco, consulta, acesso, fonte, null)) {
+            return null;
+        }
+        return diretorio.resolve(chave(banco, consulta, acesso) + EXTENSAO_DADOS);
+    }
+
+    /**
+     * Igual a {@link #obter(String, String, String, Fonte)}, mas entrega o arquivo de dados à leitura
+     * ainda com a entrada bloqueada, de modo que ele não pode ser removido durante a leitura.
+     *
+     * @param banco O banco do NCBI.
+     * @param consulta A consulta.
+     * @param acesso O número de acesso, ou null.
+     * @param fonte A origem dos dados, chamada apenas se a entrada precisar ser baixada.
+     * @param leitura O uso dos dados, ou null.
+     * @return true se a entrada existe, ou false se a fonte não retornou conteúdo.
+     * @throws IOException Se o download, a escrita ou a leitura falharem.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    @SuppressWarnings("try")
+    public boolean obter(String banco, String consulta, String acesso, Fonte fonte, Leitura leitura)
+            throws IOException, InterruptedException {
+        String chave = chave(banco, consulta, acesso);
+        Path dados = diretorio.resolve(chave + EXTENSAO_DADOS);
+        Path meta = diretorio.resolve(chave + EXTENSAO_META);
+        Trava lock = travar(chave);
+        try (FileChannel canal = bloquear(chave, true)) {
+            Properties propriedades = lerMeta(meta);
+            if (valida(propriedades, dados)) {
+                Files.setLastModifiedTime(meta, FileTime.fromMillis(System.currentTimeMillis()));
+                if (leitura != null) {
+                    leitura.ler(dados);
+                }
+                return true;
+            }
+            Path temporario = Arquivos.temporario(dados);
+            try {
+                long bytes = fonte.baixar(temporario);
+                if (bytes == 0 || Files.size(temporario) == 0) {
+                    return false;
+                }
+                propriedades = new Properties();
+                propriedades.setProperty("banco", banco);
+                propriedades.setProperty("consulta", consulta);
+                if (acesso != null) {
+                    propriedades.setProperty("acesso", acesso);
+                }
+                String versao = versao(temporario);
+                if (versao != null) {
+                    propriedades.setProperty("versao", versao);
+                }
+                propriedades.setProperty("obtidoEm", Long.toString(System.currentTimeMillis()));
+                propriedades.setProperty("bytes", Long.toString(Files.size(temporario)));
+                propriedades.setProperty("sha256", sha256(temporario));
+                Arquivos.mover(temporario, dados);
+                escreverMeta(meta, propriedades);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+            if (leitura != null) {
+                leitura.ler(dados);
+            }
+        } finally {
+            soltar(chave, lock);
+        }
+        evictar(chave);
+        return true;
+    }
+
+    /**
+     * Retorna os metadados de uma entrada, sem baixá-la.
+     *
+     * @param banco O banco do NCBI.
+     * @param consulta A consulta.
+     * @param acesso O número de acesso, ou null.
+     * @return Os metadados, ou null se a entrada não estiver no cache.
+     * @throws IOException Se o arquivo de metadados não puder ser lido.
+     */
+    public Properties metadados(String banco, String consulta, String acesso) throws IOException {
+        return lerMeta(diretorio.resolve(chave(banco, consulta, acesso) + EXTENSAO_META));
+    }
+
+    /**
+     * Remove as entradas expiradas e, enquanto a soma dos dados passar da cota, as entradas
+     * acessadas há mais tempo. Entradas com o lock ocupado por outra thread ou processo são mantidas.
+     *
+     * @return O número de entradas removidas.
+     * @throws IOException Se o diretório não puder ser listado.
+     */
+    public int evictar() throws IOException {
+        return evictar(null);
+    }
+
+    /**
+     * Igual a {@link #evictar()}, mas nunca remove a entrada recém-obtida.
+     */
+    private int evictar(String preservar) throws IOException {
+        List<Path> metas = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, "*" + EXTENSAO_META)) {
+            arquivos.forEach(metas::add);
+        }
+        List<Entrada> entradas = new ArrayList<>();
+        long total = 0;
+        for (Path meta : metas) {
+            try {
+                Properties propriedades = lerMeta(meta);
+                long bytes = propriedades == null ? 0 : Long.parseLong(propriedades.getProperty("bytes", "0"));
+                long obtidoEm = propriedades == null ? 0 : Long.parseLong(propriedades.getProperty("obtidoEm", "0"));
+                entradas.add(new Entrada(meta, bytes, obtidoEm, Files.getLastModifiedTime(meta).toMillis()));
+                total += bytes;
+            } catch (NoSuchFileException | NumberFormatException e) {
+                // Entrada removida por outro processo ou metadados corrompidos: tratada como vazia
+            }
+        }
+        entradas.sort(Comparator.comparingLong(e -> e.ultimoAcesso));
+        long limite = System.currentTimeMillis() - ttl.toMillis();
+        int removidas = 0;
+        for (Entrada entrada : entradas) {
+            if (total <= cota && entrada.obtidoEm >= limite
+                    || entrada.meta.getFileName().toString().equals(preservar + EXTENSAO_META)) {
+                continue;
+            }
+            if (remover(entrada.meta)) {
+                total -= entrada.bytes;
+                removidas++;
+            }
+        }
+        return removidas;
+    }
+
+    /**
+     * @return O diretório das entradas.
+     */
+    public Path diretorio() {
+        return diretorio;
+    }
+
+    private boolean remover(Path meta) throws IOException {
+        String nome = meta.getFileName().toString();
+        String chave = nome.substring(0, nome.length() - EXTENSAO_META.length());
+        Trava lock = locks.compute(chave, (c, atual) -> (atual == null ? new Trava() : atual).entrar());
+        if (!lock.tryLock()) {
+            sair(chave, lock);
+            return false;
+        }
+        try (FileChannel canal = bloquear(chave, false)) {
+            if (canal == null) {
+                return false;
+            }
+            // Os metadados saem primeiro: sem eles a entrada já é considerada ausente
+            Files.deleteIfExists(meta);
+            Files.deleteIfExists(diretorio.resolve(chave + EXTENSAO_DADOS));
+            // O lock sai por último, ainda bloqueado; quem esperava por ele percebe e abre um novo
+            Files.deleteIfExists(diretorio.resolve(chave + EXTENSAO_LOCK));
+            return true;
+        } finally {
+            soltar(chave, lock);
+        }
+    }
+
+    /**
+     * Obtém o {@link Trava} da chave dentro da JVM, registrando o uso para que a trava seja
+     * descartada do mapa quando ninguém mais a usar.
+     */
+    private Trava travar(String chave) throws InterruptedException {
+        Trava lock = locks.compute(chave, (c, atual) -> (atual == null ? new Trava() : atual).entrar());
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            sair(chave, lock);
+            throw e;
+        }
+        return lock;
+    }
+
+    private void soltar(String chave, Trava lock) {
+        lock.unlock();
+        sair(chave, lock);
+    }
+
+    private void sair(String chave, Trava lock) {
+        locks.computeIfPresent(chave, (c, atual) -> atual == lock && atual.sair() ? null : atual);
+    }
+
+    /**
+     * Abre e bloqueia o arquivo de lock da entrada. Como {@link #remover} apaga o arquivo com ele
+     * bloqueado, quem conseguir o lock confere se o arquivo ainda é o mesmo que está no diretório e,
+     * se não for, tenta de novo com o arquivo atual.
+     *
+     * @param esperar Se true, espera o lock; se false, desiste quando ele estiver ocupado.
+     * @return O canal com o lock obtido (fechá-lo libera o lock), ou null se ele estava ocupado.
+     */
+    private FileChannel bloquear(String chave, boolean esperar) throws IOException {
+        Path arquivo = diretorio.resolve(chave + EXTENSAO_LOCK);
+        while (true) {
+            FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                Object aberto = identidade(arquivo);
+                FileLock arquivoLock = esperar ? canal.lock() : canal.tryLock();
+                if (arquivoLock == null) {
+                    canal.close();
+                    return null;
+                }
+                if (aberto != null && aberto.equals(identidade(arquivo))) {
+                    return canal;
+                }
+            } catch (IOException | RuntimeException e) {
+                canal.close();
+                throw e;
+            }
+            canal.close();
+        }
+    }
+
+    private static Object identidade(Path arquivo) throws IOException {
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+            return atributos.fileKey() != null ? atributos.fileKey() : atributos.creationTime();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private boolean valida(Properties propriedades, Path dados) throws IOException {
+        if (propriedades == null || !Files.exists(dados)) {
+            return false;
+        }
+        try {
+            long obtidoEm = Long.parseLong(propriedades.getProperty("obtidoEm", "0"));
+            long bytes = Long.parseLong(propriedades.getProperty("bytes", "-1"));
+            if (System.currentTimeMillis() - obtidoEm >= ttl.toMillis() || Files.size(dados) != bytes) {
+                return false;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        // O tamanho certo não garante o conteúdo: um arquivo corrompido é baixado de novo
+        if (!sha256(dados).equals(propriedades.getProperty("sha256"))) {
+            System.out.println("Entrada " + dados.getFileName() + " do cache corrompida, baixando de novo.");
+            return false;
+        }
+        return true;
+    }
+
+    private static Properties lerMeta(Path meta) throws IOException {
+        if (!Files.exists(meta)) {
+            return null;
+        }
+        Properties propriedades = new Properties();
+        try (InputStream entrada = Files.newInputStream(meta)) {
+            propriedades.load(entrada);
+        }
+        return propriedades;
+    }
+
+    private static void escreverMeta(Path meta, Properties propriedades) throws IOException {
+        Arquivos.gravar(meta, saida -> propriedades.store(saida, "Genetica.CacheSequencias"));
+    }
+
+    /**
+     * Extrai o número de acesso com versão (por exemplo "NC_012920.1") do primeiro cabeçalho FASTA.
+     */
+    private static String versao(Path fasta) throws IOException {
+        try (BufferedReader leitor = Files.newBufferedReader(fasta, StandardCharsets.ISO_8859_1)) {
+            String linha = leitor.readLine();
+            if (linha == null || !linha.startsWith(">") || linha.length() == 1) {
+                return null;
+            }
+            String[] partes = linha.substring(1).trim().split("\\s+", 2);
+            return partes[0].isEmpty() ? null : partes[0];
+        }
+    }
+
+    private static String sha256(Path arquivo) throws IOException {
+        MessageDigest digest = Arquivos.sha256();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            int lidos;
+            while ((lidos = entrada.read(buffer)) > 0) {
+                digest.update(buffer, 0, lidos);
+            }
+        }
+        return Arquivos.hexadecimal(digest.digest());
+    }
+
+    /**
+     * Lock de uma chave dentro da JVM, com o número de threads que o usam ou esperam por ele. O
+     * contador só muda dentro de {@link ConcurrentHashMap#compute}, que é atômico por chave.
+     */
+    private static final class Trava extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        private int usuarios;
+
+        Trava entrar() {
+            usuarios++;
+            return this;
+        }
+
+        boolean sair() {
+            return --usuarios == 0;
+        }
+    }
+
+    private static final class Entrada {
+        final Path meta;
+        final long bytes;
+        final long obtidoEm;
+        final long ultimoAcesso;
+
+        Entrada(Path meta, long bytes, long obtidoEm, long ultimoAcesso) {
+            this.meta = meta;
+            this.bytes = bytes;
+            this.obtidoEm = obtidoEm;
+            this.ultimoAcesso = ultimoAcesso;
+        }
+    }
+}
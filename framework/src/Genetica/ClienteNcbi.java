@@ -0,0 +1,418 @@
+package Genetica;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A classe ClienteNcbi concentra o acesso HTTP às E-utilities do NCBI.
+ *
+ * <p>Um único {@link HttpClient} é compartilhado por todas as requisições, reaproveitando as
+ * conexões (keep-alive) em vez de abrir uma conexão nova a cada chamada, e todas as requisições
+ * passam pelo mesmo {@link LimitadorTaxa}: 3 por segundo sem chave de API e 10 por segundo com
+ * ela, como exige o NCBI. A chave é lida da variável de ambiente NCBI_API_KEY no cliente padrão.</p>
+ *
+ * <p>Erros transitórios (falhas de rede, tempo esgotado, 429 e 5xx) são repetidos conforme a
+ * {@link PoliticaRetentativa}, e um {@link DisjuntorCircuito} compartilhado suspende todas as
+ * requisições do cliente quando as falhas se acumulam, em vez de cada thread do lote insistir.</p>
+ * @author rezende
+ */
+public class ClienteNcbi {
+
+    /** Endereço base das E-utilities do NCBI. */
+    public static final String URL_BASE = "https://eutils.ncbi.nlm.nih.gov/entrez/eutils/";
+    /** Requisições por segundo permitidas sem chave de API. */
+    public static final double TAXA_SEM_CHAVE = 3;
+    /** Requisições por segundo permitidas com chave de API. */
+    public static final double TAXA_COM_CHAVE = 10;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClienteNcbi.class);
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    // Bytes do corpo de uma resposta de erro mostrados no log
+    private static final int LIMITE_ERRO = 4096;
+    // Fecha os corpos de download que param de receber bytes
+    private static final ScheduledExecutorService VIGIA = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "vigia-downloads");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static ClienteNcbi padrao;
+
+    private final HttpClient http;
+    private final LimitadorTaxa limitador;
+    private final PoliticaRetentativa politica;
+    private final DisjuntorCircuito disjuntor;
+    private final String urlBase;
+    private final String chaveApi;
+
+    /**
+     * Cria um cliente com o endereço base e a chave de API informados.
+     *
+     * @param urlBase O endereço base das E-utilities, terminado em "/".
+     * @param chaveApi A chave de API do NCBI, ou null para usar o limite sem chave.
+     */
+    public ClienteNcbi(String urlBase, String chaveApi) {
+        this(urlBase, chaveApi, new LimitadorTaxa(chaveApi == null ? TAXA_SEM_CHAVE : TAXA_COM_CHAVE));
+    }
+
+    /**
+     * Cria um cliente com um limitador de taxa específico.
+     *
+     * @param urlBase O endereço base das E-utilities, terminado em "/".
+     * @param chaveApi A chave de API do NCBI, ou null.
+     * @param limitador O limitador compartilhado pelas requisições deste cliente.
+     */
+    public ClienteNcbi(String urlBase, String chaveApi, LimitadorTaxa limitador) {
+        this(urlBase, chaveApi, limitador, PoliticaRetentativa.padrao(), new DisjuntorCircuito(5, Duration.ofSeconds(30)));
+    }
+
+    /**
+     * Cria um cliente com limitador de taxa, política de retentativas e disjuntor específicos.
+     *
+     * @param urlBase O endereço base das E-utilities, terminado em "/".
+     * @param chaveApi A chave de API do NCBI, ou null.
+     * @param limitador O limitador compartilhado pelas requisições deste cliente.
+     * @param politica As tentativas, esperas e tempos limite das requisições.
+     * @param disjuntor O disjuntor compartilhado pelas requisições deste cliente.
+     */
+    public ClienteNcbi(String urlBase, String chaveApi, LimitadorTaxa limitador,
+            PoliticaRetentativa politica, DisjuntorCircuito disjuntor) {
+        this.urlBase = urlBase.endsWith("/") ? urlBase : urlBase + "/";
+        this.chaveApi = chaveApi == null || chaveApi.isBlank() ? null : chaveApi;
+        this.limitador = limitador;
+        this.politica = politica;
+        this.disjuntor = disjuntor;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(politica.timeoutConexao())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Retorna o cliente compartilhado, criado na primeira chamada com a chave de NCBI_API_KEY. O
+     * endereço base pode ser trocado pela variável NCBI_EUTILS_URL, por exemplo para apontar para
+     * um {@link ServidorEutilsSimulado} ou um espelho.
+     *
+     * @return O cliente padrão.
+     */
+    public static synchronized ClienteNcbi padrao() {
+        if (padrao == null) {
+            String urlBase = System.getenv("NCBI_EUTILS_URL");
+            padrao = new ClienteNcbi(urlBase == null || urlBase.isBlank() ? URL_BASE : urlBase, System.getenv("NCBI_API_KEY"));
+        }
+        return padrao;
+    }
+
+    /**
+     * Monta a URL de uma E-utility, acrescentando a chave de API quando houver.
+     *
+     * @param utilidade O nome da utilidade, por exemplo "esearch.fcgi".
+     * @param parametros Os parâmetros já codificados, sem o "?".
+     * @return A URL completa.
+     */
+    public String url(String utilidade, String parametros) {
+        String url = urlBase + utilidade + "?" + parametros;
+        return chaveApi == null ? url : url + "&api_key=" + chaveApi;
+    }
+
+    /**
+     * Envia uma requisição GET, respeitando o limite de taxa, e retorna o corpo da resposta.
+     *
+     * @param url A URL da requisição.
+     * @return O corpo da resposta, ou null se o código HTTP não for 200 depois das retentativas.
+     * @throws IOException Se ocorrer um erro de comunicação.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    public String get(String url) throws IOException, InterruptedException {
+        HttpResponse<String> resposta = enviar(url, HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            LOG.warn("Erro HTTP {} em {}", resposta.statusCode(), url);
+            LOG.debug("Resposta de erro: {}", resposta.body());
+            return null;
+        }
+        return resposta.body();
+    }
+
+    /**
+     * Baixa o corpo de uma resposta direto para um arquivo. A compressão gzip é negociada com o
+     * servidor e descompactada durante a cópia; os bytes vão para um arquivo temporário no mesmo
+     * diretório, que só é renomeado para o destino (atomicamente, quando possível) se o download
+     * terminar e não estiver vazio. A memória usada não depende do tamanho da resposta. Se a conexão
+     * cair no meio da cópia, ou ficar mais que {@link PoliticaRetentativa#timeoutLeitura()} sem
+     * enviar nenhum byte, o download recomeça do início. As tentativas de obter a resposta e as de
+     * copiar o corpo saem do mesmo limite da política de retentativas.
+     *
+     * @param url A URL da requisição.
+     * @param destino O arquivo de destino.
+     * @return O número de bytes gravados, ou 0 se a resposta estiver vazia ou não for 200.
+     * @throws IOException Se ocorrer um erro de comunicação ou de escrita.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    public long baixarArquivo(String url, Path destino) throws IOException, InterruptedException {
+        Tentativas tentativas = new Tentativas();
+        while (true) {
+            HttpResponse<InputStream> resposta = enviar(url, HttpResponse.BodyHandlers.ofInputStream(), true, tentativas);
+            if (resposta.statusCode() != 200) {
+                try (InputStream corpo = resposta.body()) {
+                    byte[] erro = corpo == null ? new byte[0] : corpo.readNBytes(LIMITE_ERRO);
+                    LOG.warn("Erro HTTP {} em {}", resposta.statusCode(), url);
+                    LOG.debug("Resposta de erro: {}", new String(erro, StandardCharsets.UTF_8));
+                }
+                return 0;
+            }
+            try {
+                return copiar(resposta, destino);
+            } catch (IOException e) {
+                disjuntor.falha();
+                if (tentativas.feitas >= politica.tentativas()) {
+                    throw e;
+                }
+                esperar(politica.espera(tentativas.feitas, null), url, e.toString());
+            }
+        }
+    }
+
+    private long copiar(HttpResponse<InputStream> resposta, Path destino) throws IOException {
+        Path temporario = Arquivos.temporario(destino);
+        try {
+            long bytes;
+            try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.DOWNLOAD, Metricas.BYTES)) {
+                try (InputStream vigiado = new CorpoVigiado(resposta.body(), politica.timeoutLeitura());
+                        InputStream corpo = descompactar(resposta, vigiado);
+                        OutputStream saida = Files.newOutputStream(temporario)) {
+                    bytes = corpo.transferTo(saida);
+                }
+                medicao.unidades(bytes).concluir();
+            }
+            if (bytes == 0) {
+                return 0;
+            }
+            Arquivos.mover(temporario, destino.toAbsolutePath());
+            return bytes;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private static InputStream descompactar(HttpResponse<InputStream> resposta, InputStream corpo) throws IOException {
+        String codificacao = resposta.headers().firstValue("Content-Encoding").orElse("");
+        if (codificacao.equalsIgnoreCase("gzip")) {
+            return new GZIPInputStream(corpo, TAMANHO_BUFFER);
+        }
+        return corpo;
+    }
+
+    /**
+     * Corpo de uma resposta que é fechado se ficar tempo demais sem receber bytes. O tempo limite
+     * do {@link HttpRequest} só cobre a chegada dos cabeçalhos; sem esta vigia, um servidor que para
+     * no meio do corpo prenderia a thread do download para sempre. Fechar o corpo cancela a
+     * requisição e acorda a leitura bloqueada, que falha com {@link HttpTimeoutException}.
+     */
+    private static final class CorpoVigiado extends FilterInputStream {
+        private final long limiteNanos;
+        private final ScheduledFuture<?> vigia;
+        private volatile long ultimaLeitura = System.nanoTime();
+        private volatile boolean expirado;
+
+        CorpoVigiado(InputStream corpo, Duration limite) {
+            super(corpo);
+            this.limiteNanos = limite.toNanos();
+            long periodo = Math.max(1, limite.toMillis() / 4);
+            this.vigia = VIGIA.scheduleWithFixedDelay(this::verificar, periodo, periodo, TimeUnit.MILLISECONDS);
+        }
+
+        private void verificar() {
+            if (System.nanoTime() - ultimaLeitura > limiteNanos) {
+                expirado = true;
+                try {
+                    close();
+                } catch (IOException e) {
+                    LOG.debug("Erro ao fechar um corpo parado: {}", e.toString());
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = super.read();
+                ultimaLeitura = System.nanoTime();
+                return b;
+            } catch (IOException e) {
+                throw traduzir(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int inicio, int tamanho) throws IOException {
+            try {
+                int lidos = super.read(b, inicio, tamanho);
+                ultimaLeitura = System.nanoTime();
+                return lidos;
+            } catch (IOException e) {
+                throw traduzir(e);
+            }
+        }
+
+        private IOException traduzir(IOException e) {
+            if (!expirado) {
+                return e;
+            }
+            HttpTimeoutException tempo = new HttpTimeoutException("Nenhum byte do corpo recebido em "
+                    + TimeUnit.NANOSECONDS.toMillis(limiteNanos) + " ms");
+            tempo.initCause(e);
+            return tempo;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // A vigia pode fechar o corpo antes de o construtor terminar de guardá-la
+            if (vigia != null) {
+                vigia.cancel(false);
+            }
+            super.close();
+        }
+    }
+
+    /**
+     * Envia uma requisição GET, respeitando o limite de taxa, com um tratador de corpo qualquer.
+     *
+     * @param url A URL da requisição.
+     * @param tratador O tratador do corpo da resposta.
+     * @param <T> O tipo do corpo tratado.
+     * @return A resposta HTTP.
+     * @throws IOException Se ocorrer um erro de comunicação.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    public <T> HttpResponse<T> enviar(String url, HttpResponse.BodyHandler<T> tratador) throws IOException, InterruptedException {
+        return enviar(url, tratador, false, new Tentativas());
+    }
+
+    private <T> HttpResponse<T> enviar(String url, HttpResponse.BodyHandler<T> tratador, boolean aceitarGzip,
+            Tentativas tentativas) throws IOException, InterruptedException {
+        HttpRequest.Builder construtor = HttpRequest.newBuilder(URI.create(url))
+                .timeout(politica.timeoutResposta())
+                .GET();
+        if (aceitarGzip) {
+            construtor.header("Accept-Encoding", "gzip");
+        }
+        HttpRequest requisicao = construtor.build();
+        while (true) {
+            int tentativa = ++tentativas.feitas;
+            boolean ultima = tentativa >= politica.tentativas();
+            // O corpo de uma resposta que será repetida é descartado sem passar pelo tratador
+            HttpResponse.BodyHandler<T> descartando = info -> !ultima && politica.retentavel(info.statusCode())
+                    ? HttpResponse.BodySubscribers.replacing(null)
+                    : tratador.apply(info);
+            disjuntor.aguardar();
+            try {
+                limitador.adquirir();
+            } catch (InterruptedException | RuntimeException e) {
+                // A requisição não foi feita: se era a sondagem, outra thread a assume
+                disjuntor.desistir();
+                throw e;
+            }
+            HttpResponse<T> resposta;
+            Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.HTTP, Metricas.BYTES);
+            try {
+                resposta = http.send(requisicao, descartando);
+                // Só há tamanho quando o servidor informa Content-Length; respostas em blocos contam 0
+                medicao.unidades(resposta.headers().firstValueAsLong("Content-Length").orElse(0)).concluir();
+                if (politica.retentavel(resposta.statusCode())) {
+                    medicao.erro();
+                }
+            } catch (IOException e) {
+                // Inclui conexão recusada e tempo de resposta esgotado (HttpTimeoutException)
+                disjuntor.falha();
+                if (ultima) {
+                    throw e;
+                }
+                esperar(politica.espera(tentativa, null), url, e.toString());
+                continue;
+            } catch (InterruptedException | RuntimeException e) {
+                // Uma sondagem interrompida não pode deixar o circuito meio aberto para sempre
+                disjuntor.falha();
+                throw e;
+            } finally {
+                medicao.close();
+            }
+            if (!politica.retentavel(resposta.statusCode())) {
+                disjuntor.sucesso();
+                return resposta;
+            }
+            disjuntor.falha();
+            if (ultima) {
+                return resposta;
+            }
+            esperar(politica.espera(tentativa, resposta.headers().firstValue("Retry-After").orElse(null)),
+                    url, "HTTP " + resposta.statusCode());
+        }
+    }
+
+    /**
+     * Conta as requisições feitas para uma mesma operação, para que as retentativas de
+     * {@link #baixarArquivo} e as de {@link #enviar} dividam um único limite.
+     */
+    private static final class Tentativas {
+        int feitas;
+    }
+
+    private static void esperar(Duration espera, String url, String motivo) throws InterruptedException {
+        LOG.warn("Falha transitória ({}) em {}; nova tentativa em {} ms.", motivo, url, espera.toMillis());
+        Thread.sleep(espera.toMillis());
+    }
+
+    /**
+     * @return O disjuntor compartilhado pelas requisições deste cliente.
+     */
+    public DisjuntorCircuito disjuntor() {
+        return disjuntor;
+    }
+
+    /**
+     * @return A política de retentativas deste cliente.
+     */
+    public PoliticaRetentativa politica() {
+        return politica;
+    }
+
+    /**
+     * @return O limitador de taxa deste cliente.
+     */
+    public LimitadorTaxa limitador() {
+        return limitador;
+    }
+
+    /**
+     * @return O endereço base das E-utilities.
+     */
+    public String urlBase() {
+        return urlBase;
+    }
+
+    /**
+     * @return true se o cliente usa uma chave de API.
+     */
+    public boolean temChaveApi() {
+        return chaveApi != null;
+    }
+}
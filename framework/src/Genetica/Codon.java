@@ -1,10 +1,13 @@
 package Genetica;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 /**
@@ -24,17 +27,7 @@ public class Codon{
     	 if (Fasta.exists()) {
     	 
 	        try {
-	            String sequence = readFastaSequence(fastaFile);
-	            if (sequence == null) {
-	                System.out.println("Erro ao ler o arquivo FASTA.");
-	                return;
-	            }
-	
-	            Map<String, Integer> codonFrequency = calculateCodonFrequency(sequence);
-	            String analysisResult = generateCodonFrequencyAnalysis(codonFrequency, fastaFile);
-	            
-	            String outputFileName = fastaFile.replace(".fasta", "_codon_analysis.txt");
-	            writeAnalysisToFile(analysisResult, outputFileName);
+	            String outputFileName = analisarArquivo(fastaFile);
 	
 	            System.out.println("Análise de códons concluída. Resultado salvo em: " + outputFileName);
 	
@@ -46,6 +39,201 @@ public class Codon{
     	 }
     }
 
+
+    /**
+     * Como {@link #CodonAnalise(String)}, mas propaga os erros em vez de mostrá-los.
+     *
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     * @return O nome do arquivo de saída.
+     * @throws IOException Se ocorrer um erro na leitura ou na escrita dos arquivos.
+     */
+    static String analisarArquivo(String fastaFile) throws IOException {
+        // Contagens guardadas ao lado do arquivo; só o trecho novo é lido se o arquivo cresceu
+        ContadorCodons contador = CacheCodons.contar(fastaFile);
+        String outputFileName = fastaFile.replace(".fasta", "_codon_analysis.txt");
+        String analysisResult = generateCodonFrequencyAnalysis(contador, fastaFile);
+        // O relatório é reaproveitado só se for exatamente o que as contagens atuais produzem
+        if (!mesmoConteudo(analysisResult, outputFileName)) {
+            writeAnalysisToFile(analysisResult, outputFileName);
+        }
+        return outputFileName;
+    }
+
+    private static boolean mesmoConteudo(String content, String fileName) throws IOException {
+        Path arquivo = Paths.get(fileName);
+        if (!Files.isRegularFile(arquivo)) {
+            return false;
+        }
+        // Mesma codificação usada por writeAnalysisToFile
+        return Arrays.equals(Files.readAllBytes(arquivo), content.getBytes(Charset.defaultCharset()));
+    }
+
+    /**
+     * Analisa a frequência de códons em um arquivo FASTA e grava as contagens em um formato para
+     * outros programas (binário, JSON ou CSV) em vez do relatório de texto.
+     *
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     * @param formato O formato da saída.
+     */
+    public static void CodonAnalise(String fastaFile, FormatoCodons.Formato formato) {
+        if (!new File(fastaFile).exists()) {
+            System.out.println("Arquivos fasta não encontrado, Verfique se o nome do arquivo, Lembre de adicionar o .Fasta");
+            return;
+        }
+        try {
+            ContadorCodons contador = CacheCodons.contar(fastaFile);
+            String outputFileName = fastaFile.replace(".fasta", "_codon_analysis" + formato.extensao());
+            FormatoCodons.salvar(contador, fastaFile, formato, Paths.get(outputFileName));
+
+            System.out.println("Análise de códons concluída. Resultado salvo em: " + outputFileName);
+
+        } catch (IOException e) {
+            System.out.println("Erro ao analisar o arquivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Calcula, para cada registro (gene) de um multi-FASTA de sequências codificantes, as contagens
+     * de códons, o RSCU e o CAI, gravando uma linha por registro em CSV (ver {@link UsoCodons}).
+     *
+     * @param fastaFile O nome do arquivo FASTA com um gene por registro.
+     * @param referenciaFasta O arquivo com os genes de referência do CAI, ou null para usar todos
+     *        os genes do próprio arquivo.
+     */
+    public static void CodonAnalisePorGene(String fastaFile, String referenciaFasta) {
+        if (!new File(fastaFile).exists() || (referenciaFasta != null && !new File(referenciaFasta).exists())) {
+            System.out.println("Arquivos fasta não encontrado, Verfique se o nome do arquivo, Lembre de adicionar o .Fasta");
+            return;
+        }
+        try {
+            ContadorCodons referencia = UsoCodons.contarReferencia(referenciaFasta != null ? referenciaFasta : fastaFile);
+            String outputFileName = fastaFile.replace(".fasta", "_codon_usage.csv");
+            long registros = new UsoCodons(referencia).salvarCsv(fastaFile, Paths.get(outputFileName));
+
+            System.out.println("Análise de códons concluída (" + registros + " registros). Resultado salvo em: " + outputFileName);
+
+        } catch (IOException e) {
+            System.out.println("Erro ao analisar o arquivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Analisa a frequência de códons em um arquivo FASTA usando todos os núcleos disponíveis.
+     * O relatório gerado é idêntico ao de {@link #CodonAnalise(String)}.
+     *
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     */
+    public static void CodonAnaliseParalela(String fastaFile) {
+        if (!new File(fastaFile).exists()) {
+            System.out.println("Arquivos fasta não encontrado, Verfique se o nome do arquivo, Lembre de adicionar o .Fasta");
+            return;
+        }
+        try {
+            ContadorCodons contador;
+            try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.CODONS, Metricas.BASES)) {
+                contador = ContadorCodons.contarArquivoParalelo(fastaFile, true);
+                medicao.unidades(bases(contador)).concluir();
+            }
+            String analysisResult = generateCodonFrequencyAnalysis(contador, fastaFile);
+
+            String outputFileName = fastaFile.replace(".fasta", "_codon_analysis.txt");
+            writeAnalysisToFile(analysisResult, outputFileName);
+
+            System.out.println("Análise de códons concluída. Resultado salvo em: " + outputFileName);
+
+        } catch (IOException e) {
+            System.out.println("Erro ao analisar o arquivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Analisa a frequência de códons nos seis quadros de leitura de um arquivo FASTA
+     * (três da fita direta e três do complemento reverso), lendo o arquivo uma única vez.
+     * Os seis relatórios são gravados em um único arquivo.
+     *
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     * @param tabelaId O identificador do código genético do NCBI (1 para o padrão).
+     */
+    public static void CodonAnaliseSeisQuadros(String fastaFile, int tabelaId) {
+        if (!new File(fastaFile).exists()) {
+            System.out.println("Arquivos fasta não encontrado, Verfique se o nome do arquivo, Lembre de adicionar o .Fasta");
+            return;
+        }
+        try {
+            TabelaGenetica tabela = TabelaGenetica.porId(tabelaId);
+            ContadorCodons[] quadros;
+            try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.CODONS, Metricas.BASES)) {
+                quadros = TraducaoSeisQuadros.contarArquivo(fastaFile, true);
+                // Os três quadros diretos juntos cobrem a sequência uma vez
+                medicao.unidades(bases(quadros[0]) + bases(quadros[1]) + bases(quadros[2])).concluir();
+            }
+
+            StringBuilder analysisResult = new StringBuilder();
+            analysisResult.append("Código genético: ").append(tabela.id()).append(" (").append(tabela.nome()).append(")\n\n");
+            for (int q = 0; q < quadros.length; q++) {
+                String titulo = fastaFile + " (quadro " + TraducaoSeisQuadros.QUADROS[q] + ")";
+                analysisResult.append(generateCodonFrequencyAnalysis(quadros[q], titulo, tabela)).append('\n');
+            }
+
+            String outputFileName = fastaFile.replace(".fasta", "_codon_analysis_6quadros.txt");
+            writeAnalysisToFile(analysisResult.toString(), outputFileName);
+
+            System.out.println("Análise de códons concluída. Resultado salvo em: " + outputFileName);
+
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Erro ao analisar o arquivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Analisa a frequência de códons de uma sequência já carregada na memória e grava o mesmo
+     * relatório de {@link #CodonAnalise(String)}, sem ler o arquivo de novo.
+     *
+     * @param sequencia A sequência do arquivo.
+     * @param fastaFile O nome do arquivo FASTA de origem, usado no relatório e no nome da saída.
+     * @return O nome do arquivo de saída.
+     * @throws IOException Se ocorrer um erro na escrita do relatório.
+     */
+    static String CodonAnalise(SequenciaCompacta sequencia, String fastaFile) throws IOException {
+        ContadorCodons contador;
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.CODONS, Metricas.BASES)) {
+            contador = ContadorCodons.contar(sequencia);
+            medicao.unidades(bases(contador)).concluir();
+        }
+        String outputFileName = fastaFile.replace(".fasta", "_codon_analysis.txt");
+        writeAnalysisToFile(generateCodonFrequencyAnalysis(contador, fastaFile), outputFileName);
+        return outputFileName;
+    }
+
+    /**
+     * Analisa a frequência de códons de um único registro de um arquivo FASTA com vários
+     * registros. O registro é localizado pelo índice ".fai", sem percorrer o arquivo inteiro.
+     *
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     * @param recordId O identificador do registro (o cabeçalho até o primeiro espaço).
+     */
+    public static void CodonAnalise(String fastaFile, String recordId) {
+        if (!new File(fastaFile).exists()) {
+            System.out.println("Arquivos fasta não encontrado, Verfique se o nome do arquivo, Lembre de adicionar o .Fasta");
+            return;
+        }
+        try {
+            ContadorCodons contador;
+            try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.CODONS, Metricas.BASES)) {
+                contador = ContadorCodons.contarRegistro(fastaFile, recordId);
+                medicao.unidades(bases(contador)).concluir();
+            }
+            String analysisResult = generateCodonFrequencyAnalysis(contador, fastaFile + ":" + recordId);
+
+            String outputFileName = fastaFile.replace(".fasta", "_" + IndiceFasta.nomeDeArquivo(recordId) + "_codon_analysis.txt");
+            writeAnalysisToFile(analysisResult, outputFileName);
+
+            System.out.println("Análise de códons concluída. Resultado salvo em: " + outputFileName);
+
+        } catch (IOException e) {
+            System.out.println("Erro ao analisar o arquivo: " + e.getMessage());
+        }
+    }
     
     /**
      * Lê a sequência de DNA de um arquivo FASTA.
@@ -55,21 +243,16 @@ public class Codon{
      * @throws IOException Se ocorrer um erro na leitura do arquivo.
      */
     public static String readFastaSequence(String filename) throws IOException {
-        // Implementação do método
         StringBuilder sequence = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            boolean isFirstLine = true;
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    if (!line.startsWith(">")) {
-                        throw new IOException("Arquivo FASTA inválido: " + filename);
-                    }
-                    isFirstLine = false;
-                } else {
-                    sequence.append(line.trim());
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.LEITURA, Metricas.BASES);
+             FastaReader reader = new FastaReader(filename)) {
+            reader.exigirCabecalho();
+            reader.percorrer(bases -> {
+                for (int i = 0; i < bases.limit(); i++) {
+                    sequence.append((char) (bases.get(i) & 0xFF));
                 }
-            }
+            });
+            medicao.unidades(sequence.length()).concluir();
         }
         return sequence.toString().toUpperCase();
     }
@@ -91,6 +274,37 @@ public class Codon{
         return codonFrequency;
     }
 
+    /**
+     * Calcula a frequência de cada códon diretamente sobre uma sequência compacta,
+     * usando um contador primitivo de 64 posições para os códons sem ambiguidade.
+     *
+     * @param sequence A sequência de DNA compactada.
+     * @return Um Map contendo os códons como chaves e suas frequências como valores.
+     */
+    public static Map<String, Integer> calculateCodonFrequency(SequenciaCompacta sequence) {
+        int[] contagem = new int[64];
+        Map<String, Integer> codonFrequency = new HashMap<>();
+        int trecho = 0;
+        for (long i = 0; i < sequence.comprimento() - 2; i += 3) {
+            // Avança na máscara de ambiguidade junto com a leitura
+            while (trecho < sequence.trechosAmbiguos() && sequence.fimTrecho(trecho) <= i) {
+                trecho++;
+            }
+            if (trecho < sequence.trechosAmbiguos() && sequence.inicioTrecho(trecho) < i + 3) {
+                String codon = "" + sequence.charAt(i) + sequence.charAt(i + 1) + sequence.charAt(i + 2);
+                codonFrequency.merge(codon, 1, Integer::sum);
+            } else {
+                contagem[sequence.indiceCodon(i)]++;
+            }
+        }
+        for (int c = 0; c < contagem.length; c++) {
+            if (contagem[c] > 0) {
+                codonFrequency.put(SequenciaCompacta.codonDoIndice(c), contagem[c]);
+            }
+        }
+        return codonFrequency;
+    }
+
     
     /**
      * Gera um relatório de análise da frequência de códons.
@@ -101,7 +315,19 @@ public class Codon{
      */
     
     static String generateCodonFrequencyAnalysis(Map<String, Integer> codonFrequency, String filename) {
-    	  // Implementação do método
+        return generateCodonFrequencyAnalysis(codonFrequency, filename, TabelaGenetica.padrao());
+    }
+
+    /**
+     * Gera um relatório de análise da frequência de códons usando um código genético específico
+     * para a coluna de aminoácidos.
+     *
+     * @param codonFrequency O Map contendo as frequências dos códons.
+     * @param filename O nome do arquivo FASTA analisado.
+     * @param tabela O código genético usado para traduzir os códons.
+     * @return Uma String contendo o relatório de análise.
+     */
+    static String generateCodonFrequencyAnalysis(Map<String, Integer> codonFrequency, String filename, TabelaGenetica tabela) {
         StringBuilder result = new StringBuilder();
         result.append("Análise de frequência de códons para ").append(filename).append(":\n");
         result.append(String.format("%-6s %-10s %-10s%n", "Códon", "Frequência", "Aminoácido"));
@@ -112,69 +338,82 @@ public class Codon{
             .forEach(entry -> {
                 String codon = entry.getKey();
                 int frequency = entry.getValue();
-                String aminoacid = getAminoacid(codon);
+                String aminoacid = getAminoacid(codon, tabela);
                 result.append(String.format("%-6s %-10d %-10s%n", codon, frequency, aminoacid));
             });
 
         return result.toString();
     }
+
+    /**
+     * Gera o relatório de frequência de códons a partir de um contador, informando
+     * ao final quantos códons continham bases ambíguas.
+     *
+     * @param contador O contador com as frequências dos códons.
+     * @param filename O nome do arquivo FASTA analisado.
+     * @return Uma String contendo o relatório de análise.
+     */
+    static String generateCodonFrequencyAnalysis(ContadorCodons contador, String filename) {
+        return generateCodonFrequencyAnalysis(contador, filename, TabelaGenetica.padrao());
+    }
+
+    /**
+     * Gera o relatório de frequência de códons a partir de um contador, usando um código genético
+     * específico para a coluna de aminoácidos.
+     *
+     * @param contador O contador com as frequências dos códons.
+     * @param filename O nome do arquivo FASTA analisado.
+     * @param tabela O código genético usado para traduzir os códons.
+     * @return Uma String contendo o relatório de análise.
+     */
+    static String generateCodonFrequencyAnalysis(ContadorCodons contador, String filename, TabelaGenetica tabela) {
+        StringBuilder result = new StringBuilder(generateCodonFrequencyAnalysis(contador.paraMapa(), filename, tabela));
+        if (contador.ambiguos() > 0) {
+            result.append("---------------------------------------\n");
+            result.append("Códons com bases ambíguas (N/IUPAC): ").append(contador.ambiguos()).append('\n');
+        }
+        return result.toString();
+    }
     
     /**
-     * Retorna o aminoácido correspondente a um códon.
+     * Retorna o aminoácido correspondente a um códon, segundo o código genético padrão.
      *
      * @param codon O códon (sequência de três nucleotídeos).
      * @return O nome do aminoácido correspondente ao códon.
      */
 
     public static String getAminoacid(String codon) {
-    	 // Implementação do método
-        // Tabela simplificada de códons para aminoácidos
-    	switch (codon) {
-        // Fenilalanina (Phe, F)
-        case "TTT": case "TTC": return "Phe";
-        // Leucina (Leu, L)
-        case "TTA": case "TTG": case "CTT": case "CTC": case "CTA": case "CTG": return "Leu";
-        // Isoleucina (Ile, I)
-        case "ATT": case "ATC": case "ATA": return "Ile";
-        // Metionina (Met, M)
-        case "ATG": return "Met";
-        // Valina (Val, V)
-        case "GTT": case "GTC": case "GTA": case "GTG": return "Val";
-        // Serina (Ser, S)
-        case "TCT": case "TCC": case "TCA": case "TCG": case "AGT": case "AGC": return "Ser";
-        // Prolina (Pro, P)
-        case "CCT": case "CCC": case "CCA": case "CCG": return "Pro";
-        // Treonina (Thr, T)
-        case "ACT": case "ACC": case "ACA": case "ACG": return "Thr";
-        // Alanina (Ala, A)
-        case "GCT": case "GCC": case "GCA": case "GCG": return "Ala";
-        // Tirosina (Tyr, Y)
-        case "TAT": case "TAC": return "Tyr";
-        // Histidina (His, H)
-        case "CAT": case "CAC": return "His";
-        // Glutamina (Gln, Q)
-        case "CAA": case "CAG": return "Gln";
-        // Asparagina (Asn, N)
-        case "AAT": case "AAC": return "Asn";
-        // Lisina (Lys, K)
-        case "AAA": case "AAG": return "Lys";
-        // Ácido aspártico (Asp, D)
-        case "GAT": case "GAC": return "Asp";
-        // Ácido glutâmico (Glu, E)
-        case "GAA": case "GAG": return "Glu";
-        // Cisteína (Cys, C)
-        case "TGT": case "TGC": return "Cys";
-        // Triptofano (Trp, W)
-        case "TGG": return "Trp";
-        // Arginina (Arg, R)
-        case "CGT": case "CGC": case "CGA": case "CGG": case "AGA": case "AGG": return "Arg";
-        // Glicina (Gly, G)
-        case "GGT": case "GGC": case "GGA": case "GGG": return "Gly";
-        // Códons de parada
-        case "TAA": case "TAG": case "TGA": return "Stop";
-        default: return "???";
+        return getAminoacid(codon, TabelaGenetica.padrao());
     }
+
+    /**
+     * Retorna o aminoácido correspondente a um códon, consultando a tabela de 64 posições
+     * de um código genético do NCBI.
+     *
+     * @param codon O códon (sequência de três nucleotídeos).
+     * @param tabela O código genético a ser usado.
+     * @return O nome do aminoácido, "Stop" para códons de parada ou "???" para códons inválidos.
+     */
+    public static String getAminoacid(String codon, TabelaGenetica tabela) {
+        if (codon == null || codon.length() != 3) {
+            return "???";
+        }
+        int b1 = SequenciaCompacta.codigo(codon.charAt(0));
+        int b2 = SequenciaCompacta.codigo(codon.charAt(1));
+        int b3 = SequenciaCompacta.codigo(codon.charAt(2));
+        if (b1 < 0 || b2 < 0 || b3 < 0) {
+            return "???";
+        }
+        return TabelaGenetica.nomeTresLetras(tabela.traduzir((b1 << 4) | (b2 << 2) | b3));
     }
+
+    /**
+     * Bases cobertas pelos códons contados, para as métricas da etapa de contagem.
+     */
+    private static long bases(ContadorCodons contador) {
+        return contador.total() * 3;
+    }
+
     /**
      * Escreve o conteúdo da análise em um arquivo.
      *
@@ -183,8 +422,11 @@ public class Codon{
      * @throws IOException Se ocorrer um erro na escrita do arquivo.
      */
     public static void writeAnalysisToFile(String content, String fileName) throws IOException {
-        try (FileWriter writer = new FileWriter(fileName)) {
-            writer.write(content);
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.ESCRITA, Metricas.BYTES)) {
+            try (FileWriter writer = new FileWriter(fileName)) {
+                writer.write(content);
+            }
+            medicao.unidades(new File(fileName).length()).concluir();
         }
     }
 
@@ -0,0 +1,478 @@
+package Genetica;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A classe ContadorCodons conta códons de forma contínua (streaming), sem montar a sequência
+ * completa em memória e sem alocar objetos por códon.
+ *
+ * <p>Cada trinca é codificada em um índice de 0 a 63 (16 * b1 + 4 * b2 + b3, com A=0, C=1, G=2, T=3)
+ * que incrementa uma tabela primitiva. Códons que contêm N ou outro símbolo fora de ACGT são
+ * contados à parte, em vez de aparecerem como "???" no relatório.</p>
+ * @author rezende
+ */
+public class ContadorCodons {
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    /** Número padrão de bases por tarefa na contagem paralela (múltiplo de 3). */
+    public static final long BASES_POR_TAREFA = 3L << 22;
+
+    private final int[] contagem = new int[64];
+    private long ambiguos;
+
+    // Estado do códon em formação
+    private int fase;
+    private int indice;
+    private boolean ambiguo;
+
+    /**
+     * Conta os códons de um arquivo FASTA mapeado em memória pelo {@link FastaReader}.
+     *
+     * @param filename O nome do arquivo FASTA.
+     * @param exigirCabecalho Se true, o arquivo precisa começar com uma linha "&gt;".
+     * @return O contador com os códons do arquivo.
+     * @throws IOException Se ocorrer um erro na leitura ou o arquivo não tiver cabeçalho quando exigido.
+     */
+    public static ContadorCodons contarArquivo(String filename, boolean exigirCabecalho) throws IOException {
+        try (FastaReader reader = new FastaReader(filename)) {
+            if (exigirCabecalho) {
+                reader.exigirCabecalho();
+            }
+            ContadorCodons contador = new ContadorCodons();
+            reader.percorrer(contador::adicionar);
+            return contador;
+        }
+    }
+
+    /**
+     * Conta os códons de um arquivo FASTA em paralelo no ForkJoinPool comum.
+     *
+     * @param filename O nome do arquivo FASTA.
+     * @param exigirCabecalho Se true, o arquivo precisa começar com uma linha "&gt;".
+     * @return O contador com os códons do arquivo, idêntico ao de {@link #contarArquivo}.
+     * @throws IOException Se ocorrer um erro na leitura ou o arquivo não tiver cabeçalho quando exigido.
+     */
+    public static ContadorCodons contarArquivoParalelo(String filename, boolean exigirCabecalho) throws IOException {
+        return contarArquivoParalelo(filename, exigirCabecalho, ForkJoinPool.commonPool(), BASES_POR_TAREFA);
+    }
+
+    /**
+     * Conta os códons de um arquivo FASTA em paralelo, dividindo as bases em blocos contados por
+     * tarefas de um ForkJoinPool, cada uma com seu próprio contador, que são somados no final.
+     *
+     * <p>As posições das bases são obtidas pelo índice ".fai" e os blocos começam sempre em múltiplos
+     * de 3 da sequência concatenada, de modo que nenhum códon é dividido entre tarefas, mesmo quando
+     * atravessa quebras de linha ou registros. O resultado é idêntico ao da contagem serial. Arquivos
+     * pequenos ou com linhas irregulares são contados de forma serial.</p>
+     *
+     * @param filename O nome do arquivo FASTA.
+     * @param exigirCabecalho Se true, o arquivo precisa começar com uma linha "&gt;".
+     * @param pool O pool onde as tarefas serão executadas.
+     * @param basesPorTarefa O número aproximado de bases contadas por tarefa.
+     * @return O contador com os códons do arquivo.
+     * @throws IOException Se ocorrer um erro na leitura ou o arquivo não tiver cabeçalho quando exigido.
+     */
+    public static ContadorCodons contarArquivoParalelo(String filename, boolean exigirCabecalho, ForkJoinPool pool,
+            long basesPorTarefa) throws IOException {
+        try (FastaReader reader = new FastaReader(filename)) {
+            // Sem cabeçalho no início há bases fora dos registros do índice
+            if (!reader.comecaComCabecalho()) {
+                if (exigirCabecalho) {
+                    reader.exigirCabecalho();
+                }
+                return contarArquivo(filename, false);
+            }
+            List<IndiceFasta.Entrada> registros = IndiceFasta.paraArquivo(filename).entradas();
+            long[] inicios = new long[registros.size()];
+            long total = 0;
+            for (int r = 0; r < registros.size(); r++) {
+                if (!registros.get(r).regular() && registros.get(r).comprimento() > 0) {
+                    return contarArquivo(filename, exigirCabecalho);
+                }
+                inicios[r] = total;
+                total += registros.get(r).comprimento();
+            }
+            long bloco = Math.max(3, basesPorTarefa / 3 * 3);
+            if (total <= bloco) {
+                return contarArquivo(filename, exigirCabecalho);
+            }
+            // As bases finais que não completam um códon não entram em nenhum bloco
+            TarefaContagem tarefa = new TarefaContagem(reader, registros, inicios, 0, total - total % 3, bloco);
+            try {
+                return pool.invoke(tarefa);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Conta os códons de um único registro de um arquivo FASTA, localizado pelo índice ".fai".
+     *
+     * @param filename O nome do arquivo FASTA.
+     * @param id O identificador do registro.
+     * @return O contador com os códons do registro.
+     * @throws IOException Se ocorrer um erro na leitura ou o registro não existir.
+     */
+    public static ContadorCodons contarRegistro(String filename, String id) throws IOException {
+        IndiceFasta.Entrada registro = IndiceFasta.paraArquivo(filename).buscar(id);
+        if (registro == null) {
+            throw new IOException("Registro " + id + " não encontrado em " + filename);
+        }
+        try (FastaReader reader = new FastaReader(filename)) {
+            ContadorCodons contador = new ContadorCodons();
+            reader.percorrerRegistro(registro, contador::adicionar);
+            return contador;
+        }
+    }
+
+    /**
+     * Conta os códons de um conteúdo FASTA lido por um canal de bytes.
+     *
+     * @param canal O canal com o conteúdo FASTA.
+     * @param exigirCabecalho Se true, o conteúdo precisa começar com uma linha "&gt;".
+     * @return O contador preenchido.
+     * @throws IOException Se ocorrer um erro na leitura ou o conteúdo não tiver cabeçalho quando exigido.
+     */
+    public static ContadorCodons contar(ReadableByteChannel canal, boolean exigirCabecalho) throws IOException {
+        ContadorCodons contador = new ContadorCodons();
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+        byte[] bytes = buffer.array();
+        boolean inicioLinha = true;
+        boolean cabecalho = false;
+        boolean primeiro = true;
+        int lidos;
+        while ((lidos = canal.read(buffer)) != -1) {
+            for (int i = 0; i < lidos; i++) {
+                int b = bytes[i];
+                if (b == '\n' || b == '\r') {
+                    inicioLinha = true;
+                    cabecalho = false;
+                    continue;
+                }
+                if (primeiro) {
+                    if (exigirCabecalho && b != '>') {
+                        throw new IOException("Arquivo FASTA inválido: o conteúdo não começa com um cabeçalho");
+                    }
+                    primeiro = false;
+                }
+                if (inicioLinha && b == '>') {
+                    cabecalho = true;
+                }
+                inicioLinha = false;
+                if (!cabecalho && !SequenciaCompacta.ehEspaco(b)) {
+                    contador.adicionar(b);
+                }
+            }
+            buffer.clear();
+        }
+        return contador;
+    }
+
+    /**
+     * Conta os códons de um conteúdo FASTA lido por um Reader.
+     *
+     * @param reader O Reader com o conteúdo FASTA.
+     * @return O contador com os códons do conteúdo.
+     * @throws IOException Se ocorrer um erro na leitura.
+     */
+    public static ContadorCodons contar(Reader reader) throws IOException {
+        ContadorCodons contador = new ContadorCodons();
+        char[] buffer = new char[TAMANHO_BUFFER];
+        boolean inicioLinha = true;
+        boolean cabecalho = false;
+        int lidos;
+        while ((lidos = reader.read(buffer)) != -1) {
+            for (int i = 0; i < lidos; i++) {
+                char c = buffer[i];
+                if (c == '\n' || c == '\r') {
+                    inicioLinha = true;
+                    cabecalho = false;
+                    continue;
+                }
+                if (inicioLinha && c == '>') {
+                    cabecalho = true;
+                }
+                inicioLinha = false;
+                if (!cabecalho && !SequenciaCompacta.ehEspaco(c)) {
+                    contador.adicionar(c);
+                }
+            }
+        }
+        return contador;
+    }
+
+    /**
+     * Conta os códons de uma sequência compacta.
+     *
+     * @param sequencia A sequência compactada.
+     * @return O contador com os códons da sequência.
+     */
+    public static ContadorCodons contar(SequenciaCompacta sequencia) {
+        ContadorCodons contador = new ContadorCodons();
+        int trecho = 0;
+        for (long i = 0; i < sequencia.comprimento() - 2; i += 3) {
+            while (trecho < sequencia.trechosAmbiguos() && sequencia.fimTrecho(trecho) <= i) {
+                trecho++;
+            }
+            if (trecho < sequencia.trechosAmbiguos() && sequencia.inicioTrecho(trecho) < i + 3) {
+                contador.ambiguos++;
+            } else {
+                contador.contagem[sequencia.indiceCodon(i)]++;
+            }
+        }
+        return contador;
+    }
+
+    /**
+     * Adiciona a próxima base da sequência. A cada três bases um códon é contabilizado.
+     *
+     * @param base O símbolo da base (ASCII).
+     */
+    public void adicionar(int base) {
+        int codigo = SequenciaCompacta.codigo(base);
+        if (codigo < 0) {
+            ambiguo = true;
+            codigo = 0;
+        }
+        indice = (indice << 2) | codigo;
+        if (++fase == 3) {
+            if (ambiguo) {
+                ambiguos++;
+            } else {
+                contagem[indice]++;
+            }
+            fase = 0;
+            indice = 0;
+            ambiguo = false;
+        }
+    }
+
+    /**
+     * Registra um códon já codificado.
+     *
+     * @param indiceCodon O índice do códon (0 a 63).
+     * @param codonAmbiguo Se true, o códon é contado entre os ambíguos.
+     */
+    void registrar(int indiceCodon, boolean codonAmbiguo) {
+        if (codonAmbiguo) {
+            ambiguos++;
+        } else {
+            contagem[indiceCodon]++;
+        }
+    }
+
+    /**
+     * Adiciona todas as bases restantes do buffer.
+     *
+     * @param bases Os bytes das bases (ASCII).
+     */
+    public void adicionar(ByteBuffer bases) {
+        for (int i = bases.position(); i < bases.limit(); i++) {
+            adicionar(bases.get(i));
+        }
+    }
+
+    /**
+     * Soma as contagens de outro contador a este.
+     *
+     * @param outro O contador a ser somado.
+     */
+    public void somar(ContadorCodons outro) {
+        for (int i = 0; i < contagem.length; i++) {
+            contagem[i] += outro.contagem[i];
+        }
+        ambiguos += outro.ambiguos;
+    }
+
+    /**
+     * Retorna a contagem de um códon pelo seu índice.
+     *
+     * @param indice O índice do códon (0 a 63).
+     * @return O número de ocorrências do códon.
+     */
+    public int contagem(int indice) {
+        return contagem[indice];
+    }
+
+    /**
+     * Retorna uma cópia da tabela de contagens, indexada pelo índice do códon.
+     *
+     * @return As 64 contagens.
+     */
+    public int[] contagens() {
+        return contagem.clone();
+    }
+
+    /**
+     * Retorna o número de códons que contêm ao menos uma base fora de ACGT.
+     *
+     * @return O número de códons ambíguos.
+     */
+    public long ambiguos() {
+        return ambiguos;
+    }
+
+    /**
+     * Retorna o número total de códons lidos, incluindo os ambíguos.
+     *
+     * @return O total de códons.
+     */
+    public long total() {
+        long total = ambiguos;
+        for (int c : contagem) {
+            total += c;
+        }
+        return total;
+    }
+
+    /**
+     * Grava as contagens e o códon em formação, para que a contagem possa continuar depois
+     * (usado por {@link CacheCodons}).
+     */
+    void salvarEstado(DataOutput saida) throws IOException {
+        for (int c : contagem) {
+            saida.writeInt(c);
+        }
+        saida.writeLong(ambiguos);
+        saida.writeByte(fase);
+        saida.writeInt(indice);
+        saida.writeBoolean(ambiguo);
+    }
+
+    /**
+     * Lê um contador gravado por {@link #salvarEstado(DataOutput)}.
+     */
+    static ContadorCodons lerEstado(DataInput entrada) throws IOException {
+        ContadorCodons contador = new ContadorCodons();
+        for (int i = 0; i < contador.contagem.length; i++) {
+            contador.contagem[i] = entrada.readInt();
+        }
+        contador.ambiguos = entrada.readLong();
+        contador.fase = entrada.readByte();
+        contador.indice = entrada.readInt();
+        contador.ambiguo = entrada.readBoolean();
+        if (contador.fase < 0 || contador.fase > 2 || contador.indice < 0 || contador.indice > 63) {
+            throw new IOException("Estado de contagem inválido");
+        }
+        return contador;
+    }
+
+    /**
+     * Cria um contador com contagens já conhecidas (usado na leitura dos formatos de
+     * {@link FormatoCodons}).
+     */
+    static ContadorCodons deContagens(int[] contagens, long ambiguos) {
+        if (contagens.length != 64) {
+            throw new IllegalArgumentException("Esperadas 64 contagens, encontradas " + contagens.length);
+        }
+        ContadorCodons contador = new ContadorCodons();
+        System.arraycopy(contagens, 0, contador.contagem, 0, 64);
+        contador.ambiguos = ambiguos;
+        return contador;
+    }
+
+    /**
+     * Converte as contagens para o formato usado por {@link Codon#generateCodonFrequencyAnalysis}.
+     * Apenas os códons presentes entram no mapa; os ambíguos ficam de fora.
+     *
+     * @return Um Map com os códons como chaves e suas frequências como valores.
+     */
+    public Map<String, Integer> paraMapa() {
+        Map<String, Integer> codonFrequency = new HashMap<>();
+        for (int i = 0; i < contagem.length; i++) {
+            if (contagem[i] > 0) {
+                codonFrequency.put(SequenciaCompacta.codonDoIndice(i), contagem[i]);
+            }
+        }
+        return codonFrequency;
+    }
+
+    /**
+     * Conta os códons do intervalo [inicio, fim) da sequência concatenada, dividindo-o ao meio
+     * (em múltiplos de 3) enquanto for maior que o bloco.
+     */
+    private static class TarefaContagem extends RecursiveTask<ContadorCodons> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FastaReader reader;
+        private final transient List<IndiceFasta.Entrada> registros;
+        private final long[] inicios;
+        private final long inicio;
+        private final long fim;
+        private final long bloco;
+
+        TarefaContagem(FastaReader reader, List<IndiceFasta.Entrada> registros, long[] inicios, long inicio, long fim,
+                long bloco) {
+            this.reader = reader;
+            this.registros = registros;
+            this.inicios = inicios;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.bloco = bloco;
+        }
+
+        @Override
+        protected ContadorCodons compute() {
+            if (fim - inicio <= bloco) {
+                return contarIntervalo();
+            }
+            long meio = inicio + (fim - inicio) / 6 * 3;
+            TarefaContagem esquerda = new TarefaContagem(reader, registros, inicios, inicio, meio, bloco);
+            TarefaContagem direita = new TarefaContagem(reader, registros, inicios, meio, fim, bloco);
+            esquerda.fork();
+            ContadorCodons resultado = direita.compute();
+            resultado.somar(esquerda.join());
+            return resultado;
+        }
+
+        private ContadorCodons contarIntervalo() {
+            ContadorCodons contador = new ContadorCodons();
+            int r = registroDaBase(inicio);
+            long posicao = inicio;
+            try {
+                while (posicao < fim) {
+                    IndiceFasta.Entrada registro = registros.get(r);
+                    long local = posicao - inicios[r];
+                    long ate = Math.min(registro.comprimento(), fim - inicios[r]);
+                    if (ate > local) {
+                        reader.percorrer(registro.deslocamentoDaBase(local), registro.deslocamentoDaBase(ate - 1) + 1,
+                                true, contador::adicionar);
+                    }
+                    posicao = inicios[r] + ate;
+                    r++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return contador;
+        }
+
+        // Último registro que começa antes ou na posição informada
+        private int registroDaBase(long posicao) {
+            int baixo = 0;
+            int alto = inicios.length - 1;
+            while (baixo < alto) {
+                int meio = (baixo + alto + 1) >>> 1;
+                if (inicios[meio] <= posicao) {
+                    baixo = meio;
+                } else {
+                    alto = meio - 1;
+                }
+            }
+            return baixo;
+        }
+    }
+}
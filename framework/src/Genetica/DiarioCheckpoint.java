@@ -0,0 +1,101 @@
+package Genetica;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A classe DiarioCheckpoint registra, em um arquivo de texto só de acréscimos, as unidades de um
+ * lote que já terminaram, uma por linha. Ao executar o lote de novo depois de uma queda, as
+ * unidades do diário são puladas.
+ *
+ * <p>Cada linha é gravada e sincronizada com o disco assim que a unidade termina. Uma linha sem a
+ * quebra final (gravada pela metade quando o processo caiu) não conta como concluída e é
+ * descartada ao abrir o diário, para que o próximo registro não seja colado nela.</p>
+ * @author rezende
+ */
+public class DiarioCheckpoint implements Closeable {
+
+    private final Path arquivo;
+    private final FileChannel canal;
+    private final Set<String> concluidas = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Abre o diário, criando o arquivo se necessário, e carrega as unidades já concluídas.
+     *
+     * @param arquivo O arquivo do diário.
+     * @throws IOException Se o arquivo não puder ser lido ou aberto para escrita.
+     */
+    public DiarioCheckpoint(Path arquivo) throws IOException {
+        this.arquivo = arquivo;
+        long validos = 0;
+        if (Files.exists(arquivo)) {
+            String conteudo = new String(Files.readAllBytes(arquivo), StandardCharsets.UTF_8);
+            int fim = conteudo.lastIndexOf('\n') + 1;
+            for (String linha : conteudo.substring(0, fim).split("\n")) {
+                if (!linha.isEmpty()) {
+                    concluidas.add(linha);
+                }
+            }
+            validos = conteudo.substring(0, fim).getBytes(StandardCharsets.UTF_8).length;
+        }
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.truncate(validos);
+        canal.position(validos);
+    }
+
+    /**
+     * @param unidade A identificação da unidade.
+     * @return true se a unidade já consta no diário.
+     */
+    public boolean concluida(String unidade) {
+        return concluidas.contains(unidade);
+    }
+
+    /**
+     * Registra uma unidade concluída. O método só retorna depois que a linha chega ao disco.
+     *
+     * @param unidade A identificação da unidade, sem quebras de linha.
+     * @throws IOException Se a linha não puder ser gravada.
+     */
+    public synchronized void registrar(String unidade) throws IOException {
+        if (unidade.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("A unidade não pode conter quebras de linha: " + unidade);
+        }
+        if (concluidas.contains(unidade)) {
+            return;
+        }
+        ByteBuffer linha = ByteBuffer.wrap((unidade + "\n").getBytes(StandardCharsets.UTF_8));
+        while (linha.hasRemaining()) {
+            canal.write(linha);
+        }
+        canal.force(false);
+        concluidas.add(unidade);
+    }
+
+    /**
+     * @return O número de unidades concluídas.
+     */
+    public int tamanho() {
+        return concluidas.size();
+    }
+
+    /**
+     * @return O arquivo do diário.
+     */
+    public Path arquivo() {
+        return arquivo;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
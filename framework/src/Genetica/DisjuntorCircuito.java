@@ -0,0 +1,130 @@
+package Genetica;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A classe DisjuntorCircuito (circuit breaker) suspende todas as requisições de um cliente quando o
+ * servidor remoto parece degradado, em vez de deixar cada thread insistir por conta própria.
+ *
+ * <p>Depois de um número de falhas seguidas o circuito abre e quem chama {@link #aguardar()} fica
+ * parado durante a pausa configurada. Terminada a pausa, uma única requisição de sondagem é
+ * liberada (circuito meio aberto): se ela der certo o circuito fecha e todos seguem; se falhar, o
+ * circuito abre de novo por mais uma pausa. Se a sondagem não der resultado dentro de uma pausa
+ * (a thread foi interrompida ou se perdeu), outra thread assume a sondagem, para que o circuito
+ * nunca fique meio aberto para sempre.</p>
+ * @author rezende
+ */
+public class DisjuntorCircuito {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DisjuntorCircuito.class);
+
+    /** Estado do circuito. */
+    public enum Estado {
+        /** Requisições liberadas. */
+        FECHADO,
+        /** Requisições suspensas até o fim da pausa. */
+        ABERTO,
+        /** Uma requisição de sondagem em andamento; as demais esperam o resultado dela. */
+        MEIO_ABERTO
+    }
+
+    private final int limiteFalhas;
+    private final long pausaNanos;
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasSeguidas;
+    private long reabreEm;
+    private long sondagemDesde;
+    private long aberturas;
+
+    /**
+     * Cria um disjuntor.
+     *
+     * @param limiteFalhas O número de falhas seguidas que abre o circuito.
+     * @param pausa Quanto tempo o circuito fica aberto antes da sondagem.
+     */
+    public DisjuntorCircuito(int limiteFalhas, Duration pausa) {
+        if (limiteFalhas < 1 || pausa.isNegative()) {
+            throw new IllegalArgumentException("Limite de falhas e pausa devem ser positivos: " + limiteFalhas + ", " + pausa);
+        }
+        this.limiteFalhas = limiteFalhas;
+        this.pausaNanos = pausa.toNanos();
+    }
+
+    /**
+     * Espera até que uma requisição possa ser feita. Com o circuito fechado retorna na hora.
+     *
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public synchronized void aguardar() throws InterruptedException {
+        while (estado != Estado.FECHADO) {
+            long agora = System.nanoTime();
+            long falta = estado == Estado.MEIO_ABERTO ? sondagemDesde + pausaNanos - agora : reabreEm - agora;
+            if (falta <= 0) {
+                // Esta thread faz a sondagem (ou assume a de uma thread que não deu resposta)
+                estado = Estado.MEIO_ABERTO;
+                sondagemDesde = agora;
+                return;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, falta);
+        }
+    }
+
+    /**
+     * Registra uma requisição bem-sucedida, fechando o circuito.
+     */
+    public synchronized void sucesso() {
+        falhasSeguidas = 0;
+        if (estado != Estado.FECHADO) {
+            estado = Estado.FECHADO;
+            LOG.info("Circuito fechado: o NCBI voltou a responder.");
+            notifyAll();
+        }
+    }
+
+    /**
+     * Registra uma falha transitória (erro de rede, tempo esgotado, 429 ou 5xx).
+     */
+    public synchronized void falha() {
+        falhasSeguidas++;
+        if (estado == Estado.MEIO_ABERTO || estado == Estado.FECHADO && falhasSeguidas >= limiteFalhas) {
+            estado = Estado.ABERTO;
+            reabreEm = System.nanoTime() + pausaNanos;
+            aberturas++;
+            LOG.warn("Circuito aberto após {} falhas seguidas; requisições suspensas por {} ms.",
+                    falhasSeguidas, TimeUnit.NANOSECONDS.toMillis(pausaNanos));
+            notifyAll();
+        }
+    }
+
+    /**
+     * Registra que a requisição liberada por {@link #aguardar()} não chegou a ser feita, por exemplo
+     * porque a thread foi interrompida. Se ela era a sondagem, a próxima thread em espera a assume
+     * na hora, sem contar uma falha.
+     */
+    public synchronized void desistir() {
+        if (estado == Estado.MEIO_ABERTO) {
+            estado = Estado.ABERTO;
+            reabreEm = System.nanoTime();
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return O estado atual do circuito.
+     */
+    public synchronized Estado estado() {
+        return estado;
+    }
+
+    /**
+     * @return Quantas vezes o circuito abriu.
+     */
+    public synchronized long aberturas() {
+        return aberturas;
+    }
+}
@@ -0,0 +1,346 @@
+package Genetica;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.TreeSet;
+
+/**
+ * A classe EsbocoMinHash resume uma sequência em um esboço bottom-k: os menores hashes dos
+ * k-mers canônicos (o menor entre o k-mer e seu complemento reverso) encontrados na sequência.
+ *
+ * <p>Dois esboços permitem estimar a similaridade de Jaccard entre os conjuntos de k-mers e, a
+ * partir dela, a distância de Mash e a identidade média de nucleotídeos (ANI) em microssegundos,
+ * sem comparar as sequências. O esboço é calculado em uma única passada pelo {@link FastaReader},
+ * com os k-mers de até 32 bases empacotados em um long; a janela recomeça em bases ambíguas e a
+ * cada novo registro. {@link #paraArquivo(String, int, int)} guarda o esboço ao lado do FASTA para
+ * que ele não seja recalculado.</p>
+ * @author rezende
+ */
+public class EsbocoMinHash {
+
+    /** Tamanho padrão dos k-mers. */
+    public static final int K_PADRAO = 21;
+    /** Número padrão de hashes guardados no esboço. */
+    public static final int TAMANHO_PADRAO = 1000;
+
+    private static final int MAGICO = 0x45534234; // "ESB4"
+    private static final long SEMENTE = 42;
+
+    private final int k;
+    private final int tamanho;
+    private final long[] hashes;
+
+    // Tamanho e data de modificação do FASTA de origem, ou -1 se o esboço não veio de um arquivo
+    private long origemBytes = -1;
+    private long origemModificado = -1;
+
+    private EsbocoMinHash(int k, int tamanho, long[] hashes) {
+        this.k = k;
+        this.tamanho = tamanho;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Retorna o esboço de um arquivo FASTA, lendo-o do arquivo "&lt;fasta&gt;.k&lt;k&gt;s&lt;tamanho&gt;.esboco"
+     * se ele tiver sido calculado com o FASTA no mesmo tamanho e data de modificação de agora; caso
+     * contrário calcula o esboço e o salva. A data sozinha não basta: uma edição no mesmo tique do
+     * relógio do sistema de arquivos, ou um {@code cp -p}, a preserva.
+     *
+     * @param fastaFile O nome do arquivo FASTA.
+     * @param k O tamanho dos k-mers (1 a 32).
+     * @param tamanho O número de hashes guardados.
+     * @return O esboço do arquivo.
+     * @throws IOException Se ocorrer um erro na leitura do FASTA.
+     */
+    public static EsbocoMinHash paraArquivo(String fastaFile, int k, int tamanho) throws IOException {
+        Path fasta = Paths.get(fastaFile);
+        File arquivo = new File(nomeDoEsboco(fastaFile, k, tamanho));
+        // Lidos antes do FASTA: uma mudança durante o cálculo deixa o esboço salvo desatualizado
+        long bytes = Files.size(fasta);
+        long modificado = Files.getLastModifiedTime(fasta).toMillis();
+        if (arquivo.exists()) {
+            try {
+                EsbocoMinHash esboco = ler(arquivo.getPath());
+                if (esboco.k == k && esboco.tamanho == tamanho
+                        && esboco.origemBytes == bytes && esboco.origemModificado == modificado) {
+                    return esboco;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Esboço " + arquivo.getPath() + " inválido, recalculando: " + e.getMessage());
+            }
+        }
+        EsbocoMinHash esboco = calcular(fastaFile, k, tamanho);
+        esboco.origemBytes = bytes;
+        esboco.origemModificado = modificado;
+        try {
+            esboco.salvar(arquivo.getPath());
+        } catch (IOException e) {
+            System.out.println("Não foi possível salvar o esboço " + arquivo.getPath() + ": " + e.getMessage());
+        }
+        return esboco;
+    }
+
+    /**
+     * Calcula o esboço de um arquivo FASTA em uma única passada, sem usar o arquivo guardado.
+     *
+     * @param fastaFile O nome do arquivo FASTA.
+     * @param k O tamanho dos k-mers (1 a 32).
+     * @param tamanho O número de hashes guardados.
+     * @return O esboço do arquivo.
+     * @throws IOException Se ocorrer um erro na leitura do FASTA.
+     */
+    public static EsbocoMinHash calcular(String fastaFile, int k, int tamanho) throws IOException {
+        Construtor construtor = new Construtor(k, tamanho);
+        try (FastaReader reader = new FastaReader(fastaFile)) {
+            reader.percorrer(construtor);
+        }
+        return construtor.esboco();
+    }
+
+    /**
+     * Calcula o esboço de uma sequência de texto.
+     *
+     * @param sequencia A sequência.
+     * @param k O tamanho dos k-mers (1 a 32).
+     * @param tamanho O número de hashes guardados.
+     * @return O esboço da sequência.
+     */
+    public static EsbocoMinHash doTexto(CharSequence sequencia, int k, int tamanho) {
+        Construtor construtor = new Construtor(k, tamanho);
+        for (int i = 0; i < sequencia.length(); i++) {
+            construtor.adicionar(sequencia.charAt(i));
+        }
+        return construtor.esboco();
+    }
+
+    /**
+     * Lê um esboço salvo por {@link #salvar(String)}.
+     *
+     * @param arquivo O nome do arquivo do esboço.
+     * @return O esboço lido.
+     * @throws IOException Se o arquivo não puder ser lido ou não for um esboço.
+     */
+    public static EsbocoMinHash ler(String arquivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(arquivo))))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IOException("Arquivo de esboço inválido: " + arquivo);
+            }
+            int k = entrada.readInt();
+            int tamanho = entrada.readInt();
+            long origemBytes = entrada.readLong();
+            long origemModificado = entrada.readLong();
+            long[] hashes = new long[entrada.readInt()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = entrada.readLong();
+            }
+            EsbocoMinHash esboco = new EsbocoMinHash(k, tamanho, hashes);
+            esboco.origemBytes = origemBytes;
+            esboco.origemModificado = origemModificado;
+            return esboco;
+        }
+    }
+
+    /**
+     * Salva o esboço em formato binário. O arquivo é substituído de uma vez, então quem o lê ao
+     * mesmo tempo nunca encontra um esboço pela metade.
+     *
+     * @param arquivo O nome do arquivo de saída.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public void salvar(String arquivo) throws IOException {
+        Arquivos.gravar(Paths.get(arquivo), destino -> {
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(destino));
+            saida.writeInt(MAGICO);
+            saida.writeInt(k);
+            saida.writeInt(tamanho);
+            saida.writeLong(origemBytes);
+            saida.writeLong(origemModificado);
+            saida.writeInt(hashes.length);
+            for (long hash : hashes) {
+                saida.writeLong(hash);
+            }
+            saida.flush();
+        });
+    }
+
+    /**
+     * @return O tamanho dos k-mers.
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * @return O número máximo de hashes do esboço.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * @return Uma cópia dos hashes, em ordem crescente.
+     */
+    public long[] hashes() {
+        return hashes.clone();
+    }
+
+    /**
+     * Estima a similaridade de Jaccard entre os k-mers das duas sequências, considerando os
+     * menores hashes da união dos dois esboços.
+     *
+     * @param outro O outro esboço, calculado com os mesmos parâmetros.
+     * @return A estimativa de Jaccard, entre 0 e 1.
+     */
+    public double jaccard(EsbocoMinHash outro) {
+        if (k != outro.k) {
+            throw new IllegalArgumentException("Esboços com k diferentes: " + k + " e " + outro.k);
+        }
+        int limite = Math.min(tamanho, outro.tamanho);
+        int i = 0;
+        int j = 0;
+        int uniao = 0;
+        int comuns = 0;
+        while (uniao < limite && i < hashes.length && j < outro.hashes.length) {
+            if (hashes[i] == outro.hashes[j]) {
+                comuns++;
+                i++;
+                j++;
+            } else if (hashes[i] < outro.hashes[j]) {
+                i++;
+            } else {
+                j++;
+            }
+            uniao++;
+        }
+        // Um dos esboços acabou: os hashes restantes do outro entram na união sem coincidências
+        uniao += Math.min(limite - uniao, (hashes.length - i) + (outro.hashes.length - j));
+        return uniao == 0 ? 0 : (double) comuns / uniao;
+    }
+
+    /**
+     * Estima a distância de Mash: -1/k * ln(2J / (1 + J)), uma aproximação da taxa de mutação.
+     *
+     * @param outro O outro esboço.
+     * @return A distância, entre 0 e 1.
+     */
+    public double distanciaMash(EsbocoMinHash outro) {
+        double jaccard = jaccard(outro);
+        if (jaccard <= 0) {
+            return 1;
+        }
+        if (jaccard >= 1) {
+            return 0;
+        }
+        return Math.min(1, -Math.log(2 * jaccard / (1 + jaccard)) / k);
+    }
+
+    /**
+     * Estima a identidade média de nucleotídeos (ANI) como 1 menos a distância de Mash.
+     *
+     * @param outro O outro esboço.
+     * @return A identidade estimada, entre 0 e 1.
+     */
+    public double ani(EsbocoMinHash outro) {
+        return 1 - distanciaMash(outro);
+    }
+
+    static String nomeDoEsboco(String fastaFile, int k, int tamanho) {
+        return fastaFile + ".k" + k + "s" + tamanho + ".esboco";
+    }
+
+    /**
+     * Finalizador do MurmurHash3 de 64 bits, que espalha os bits do k-mer empacotado.
+     */
+    private static long misturar(long x) {
+        x ^= SEMENTE;
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    /**
+     * Acumula os k-mers canônicos e mantém os menores hashes. O TreeSet só é tocado quando um hash
+     * menor que o maior guardado aparece; os demais são descartados com uma comparação.
+     */
+    private static class Construtor implements FastaReader.Visitante {
+        private final int k;
+        private final int tamanho;
+        private final long mascara;
+        private final int deslocamentoReverso;
+        private final TreeSet<Long> menores = new TreeSet<>();
+
+        private long direto;
+        private long reverso;
+        private int validas;
+        private long limiar = Long.MAX_VALUE;
+
+        Construtor(int k, int tamanho) {
+            if (k < 1 || k > 32) {
+                throw new IllegalArgumentException("O tamanho do k-mer deve estar entre 1 e 32: " + k);
+            }
+            if (tamanho < 1) {
+                throw new IllegalArgumentException("O tamanho do esboço deve ser positivo: " + tamanho);
+            }
+            this.k = k;
+            this.tamanho = tamanho;
+            this.mascara = k == 32 ? -1L : (1L << (2 * k)) - 1;
+            this.deslocamentoReverso = 2 * (k - 1);
+        }
+
+        @Override
+        public void cabecalho(String texto, long deslocamento) {
+            validas = 0;
+        }
+
+        @Override
+        public void sequencia(ByteBuffer bases) {
+            for (int i = bases.position(); i < bases.limit(); i++) {
+                adicionar(bases.get(i));
+            }
+        }
+
+        void adicionar(int simbolo) {
+            int codigo = SequenciaCompacta.codigo(simbolo);
+            if (codigo < 0) {
+                validas = 0;
+                return;
+            }
+            direto = ((direto << 2) | codigo) & mascara;
+            reverso = (reverso >>> 2) | ((long) (3 - codigo) << deslocamentoReverso);
+            if (++validas < k) {
+                return;
+            }
+            long canonico = Long.compareUnsigned(direto, reverso) <= 0 ? direto : reverso;
+            long hash = misturar(canonico);
+            if (menores.size() < tamanho) {
+                menores.add(hash);
+                if (menores.size() == tamanho) {
+                    limiar = menores.last();
+                }
+            } else if (hash < limiar && menores.add(hash)) {
+                menores.pollLast();
+                limiar = menores.last();
+            }
+        }
+
+        EsbocoMinHash esboco() {
+            long[] hashes = new long[menores.size()];
+            int i = 0;
+            for (long hash : menores) {
+                hashes[i++] = hash;
+            }
+            return new EsbocoMinHash(k, tamanho, hashes);
+        }
+    }
+}
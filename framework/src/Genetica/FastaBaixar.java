@@ -1,17 +1,30 @@
 package Genetica;
 
 
-import java.io.BufferedReader;
 import java.io.FileWriter;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
 import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.io.File;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * A classe FastaBaixar é responsável por baixar e salvar sequências FASTA de espécies
  * a partir do NCBI (National Center for Biotechnology Information) usando seu nome científico.
@@ -22,6 +35,77 @@ import java.io.File;
  */
 
 public class FastaBaixar{
+
+    /** Número máximo de downloads simultâneos em {@link #baixarLote(List)}. */
+    public static final int THREADS_DOWNLOAD = 8;
+    /** Registros pedidos em cada efetch de {@link #baixarTodos(String, int)}. */
+    public static final int REGISTROS_POR_PAGINA = 500;
+    /** Páginas do efetch baixadas ao mesmo tempo em {@link #baixarTodos(String, int)}. */
+    public static final int PAGINAS_SIMULTANEAS = 3;
+
+    private static final Logger LOG = LoggerFactory.getLogger(FastaBaixar.class);
+    private static final String BANCO = "nucleotide";
+
+    private final FonteSequencias fonte;
+    // Cliente do NCBI usado pela busca com servidor de histórico; null se a fonte não for o NCBI
+    private final ClienteNcbi cliente;
+    private final CacheSequencias cache;
+
+    /**
+     * Cria um FastaBaixar que usa o cliente NCBI e o cache de sequências compartilhados.
+     */
+    public FastaBaixar() {
+        this(ClienteNcbi.padrao(), cachePadrao());
+    }
+
+    /**
+     * Cria um FastaBaixar que usa um cliente NCBI específico, sem cache.
+     *
+     * @param cliente O cliente HTTP e o limitador de taxa usados nos downloads.
+     */
+    public FastaBaixar(ClienteNcbi cliente) {
+        this(cliente, null);
+    }
+
+    /**
+     * Cria um FastaBaixar que usa um cliente NCBI e um cache específicos.
+     *
+     * @param cliente O cliente HTTP e o limitador de taxa usados nos downloads.
+     * @param cache O cache local consultado antes de cada download, ou null para sempre baixar.
+     */
+    public FastaBaixar(ClienteNcbi cliente, CacheSequencias cache) {
+        this(new FonteNcbi(cliente), cache);
+    }
+
+    /**
+     * Cria um FastaBaixar que obtém as sequências da fonte informada, sem cache.
+     *
+     * @param fonte A origem das sequências: NCBI, diretório local ou outra implementação.
+     */
+    public FastaBaixar(FonteSequencias fonte) {
+        this(fonte, null);
+    }
+
+    /**
+     * Cria um FastaBaixar que obtém as sequências da fonte informada, consultando o cache antes.
+     *
+     * @param fonte A origem das sequências.
+     * @param cache O cache local consultado antes de cada download, ou null para sempre baixar.
+     */
+    public FastaBaixar(FonteSequencias fonte, CacheSequencias cache) {
+        this.fonte = fonte;
+        this.cliente = fonte instanceof FonteNcbi ? ((FonteNcbi) fonte).cliente() : null;
+        this.cache = cache;
+    }
+
+    private static CacheSequencias cachePadrao() {
+        try {
+            return CacheSequencias.padrao();
+        } catch (IOException e) {
+            System.out.println("Cache de sequências indisponível: " + e.getMessage());
+            return null;
+        }
+    }
 	
 	 /**
      * Baixa e salva a sequência FASTA para o nome científico fornecido.
@@ -30,16 +114,214 @@ public class FastaBaixar{
      */
 	
     public void baixar (String scientificName) {
-    	
-    	// Implementação do método
-    	
+        baixarUm(scientificName);
+    }
+
+    /**
+     * Baixa as sequências FASTA de várias espécies ao mesmo tempo. As requisições compartilham as
+     * conexões e o limitador de taxa do cliente, então o limite do NCBI é respeitado sem pausas fixas.
+     *
+     * @param scientificNames Os nomes científicos das espécies.
+     * @return Para cada nome, na ordem recebida, true se o arquivo FASTA existir ao final.
+     */
+    public Map<String, Boolean> baixarLote(List<String> scientificNames) {
+        Map<String, Boolean> resultado = new LinkedHashMap<>();
+        if (scientificNames.isEmpty()) {
+            return resultado;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(scientificNames.size(), THREADS_DOWNLOAD));
+        try {
+            List<Future<Boolean>> downloads = new ArrayList<>();
+            for (String scientificName : scientificNames) {
+                downloads.add(executor.submit(() -> baixarUm(scientificName)));
+            }
+            for (int i = 0; i < scientificNames.size(); i++) {
+                try {
+                    resultado.put(scientificNames.get(i), downloads.get(i).get());
+                } catch (ExecutionException e) {
+                    System.out.println("Erro ao baixar " + scientificNames.get(i) + ": " + e.getCause());
+                    resultado.put(scientificNames.get(i), false);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return resultado;
+    }
+
+    /**
+     * Baixa a sequência da espécie, se o arquivo ainda não existir.
+     *
+     * @param scientificName O nome científico da espécie.
+     * @return true se o arquivo FASTA existir ao final.
+     */
+    boolean baixarUm(String scientificName) {
         if(Verificado(scientificName)) {
-	        String fastaContent = getFastaContent(scientificName);
-	        if (fastaContent != null && !fastaContent.isEmpty()) {
-	            saveFastaFile(scientificName, fastaContent);
-	        } else {
-	            System.out.println("O conteúdo FASTA está vazio. Verifique os logs para mais informações.");
-	        }
+            try {
+                Path destino = Paths.get(scientificName + ".fasta");
+                long bytes;
+                if (cache != null) {
+                    // Outra thread ou processo baixando a mesma espécie espera e reaproveita a entrada
+                    // A cópia é feita com a entrada bloqueada, para que ela não seja removida no meio, e
+                    // substitui o destino de uma vez, sem deixar um arquivo pela metade
+                    boolean emCache = cache.obter(BANCO, scientificName, null,
+                            arquivo -> fonte.baixar(scientificName, arquivo),
+                            dados -> Arquivos.gravar(destino, saida -> Files.copy(dados, saida)));
+                    bytes = emCache ? Files.size(destino) : 0;
+                } else {
+                    bytes = fonte.baixar(scientificName, destino);
+                }
+                if (bytes > 0) {
+                    System.out.println("Arquivo " + scientificName + ".fasta salvo com sucesso (" + bytes + " bytes).");
+                } else {
+                    System.out.println("O conteúdo FASTA está vazio. Verifique os logs para mais informações.");
+                }
+            } catch (IOException e) {
+                System.out.println("Erro ao baixar " + scientificName + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return new File(scientificName + ".fasta").exists();
+    }
+
+    /**
+     * Baixa todas as sequências de nucleotídeos do organismo para um único arquivo multi-FASTA,
+     * chamado "nome_todos.fasta".
+     *
+     * @param scientificName O nome científico da espécie.
+     * @param porPagina O número de registros pedidos em cada efetch.
+     * @return O número de bytes gravados, ou 0 se nada foi baixado.
+     */
+    public long baixarTodos(String scientificName, int porPagina) {
+        Path destino = Paths.get(scientificName + "_todos.fasta");
+        try {
+            long bytes = baixarTodos(scientificName, destino, porPagina);
+            if (bytes > 0) {
+                System.out.println("Arquivo " + destino + " salvo com sucesso (" + bytes + " bytes).");
+            }
+            return bytes;
+        } catch (IOException e) {
+            System.out.println("Erro ao baixar " + scientificName + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    /**
+     * Baixa todas as sequências de nucleotídeos do organismo usando o servidor de histórico do NCBI.
+     * Um único esearch guarda o resultado no servidor (WebEnv e QueryKey); em seguida as páginas são
+     * pedidas ao efetch com retstart e retmax. Até {@link #PAGINAS_SIMULTANEAS} páginas são baixadas
+     * ao mesmo tempo, cada uma para um arquivo temporário, e anexadas ao destino na ordem da busca
+     * assim que ficam prontas. O destino só é substituído se todas as páginas chegarem.
+     *
+     * @param scientificName O nome científico da espécie.
+     * @param destino O arquivo multi-FASTA de saída.
+     * @param porPagina O número de registros pedidos em cada efetch.
+     * @return O número de bytes gravados, ou 0 se a busca não encontrar registros.
+     * @throws IOException Se a fonte não for o NCBI, a busca falhar, uma página vier vazia ou ocorrer
+     *         um erro de escrita.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    public long baixarTodos(String scientificName, Path destino, int porPagina) throws IOException, InterruptedException {
+        if (porPagina < 1) {
+            throw new IllegalArgumentException("Registros por página deve ser positivo: " + porPagina);
+        }
+        if (cliente == null) {
+            throw new IOException("A fonte de sequências não oferece busca com servidor de histórico");
+        }
+        HistoricoNcbi historico = buscarHistorico(scientificName, cliente);
+        if (historico.total() == 0) {
+            System.out.println("Nenhuma sequência encontrada para " + scientificName + ".");
+            return 0;
+        }
+        if (!historico.temHistorico()) {
+            throw new IOException("A resposta do esearch não trouxe WebEnv e QueryKey");
+        }
+        System.out.println("Baixando " + historico.total() + " sequências de " + scientificName
+                + " em páginas de " + porPagina + ".");
+
+        Path absoluto = destino.toAbsolutePath();
+        Path temporario = Arquivos.temporario(absoluto);
+        ExecutorService executor = Executors.newFixedThreadPool(PAGINAS_SIMULTANEAS);
+        Deque<Future<Path>> pendentes = new ArrayDeque<>();
+        try {
+            long bytes = 0;
+            long proxima = 0;
+            try (FileChannel saida = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                while (proxima < historico.total() || !pendentes.isEmpty()) {
+                    while (proxima < historico.total() && pendentes.size() < PAGINAS_SIMULTANEAS) {
+                        long inicio = proxima;
+                        pendentes.add(executor.submit(() -> baixarPagina(historico, inicio, porPagina, absoluto)));
+                        proxima += porPagina;
+                    }
+                    Path pagina = esperar(pendentes.removeFirst());
+                    try (FileChannel entrada = FileChannel.open(pagina, StandardOpenOption.READ)) {
+                        long tamanho = entrada.size();
+                        for (long copiados = 0; copiados < tamanho; ) {
+                            copiados += entrada.transferTo(copiados, tamanho - copiados, saida);
+                        }
+                        bytes += tamanho;
+                    } finally {
+                        Files.deleteIfExists(pagina);
+                    }
+                }
+            }
+            Arquivos.mover(temporario, absoluto);
+            return bytes;
+        } finally {
+            executor.shutdownNow();
+            descartar(pendentes);
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private Path baixarPagina(HistoricoNcbi historico, long inicio, int porPagina, Path destino)
+            throws IOException, InterruptedException {
+        Path pagina = Files.createTempFile(destino.getParent(), destino.getFileName().toString(), ".pagina" + inicio);
+        try {
+            String url = cliente.url("efetch.fcgi", "db=nucleotide&query_key=" + historico.queryKey()
+                    + "&WebEnv=" + URLEncoder.encode(historico.webEnv(), StandardCharsets.UTF_8)
+                    + "&retstart=" + inicio + "&retmax=" + porPagina + "&rettype=fasta&retmode=text");
+            if (cliente.baixarArquivo(url, pagina) == 0) {
+                throw new IOException("Página vazia a partir do registro " + inicio);
+            }
+            return pagina;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            Files.deleteIfExists(pagina);
+            throw e;
+        }
+    }
+
+    private static Path esperar(Future<Path> pagina) throws IOException, InterruptedException {
+        try {
+            return pagina.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Remove os arquivos das páginas que ainda não foram anexadas quando o download é interrompido.
+     * As páginas em andamento já foram interrompidas; cada uma é aguardada para que nenhum arquivo
+     * seja criado depois da limpeza.
+     */
+    private static void descartar(Deque<Future<Path>> pendentes) {
+        for (Future<Path> pendente : pendentes) {
+            try {
+                Files.deleteIfExists(pendente.get());
+            } catch (ExecutionException | IOException e) {
+                // A página falhou: baixarPagina já removeu o arquivo
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
         }
     }
 
@@ -51,24 +333,29 @@ public class FastaBaixar{
      */
     
     public static String getFastaContent(String scientificName) {
+        return getFastaContent(scientificName, ClienteNcbi.padrao());
+    }
+
+    /**
+     * Obtém o conteúdo FASTA do NCBI para o nome científico fornecido usando um cliente específico.
+     * 
+     * @param scientificName O nome científico da espécie.
+     * @param cliente O cliente NCBI usado nas requisições.
+     * @return Uma String contendo o conteúdo FASTA, ou null se não for encontrado.
+     */
+    public static String getFastaContent(String scientificName, ClienteNcbi cliente) {
     	// Implementação do método
         try {
-            String encodedName = URLEncoder.encode(scientificName, StandardCharsets.UTF_8.toString());
-            String searchUrl = "https://eutils.ncbi.nlm.nih.gov/entrez/eutils/esearch.fcgi?db=nucleotide&term="
-                    + encodedName + "[Organism]&retmax=1&usehistory=y";
-            System.out.println("Enviando requisição para: " + searchUrl);
-            String xmlResponse = sendGetRequest(searchUrl);
-            System.out.println("Resposta XML recebida: " + xmlResponse);
-            String id = extractIdFromXml(xmlResponse);
+            String id = buscarId(scientificName, cliente);
             if (id == null) {
-                System.out.println("ID não encontrado no XML.");
                 return null;
             }
-            String fastaUrl = "https://eutils.ncbi.nlm.nih.gov/entrez/eutils/efetch.fcgi?db=nucleotide&id="
-                    + id + "&rettype=fasta&retmode=text";
-            System.out.println("Enviando requisição para obter FASTA: " + fastaUrl);
-            String fastaContent = sendGetRequest(fastaUrl);
-            System.out.println("Conteúdo FASTA recebido: " + fastaContent);
+            String fastaUrl = urlEfetch(id, cliente);
+            LOG.debug("Enviando requisição para obter FASTA: {}", fastaUrl);
+            String fastaContent = cliente.get(fastaUrl);
+            if (fastaContent != null) {
+                LOG.debug("Conteúdo FASTA recebido: {} caracteres", fastaContent.length());
+            }
             return fastaContent;
         } catch (Exception e) {
             e.printStackTrace();
@@ -77,42 +364,47 @@ public class FastaBaixar{
     }
 
     /**
-     * Envia uma requisição GET para a URL especificada e retorna a resposta.
-     * 
-     * @param urlString A URL para a qual a requisição será enviada.
-     * @return Uma String contendo a resposta da requisição.
-     * @throws Exception Se ocorrer um erro durante a requisição.
+     * Busca no NCBI o ID da primeira sequência de nucleotídeos do organismo.
+     *
+     * @param scientificName O nome científico da espécie.
+     * @param cliente O cliente NCBI usado na requisição.
+     * @return O ID encontrado, ou null se a busca não retornar nenhum.
+     * @throws IOException Se ocorrer um erro de comunicação.
+     * @throws InterruptedException Se a thread for interrompida.
      */
-    
-    private static String sendGetRequest(String urlString) throws Exception {
-    	 // Implementação do método
-        URL url = new URL(urlString);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        
-        int responseCode = connection.getResponseCode();
-        if (responseCode != 200) {
-            System.out.println("Erro HTTP: " + responseCode);
-            BufferedReader errorReader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-            String errorLine;
-            StringBuilder errorResponse = new StringBuilder();
-            while ((errorLine = errorReader.readLine()) != null) {
-                errorResponse.append(errorLine);
-            }
-            errorReader.close();
-            System.out.println("Resposta de erro: " + errorResponse.toString());
-            return null;
-        }
-        
-        BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-        String inputLine;
-        StringBuilder content = new StringBuilder();
-        while ((inputLine = in.readLine()) != null) {
-            content.append(inputLine).append("\n");
+    static String buscarId(String scientificName, ClienteNcbi cliente) throws IOException, InterruptedException {
+        String encodedName = URLEncoder.encode(scientificName, StandardCharsets.UTF_8);
+        String searchUrl = cliente.url("esearch.fcgi", "db=nucleotide&term="
+                + encodedName + "[Organism]&retmax=1");
+        LOG.debug("Enviando requisição para: {}", searchUrl);
+        String xmlResponse = cliente.get(searchUrl);
+        return extractIdFromXml(xmlResponse);
+    }
+
+    /**
+     * Faz um esearch com usehistory=y e retmax=0: o NCBI guarda a lista completa de IDs no servidor
+     * de histórico e a resposta traz apenas o total, o WebEnv e a QueryKey.
+     *
+     * @param scientificName O nome científico da espécie.
+     * @param cliente O cliente NCBI usado na requisição.
+     * @return O resultado da busca.
+     * @throws IOException Se ocorrer um erro de comunicação ou a resposta for inválida.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    static HistoricoNcbi buscarHistorico(String scientificName, ClienteNcbi cliente) throws IOException, InterruptedException {
+        String encodedName = URLEncoder.encode(scientificName, StandardCharsets.UTF_8);
+        String searchUrl = cliente.url("esearch.fcgi", "db=nucleotide&term="
+                + encodedName + "[Organism]&retmax=0&usehistory=y");
+        LOG.debug("Enviando requisição para: {}", searchUrl);
+        String xmlResponse = cliente.get(searchUrl);
+        if (xmlResponse == null) {
+            throw new IOException("O esearch não retornou resposta para " + scientificName);
         }
-        in.close();
-        connection.disconnect();
-        return content.toString();
+        return HistoricoNcbi.ler(xmlResponse);
+    }
+
+    static String urlEfetch(String id, ClienteNcbi cliente) {
+        return cliente.url("efetch.fcgi", "db=nucleotide&id=" + id + "&rettype=fasta&retmode=text");
     }
 
     /**
@@ -127,14 +419,15 @@ public class FastaBaixar{
         if (xmlResponse == null) {
             return null;
         }
-        Pattern pattern = Pattern.compile("<Id>(\\d+)</Id>");
-        Matcher matcher = pattern.matcher(xmlResponse);
-        if (matcher.find()) {
-            String id = matcher.group(1);
-            System.out.println("ID extraído: " + id);
-            return id;
-        } else {
-            System.out.println("ID não encontrado no XML.");
+        try {
+            List<String> ids = HistoricoNcbi.ler(xmlResponse).ids();
+            if (!ids.isEmpty()) {
+                LOG.debug("ID extraído: {}", ids.get(0));
+                return ids.get(0);
+            }
+            LOG.debug("ID não encontrado no XML.");
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
         }
         return null;
     }
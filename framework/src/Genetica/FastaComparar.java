@@ -1,8 +1,6 @@
 package Genetica;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 
@@ -14,6 +12,8 @@ import java.io.IOException;
 
 public class FastaComparar {
 
+    // Número de bases lidas de cada arquivo por vez na comparação em streaming
+    private static final int TAMANHO_BLOCO = 1 << 16;
 
     /**
      * Compara dois arquivos FASTA e gera um arquivo de texto com o resultado da comparação.
@@ -26,27 +26,113 @@ public class FastaComparar {
     	 // Criação dos objetos File para os arquivos FASTA
 
         try {
-        	// Leitura das sequências dos arquivos FASTA
-            String seq1 = readFastaSequence(file1);
-            String seq2 = readFastaSequence(file2);
-            // Verificação se as sequências foram lidas corretamente
-            if (seq1 == null || seq2 == null) {
-                System.out.println("Erro ao ler os arquivos FASTA.");
-                return;
-            }
+            compararArquivos(file1, file2);
+        } catch (IOException e) {
+            System.out.println("Erro ao ler os arquivos ou gerar o arquivo de texto: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Como {@link #CompararArquivos(String, String)}, mas propaga os erros em vez de mostrá-los.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA.
+     * @param file2 O nome do segundo arquivo FASTA.
+     * @return O nome do arquivo de saída.
+     * @throws IOException Se ocorrer um erro na leitura ou na escrita dos arquivos.
+     */
+    static String compararArquivos(String file1, String file2) throws IOException {
+        // As sequências são lidas lado a lado, em blocos, sem carregar os arquivos na memória
+        try (FastaReader reader1 = new FastaReader(file1); FastaReader reader2 = new FastaReader(file2)) {
+            FastaReader.Cursor cursor1 = reader1.cursor();
+            FastaReader.Cursor cursor2 = reader2.cursor();
+            String resultFilename = nomeRelatorio(file1, file2);
+            compararSequencias(coluna -> compararEmBlocos(cursor1, cursor2, coluna), file1, file2, resultFilename);
+            return resultFilename;
+        }
+    }
+
+    /**
+     * Compara um registro de cada arquivo FASTA, localizados pelo identificador através do
+     * índice ".fai", e gera um arquivo de texto com o resultado da comparação.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA.
+     * @param id1 O identificador do registro no primeiro arquivo.
+     * @param file2 O nome do segundo arquivo FASTA.
+     * @param id2 O identificador do registro no segundo arquivo.
+     */
+    public static void CompararArquivos(String file1, String id1, String file2, String id2) {
+        try (FastaReader reader1 = new FastaReader(file1); FastaReader reader2 = new FastaReader(file2)) {
+            FastaReader.Cursor cursor1 = reader1.cursorRegistro(buscarRegistro(file1, id1));
+            FastaReader.Cursor cursor2 = reader2.cursorRegistro(buscarRegistro(file2, id2));
+
+            String baseFilename = "comparacao_" + new File(file1).getName() + "_" + IndiceFasta.nomeDeArquivo(id1)
+                    + "_e_" + new File(file2).getName() + "_" + IndiceFasta.nomeDeArquivo(id2);
+            compararSequencias(coluna -> compararEmBlocos(cursor1, cursor2, coluna), file1 + ":" + id1, file2 + ":" + id2,
+                    baseFilename + ".txt");
+
+        } catch (IOException e) {
+            System.out.println("Erro ao ler os arquivos ou gerar o arquivo de texto: " + e.getMessage());
+        }
+    }
 
-            int similarity = calculateSimilarity(seq1, seq2);
-            double percentSimilarity = (double) similarity / Math.max(seq1.length(), seq2.length()) * 100;
+    /**
+     * Compara dois arquivos FASTA alinhando as sequências (global ou local, conforme o alinhador)
+     * em vez de compará-las posição a posição, e gera um arquivo de texto com o resultado.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA.
+     * @param file2 O nome do segundo arquivo FASTA.
+     * @param alinhamento O alinhador com o modo, a pontuação e a banda desejados.
+     */
+    public static void CompararArquivos(String file1, String file2, Alinhamento alinhamento) {
+        try {
+            SequenciaCompacta seq1 = SequenciaCompacta.lerFasta(file1, false);
+            SequenciaCompacta seq2 = SequenciaCompacta.lerFasta(file2, false);
+            // O alinhamento trabalha sobre arrays de bytes, que não comportam mais de ~2 Gbp
+            exigirAlinhavel(seq1, file1);
+            exigirAlinhavel(seq2, file2);
 
-            String result = String.format("Comparação entre %s e %s:%n", file1, file2);
-            result += String.format("Similaridade: %.2f%%%n", percentSimilarity);
-            result += "Número de caracteres idênticos: " + similarity + "\n";
-            result += "\nSequências compatíveis:\n";
+            String baseFilename = "comparacao_" + new File(file1).getName() + "_e_" + new File(file2).getName()
+                    + "_alinhamento_" + alinhamento.modo().name().toLowerCase();
+            alinharSequencias(seq1.paraBytes(), seq2.paraBytes(), file1, file2, alinhamento, baseFilename + ".txt");
 
-            result += getCompatibleSequences(seq1, seq2);
+        } catch (IOException e) {
+            System.out.println("Erro ao ler os arquivos ou gerar o arquivo de texto: " + e.getMessage());
+        }
+    }
 
-            String baseFilename = "comparacao_" + new File(file1).getName() + "_e_" + new File(file2).getName();
-            String resultFilename = baseFilename + ".txt";
+    /**
+     * Compara dois arquivos FASTA pelos esboços MinHash dos seus k-mers, com k = 21 e 1000 hashes.
+     * Os esboços são guardados ao lado de cada FASTA e reutilizados nas comparações seguintes.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA.
+     * @param file2 O nome do segundo arquivo FASTA.
+     */
+    public static void CompararEsbocos(String file1, String file2) {
+        CompararEsbocos(file1, file2, EsbocoMinHash.K_PADRAO, EsbocoMinHash.TAMANHO_PADRAO);
+    }
+
+    /**
+     * Compara dois arquivos FASTA pelos esboços MinHash dos seus k-mers e gera um arquivo de texto
+     * com a similaridade de Jaccard, a distância de Mash e a identidade média estimadas.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA.
+     * @param file2 O nome do segundo arquivo FASTA.
+     * @param k O tamanho dos k-mers (1 a 32).
+     * @param tamanho O número de hashes de cada esboço.
+     */
+    public static void CompararEsbocos(String file1, String file2, int k, int tamanho) {
+        try {
+            EsbocoMinHash esboco1 = EsbocoMinHash.paraArquivo(file1, k, tamanho);
+            EsbocoMinHash esboco2 = EsbocoMinHash.paraArquivo(file2, k, tamanho);
+
+            String result = String.format("Comparação por esboços MinHash entre %s e %s (k = %d, %d hashes):%n",
+                    file1, file2, k, tamanho);
+            result += String.format("Jaccard estimado: %.4f%n", esboco1.jaccard(esboco2));
+            result += String.format("Distância de Mash: %.4f%n", esboco1.distanciaMash(esboco2));
+            result += String.format("Identidade média estimada (ANI): %.2f%%%n", esboco1.ani(esboco2) * 100);
+
+            String resultFilename = "comparacao_" + new File(file1).getName() + "_e_" + new File(file2).getName()
+                    + "_esboco.txt";
             generateComparisonTextFile(result, resultFilename);
             System.out.println("Arquivo de comparação gerado: " + resultFilename);
 
@@ -55,6 +141,243 @@ public class FastaComparar {
         }
     }
 
+    private static void exigirAlinhavel(SequenciaCompacta sequencia, String arquivo) throws IOException {
+        if (sequencia.comprimento() > Integer.MAX_VALUE - 8) {
+            throw new IOException("Sequência longa demais para o alinhamento em " + arquivo + ": "
+                    + sequencia.comprimento() + " bases");
+        }
+    }
+
+    /**
+     * Alinha duas sequências já carregadas e grava o relatório.
+     */
+    private static void alinharSequencias(byte[] seq1, byte[] seq2, String nome1, String nome2, Alinhamento alinhamento,
+            String resultFilename) throws IOException {
+        Alinhamento.Resultado resultado;
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.COMPARACAO, Metricas.BASES)) {
+            resultado = alinhamento.alinhar(seq1, seq2);
+            medicao.unidades(resultado.colunas()).concluir();
+        }
+
+        String cabecalho = String.format("Comparação entre %s e %s (alinhamento %s%s):%n", nome1, nome2,
+                alinhamento.modo().name().toLowerCase(),
+                alinhamento.banda() < 0 ? "" : ", banda " + alinhamento.banda());
+        cabecalho += "Pontuação: " + resultado.pontuacao() + "\n";
+        cabecalho += String.format("Identidade: %.2f%%%n", resultado.identidade() * 100);
+        cabecalho += "Colunas: " + resultado.colunas() + " (idênticas: " + resultado.identicos()
+                + ", diferentes: " + resultado.diferentes() + ", lacunas: " + resultado.lacunas() + ")\n";
+        cabecalho += "Região alinhada: Seq1 " + resultado.inicio1() + "-" + resultado.fim1()
+                + ", Seq2 " + resultado.inicio2() + "-" + resultado.fim2() + "\n";
+        cabecalho += "CIGAR: " + resultado.cigar() + "\n";
+
+        try (RelatorioComparacao relatorio = new RelatorioComparacao(resultFilename, cabecalho)) {
+            int i = resultado.inicio1();
+            int j = resultado.inicio2();
+            relatorio.iniciarEm(i, j);
+            for (byte operacao : resultado.operacoes()) {
+                if (operacao == Alinhamento.IGUAL) {
+                    relatorio.coluna(seq1[i++], seq2[j++], true, true);
+                } else if (operacao == Alinhamento.DIFERENTE) {
+                    relatorio.coluna('-', '-', true, true);
+                    i++;
+                    j++;
+                } else if (operacao == Alinhamento.DELECAO) {
+                    relatorio.coluna(seq1[i++], '-', true, false);
+                } else {
+                    relatorio.coluna('-', seq2[j++], false, true);
+                }
+            }
+        }
+        System.out.println("Arquivo de comparação gerado: " + resultFilename);
+    }
+
+    /**
+     * Compara dois arquivos FASTA posição a posição e grava apenas as diferenças, como intervalos
+     * ou registros de SNP no formato VCF, enquanto a comparação avança. O arquivo de saída se
+     * chama "comparacao_&lt;arquivo1&gt;_e_&lt;arquivo2&gt;" com a extensão ".intervalos.tsv" ou ".vcf",
+     * seguida de ".gz" quando compactado.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA (referência).
+     * @param file2 O nome do segundo arquivo FASTA.
+     * @param formato O formato da saída.
+     * @param gzip Se true, a saída é compactada com gzip.
+     */
+    public static void CompararVariantes(String file1, String file2, SaidaVariantes.Formato formato, boolean gzip) {
+        String resultFilename = "comparacao_" + new File(file1).getName() + "_e_" + new File(file2).getName()
+                + (formato == SaidaVariantes.Formato.VCF ? ".vcf" : ".intervalos.tsv") + (gzip ? ".gz" : "");
+        String descricao = "Diferenças entre " + file1 + " e " + file2;
+        try (FastaReader reader1 = new FastaReader(file1); FastaReader reader2 = new FastaReader(file2)) {
+            long[] comprimentos;
+            long diferencas;
+            try (SaidaVariantes saida = new SaidaVariantes(resultFilename, formato, gzip, new File(file1).getName(), descricao)) {
+                comprimentos = compararEmBlocos(reader1.cursor(), reader2.cursor(), (posicao, base1, base2) -> {
+                    if (base1 != base2) {
+                        saida.diferenca(posicao, base1, base2);
+                    }
+                });
+                diferencas = saida.diferencas();
+            }
+            System.out.println("Arquivo de diferenças gerado: " + resultFilename + " (" + diferencas + " posições diferentes em "
+                    + Math.min(comprimentos[0], comprimentos[1]) + " comparadas)");
+
+        } catch (IOException e) {
+            System.out.println("Erro ao ler os arquivos ou gerar o arquivo de diferenças: " + e.getMessage());
+        }
+    }
+
+    private static IndiceFasta.Entrada buscarRegistro(String filename, String id) throws IOException {
+        IndiceFasta.Entrada registro = IndiceFasta.paraArquivo(filename).buscar(id);
+        if (registro == null) {
+            throw new IOException("Registro " + id + " não encontrado em " + filename);
+        }
+        return registro;
+    }
+
+    /**
+     * Compara duas sequências já carregadas na memória e grava o mesmo relatório de
+     * {@link #CompararArquivos(String, String)}, sem ler os arquivos de novo.
+     *
+     * @param seq1 A sequência do primeiro arquivo.
+     * @param seq2 A sequência do segundo arquivo.
+     * @param file1 O nome do primeiro arquivo FASTA, usado no relatório.
+     * @param file2 O nome do segundo arquivo FASTA, usado no relatório.
+     * @return O nome do arquivo de saída.
+     * @throws IOException Se ocorrer um erro na escrita do relatório.
+     */
+    static String compararSequencias(SequenciaCompacta seq1, SequenciaCompacta seq2, String file1, String file2)
+            throws IOException {
+        String resultFilename = nomeRelatorio(file1, file2);
+        compararSequencias(coluna -> compararEmMemoria(seq1, seq2, coluna), file1, file2, resultFilename);
+        return resultFilename;
+    }
+
+    private static String nomeRelatorio(String file1, String file2) {
+        return "comparacao_" + new File(file1).getName() + "_e_" + new File(file2).getName() + ".txt";
+    }
+
+    /**
+     * Compara duas sequências, percorridas posição a posição, e grava o relatório em streaming.
+     * A similaridade só é conhecida no final e é preenchida no cabeçalho ao fechar o relatório.
+     *
+     * @param percurso Entrega cada posição comum das duas sequências e retorna os comprimentos.
+     * @param nome1 O nome da primeira sequência no relatório.
+     * @param nome2 O nome da segunda sequência no relatório.
+     * @param resultFilename O nome do arquivo de saída.
+     * @throws IOException Se ocorrer um erro na leitura ou na escrita dos arquivos.
+     */
+    private static void compararSequencias(Percurso percurso, String nome1, String nome2, String resultFilename)
+            throws IOException {
+        try (RelatorioComparacao relatorio = new RelatorioComparacao(resultFilename,
+                String.format("Comparação entre %s e %s:%n", nome1, nome2), "Similaridade", "Número de caracteres idênticos")) {
+            long[] identicos = new long[1];
+            long[] comprimentos = percurso.percorrer((posicao, base1, base2) -> {
+                if (base1 == base2) {
+                    identicos[0]++;
+                    relatorio.coluna(base1, base2, true, true);
+                } else {
+                    relatorio.coluna('-', '-', true, true);
+                }
+            });
+            long similarity = identicos[0];
+            long maior = Math.max(comprimentos[0], comprimentos[1]);
+            double percentSimilarity = maior == 0 ? 0 : (double) similarity / maior * 100;
+            relatorio.preencher(0, String.format("%.2f%%", percentSimilarity));
+            relatorio.preencher(1, Long.toString(similarity));
+        }
+        System.out.println("Arquivo de comparação gerado: " + resultFilename);
+    }
+
+    /**
+     * Recebe cada posição comparada por {@link #compararEmBlocos}.
+     */
+    private interface Coluna {
+        void comparar(long posicao, int base1, int base2) throws IOException;
+    }
+
+    /**
+     * Percorre as posições comuns de duas sequências, entregando cada uma à coluna.
+     */
+    private interface Percurso {
+        long[] percorrer(Coluna coluna) throws IOException;
+    }
+
+    /**
+     * Como {@link #compararEmBlocos}, mas sobre duas sequências já carregadas. Os trechos ambíguos
+     * são acompanhados em ordem, sem busca binária a cada posição.
+     */
+    private static long[] compararEmMemoria(SequenciaCompacta seq1, SequenciaCompacta seq2, Coluna coluna)
+            throws IOException {
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.COMPARACAO, Metricas.BASES)) {
+            long comum = Math.min(seq1.comprimento(), seq2.comprimento());
+            int trecho1 = 0;
+            int trecho2 = 0;
+            for (long i = 0; i < comum; i++) {
+                while (trecho1 < seq1.trechosAmbiguos() && seq1.fimTrecho(trecho1) <= i) {
+                    trecho1++;
+                }
+                while (trecho2 < seq2.trechosAmbiguos() && seq2.fimTrecho(trecho2) <= i) {
+                    trecho2++;
+                }
+                coluna.comparar(i, simbolo(seq1, trecho1, i), simbolo(seq2, trecho2, i));
+            }
+            medicao.unidades(comum).concluir();
+            return new long[] {seq1.comprimento(), seq2.comprimento()};
+        }
+    }
+
+    private static int simbolo(SequenciaCompacta sequencia, int trecho, long posicao) {
+        if (trecho < sequencia.trechosAmbiguos() && sequencia.inicioTrecho(trecho) <= posicao) {
+            return sequencia.simboloTrecho(trecho);
+        }
+        return SequenciaCompacta.BASES.charAt(sequencia.codigoEm(posicao));
+    }
+
+    /**
+     * Lê as duas sequências lado a lado, em blocos, e entrega cada posição comum (com as bases em
+     * maiúsculas) à coluna. Retorna o comprimento das duas sequências.
+     */
+    private static long[] compararEmBlocos(FastaReader.Cursor cursor1, FastaReader.Cursor cursor2, Coluna coluna)
+            throws IOException {
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.COMPARACAO, Metricas.BASES)) {
+            long[] comprimentos = percorrerEmBlocos(cursor1, cursor2, coluna);
+            medicao.unidades(Math.min(comprimentos[0], comprimentos[1])).concluir();
+            return comprimentos;
+        }
+    }
+
+    private static long[] percorrerEmBlocos(FastaReader.Cursor cursor1, FastaReader.Cursor cursor2, Coluna coluna)
+            throws IOException {
+        byte[] bloco1 = new byte[TAMANHO_BLOCO];
+        byte[] bloco2 = new byte[TAMANHO_BLOCO];
+        long comprimento1 = 0;
+        long comprimento2 = 0;
+        int lidos1 = cursor1.ler(bloco1, 0, TAMANHO_BLOCO);
+        int lidos2 = cursor2.ler(bloco2, 0, TAMANHO_BLOCO);
+        // O cursor só devolve menos que o pedido no fim, então os blocos andam juntos
+        while (lidos1 > 0 && lidos2 > 0) {
+            int colunas = Math.min(lidos1, lidos2);
+            for (int i = 0; i < colunas; i++) {
+                coluna.comparar(comprimento1 + i, maiuscula(bloco1[i]), maiuscula(bloco2[i]));
+            }
+            comprimento1 += lidos1;
+            comprimento2 += lidos2;
+            lidos1 = lidos1 == TAMANHO_BLOCO ? cursor1.ler(bloco1, 0, TAMANHO_BLOCO) : -1;
+            lidos2 = lidos2 == TAMANHO_BLOCO ? cursor2.ler(bloco2, 0, TAMANHO_BLOCO) : -1;
+        }
+        // O restante da sequência mais longa só entra no comprimento
+        for (; lidos1 > 0; lidos1 = cursor1.ler(bloco1, 0, TAMANHO_BLOCO)) {
+            comprimento1 += lidos1;
+        }
+        for (; lidos2 > 0; lidos2 = cursor2.ler(bloco2, 0, TAMANHO_BLOCO)) {
+            comprimento2 += lidos2;
+        }
+        return new long[] {comprimento1, comprimento2};
+    }
+
+    private static int maiuscula(byte b) {
+        return b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b;
+    }
+
     /**
      * Lê a sequência de um arquivo FASTA.
      *
@@ -65,16 +388,15 @@ public class FastaComparar {
     public static String readFastaSequence(String filename) throws IOException {
         // StringBuilder para armazenar a sequência completa
         StringBuilder sequence = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            // Leitura de cada linha do arquivo
-            while ((line = reader.readLine()) != null) {
-                // Ignora as linhas que começam com ">" (cabeçalhos)
-                if (!line.startsWith(">")) {
-                    // Adiciona a linha (sequência) ao StringBuilder
-                    sequence.append(line.trim());
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.LEITURA, Metricas.BASES);
+             FastaReader reader = new FastaReader(filename)) {
+            // Os cabeçalhos e as quebras de linha são pulados pelo leitor
+            reader.percorrer(bases -> {
+                for (int i = 0; i < bases.limit(); i++) {
+                    sequence.append((char) (bases.get(i) & 0xFF));
                 }
-            }
+            });
+            medicao.unidades(sequence.length()).concluir();
         }
         // Retorna a sequência como String
         return sequence.toString();
@@ -104,6 +426,115 @@ public class FastaComparar {
         return similarity;
     }
 
+    /**
+     * Calcula a similaridade entre duas sequências compactas comparando 32 bases por vez.
+     *
+     * <p>Cada palavra de 64 bits das duas sequências é combinada com XOR; os dois bits de cada base
+     * são dobrados em um só e as diferenças são contadas com {@link Long#bitCount}. Em seguida, as
+     * posições da máscara de ambiguidade (N e demais símbolos IUPAC) são corrigidas, de modo que o
+     * resultado é o mesmo da comparação símbolo a símbolo.</p>
+     *
+     * @param seq1 A primeira sequência.
+     * @param seq2 A segunda sequência.
+     * @return O número de bases idênticas nas mesmas posições em ambas as sequências.
+     */
+    public static long calculateSimilarity(SequenciaCompacta seq1, SequenciaCompacta seq2) {
+        long minLength = Math.min(seq1.comprimento(), seq2.comprimento());
+        int palavrasCompletas = (int) (minLength >>> 5);
+        long diferencas = 0;
+        for (int w = 0; w < palavrasCompletas; w++) {
+            diferencas += basesDiferentes(seq1.palavra(w) ^ seq2.palavra(w));
+        }
+        int resto = (int) (minLength & 31);
+        if (resto > 0) {
+            long mascara = (1L << (resto << 1)) - 1;
+            diferencas += basesDiferentes((seq1.palavra(palavrasCompletas) ^ seq2.palavra(palavrasCompletas)) & mascara);
+        }
+        return minLength - diferencas + corrigirAmbiguidades(seq1, seq2, minLength);
+    }
+
+    /**
+     * Conta quantas bases (pares de bits) são diferentes de zero em uma palavra.
+     */
+    private static int basesDiferentes(long xor) {
+        return Long.bitCount((xor | (xor >>> 1)) & 0x5555555555555555L);
+    }
+
+    /**
+     * Posições ambíguas são gravadas com o código 0 (A), então a contagem por palavras as considera
+     * iguais a um A ou a qualquer outra posição ambígua. Retorna o ajuste (sempre menor ou igual a
+     * zero) que torna a contagem igual à comparação dos símbolos originais.
+     */
+    private static long corrigirAmbiguidades(SequenciaCompacta a, SequenciaCompacta b, long limite) {
+        long correcao = 0;
+        int k = 0;
+        for (int i = 0; i < a.trechosAmbiguos() && a.inicioTrecho(i) < limite; i++) {
+            long posicao = a.inicioTrecho(i);
+            long fim = Math.min(a.fimTrecho(i), limite);
+            while (k < b.trechosAmbiguos() && b.fimTrecho(k) <= posicao) {
+                k++;
+            }
+            int j = k;
+            while (posicao < fim) {
+                if (j < b.trechosAmbiguos() && b.inicioTrecho(j) < fim) {
+                    long inicioB = Math.max(b.inicioTrecho(j), posicao);
+                    long fimB = Math.min(b.fimTrecho(j), fim);
+                    // Antes do trecho de b, b tem A/C/G/T: só os A's foram contados como iguais
+                    correcao -= codigosZero(b, posicao, inicioB);
+                    if (a.simboloTrecho(i) != b.simboloTrecho(j)) {
+                        correcao -= fimB - inicioB;
+                    }
+                    posicao = fimB;
+                    if (b.fimTrecho(j) <= fim) {
+                        j++;
+                    }
+                } else {
+                    correcao -= codigosZero(b, posicao, fim);
+                    posicao = fim;
+                }
+            }
+        }
+        // Trechos ambíguos de b fora dos trechos de a
+        k = 0;
+        for (int j = 0; j < b.trechosAmbiguos() && b.inicioTrecho(j) < limite; j++) {
+            long posicao = b.inicioTrecho(j);
+            long fim = Math.min(b.fimTrecho(j), limite);
+            while (k < a.trechosAmbiguos() && a.fimTrecho(k) <= posicao) {
+                k++;
+            }
+            int i = k;
+            while (posicao < fim) {
+                if (i < a.trechosAmbiguos() && a.inicioTrecho(i) < fim) {
+                    correcao -= codigosZero(a, posicao, Math.max(a.inicioTrecho(i), posicao));
+                    posicao = Math.min(a.fimTrecho(i), fim);
+                    i++;
+                } else {
+                    correcao -= codigosZero(a, posicao, fim);
+                    posicao = fim;
+                }
+            }
+        }
+        return correcao;
+    }
+
+    /**
+     * Conta as posições em [inicio, fim) cujo código de 2 bits é zero, uma palavra por vez.
+     */
+    private static long codigosZero(SequenciaCompacta sequencia, long inicio, long fim) {
+        long zeros = 0;
+        long posicao = inicio;
+        while (posicao < fim) {
+            int w = (int) (posicao >>> 5);
+            int de = (int) (posicao & 31);
+            int ate = (int) Math.min(32, fim - ((long) w << 5));
+            long palavra = sequencia.palavra(w);
+            long mascara = (ate == 32 ? -1L : (1L << (ate << 1)) - 1) & (-1L << (de << 1));
+            zeros += Long.bitCount(~(palavra | (palavra >>> 1)) & 0x5555555555555555L & mascara);
+            posicao = ((long) w << 5) + ate;
+        }
+        return zeros;
+    }
+
     /**
      * Gera uma representação das sequências compatíveis, marcando as diferenças com hífens.
      *
@@ -134,6 +565,66 @@ public class FastaComparar {
         return "Seq1: " + compatibleSeq1.toString() + "\nSeq2: " + compatibleSeq2.toString();
     }
 
+    /**
+     * Gera uma representação das sequências compactas compatíveis, marcando as diferenças com hífens.
+     *
+     * @param seq1 A primeira sequência.
+     * @param seq2 A segunda sequência.
+     * @return Uma String contendo as duas sequências alinhadas, com hífens nas posições diferentes.
+     * @throws IllegalStateException Se a menor sequência não couber em uma String, como em
+     *         {@link SequenciaCompacta#paraBytes()}.
+     */
+    public static String getCompatibleSequences(SequenciaCompacta seq1, SequenciaCompacta seq2) {
+        long comprimento = Math.min(seq1.comprimento(), seq2.comprimento());
+        if (comprimento > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Sequência longa demais para um texto: " + comprimento);
+        }
+        int minLength = (int) comprimento;
+        StringBuilder compatibleSeq1 = new StringBuilder(minLength);
+        StringBuilder compatibleSeq2 = new StringBuilder(minLength);
+        for (int i = 0; i < minLength; i++) {
+            char base1 = seq1.charAt(i);
+            char base2 = seq2.charAt(i);
+            compatibleSeq1.append(base1 == base2 ? base1 : '-');
+            compatibleSeq2.append(base1 == base2 ? base2 : '-');
+        }
+        return "Seq1: " + compatibleSeq1.toString() + "\nSeq2: " + compatibleSeq2.toString();
+    }
+
+    /**
+     * Gera uma representação das sequências alinhadas. As posições diferentes são marcadas com
+     * hífens nas duas sequências e as lacunas com hífen apenas na sequência que não tem a base.
+     *
+     * @param seq1 A primeira sequência.
+     * @param seq2 A segunda sequência.
+     * @param alinhamento O resultado do alinhamento das duas sequências.
+     * @return Uma String contendo as duas sequências alinhadas.
+     */
+    public static String getCompatibleSequences(byte[] seq1, byte[] seq2, Alinhamento.Resultado alinhamento) {
+        StringBuilder compatibleSeq1 = new StringBuilder(alinhamento.colunas());
+        StringBuilder compatibleSeq2 = new StringBuilder(alinhamento.colunas());
+        int i = alinhamento.inicio1();
+        int j = alinhamento.inicio2();
+        for (byte operacao : alinhamento.operacoes()) {
+            if (operacao == Alinhamento.IGUAL) {
+                compatibleSeq1.append((char) seq1[i++]);
+                compatibleSeq2.append((char) seq2[j++]);
+            } else if (operacao == Alinhamento.DIFERENTE) {
+                compatibleSeq1.append('-');
+                compatibleSeq2.append('-');
+                i++;
+                j++;
+            } else if (operacao == Alinhamento.DELECAO) {
+                compatibleSeq1.append((char) seq1[i++]);
+                compatibleSeq2.append('-');
+            } else {
+                compatibleSeq1.append('-');
+                compatibleSeq2.append((char) seq2[j++]);
+            }
+        }
+        return "Seq1: " + compatibleSeq1.toString() + "\nSeq2: " + compatibleSeq2.toString();
+    }
+
     /**
      * Gera um arquivo de texto com o resultado da comparação.
      *
@@ -142,9 +633,12 @@ public class FastaComparar {
      * @throws IOException Se ocorrer um erro na escrita do arquivo.
      */
     public static void generateComparisonTextFile(String result, String outputFilename) throws IOException {
-        // Utiliza FileWriter para escrever o resultado no arquivo de saída
-        try (FileWriter writer = new FileWriter(outputFilename)) {
-            writer.write(result);
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.ESCRITA, Metricas.BYTES)) {
+            // Utiliza FileWriter para escrever o resultado no arquivo de saída
+            try (FileWriter writer = new FileWriter(outputFilename)) {
+                writer.write(result);
+            }
+            medicao.unidades(new File(outputFilename).length()).concluir();
         }
     }
 }
\ No newline at end of file
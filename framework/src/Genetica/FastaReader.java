@@ -0,0 +1,318 @@
+package Genetica;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A classe FastaReader lê arquivos FASTA mapeando-os em memória com {@link FileChannel#map},
+ * percorrendo os bytes diretamente, sem decodificar caracteres nem criar uma String por linha.
+ *
+ * <p>O arquivo é mapeado em várias regiões (1 GiB por padrão), o que permite ler arquivos maiores
+ * que 2 GB. Os trechos de sequência são entregues ao {@link Visitante} como visões (slices) da
+ * região mapeada, sem cópia; cabeçalhos, quebras de linha e espaços são pulados no próprio lugar.</p>
+ * @author rezende
+ */
+public class FastaReader implements Closeable {
+
+    /** Tamanho padrão de cada região mapeada: 1 GiB. */
+    public static final long TAMANHO_REGIAO = 1L << 30;
+
+    private final String filename;
+    private final FileChannel canal;
+    private final long tamanho;
+    private final long tamanhoRegiao;
+
+    /**
+     * Recebe os cabeçalhos e os trechos de sequência encontrados durante a leitura.
+     */
+    public interface Visitante {
+
+        /**
+         * Chamado para cada linha de cabeçalho.
+         *
+         * @param texto O texto do cabeçalho, sem o "&gt;".
+         * @param deslocamento A posição em bytes do "&gt;" no arquivo.
+         */
+        default void cabecalho(String texto, long deslocamento) {
+        }
+
+        /**
+         * Chamado para cada trecho contínuo de bases. O buffer é uma visão da região mapeada
+         * (posição 0 até o limite) e só é válido durante a chamada.
+         *
+         * @param bases Os bytes das bases.
+         */
+        void sequencia(ByteBuffer bases);
+    }
+
+    /**
+     * Abre um arquivo FASTA para leitura mapeada em memória.
+     *
+     * @param filename O nome do arquivo FASTA.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public FastaReader(String filename) throws IOException {
+        this(filename, TAMANHO_REGIAO);
+    }
+
+    /**
+     * Abre um arquivo FASTA para leitura mapeada em memória com um tamanho de região específico.
+     *
+     * @param filename O nome do arquivo FASTA.
+     * @param tamanhoRegiao O número máximo de bytes mapeados por região (até 2 GB).
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public FastaReader(String filename, long tamanhoRegiao) throws IOException {
+        if (tamanhoRegiao <= 0 || tamanhoRegiao > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamanho de região inválido: " + tamanhoRegiao);
+        }
+        this.filename = filename;
+        this.canal = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        this.tamanho = canal.size();
+        this.tamanhoRegiao = tamanhoRegiao;
+    }
+
+    /**
+     * Retorna o tamanho do arquivo em bytes.
+     *
+     * @return O tamanho do arquivo.
+     */
+    public long tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Verifica se o arquivo começa com uma linha de cabeçalho. Um arquivo vazio é aceito.
+     *
+     * @return true se o primeiro byte for "&gt;" ou se o arquivo estiver vazio.
+     * @throws IOException Se ocorrer um erro na leitura.
+     */
+    public boolean comecaComCabecalho() throws IOException {
+        if (tamanho == 0) {
+            return true;
+        }
+        ByteBuffer primeiro = ByteBuffer.allocate(1);
+        canal.read(primeiro, 0);
+        return primeiro.get(0) == '>';
+    }
+
+    /**
+     * Lança uma IOException se o arquivo não começar com uma linha de cabeçalho.
+     *
+     * @throws IOException Se o arquivo não for um FASTA válido.
+     */
+    public void exigirCabecalho() throws IOException {
+        if (!comecaComCabecalho()) {
+            throw new IOException("Arquivo FASTA inválido: " + filename);
+        }
+    }
+
+    /**
+     * Percorre o arquivo inteiro, entregando cabeçalhos e trechos de sequência ao visitante.
+     *
+     * @param visitante O receptor dos cabeçalhos e das bases.
+     * @throws IOException Se ocorrer um erro no mapeamento do arquivo.
+     */
+    public void percorrer(Visitante visitante) throws IOException {
+        percorrer(0, tamanho, false, visitante);
+    }
+
+    /**
+     * Percorre apenas as bases de um registro, indo direto ao seu deslocamento no arquivo.
+     * Para registros com linhas regulares só os bytes do registro são mapeados; nos demais a
+     * leitura para no próximo cabeçalho.
+     *
+     * @param registro A entrada do registro no índice do arquivo.
+     * @param visitante O receptor das bases.
+     * @throws IOException Se ocorrer um erro no mapeamento do arquivo.
+     */
+    public void percorrerRegistro(IndiceFasta.Entrada registro, Visitante visitante) throws IOException {
+        if (registro.regular()) {
+            percorrer(registro.deslocamento(), Math.min(registro.fim(), tamanho), true, visitante);
+        } else {
+            percorrer(registro.deslocamento(), tamanho, true, visitante);
+        }
+    }
+
+    /**
+     * Percorre o intervalo de bytes [inicio, fim), que deve começar no início de uma linha.
+     *
+     * @param inicio O deslocamento inicial, em bytes.
+     * @param fim O deslocamento final (exclusivo), em bytes.
+     * @param pararNoCabecalho Se true, a leitura termina no primeiro cabeçalho encontrado.
+     * @param visitante O receptor dos cabeçalhos e das bases.
+     * @throws IOException Se ocorrer um erro no mapeamento do arquivo.
+     */
+    public void percorrer(long inicio, long fim, boolean pararNoCabecalho, Visitante visitante) throws IOException {
+        boolean inicioLinha = true;
+        boolean cabecalho = false;
+        long inicioCabecalho = 0;
+        ByteArrayOutputStream textoCabecalho = new ByteArrayOutputStream();
+
+        for (long base = inicio; base < fim; base += tamanhoRegiao) {
+            MappedByteBuffer regiao = canal.map(FileChannel.MapMode.READ_ONLY, base, Math.min(tamanhoRegiao, fim - base));
+            int limite = regiao.limit();
+            int inicioTrecho = -1;
+            for (int i = 0; i < limite; i++) {
+                byte b = regiao.get(i);
+                if (cabecalho) {
+                    // O cabeçalho pode atravessar regiões, então é acumulado à parte
+                    if (b == '\n' || b == '\r') {
+                        entregarCabecalho(visitante, textoCabecalho, inicioCabecalho);
+                        cabecalho = false;
+                        inicioLinha = true;
+                    } else {
+                        textoCabecalho.write(b);
+                    }
+                    continue;
+                }
+                if (b == '\n' || b == '\r') {
+                    inicioTrecho = entregarTrecho(visitante, regiao, inicioTrecho, i);
+                    inicioLinha = true;
+                    continue;
+                }
+                if (inicioLinha && b == '>') {
+                    entregarTrecho(visitante, regiao, inicioTrecho, i);
+                    if (pararNoCabecalho) {
+                        return;
+                    }
+                    inicioTrecho = -1;
+                    cabecalho = true;
+                    inicioCabecalho = base + i;
+                    inicioLinha = false;
+                    continue;
+                }
+                inicioLinha = false;
+                if (SequenciaCompacta.ehEspaco(b)) {
+                    inicioTrecho = entregarTrecho(visitante, regiao, inicioTrecho, i);
+                } else if (inicioTrecho < 0) {
+                    inicioTrecho = i;
+                }
+            }
+            entregarTrecho(visitante, regiao, inicioTrecho, limite);
+        }
+        if (cabecalho) {
+            entregarCabecalho(visitante, textoCabecalho, inicioCabecalho);
+        }
+    }
+
+    /**
+     * Cria um cursor que entrega as bases do arquivo inteiro sob demanda, pulando cabeçalhos.
+     *
+     * @return O cursor, posicionado no início do arquivo.
+     */
+    public Cursor cursor() {
+        return new Cursor(0, tamanho, false);
+    }
+
+    /**
+     * Cria um cursor que entrega apenas as bases de um registro, a partir do seu deslocamento.
+     *
+     * @param registro A entrada do registro no índice do arquivo.
+     * @return O cursor, posicionado no início das bases do registro.
+     */
+    public Cursor cursorRegistro(IndiceFasta.Entrada registro) {
+        long fim = registro.regular() ? Math.min(registro.fim(), tamanho) : tamanho;
+        return new Cursor(registro.deslocamento(), fim, true);
+    }
+
+    /**
+     * Leitura das bases no modo "puxar": o chamador pede um bloco de bases quando precisa, o que
+     * permite percorrer dois arquivos lado a lado. As regiões são mapeadas à medida que o cursor
+     * avança, então a memória usada não depende do tamanho do arquivo.
+     */
+    public class Cursor {
+        private final long fim;
+        private final boolean pararNoCabecalho;
+        private long proximaRegiao;
+        private MappedByteBuffer regiao;
+        private int posicao;
+        private boolean inicioLinha = true;
+        private boolean cabecalho;
+        private boolean terminado;
+
+        private Cursor(long inicio, long fim, boolean pararNoCabecalho) {
+            this.proximaRegiao = inicio;
+            this.fim = fim;
+            this.pararNoCabecalho = pararNoCabecalho;
+        }
+
+        /**
+         * Copia as próximas bases para o destino, sem quebras de linha, espaços nem cabeçalhos.
+         *
+         * @param destino O array de destino.
+         * @param deslocamento A posição do destino onde a primeira base é gravada.
+         * @param maximo O número máximo de bases copiadas.
+         * @return O número de bases copiadas, menor que o máximo só no fim, ou -1 se não houver mais bases.
+         * @throws IOException Se ocorrer um erro no mapeamento do arquivo.
+         */
+        public int ler(byte[] destino, int deslocamento, int maximo) throws IOException {
+            int lidos = 0;
+            while (lidos < maximo && !terminado) {
+                if (regiao == null || posicao == regiao.limit()) {
+                    if (proximaRegiao >= fim) {
+                        terminado = true;
+                        break;
+                    }
+                    regiao = canal.map(FileChannel.MapMode.READ_ONLY, proximaRegiao, Math.min(tamanhoRegiao, fim - proximaRegiao));
+                    proximaRegiao += regiao.limit();
+                    posicao = 0;
+                }
+                byte b = regiao.get(posicao++);
+                if (b == '\n' || b == '\r') {
+                    cabecalho = false;
+                    inicioLinha = true;
+                    continue;
+                }
+                if (cabecalho) {
+                    continue;
+                }
+                if (inicioLinha && b == '>') {
+                    if (pararNoCabecalho) {
+                        terminado = true;
+                        break;
+                    }
+                    cabecalho = true;
+                    inicioLinha = false;
+                    continue;
+                }
+                inicioLinha = false;
+                if (!SequenciaCompacta.ehEspaco(b)) {
+                    destino[deslocamento + lidos++] = b;
+                }
+            }
+            return lidos == 0 && terminado ? -1 : lidos;
+        }
+    }
+
+    /**
+     * Fecha o canal do arquivo.
+     *
+     * @throws IOException Se ocorrer um erro ao fechar o arquivo.
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private static int entregarTrecho(Visitante visitante, MappedByteBuffer regiao, int inicio, int fim) {
+        if (inicio >= 0 && fim > inicio) {
+            ByteBuffer trecho = regiao.duplicate();
+            trecho.position(inicio).limit(fim);
+            visitante.sequencia(trecho.slice());
+        }
+        return -1;
+    }
+
+    private static void entregarCabecalho(Visitante visitante, ByteArrayOutputStream texto, long deslocamento) {
+        visitante.cabecalho(new String(texto.toByteArray(), StandardCharsets.UTF_8), deslocamento);
+        texto.reset();
+    }
+}
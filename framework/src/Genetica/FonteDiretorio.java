@@ -0,0 +1,46 @@
+package Genetica;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A classe FonteDiretorio obtém as sequências de arquivos FASTA já existentes em um diretório
+ * local, procurando "nome.fasta", "nome.fa", "nome.fna" e "nome.fas", nessa ordem. Serve para
+ * trabalhar sem rede e para reaproveitar downloads feitos em outra máquina.
+ * @author rezende
+ */
+public class FonteDiretorio implements FonteSequencias {
+
+    private final Path diretorio;
+
+    /**
+     * Cria uma fonte que lê do diretório informado.
+     *
+     * @param diretorio O diretório com os arquivos FASTA.
+     */
+    public FonteDiretorio(Path diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    @Override
+    public long baixar(String scientificName, Path destino) throws IOException {
+        for (String extensao : MatrizComparacao.EXTENSOES) {
+            Path origem = diretorio.resolve(scientificName + extensao);
+            if (Files.isRegularFile(origem)) {
+                Files.copy(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+                return Files.size(destino);
+            }
+        }
+        System.out.println("Sequência de " + scientificName + " não encontrada em " + diretorio + ".");
+        return 0;
+    }
+
+    /**
+     * @return O diretório lido por esta fonte.
+     */
+    public Path diretorio() {
+        return diretorio;
+    }
+}
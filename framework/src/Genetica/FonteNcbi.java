@@ -0,0 +1,43 @@
+package Genetica;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A classe FonteNcbi obtém as sequências das E-utilities do NCBI: um esearch encontra o ID da
+ * primeira sequência de nucleotídeos do organismo e um efetch grava o FASTA direto no disco.
+ *
+ * <p>O endereço das E-utilities vem do {@link ClienteNcbi}, então a mesma fonte pode apontar para
+ * um servidor local, como o {@link ServidorEutilsSimulado}.</p>
+ * @author rezende
+ */
+public class FonteNcbi implements FonteSequencias {
+
+    private final ClienteNcbi cliente;
+
+    /**
+     * Cria uma fonte que usa o cliente informado.
+     *
+     * @param cliente O cliente HTTP, com endereço base e limitador de taxa.
+     */
+    public FonteNcbi(ClienteNcbi cliente) {
+        this.cliente = cliente;
+    }
+
+    @Override
+    public long baixar(String scientificName, Path destino) throws IOException, InterruptedException {
+        String id = FastaBaixar.buscarId(scientificName, cliente);
+        if (id == null) {
+            return 0;
+        }
+        // A resposta vai direto para o disco, sem passar por uma String
+        return cliente.baixarArquivo(FastaBaixar.urlEfetch(id, cliente), destino);
+    }
+
+    /**
+     * @return O cliente usado pelas requisições desta fonte.
+     */
+    public ClienteNcbi cliente() {
+        return cliente;
+    }
+}
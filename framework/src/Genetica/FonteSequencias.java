@@ -0,0 +1,24 @@
+package Genetica;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A interface FonteSequencias representa a origem das sequências FASTA usadas pelo
+ * {@link FastaBaixar}: o NCBI ({@link FonteNcbi}), um diretório local ({@link FonteDiretorio}) ou
+ * qualquer outra implementação injetada na {@link GeneticaFacade}.
+ * @author rezende
+ */
+public interface FonteSequencias {
+
+    /**
+     * Obtém a sequência da espécie e a grava no arquivo de destino.
+     *
+     * @param scientificName O nome científico da espécie.
+     * @param destino O arquivo que receberá a sequência FASTA.
+     * @return O número de bytes gravados, ou 0 se a espécie não foi encontrada.
+     * @throws IOException Se ocorrer um erro de comunicação ou de escrita.
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    long baixar(String scientificName, Path destino) throws IOException, InterruptedException;
+}
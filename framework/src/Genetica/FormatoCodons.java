@@ -0,0 +1,260 @@
+package Genetica;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A classe FormatoCodons grava e lê as contagens de códons de um genoma em formatos para
+ * programas, em vez do relatório de texto de {@link Codon}, que precisa ser interpretado de novo
+ * por quem o consome.
+ *
+ * <p>Os três formatos listam os 64 códons na ordem do índice (AAA, AAC, ..., TTT), inclusive os
+ * que não ocorrem, e usam o código genético padrão para o aminoácido:</p>
+ * <ul>
+ *   <li>{@link Formato#BINARIO}: "CDC1", a origem, as 64 contagens e os códons ambíguos;</li>
+ *   <li>{@link Formato#JSON}: um objeto com a origem, os totais e a lista de códons;</li>
+ *   <li>{@link Formato#CSV}: uma linha por códon (códon, aminoácido, frequência). Os códons
+ *       ambíguos ficam de fora, como no relatório de texto.</li>
+ * </ul>
+ * @author rezende
+ */
+public class FormatoCodons {
+
+    /** Formatos de saída das contagens. */
+    public enum Formato {
+        /** Binário compacto, lido por {@link FormatoCodons#lerBinario(Path)}. */
+        BINARIO(".cdc"),
+        /** JSON, lido por {@link FormatoCodons#lerJson(Path)}. */
+        JSON(".json"),
+        /** CSV com cabeçalho. */
+        CSV(".csv");
+
+        private final String extensao;
+
+        Formato(String extensao) {
+            this.extensao = extensao;
+        }
+
+        /**
+         * @return A extensão dos arquivos neste formato, com o ponto.
+         */
+        public String extensao() {
+            return extensao;
+        }
+    }
+
+    private static final int MAGICO = 0x43444331; // "CDC1"
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String[] CODONS = new String[64];
+    private static final String[] AMINOACIDOS = new String[64];
+
+    static {
+        TabelaGenetica padrao = TabelaGenetica.padrao();
+        for (int i = 0; i < 64; i++) {
+            CODONS[i] = SequenciaCompacta.codonDoIndice(i);
+            AMINOACIDOS[i] = TabelaGenetica.nomeTresLetras(padrao.traduzir(i));
+        }
+    }
+
+    private FormatoCodons() {
+    }
+
+    /**
+     * Grava as contagens no formato informado.
+     *
+     * @param contador As contagens.
+     * @param origem O genoma ou arquivo de origem, registrado na saída (exceto no CSV).
+     * @param formato O formato de saída.
+     * @param destino O arquivo de saída, substituído de uma vez.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public static void salvar(ContadorCodons contador, String origem, Formato formato, Path destino) throws IOException {
+        switch (formato) {
+            case BINARIO:
+                salvarBinario(contador, origem, destino);
+                break;
+            case JSON:
+                salvarJson(contador, origem, destino);
+                break;
+            default:
+                salvarCsv(contador, destino);
+                break;
+        }
+    }
+
+    /**
+     * Grava as contagens em formato binário.
+     *
+     * @param contador As contagens.
+     * @param origem O genoma ou arquivo de origem.
+     * @param destino O arquivo de saída.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public static void salvarBinario(ContadorCodons contador, String origem, Path destino) throws IOException {
+        gravar(destino, saida -> {
+            DataOutputStream dados = new DataOutputStream(new BufferedOutputStream(saida));
+            dados.writeInt(MAGICO);
+            dados.writeUTF(origem);
+            for (int i = 0; i < 64; i++) {
+                dados.writeInt(contador.contagem(i));
+            }
+            dados.writeLong(contador.ambiguos());
+            dados.flush();
+        });
+    }
+
+    /**
+     * Lê as contagens gravadas por {@link #salvarBinario(ContadorCodons, String, Path)}.
+     *
+     * @param arquivo O arquivo binário.
+     * @return As contagens.
+     * @throws IOException Se o arquivo não puder ser lido ou não estiver no formato.
+     */
+    public static ContadorCodons lerBinario(Path arquivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IOException("Arquivo de contagens inválido: " + arquivo);
+            }
+            entrada.readUTF();
+            int[] contagens = new int[64];
+            for (int i = 0; i < 64; i++) {
+                contagens[i] = entrada.readInt();
+            }
+            return ContadorCodons.deContagens(contagens, entrada.readLong());
+        }
+    }
+
+    /**
+     * Grava as contagens em JSON:
+     * <pre>
+     * {"origem":"a.fasta","total":10,"ambiguos":1,
+     *  "codons":[{"codon":"AAA","aminoacido":"Lys","frequencia":3}, ...]}
+     * </pre>
+     *
+     * @param contador As contagens.
+     * @param origem O genoma ou arquivo de origem.
+     * @param destino O arquivo de saída.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public static void salvarJson(ContadorCodons contador, String origem, Path destino) throws IOException {
+        gravar(destino, saida -> {
+            try (JsonGenerator json = gerador(saida)) {
+                json.writeStartObject();
+                json.writeStringField("origem", origem);
+                json.writeNumberField("total", contador.total());
+                json.writeNumberField("ambiguos", contador.ambiguos());
+                json.writeArrayFieldStart("codons");
+                for (int i = 0; i < 64; i++) {
+                    json.writeStartObject();
+                    json.writeStringField("codon", CODONS[i]);
+                    json.writeStringField("aminoacido", AMINOACIDOS[i]);
+                    json.writeNumberField("frequencia", contador.contagem(i));
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        });
+    }
+
+    /**
+     * Lê as contagens gravadas por {@link #salvarJson(ContadorCodons, String, Path)}.
+     *
+     * @param arquivo O arquivo JSON.
+     * @return As contagens.
+     * @throws IOException Se o arquivo não puder ser lido ou não tiver os 64 códons.
+     */
+    public static ContadorCodons lerJson(Path arquivo) throws IOException {
+        JsonNode raiz = JSON.readTree(arquivo.toFile());
+        int[] contagens = new int[64];
+        boolean[] vistos = new boolean[64];
+        for (JsonNode codon : raiz.path("codons")) {
+            int indice = indice(codon.path("codon").asText());
+            if (indice < 0 || vistos[indice]) {
+                throw new IOException("Códon inválido ou repetido em " + arquivo + ": " + codon.path("codon").asText());
+            }
+            vistos[indice] = true;
+            contagens[indice] = codon.path("frequencia").asInt();
+        }
+        for (boolean visto : vistos) {
+            if (!visto) {
+                throw new IOException("O arquivo " + arquivo + " não tem os 64 códons");
+            }
+        }
+        return ContadorCodons.deContagens(contagens, raiz.path("ambiguos").asLong());
+    }
+
+    /**
+     * Grava as contagens em CSV, com o cabeçalho "codon,aminoacido,frequencia".
+     *
+     * @param contador As contagens.
+     * @param destino O arquivo de saída.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public static void salvarCsv(ContadorCodons contador, Path destino) throws IOException {
+        gravar(destino, saida -> {
+            Writer writer = texto(saida);
+            writer.write("codon,aminoacido,frequencia\n");
+            for (int i = 0; i < 64; i++) {
+                writer.write(CODONS[i]);
+                writer.write(',');
+                writer.write(AMINOACIDOS[i]);
+                writer.write(',');
+                writer.write(Integer.toString(contador.contagem(i)));
+                writer.write('\n');
+            }
+            writer.flush();
+        });
+    }
+
+    /**
+     * @return O códon do índice informado (0 a 63).
+     */
+    static String codon(int indice) {
+        return CODONS[indice];
+    }
+
+    /**
+     * Retorna o índice de um códon escrito com ACGT, ou -1.
+     */
+    static int indice(String codon) {
+        if (codon.length() != 3) {
+            return -1;
+        }
+        int b1 = SequenciaCompacta.codigo(codon.charAt(0));
+        int b2 = SequenciaCompacta.codigo(codon.charAt(1));
+        int b3 = SequenciaCompacta.codigo(codon.charAt(2));
+        return b1 < 0 || b2 < 0 || b3 < 0 ? -1 : (b1 << 4) | (b2 << 2) | b3;
+    }
+
+    static JsonGenerator gerador(OutputStream saida) throws IOException {
+        return JSON.getFactory().createGenerator(new BufferedOutputStream(saida));
+    }
+
+    static Writer texto(OutputStream saida) {
+        return new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Grava o arquivo com {@link Arquivos#gravar(Path, Arquivos.Escrita)}, registrando a escrita nas métricas.
+     */
+    static void gravar(Path destino, Arquivos.Escrita escrita) throws IOException {
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.ESCRITA, Metricas.BYTES)) {
+            medicao.unidades(Arquivos.gravar(destino, escrita)).concluir();
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package Genetica;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
 /**
  * A classe GenomeAnalysisFacade fornece uma interface simplificada para as principais
  * funcionalidades de análise de genoma, incluindo download de sequências FASTA,
@@ -17,6 +23,16 @@ public class GeneticaFacade{
         this.fastaBaixar = new FastaBaixar();
     }
 
+    /**
+     * Construtor que obtém as sequências de uma fonte específica, como um diretório local ou um
+     * servidor de E-utilities simulado, em vez do NCBI.
+     *
+     * @param fonte A origem das sequências usadas pelos downloads.
+     */
+    public GeneticaFacade(FonteSequencias fonte) {
+        this.fastaBaixar = new FastaBaixar(fonte);
+    }
+
     /**
      * Baixa a sequência FASTA para uma espécie específica.
      *
@@ -26,6 +42,28 @@ public class GeneticaFacade{
         fastaBaixar.baixar(scientificName);
     }
 
+    /**
+     * Baixa as sequências FASTA de várias espécies simultaneamente, respeitando o limite de
+     * requisições por segundo do NCBI.
+     *
+     * @param scientificNames Os nomes científicos das espécies.
+     * @return Para cada nome, true se o arquivo FASTA existir ao final.
+     */
+    public Map<String, Boolean> BaixarLote(List<String> scientificNames) {
+        return fastaBaixar.baixarLote(scientificNames);
+    }
+
+    /**
+     * Baixa todas as sequências de nucleotídeos da espécie para um único arquivo multi-FASTA
+     * ("nome_todos.fasta"), em páginas pedidas ao servidor de histórico do NCBI.
+     *
+     * @param scientificName O nome científico da espécie.
+     * @return O número de bytes gravados, ou 0 se nada foi baixado.
+     */
+    public long BaixarTodos(String scientificName) {
+        return fastaBaixar.baixarTodos(scientificName, FastaBaixar.REGISTROS_POR_PAGINA);
+    }
+
     /**
      * Compara duas sequências FASTA.
      *
@@ -36,6 +74,73 @@ public class GeneticaFacade{
         FastaComparar.CompararArquivos(file1, file2);
     }
 
+    /**
+     * Compara um registro de cada arquivo FASTA, localizados pelo identificador.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA.
+     * @param id1 O identificador do registro no primeiro arquivo.
+     * @param file2 O nome do segundo arquivo FASTA.
+     * @param id2 O identificador do registro no segundo arquivo.
+     */
+    public void CompararArquivos(String file1, String id1, String file2, String id2) {
+        FastaComparar.CompararArquivos(file1, id1, file2, id2);
+    }
+
+    /**
+     * Compara duas sequências FASTA por alinhamento global ou local.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA.
+     * @param file2 O nome do segundo arquivo FASTA.
+     * @param alinhamento O alinhador com o modo, a pontuação e a banda desejados.
+     */
+    public void CompararArquivos(String file1, String file2, Alinhamento alinhamento) {
+        FastaComparar.CompararArquivos(file1, file2, alinhamento);
+    }
+
+    /**
+     * Compara duas sequências FASTA de forma aproximada pelos esboços MinHash dos seus k-mers.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA.
+     * @param file2 O nome do segundo arquivo FASTA.
+     */
+    public void CompararEsbocos(String file1, String file2) {
+        FastaComparar.CompararEsbocos(file1, file2);
+    }
+
+    /**
+     * Compara duas sequências FASTA gravando apenas as posições diferentes, como intervalos ou VCF.
+     *
+     * @param file1 O nome do primeiro arquivo FASTA (referência).
+     * @param file2 O nome do segundo arquivo FASTA.
+     * @param formato O formato da saída.
+     * @param gzip Se true, a saída é compactada com gzip.
+     */
+    public void CompararVariantes(String file1, String file2, SaidaVariantes.Formato formato, boolean gzip) {
+        FastaComparar.CompararVariantes(file1, file2, formato, gzip);
+    }
+
+    /**
+     * Compara todos os pares de arquivos FASTA de um diretório e grava a matriz de similaridades
+     * em um único arquivo, em CSV se o nome terminar em ".csv" ou em formato binário nos demais casos.
+     *
+     * @param diretorio O diretório com os arquivos FASTA.
+     * @param metrica A métrica de comparação.
+     * @param saida O nome do arquivo de saída.
+     */
+    public void CompararTodos(String diretorio, MatrizComparacao.Metrica metrica, String saida) {
+        try {
+            MatrizComparacao matriz = MatrizComparacao.doDiretorio(diretorio, metrica);
+            if (saida.toLowerCase().endsWith(".csv")) {
+                matriz.salvarCsv(saida);
+            } else {
+                matriz.salvarBinario(saida);
+            }
+            System.out.println("Matriz de comparação gerada: " + saida + " (" + matriz.tamanho() + " arquivos)");
+        } catch (IOException e) {
+            System.out.println("Erro ao ler os arquivos ou gerar a matriz: " + e.getMessage());
+        }
+    }
+
     /**
      * Analisa a frequência de códons em uma sequência FASTA.
      *
@@ -46,37 +151,123 @@ public class GeneticaFacade{
     }
 
     /**
-     * Realiza uma análise completa: baixa duas sequências FASTA, compara-as e
-     * analisa a frequência de códons em ambas.
+     * Analisa a frequência de códons em uma sequência FASTA e grava as contagens em binário,
+     * JSON ou CSV.
      *
-     * @param scientificName1 O nome científico da primeira espécie.
-     * @param scientificName2 O nome científico da segunda espécie.
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     * @param formato O formato da saída.
      */
-    public void AnaliseCompleta(String scientificName1, String scientificName2) {
-        // Download da primeira sequência
-        BaixarFasta(scientificName1);
+    public void CodonAnalise(String fastaFile, FormatoCodons.Formato formato) {
+        Genetica.Codon.CodonAnalise(fastaFile, formato);
+    }
 
+    /**
+     * Calcula as contagens de códons, o RSCU e o CAI de cada gene de um multi-FASTA.
+     *
+     * @param fastaFile O nome do arquivo FASTA com um gene por registro.
+     * @param referenciaFasta O arquivo com os genes de referência do CAI, ou null para usar o
+     *        próprio arquivo.
+     */
+    public void CodonAnalisePorGene(String fastaFile, String referenciaFasta) {
+        Genetica.Codon.CodonAnalisePorGene(fastaFile, referenciaFasta);
+    }
+
+    /**
+     * Junta as contagens de códons de todos os arquivos FASTA de um diretório em uma matriz
+     * espécie × códon, em CSV se o nome terminar em ".csv", em JSON se terminar em ".json" ou em
+     * formato binário nos demais casos.
+     *
+     * @param diretorio O diretório com os arquivos FASTA.
+     * @param saida O nome do arquivo de saída.
+     */
+    public void AgregarCodons(String diretorio, String saida) {
+        String nome = saida.toLowerCase();
+        FormatoCodons.Formato formato = nome.endsWith(".csv") ? FormatoCodons.Formato.CSV
+                : nome.endsWith(".json") ? FormatoCodons.Formato.JSON : FormatoCodons.Formato.BINARIO;
         try {
-            // Pausa de 6 segundos antes de realizar o próximo download
-            Thread.sleep(6000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            int linhas = MatrizCodons.agregar(MatrizComparacao.listarFasta(diretorio), formato, Paths.get(saida));
+            System.out.println("Matriz de códons gerada: " + saida + " (" + linhas + " arquivos)");
+        } catch (IOException e) {
+            System.out.println("Erro ao ler os arquivos ou gerar a matriz: " + e.getMessage());
         }
+    }
+
+    /**
+     * Analisa a frequência de códons em uma sequência FASTA em paralelo.
+     *
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     */
+    public void CodonAnaliseParalela(String fastaFile) {
+        Genetica.Codon.CodonAnaliseParalela(fastaFile);
+    }
+
+    /**
+     * Analisa a frequência de códons nos seis quadros de leitura de uma sequência FASTA.
+     *
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     * @param tabelaId O identificador do código genético do NCBI (1 para o padrão).
+     */
+    public void CodonAnaliseSeisQuadros(String fastaFile, int tabelaId) {
+        Genetica.Codon.CodonAnaliseSeisQuadros(fastaFile, tabelaId);
+    }
 
-        // Download da segunda sequência
-        BaixarFasta(scientificName2);
+    /**
+     * Analisa a frequência de códons de um único registro de um arquivo FASTA.
+     *
+     * @param fastaFile O nome do arquivo FASTA a ser analisado.
+     * @param recordId O identificador do registro.
+     */
+    public void CodonAnalise(String fastaFile, String recordId) {
+        Genetica.Codon.CodonAnalise(fastaFile, recordId);
+    }
 
-        // Nomes dos arquivos FASTA
-        String file1 = scientificName1 + ".fasta";
-        String file2 = scientificName2 + ".fasta";
+    /**
+     * Grava em JSON as métricas acumuladas de cada etapa (requisições HTTP, download, leitura,
+     * contagem de códons, comparação e escrita). As mesmas métricas ficam disponíveis no JMX,
+     * em "Genetica:type=Metricas".
+     *
+     * @param arquivo O nome do arquivo JSON de saída.
+     */
+    public void SalvarMetricas(String arquivo) {
+        try {
+            Metricas.global().salvarJson(Paths.get(arquivo));
+            System.out.println("Métricas salvas em: " + arquivo);
+        } catch (IOException e) {
+            System.out.println("Erro ao salvar as métricas: " + e.getMessage());
+        }
+    }
 
-        // Comparação das sequências
-        CompararArquivos(file1, file2);
+    /**
+     * Passa a gravar as métricas em JSON periodicamente, em segundo plano, até
+     * {@link #PararMetricas()} ser chamado.
+     *
+     * @param arquivo O nome do arquivo JSON de saída, substituído a cada gravação.
+     * @param segundos O intervalo entre as gravações.
+     */
+    public void IniciarMetricasPeriodicas(String arquivo, int segundos) {
+        Metricas.global().iniciarInstantaneos(Paths.get(arquivo), Duration.ofSeconds(segundos));
+    }
 
-        // Análise de códons para ambas as sequências
-        CodonAnalise(file1);
-        CodonAnalise(file2);
+    /**
+     * Para a gravação periódica das métricas.
+     */
+    public void PararMetricas() {
+        Metricas.global().pararInstantaneos();
+    }
 
-        System.out.println("Análise completa realizada para " + scientificName1 + " e " + scientificName2);
+    /**
+     * Realiza uma análise completa: baixa duas sequências FASTA, compara-as e
+     * analisa a frequência de códons em ambas. As etapas rodam em paralelo conforme as
+     * dependências entre elas, e cada arquivo é lido uma única vez (ver {@link PipelineAnalise}).
+     *
+     * @param scientificName1 O nome científico da primeira espécie.
+     * @param scientificName2 O nome científico da segunda espécie.
+     */
+    public void AnaliseCompleta(String scientificName1, String scientificName2) {
+        if (new PipelineAnalise(fastaBaixar).executar(scientificName1, scientificName2)) {
+            System.out.println("Análise completa realizada para " + scientificName1 + " e " + scientificName2);
+        } else {
+            System.out.println("Análise de " + scientificName1 + " e " + scientificName2 + " concluída com erros.");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package Genetica;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A classe HistoricoNcbi representa a resposta de um esearch do NCBI: o total de registros
+ * encontrados, os IDs retornados e, quando a busca usa usehistory=y, a referência ao resultado
+ * guardado no servidor de histórico (WebEnv e QueryKey), que permite baixar todos os registros
+ * em páginas com efetch sem repetir a lista de IDs.
+ *
+ * <p>O XML é lido com um parser StAX em fluxo, lendo Count, WebEnv e QueryKey apenas entre os
+ * filhos de eSearchResult e os IDs dentro de IdList; DTDs e entidades externas são ignorados.</p>
+ * @author rezende
+ */
+public class HistoricoNcbi {
+
+    private static final XMLInputFactory FABRICA = criarFabrica();
+
+    private final long total;
+    private final String webEnv;
+    private final String queryKey;
+    private final List<String> ids;
+
+    private HistoricoNcbi(long total, String webEnv, String queryKey, List<String> ids) {
+        this.total = total;
+        this.webEnv = webEnv;
+        this.queryKey = queryKey;
+        this.ids = Collections.unmodifiableList(ids);
+    }
+
+    /**
+     * Lê a resposta de um esearch a partir de uma String.
+     *
+     * @param xml O XML da resposta.
+     * @return O resultado da busca.
+     * @throws IOException Se o XML for inválido ou o NCBI tiver retornado um erro.
+     */
+    public static HistoricoNcbi ler(String xml) throws IOException {
+        try {
+            return ler(FABRICA.createXMLStreamReader(new StringReader(xml)));
+        } catch (XMLStreamException e) {
+            throw new IOException("Resposta XML do esearch inválida: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lê a resposta de um esearch diretamente do corpo da resposta HTTP.
+     *
+     * @param xml O fluxo com o XML da resposta.
+     * @return O resultado da busca.
+     * @throws IOException Se o XML for inválido ou o NCBI tiver retornado um erro.
+     */
+    public static HistoricoNcbi ler(InputStream xml) throws IOException {
+        try {
+            return ler(FABRICA.createXMLStreamReader(xml));
+        } catch (XMLStreamException e) {
+            throw new IOException("Resposta XML do esearch inválida: " + e.getMessage(), e);
+        }
+    }
+
+    private static HistoricoNcbi ler(XMLStreamReader leitor) throws XMLStreamException, IOException {
+        long total = -1;
+        String webEnv = null;
+        String queryKey = null;
+        String erro = null;
+        List<String> ids = new ArrayList<>();
+        Deque<String> abertos = new ArrayDeque<>();
+        try {
+            while (leitor.hasNext()) {
+                int evento = leitor.next();
+                if (evento == XMLStreamConstants.END_ELEMENT) {
+                    abertos.pop();
+                    continue;
+                }
+                if (evento != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String nome = leitor.getLocalName();
+                String pai = abertos.peek();
+                if ("Id".equals(nome) && "IdList".equals(pai)) {
+                    // getElementText consome o fim do elemento, que não é empilhado
+                    ids.add(leitor.getElementText().trim());
+                } else if (abertos.size() == 1) {
+                    switch (nome) {
+                        case "Count":
+                            total = Long.parseLong(leitor.getElementText().trim());
+                            break;
+                        case "WebEnv":
+                            webEnv = leitor.getElementText().trim();
+                            break;
+                        case "QueryKey":
+                            queryKey = leitor.getElementText().trim();
+                            break;
+                        case "ERROR":
+                            erro = leitor.getElementText().trim();
+                            break;
+                        default:
+                            abertos.push(nome);
+                            break;
+                    }
+                } else {
+                    abertos.push(nome);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Count inválido na resposta do esearch", e);
+        } finally {
+            leitor.close();
+        }
+        if (erro != null && total < 0) {
+            throw new IOException("Erro retornado pelo esearch: " + erro);
+        }
+        return new HistoricoNcbi(Math.max(total, ids.size()), webEnv, queryKey, ids);
+    }
+
+    /**
+     * @return O número total de registros encontrados pela busca.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @return O identificador da sessão no servidor de histórico, ou null se a busca não o usou.
+     */
+    public String webEnv() {
+        return webEnv;
+    }
+
+    /**
+     * @return A chave da consulta no servidor de histórico, ou null se a busca não o usou.
+     */
+    public String queryKey() {
+        return queryKey;
+    }
+
+    /**
+     * @return true se a resposta trouxe WebEnv e QueryKey.
+     */
+    public boolean temHistorico() {
+        return webEnv != null && queryKey != null;
+    }
+
+    /**
+     * @return Os IDs retornados na resposta (no máximo o retmax da busca).
+     */
+    public List<String> ids() {
+        return ids;
+    }
+
+    private static XMLInputFactory criarFabrica() {
+        XMLInputFactory fabrica = XMLInputFactory.newFactory();
+        fabrica.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        fabrica.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return fabrica;
+    }
+}
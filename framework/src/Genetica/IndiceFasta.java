@@ -0,0 +1,413 @@
+package Genetica;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A classe IndiceFasta mantém um índice dos registros de um arquivo FASTA com vários registros,
+ * no mesmo formato do ".fai" do samtools: nome, comprimento, deslocamento, bases por linha e
+ * bytes por linha.
+ *
+ * <p>O índice é salvo ao lado do arquivo ({@code arquivo.fasta.fai}) e reaproveitado enquanto o
+ * FASTA tiver o mesmo tamanho e a mesma data de modificação de quando ele foi construído, de modo que um registro pode ser lido indo direto ao seu deslocamento,
+ * sem percorrer o arquivo inteiro. Registros com linhas de tamanhos irregulares são gravados com
+ * 0 bases por linha; eles continuam acessíveis pelo deslocamento, mas não por posição de base.</p>
+ * @author rezende
+ */
+public class IndiceFasta {
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    private static final String EXTENSAO_ORIGEM = ".origem";
+
+    private final List<Entrada> registros = new ArrayList<>();
+    private final Map<String, Entrada> entradas = new LinkedHashMap<>();
+
+    /**
+     * Uma linha do índice, descrevendo um registro do arquivo FASTA.
+     */
+    public static class Entrada {
+        private final String nome;
+        private final long comprimento;
+        private final long deslocamento;
+        private final int basesPorLinha;
+        private final int bytesPorLinha;
+
+        /**
+         * Cria uma entrada do índice.
+         *
+         * @param nome O identificador do registro (o cabeçalho até o primeiro espaço).
+         * @param comprimento O número de bases do registro.
+         * @param deslocamento A posição em bytes da primeira base do registro.
+         * @param basesPorLinha O número de bases por linha, ou 0 se as linhas forem irregulares.
+         * @param bytesPorLinha O número de bytes por linha, incluindo a quebra, ou 0 se irregulares.
+         */
+        public Entrada(String nome, long comprimento, long deslocamento, int basesPorLinha, int bytesPorLinha) {
+            this.nome = nome;
+            this.comprimento = comprimento;
+            this.deslocamento = deslocamento;
+            this.basesPorLinha = basesPorLinha;
+            this.bytesPorLinha = bytesPorLinha;
+        }
+
+        /**
+         * @return O identificador do registro.
+         */
+        public String nome() {
+            return nome;
+        }
+
+        /**
+         * @return O número de bases do registro.
+         */
+        public long comprimento() {
+            return comprimento;
+        }
+
+        /**
+         * @return A posição em bytes da primeira base do registro.
+         */
+        public long deslocamento() {
+            return deslocamento;
+        }
+
+        /**
+         * @return O número de bases por linha, ou 0 se as linhas forem irregulares.
+         */
+        public int basesPorLinha() {
+            return basesPorLinha;
+        }
+
+        /**
+         * @return O número de bytes por linha, incluindo a quebra, ou 0 se irregulares.
+         */
+        public int bytesPorLinha() {
+            return bytesPorLinha;
+        }
+
+        /**
+         * Indica se todas as linhas do registro (exceto a última) têm o mesmo tamanho.
+         *
+         * @return true se as posições das bases puderem ser calculadas a partir do índice.
+         */
+        public boolean regular() {
+            return basesPorLinha > 0;
+        }
+
+        /**
+         * Calcula a posição em bytes, no arquivo, de uma base do registro.
+         *
+         * @param base A posição da base dentro do registro (a partir de 0).
+         * @return O deslocamento da base no arquivo.
+         */
+        public long deslocamentoDaBase(long base) {
+            if (!regular()) {
+                throw new IllegalStateException("Registro com linhas irregulares: " + nome);
+            }
+            return deslocamento + base / basesPorLinha * bytesPorLinha + base % basesPorLinha;
+        }
+
+        /**
+         * Retorna a posição em bytes logo após a última base do registro.
+         *
+         * @return O fim do registro no arquivo.
+         */
+        public long fim() {
+            return comprimento == 0 ? deslocamento : deslocamentoDaBase(comprimento - 1) + 1;
+        }
+    }
+
+    /**
+     * Retorna o índice de um arquivo FASTA, lendo o ".fai" salvo se ele estiver atualizado ou
+     * construindo e salvando um novo caso contrário. O tamanho e a data do FASTA indexado ficam em
+     * "arquivo.fasta.fai.origem", para que o ".fai" continue no formato do samtools.
+     *
+     * @param fastaFile O nome do arquivo FASTA.
+     * @return O índice do arquivo.
+     * @throws IOException Se ocorrer um erro na leitura do arquivo FASTA.
+     */
+    public static IndiceFasta paraArquivo(String fastaFile) throws IOException {
+        Path fai = Paths.get(fastaFile + ".fai");
+        Path origem = Paths.get(fastaFile + ".fai" + EXTENSAO_ORIGEM);
+        // Lido antes do FASTA: uma mudança durante a construção deixa o índice salvo desatualizado
+        String estado = estado(Paths.get(fastaFile));
+        if (Files.exists(fai) && estado.equals(lerOrigem(origem))) {
+            try {
+                return ler(fai.toString());
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Índice " + fai + " inválido, reconstruindo: " + e.getMessage());
+            }
+        }
+        IndiceFasta indice = construir(fastaFile);
+        try {
+            indice.salvar(fai.toString());
+            Arquivos.gravar(origem, saida -> saida.write((estado + "\n").getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            System.out.println("Não foi possível salvar o índice " + fai + ": " + e.getMessage());
+        }
+        return indice;
+    }
+
+    /**
+     * Descreve o FASTA pelo tamanho e pela data de modificação. A data sozinha não basta: uma
+     * edição no mesmo tique do relógio do sistema de arquivos, ou um {@code cp -p}, a preserva.
+     */
+    private static String estado(Path fasta) throws IOException {
+        return Files.size(fasta) + "\t" + Files.getLastModifiedTime(fasta).toMillis();
+    }
+
+    private static String lerOrigem(Path origem) {
+        try {
+            return Files.readString(origem, StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Constrói o índice percorrendo o arquivo FASTA uma única vez.
+     *
+     * @param fastaFile O nome do arquivo FASTA.
+     * @return O índice construído.
+     * @throws IOException Se ocorrer um erro na leitura do arquivo.
+     */
+    public static IndiceFasta construir(String fastaFile) throws IOException {
+        IndiceFasta indice = new IndiceFasta();
+        try (FileChannel canal = FileChannel.open(Paths.get(fastaFile), StandardOpenOption.READ)) {
+            new Construtor(indice).ler(canal);
+        }
+        return indice;
+    }
+
+    /**
+     * Lê um índice salvo no formato ".fai".
+     *
+     * @param faiFile O nome do arquivo de índice.
+     * @return O índice lido.
+     * @throws IOException Se ocorrer um erro na leitura do arquivo.
+     */
+    public static IndiceFasta ler(String faiFile) throws IOException {
+        IndiceFasta indice = new IndiceFasta();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(faiFile), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] campos = line.split("\t");
+                if (campos.length < 5) {
+                    throw new IOException("Linha de índice inválida: " + line);
+                }
+                indice.adicionar(new Entrada(campos[0], Long.parseLong(campos[1]), Long.parseLong(campos[2]),
+                        Integer.parseInt(campos[3]), Integer.parseInt(campos[4])));
+            }
+        }
+        return indice;
+    }
+
+    /**
+     * Salva o índice no formato ".fai". O arquivo é substituído de uma vez, então quem o lê ao
+     * mesmo tempo nunca encontra um índice pela metade.
+     *
+     * @param faiFile O nome do arquivo de índice.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public void salvar(String faiFile) throws IOException {
+        Arquivos.gravar(Paths.get(faiFile), saida -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            for (Entrada entrada : registros) {
+                writer.write(entrada.nome() + "\t" + entrada.comprimento() + "\t" + entrada.deslocamento()
+                        + "\t" + entrada.basesPorLinha() + "\t" + entrada.bytesPorLinha() + "\n");
+            }
+            writer.flush();
+        });
+    }
+
+    /**
+     * Busca um registro pelo identificador. Se o identificador se repetir no arquivo, retorna o
+     * primeiro registro com ele.
+     *
+     * @param nome O identificador do registro.
+     * @return A entrada do registro, ou null se ele não existir.
+     */
+    public Entrada buscar(String nome) {
+        return entradas.get(nome);
+    }
+
+    /**
+     * Retorna todas as entradas, na ordem em que aparecem no arquivo, inclusive as de
+     * identificadores repetidos.
+     *
+     * @return A lista de entradas.
+     */
+    public List<Entrada> entradas() {
+        return Collections.unmodifiableList(registros);
+    }
+
+    /**
+     * Retorna o número de registros indexados.
+     *
+     * @return O número de registros.
+     */
+    public int tamanho() {
+        return registros.size();
+    }
+
+    /**
+     * Converte um identificador de registro em um trecho seguro para nomes de arquivo.
+     *
+     * @param id O identificador do registro.
+     * @return O identificador com os caracteres especiais trocados por "_".
+     */
+    static String nomeDeArquivo(String id) {
+        return id.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private void adicionar(Entrada entrada) {
+        registros.add(entrada);
+        if (entradas.putIfAbsent(entrada.nome(), entrada) != null) {
+            System.out.println("Registro duplicado no índice, a busca por ID retorna o primeiro: " + entrada.nome());
+        }
+    }
+
+    /**
+     * Percorre os bytes do arquivo medindo o comprimento e a largura das linhas de cada registro.
+     */
+    private static class Construtor {
+        private final IndiceFasta indice;
+        private final ByteArrayOutputStream nome = new ByteArrayOutputStream();
+
+        private long posicao;
+        private boolean cabecalho;
+        private boolean fimDoNome;
+        private boolean emRegistro;
+
+        private long deslocamento;
+        private long comprimento;
+        private long primeiraBases = -1;
+        private long primeiraBytes = -1;
+        private boolean linhaCurta;
+        private boolean irregular;
+
+        private long linhaBases;
+        private long linhaBytes;
+
+        Construtor(IndiceFasta indice) {
+            this.indice = indice;
+        }
+
+        void ler(FileChannel canal) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+            byte[] bytes = buffer.array();
+            int lidos;
+            while ((lidos = canal.read(buffer)) != -1) {
+                for (int i = 0; i < lidos; i++) {
+                    processar(bytes[i]);
+                    posicao++;
+                }
+                buffer.clear();
+            }
+            if (cabecalho) {
+                iniciarRegistro(posicao);
+            }
+            if (linhaBytes > 0) {
+                fimDeLinha(true);
+            }
+            fecharRegistro();
+        }
+
+        private void processar(byte b) {
+            if (cabecalho) {
+                if (b == '\n') {
+                    cabecalho = false;
+                    iniciarRegistro(posicao + 1);
+                } else if (b == ' ' || b == '\t' || b == '\r') {
+                    fimDoNome = true;
+                } else if (!fimDoNome) {
+                    nome.write(b);
+                }
+                return;
+            }
+            if (b == '\n') {
+                linhaBytes++;
+                fimDeLinha(false);
+                return;
+            }
+            if (b == '>' && linhaBytes == 0) {
+                fecharRegistro();
+                cabecalho = true;
+                fimDoNome = false;
+                nome.reset();
+                return;
+            }
+            linhaBytes++;
+            if (b == '\r') {
+                return;
+            }
+            if (SequenciaCompacta.ehEspaco(b)) {
+                // Espaços no meio da linha impedem o cálculo de posições pelo índice
+                irregular = true;
+                return;
+            }
+            linhaBases++;
+            comprimento++;
+        }
+
+        private void fimDeLinha(boolean semQuebra) {
+            if (emRegistro) {
+                if (primeiraBases < 0) {
+                    if (linhaBases > 0) {
+                        primeiraBases = linhaBases;
+                        primeiraBytes = linhaBytes;
+                    } else {
+                        // Linhas vazias antes da primeira base: as bases começam depois delas
+                        deslocamento += linhaBytes;
+                    }
+                } else if (linhaBases > 0 && linhaCurta) {
+                    irregular = true;
+                } else if (linhaBases > primeiraBases
+                        || (linhaBases == primeiraBases && !semQuebra && linhaBytes != primeiraBytes)) {
+                    irregular = true;
+                } else if (linhaBases < primeiraBases) {
+                    linhaCurta = true;
+                }
+            }
+            linhaBases = 0;
+            linhaBytes = 0;
+        }
+
+        private void iniciarRegistro(long inicio) {
+            emRegistro = true;
+            deslocamento = inicio;
+            comprimento = 0;
+            primeiraBases = -1;
+            primeiraBytes = -1;
+            linhaCurta = false;
+            irregular = false;
+        }
+
+        private void fecharRegistro() {
+            if (!emRegistro) {
+                return;
+            }
+            boolean regular = !irregular && primeiraBases > 0 && primeiraBases <= Integer.MAX_VALUE;
+            indice.adicionar(new Entrada(new String(nome.toByteArray(), StandardCharsets.UTF_8), comprimento,
+                    deslocamento, regular ? (int) primeiraBases : 0, regular ? (int) primeiraBytes : 0));
+            emRegistro = false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package Genetica;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A classe LimitadorTaxa implementa um balde de fichas (token bucket) compartilhado entre threads,
+ * usado para respeitar o limite de requisições por segundo do NCBI.
+ *
+ * <p>As fichas são repostas continuamente na taxa configurada, até a capacidade do balde. Quem
+ * chama {@link #adquirir()} sem ficha disponível reserva a próxima e dorme apenas o tempo que
+ * falta para ela, fora do bloqueio, de modo que várias threads são liberadas exatamente na taxa
+ * desejada, sem pausas fixas.</p>
+ * @author rezende
+ */
+public class LimitadorTaxa {
+
+    private final double capacidade;
+    private final double nanosPorFicha;
+    private double fichas;
+    private long ultimaReposicao;
+
+    /**
+     * Cria um limitador sem rajadas: capacidade de uma ficha, então nenhuma janela de um segundo
+     * passa da taxa (mais a ficha inicial).
+     *
+     * @param porSegundo O número de requisições permitidas por segundo.
+     */
+    public LimitadorTaxa(double porSegundo) {
+        this(porSegundo, 1);
+    }
+
+    /**
+     * Cria um limitador com taxa e capacidade específicas. O balde começa com uma única ficha; a
+     * capacidade só é alcançada depois de um período ocioso.
+     *
+     * @param porSegundo O número de requisições permitidas por segundo.
+     * @param capacidade O número máximo de fichas acumuladas.
+     */
+    public LimitadorTaxa(double porSegundo, double capacidade) {
+        if (porSegundo <= 0 || capacidade < 1) {
+            throw new IllegalArgumentException("Taxa e capacidade devem ser positivas: " + porSegundo + ", " + capacidade);
+        }
+        this.capacidade = capacidade;
+        this.nanosPorFicha = TimeUnit.SECONDS.toNanos(1) / porSegundo;
+        this.fichas = 1;
+        this.ultimaReposicao = System.nanoTime();
+    }
+
+    /**
+     * Obtém uma ficha, esperando o tempo necessário se o balde estiver vazio.
+     *
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public void adquirir() throws InterruptedException {
+        long espera;
+        synchronized (this) {
+            repor();
+            // A ficha é reservada mesmo que ainda não exista: o saldo negativo define a espera
+            fichas -= 1;
+            espera = fichas >= 0 ? 0 : (long) Math.ceil(-fichas * nanosPorFicha);
+        }
+        if (espera > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(espera);
+            } catch (InterruptedException e) {
+                // Quem desiste devolve a ficha reservada, senão os próximos esperariam por ela
+                synchronized (this) {
+                    fichas += 1;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Obtém uma ficha apenas se houver uma disponível agora.
+     *
+     * @return true se a ficha foi obtida.
+     */
+    public synchronized boolean tentarAdquirir() {
+        repor();
+        if (fichas >= 1) {
+            fichas -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return A taxa configurada, em requisições por segundo.
+     */
+    public double porSegundo() {
+        return TimeUnit.SECONDS.toNanos(1) / nanosPorFicha;
+    }
+
+    private void repor() {
+        long agora = System.nanoTime();
+        fichas = Math.min(capacidade, fichas + (agora - ultimaReposicao) / nanosPorFicha);
+        ultimaReposicao = agora;
+    }
+}
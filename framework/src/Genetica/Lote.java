@@ -0,0 +1,252 @@
+package Genetica;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A classe Lote executa um manifesto com muitas espécies ou pares de arquivos, registrando cada
+ * unidade concluída em um {@link DiarioCheckpoint} para que uma nova execução continue de onde a
+ * anterior parou.
+ *
+ * <p>Cada linha do manifesto é uma espécie ou um par separado por tabulação; linhas vazias e
+ * iniciadas por "#" são ignoradas. Entradas terminadas em ".fasta" são arquivos locais; as demais
+ * são nomes científicos, baixados para "nome.fasta" antes do uso.</p>
+ *
+ * <pre>
+ * Homo sapiens                          → baixar e analisar os códons
+ * Homo sapiens	Pan troglodytes          → baixar ambos e comparar
+ * dados/a.fasta	dados/b.fasta        → comparar arquivos locais
+ * </pre>
+ *
+ * <p>As unidades são "baixar", "codons" e "comparar". Os downloads rodam em um pool com o limite
+ * de rede e o restante em um ForkJoinPool (com roubo de tarefas) com o limite de CPU, então uma
+ * análise começa assim que os seus arquivos chegam. Uma espécie que aparece em várias linhas é
+ * baixada uma vez, e a falha de uma unidade só impede as que dependem dela.</p>
+ * @author rezende
+ */
+public class Lote {
+
+    /** Downloads simultâneos padrão; o limitador do cliente ainda impõe o limite do NCBI. */
+    public static final int LIMITE_REDE_PADRAO = 3;
+
+    private static final String EXTENSAO = ".fasta";
+
+    private final FastaBaixar fastaBaixar;
+    private final int limiteRede;
+    private final int limiteCpu;
+
+    /**
+     * Cria um lote com os limites de concorrência informados.
+     *
+     * @param fastaBaixar O responsável pelos downloads.
+     * @param limiteRede O número máximo de downloads simultâneos.
+     * @param limiteCpu O número máximo de análises e comparações simultâneas.
+     */
+    public Lote(FastaBaixar fastaBaixar, int limiteRede, int limiteCpu) {
+        if (limiteRede < 1 || limiteCpu < 1) {
+            throw new IllegalArgumentException("Limites inválidos: rede=" + limiteRede + ", cpu=" + limiteCpu);
+        }
+        this.fastaBaixar = fastaBaixar;
+        this.limiteRede = limiteRede;
+        this.limiteCpu = limiteCpu;
+    }
+
+    /**
+     * Lê as entradas de um manifesto.
+     *
+     * @param manifesto O arquivo do manifesto, em UTF-8.
+     * @return As entradas, cada uma com uma espécie ou um par.
+     * @throws IOException Se o arquivo não puder ser lido ou uma linha tiver mais de duas colunas.
+     */
+    public static List<List<String>> lerManifesto(Path manifesto) throws IOException {
+        List<List<String>> entradas = new ArrayList<>();
+        int numero = 0;
+        for (String linha : Files.readAllLines(manifesto, StandardCharsets.UTF_8)) {
+            numero++;
+            String texto = linha.strip();
+            if (texto.isEmpty() || texto.startsWith("#")) {
+                continue;
+            }
+            List<String> colunas = new ArrayList<>();
+            for (String coluna : texto.split("\t")) {
+                if (!coluna.isBlank()) {
+                    colunas.add(coluna.strip());
+                }
+            }
+            if (colunas.size() > 2) {
+                throw new IOException("Linha " + numero + " do manifesto " + manifesto
+                        + " tem mais de duas colunas: " + linha);
+            }
+            entradas.add(colunas);
+        }
+        return entradas;
+    }
+
+    /**
+     * Executa as entradas, pulando as unidades que já constam no diário, e espera todas terminarem.
+     *
+     * @param entradas As entradas do manifesto.
+     * @param diario O diário onde as unidades concluídas são registradas.
+     * @return O resumo da execução.
+     */
+    public Resumo executar(List<List<String>> entradas, DiarioCheckpoint diario) {
+        ExecutorService rede = Executors.newFixedThreadPool(limiteRede);
+        ForkJoinPool cpu = new ForkJoinPool(limiteCpu);
+        Resumo resumo = new Resumo();
+        try {
+            Execucao execucao = new Execucao(diario, rede, resumo);
+            for (List<String> entrada : entradas) {
+                if (entrada.size() == 1) {
+                    String nome = entrada.get(0);
+                    execucao.unidade("codons\t" + nome, cpu, () -> Codon.analisarArquivo(caminho(nome)),
+                            execucao.arquivo(nome));
+                } else {
+                    String nome1 = entrada.get(0);
+                    String nome2 = entrada.get(1);
+                    execucao.unidade("comparar\t" + nome1 + "\t" + nome2, cpu,
+                            () -> FastaComparar.compararArquivos(caminho(nome1), caminho(nome2)),
+                            execucao.arquivo(nome1), execucao.arquivo(nome2));
+                }
+            }
+            execucao.aguardar();
+        } finally {
+            rede.shutdownNow();
+            cpu.shutdownNow();
+        }
+        System.out.println("Lote concluído: " + resumo);
+        return resumo;
+    }
+
+    private static boolean local(String nome) {
+        return nome.endsWith(EXTENSAO);
+    }
+
+    private static String caminho(String nome) {
+        return local(nome) ? nome : nome + EXTENSAO;
+    }
+
+    private interface Tarefa {
+        Object executar() throws IOException, InterruptedException;
+    }
+
+    /**
+     * O estado de uma execução: as unidades já agendadas, para que cada uma rode uma vez só.
+     */
+    private final class Execucao {
+        private final DiarioCheckpoint diario;
+        private final Executor rede;
+        private final Resumo resumo;
+        private final Map<String, CompletableFuture<Void>> unidades = new LinkedHashMap<>();
+
+        Execucao(DiarioCheckpoint diario, Executor rede, Resumo resumo) {
+            this.diario = diario;
+            this.rede = rede;
+            this.resumo = resumo;
+        }
+
+        /**
+         * Retorna a etapa que torna o arquivo da entrada disponível: nada para arquivos locais,
+         * o download para espécies.
+         */
+        CompletableFuture<Void> arquivo(String nome) {
+            if (local(nome)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return unidade("baixar\t" + nome, rede, () -> {
+                if (!fastaBaixar.baixarUm(nome)) {
+                    throw new IOException("O arquivo " + caminho(nome) + " não foi baixado");
+                }
+                return null;
+            });
+        }
+
+        CompletableFuture<Void> unidade(String chave, Executor executor, Tarefa tarefa,
+                CompletableFuture<?>... dependencias) {
+            CompletableFuture<Void> existente = unidades.get(chave);
+            if (existente != null) {
+                return existente;
+            }
+            CompletableFuture<Void> futuro;
+            if (diario.concluida(chave)) {
+                resumo.puladas.incrementAndGet();
+                futuro = CompletableFuture.completedFuture(null);
+            } else {
+                futuro = CompletableFuture.allOf(dependencias).thenRunAsync(() -> {
+                    try {
+                        tarefa.executar();
+                        diario.registrar(chave);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CompletionException(e);
+                    }
+                }, executor).whenComplete((nada, erro) -> {
+                    if (erro == null) {
+                        resumo.concluidas.incrementAndGet();
+                    } else {
+                        resumo.falhas.incrementAndGet();
+                        System.out.println("Erro em " + chave.replace('\t', ' ') + ": " + Arquivos.causa(erro).getMessage());
+                    }
+                });
+            }
+            unidades.put(chave, futuro);
+            return futuro;
+        }
+
+        void aguardar() {
+            CompletableFuture.allOf(unidades.values().toArray(new CompletableFuture<?>[0]))
+                    .handle((nada, erro) -> null)
+                    .join();
+        }
+    }
+
+    /**
+     * Contagem das unidades de uma execução.
+     */
+    public static final class Resumo {
+        private final AtomicInteger concluidas = new AtomicInteger();
+        private final AtomicInteger puladas = new AtomicInteger();
+        private final AtomicInteger falhas = new AtomicInteger();
+
+        /**
+         * @return As unidades executadas com sucesso nesta execução.
+         */
+        public int concluidas() {
+            return concluidas.get();
+        }
+
+        /**
+         * @return As unidades puladas por já constarem no diário.
+         */
+        public int puladas() {
+            return puladas.get();
+        }
+
+        /**
+         * @return As unidades que falharam ou dependiam de uma que falhou.
+         */
+        public int falhas() {
+            return falhas.get();
+        }
+
+        @Override
+        public String toString() {
+            return concluidas() + " concluídas, " + puladas() + " puladas, " + falhas() + " com erro";
+        }
+    }
+}
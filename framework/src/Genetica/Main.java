@@ -1,16 +1,136 @@
 package Genetica;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Ponto de entrada de linha de comando para executar um manifesto em lote (ver {@link Lote}).
+ *
+ * <pre>
+ * java Genetica.Main -m especies.tsv --rede 3 --cpu 8 --metricas metricas.json
+ * </pre>
+ *
+ * <p>As unidades concluídas vão para o diário ("manifesto.checkpoint" por padrão); executar o mesmo
+ * comando de novo depois de uma queda pula o que já terminou.</p>
+ * @author rezende
+ */
 public class Main {
 
-		 public static void main(String[] args) {
-		        GeneticaFacade gf = new GeneticaFacade();
-
-		        
-//		        gf.AnaliseCompleta("Spathiphyllum wallisii", "Helianthus annuus");
-		        
-//		        gf.BaixarFasta("Homo sapiens");
-//		        gf.BaixarFasta("Primates");
-//		        gf.CodonAnalise("Primates.fasta");
-//		        gf.CompararArquivos("Homo sapiens.fasta", "Primates.fasta");
-		    }
+    /** Código de saída quando alguma unidade falhou. */
+    public static final int SAIDA_FALHAS = 1;
+    /** Código de saída quando os argumentos são inválidos. */
+    public static final int SAIDA_USO = 2;
+
+    // Intervalo entre as gravações do JSON de métricas durante o lote
+    private static final Duration INTERVALO_METRICAS = Duration.ofSeconds(10);
+
+    public static void main(String[] args) {
+        System.exit(executar(args));
+    }
+
+    /**
+     * Interpreta os argumentos e executa o lote.
+     *
+     * @param args Os argumentos da linha de comando.
+     * @return 0 se todas as unidades terminaram, {@link #SAIDA_FALHAS} se alguma falhou ou
+     *         {@link #SAIDA_USO} se os argumentos forem inválidos.
+     */
+    public static int executar(String... args) {
+        Options opcoes = opcoes();
+        CommandLine linha;
+        int limiteRede;
+        int limiteCpu;
+        try {
+            linha = new DefaultParser().parse(opcoes, args);
+            if (linha.hasOption("ajuda")) {
+                ajuda(opcoes);
+                return 0;
+            }
+            if (!linha.hasOption("manifesto")) {
+                throw new ParseException("A opção --manifesto é obrigatória");
+            }
+            limiteRede = inteiro(linha, "rede", Lote.LIMITE_REDE_PADRAO);
+            limiteCpu = inteiro(linha, "cpu", Runtime.getRuntime().availableProcessors());
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            ajuda(opcoes);
+            return SAIDA_USO;
+        }
+
+        Path manifesto = Paths.get(linha.getOptionValue("manifesto"));
+        Path checkpoint = Paths.get(linha.getOptionValue("checkpoint", manifesto + ".checkpoint"));
+        FastaBaixar fastaBaixar = linha.hasOption("diretorio")
+                ? new FastaBaixar(new FonteDiretorio(Paths.get(linha.getOptionValue("diretorio"))))
+                : new FastaBaixar();
+        Path metricas = linha.hasOption("metricas") ? Paths.get(linha.getOptionValue("metricas")) : null;
+
+        try (DiarioCheckpoint diario = new DiarioCheckpoint(checkpoint)) {
+            List<List<String>> entradas = Lote.lerManifesto(manifesto);
+            System.out.println(entradas.size() + " entradas em " + manifesto + "; " + diario.tamanho()
+                    + " unidades já concluídas em " + checkpoint);
+            if (metricas != null) {
+                Metricas.global().iniciarInstantaneos(metricas, INTERVALO_METRICAS);
+            }
+            Lote.Resumo resumo;
+            try {
+                resumo = new Lote(fastaBaixar, limiteRede, limiteCpu).executar(entradas, diario);
+            } finally {
+                if (metricas != null) {
+                    Metricas.global().pararInstantaneos();
+                    Metricas.global().salvarJson(metricas);
+                }
+            }
+            return resumo.falhas() == 0 ? 0 : SAIDA_FALHAS;
+        } catch (IOException e) {
+            System.out.println("Erro ao executar o lote: " + e.getMessage());
+            return SAIDA_FALHAS;
+        }
+    }
+
+    private static Options opcoes() {
+        Options opcoes = new Options();
+        opcoes.addOption(Option.builder("m").longOpt("manifesto").hasArg().argName("arquivo")
+                .desc("Espécies ou pares (separados por tabulação), um por linha").build());
+        opcoes.addOption(Option.builder("c").longOpt("checkpoint").hasArg().argName("arquivo")
+                .desc("Diário das unidades concluídas (padrão: <manifesto>.checkpoint)").build());
+        opcoes.addOption(Option.builder("r").longOpt("rede").hasArg().argName("n")
+                .desc("Downloads simultâneos (padrão: " + Lote.LIMITE_REDE_PADRAO + ")").build());
+        opcoes.addOption(Option.builder("p").longOpt("cpu").hasArg().argName("n")
+                .desc("Análises e comparações simultâneas (padrão: número de núcleos)").build());
+        opcoes.addOption(Option.builder("d").longOpt("diretorio").hasArg().argName("diretorio")
+                .desc("Copia as sequências deste diretório em vez de baixá-las do NCBI").build());
+        opcoes.addOption(Option.builder().longOpt("metricas").hasArg().argName("arquivo")
+                .desc("Grava as métricas das etapas em JSON durante e ao final do lote").build());
+        opcoes.addOption(Option.builder("h").longOpt("ajuda").desc("Mostra esta ajuda").build());
+        return opcoes;
+    }
+
+    private static int inteiro(CommandLine linha, String opcao, int padrao) throws ParseException {
+        if (!linha.hasOption(opcao)) {
+            return padrao;
+        }
+        try {
+            int valor = Integer.parseInt(linha.getOptionValue(opcao));
+            if (valor < 1) {
+                throw new ParseException("--" + opcao + " deve ser maior que zero");
+            }
+            return valor;
+        } catch (NumberFormatException e) {
+            throw new ParseException("--" + opcao + " deve ser um número inteiro: " + linha.getOptionValue(opcao));
+        }
+    }
+
+    private static void ajuda(Options opcoes) {
+        new HelpFormatter().printHelp("java Genetica.Main -m <manifesto> [opções]", opcoes);
+    }
 }
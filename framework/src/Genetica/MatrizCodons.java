@@ -0,0 +1,257 @@
+package Genetica;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * A classe MatrizCodons junta as contagens de códons de muitos genomas em uma única matriz
+ * espécie × 64 códons, gravada uma linha por vez: só a linha do genoma atual fica em memória,
+ * então o número de genomas não é limitado pela memória.
+ *
+ * <p>Os códons seguem a ordem do índice (AAA, AAC, ..., TTT) e cada linha termina com o número de
+ * códons ambíguos. Formatos:</p>
+ * <ul>
+ *   <li>CSV: "especie,AAA,...,TTT,ambiguos" e uma linha por espécie;</li>
+ *   <li>JSON: {"codons":[...], "especies":[{"especie":..., "contagens":[...], "ambiguos":...}, ...]};</li>
+ *   <li>binário: "CDM1" e as linhas, lidas de volta por {@link #percorrerBinario(Path, Linha)}.</li>
+ * </ul>
+ *
+ * <p>O arquivo é escrito em um temporário e só aparece no destino em {@link #close()}.</p>
+ * @author rezende
+ */
+public class MatrizCodons implements Closeable {
+
+    private static final int MAGICO = 0x43444D31; // "CDM1"
+
+    /** Recebe as linhas de uma matriz lida. */
+    public interface Linha {
+        /**
+         * @param especie O nome da espécie ou genoma.
+         * @param contador As contagens da linha.
+         * @throws IOException Para interromper a leitura com erro.
+         */
+        void aceitar(String especie, ContadorCodons contador) throws IOException;
+    }
+
+    private final FormatoCodons.Formato formato;
+    private final Path destino;
+    private final Path temporario;
+    private final OutputStream saida;
+    private DataOutputStream binario;
+    private JsonGenerator json;
+    private Writer csv;
+    private int linhas;
+    private boolean fechada;
+
+    /**
+     * Abre uma matriz para escrita.
+     *
+     * @param destino O arquivo de saída.
+     * @param formato O formato da matriz.
+     * @throws IOException Se o arquivo temporário não puder ser criado.
+     */
+    public MatrizCodons(Path destino, FormatoCodons.Formato formato) throws IOException {
+        this.formato = formato;
+        this.destino = destino.toAbsolutePath();
+        this.temporario = Arquivos.temporario(this.destino);
+        this.saida = Files.newOutputStream(temporario);
+        try {
+            iniciar();
+        } catch (IOException e) {
+            descartar();
+            throw e;
+        }
+    }
+
+    /**
+     * Junta as contagens de vários arquivos FASTA, um de cada vez, em uma matriz. As contagens vêm
+     * de {@link CacheCodons}, então arquivos já analisados não são lidos de novo. O nome da espécie
+     * é o nome do arquivo sem a extensão.
+     *
+     * @param fastas Os arquivos FASTA, na ordem das linhas.
+     * @param formato O formato da matriz.
+     * @param destino O arquivo de saída.
+     * @return O número de linhas gravadas.
+     * @throws IOException Se algum arquivo não puder ser lido; nesse caso nada é gravado.
+     */
+    public static int agregar(List<String> fastas, FormatoCodons.Formato formato, Path destino) throws IOException {
+        MatrizCodons matriz = new MatrizCodons(destino, formato);
+        try {
+            for (String fasta : fastas) {
+                matriz.adicionar(especie(fasta), CacheCodons.contar(fasta));
+            }
+        } catch (IOException | RuntimeException e) {
+            matriz.descartar();
+            throw e;
+        }
+        matriz.close();
+        return matriz.linhas();
+    }
+
+    /**
+     * Acrescenta uma linha à matriz.
+     *
+     * @param especie O nome da espécie ou genoma.
+     * @param contador As contagens de códons.
+     * @throws IOException Se ocorrer um erro na escrita.
+     */
+    public void adicionar(String especie, ContadorCodons contador) throws IOException {
+        if (fechada) {
+            throw new IllegalStateException("Matriz já fechada: " + destino);
+        }
+        switch (formato) {
+            case BINARIO:
+                binario.writeBoolean(true);
+                binario.writeUTF(especie);
+                for (int i = 0; i < 64; i++) {
+                    binario.writeInt(contador.contagem(i));
+                }
+                binario.writeLong(contador.ambiguos());
+                break;
+            case JSON:
+                json.writeStartObject();
+                json.writeStringField("especie", especie);
+                json.writeArrayFieldStart("contagens");
+                for (int i = 0; i < 64; i++) {
+                    json.writeNumber(contador.contagem(i));
+                }
+                json.writeEndArray();
+                json.writeNumberField("ambiguos", contador.ambiguos());
+                json.writeEndObject();
+                break;
+            default:
+                csv.write(Arquivos.campoCsv(especie));
+                for (int i = 0; i < 64; i++) {
+                    csv.write(',');
+                    csv.write(Integer.toString(contador.contagem(i)));
+                }
+                csv.write(',');
+                csv.write(Long.toString(contador.ambiguos()));
+                csv.write('\n');
+                break;
+        }
+        linhas++;
+    }
+
+    /**
+     * @return O número de linhas gravadas até agora.
+     */
+    public int linhas() {
+        return linhas;
+    }
+
+    /**
+     * Termina a matriz e a move para o destino.
+     */
+    @Override
+    public void close() throws IOException {
+        if (fechada) {
+            return;
+        }
+        fechada = true;
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.ESCRITA, Metricas.BYTES)) {
+            switch (formato) {
+                case BINARIO:
+                    binario.writeBoolean(false);
+                    binario.close();
+                    break;
+                case JSON:
+                    json.writeEndArray();
+                    json.writeEndObject();
+                    json.close();
+                    break;
+                default:
+                    csv.close();
+                    break;
+            }
+            medicao.unidades(Files.size(temporario));
+            Arquivos.mover(temporario, destino);
+            medicao.concluir();
+        } finally {
+            saida.close();
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /**
+     * Lê uma matriz binária linha por linha.
+     *
+     * @param arquivo O arquivo gravado no formato binário.
+     * @param linha Recebe cada linha, na ordem do arquivo.
+     * @return O número de linhas lidas.
+     * @throws IOException Se o arquivo não puder ser lido ou não for uma matriz de códons.
+     */
+    public static int percorrerBinario(Path arquivo, Linha linha) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IOException("Arquivo de matriz de códons inválido: " + arquivo);
+            }
+            int lidas = 0;
+            int[] contagens = new int[64];
+            while (entrada.readBoolean()) {
+                String especie = entrada.readUTF();
+                for (int i = 0; i < 64; i++) {
+                    contagens[i] = entrada.readInt();
+                }
+                linha.aceitar(especie, ContadorCodons.deContagens(contagens, entrada.readLong()));
+                lidas++;
+            }
+            return lidas;
+        }
+    }
+
+    private void iniciar() throws IOException {
+        switch (formato) {
+            case BINARIO:
+                binario = new DataOutputStream(new BufferedOutputStream(saida));
+                binario.writeInt(MAGICO);
+                break;
+            case JSON:
+                json = FormatoCodons.gerador(saida);
+                json.writeStartObject();
+                json.writeArrayFieldStart("codons");
+                for (int i = 0; i < 64; i++) {
+                    json.writeString(FormatoCodons.codon(i));
+                }
+                json.writeEndArray();
+                json.writeArrayFieldStart("especies");
+                break;
+            default:
+                csv = FormatoCodons.texto(saida);
+                csv.write("especie");
+                for (int i = 0; i < 64; i++) {
+                    csv.write(',');
+                    csv.write(FormatoCodons.codon(i));
+                }
+                csv.write(",ambiguos\n");
+                break;
+        }
+    }
+
+    private void descartar() throws IOException {
+        fechada = true;
+        try {
+            saida.close();
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private static String especie(String fasta) {
+        String nome = new File(fasta).getName();
+        int ponto = nome.lastIndexOf('.');
+        return ponto > 0 ? nome.substring(0, ponto) : nome;
+    }
+}
@@ -0,0 +1,325 @@
+package Genetica;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A classe MatrizComparacao compara todos os pares de um conjunto de arquivos FASTA e guarda a
+ * matriz N×N de similaridades.
+ *
+ * <p>Cada arquivo é lido uma única vez, em paralelo, para a forma usada pela métrica (a
+ * {@link SequenciaCompacta} ou o {@link EsbocoMinHash}); em seguida os N(N-1)/2 pares do triângulo
+ * superior são divididos recursivamente e executados em um {@link ForkJoinPool}, que redistribui o
+ * trabalho entre as threads. A matriz pode ser gravada em CSV ou em um formato binário.</p>
+ * @author rezende
+ */
+public class MatrizComparacao {
+
+    /** Extensões reconhecidas como FASTA ao listar um diretório. */
+    public static final String[] EXTENSOES = {".fasta", ".fa", ".fna", ".fas"};
+
+    private static final int MAGICO = 0x4D545A31; // "MTZ1"
+    // Pares por tarefa antes de dividir o trabalho
+    private static final int PARES_POR_TAREFA = 16;
+
+    /** Forma de comparar dois arquivos. */
+    public enum Metrica {
+        /** Fração de bases idênticas nas mesmas posições, como em {@link FastaComparar#CompararArquivos(String, String)}. */
+        POSICIONAL,
+        /** Identidade média (ANI) estimada pelos esboços MinHash, com os parâmetros padrão. */
+        ESBOCO
+    }
+
+    private final List<String> arquivos;
+    private final Metrica metrica;
+    private final double[] valores;
+
+    private MatrizComparacao(List<String> arquivos, Metrica metrica, double[] valores) {
+        this.arquivos = Collections.unmodifiableList(new ArrayList<>(arquivos));
+        this.metrica = metrica;
+        this.valores = valores;
+    }
+
+    /**
+     * Compara todos os arquivos FASTA de um diretório, em ordem alfabética, no pool comum.
+     *
+     * @param diretorio O diretório com os arquivos FASTA.
+     * @param metrica A métrica de comparação.
+     * @return A matriz de similaridades.
+     * @throws IOException Se o diretório ou algum arquivo não puder ser lido.
+     */
+    public static MatrizComparacao doDiretorio(String diretorio, Metrica metrica) throws IOException {
+        return calcular(listarFasta(diretorio), metrica, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compara todos os pares de uma lista de arquivos FASTA no pool comum.
+     *
+     * @param arquivos Os nomes dos arquivos FASTA.
+     * @param metrica A métrica de comparação.
+     * @return A matriz de similaridades, na ordem da lista.
+     * @throws IOException Se algum arquivo não puder ser lido.
+     */
+    public static MatrizComparacao calcular(List<String> arquivos, Metrica metrica) throws IOException {
+        return calcular(arquivos, metrica, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compara todos os pares de uma lista de arquivos FASTA em um pool específico.
+     *
+     * @param arquivos Os nomes dos arquivos FASTA.
+     * @param metrica A métrica de comparação.
+     * @param pool O pool onde a leitura e os pares são executados.
+     * @return A matriz de similaridades, na ordem da lista.
+     * @throws IOException Se algum arquivo não puder ser lido.
+     */
+    public static MatrizComparacao calcular(List<String> arquivos, Metrica metrica, ForkJoinPool pool) throws IOException {
+        int n = arquivos.size();
+        // Cada arquivo é lido uma vez, em paralelo, e a forma lida é reutilizada em todos os pares
+        List<ForkJoinTask<Object>> leituras = new ArrayList<>(n);
+        for (String arquivo : arquivos) {
+            leituras.add(pool.submit(() -> metrica == Metrica.ESBOCO
+                    ? EsbocoMinHash.paraArquivo(arquivo, EsbocoMinHash.K_PADRAO, EsbocoMinHash.TAMANHO_PADRAO)
+                    : SequenciaCompacta.lerFasta(arquivo, false)));
+        }
+        Object[] lidos = new Object[n];
+        for (int i = 0; i < n; i++) {
+            try {
+                lidos[i] = leituras.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Leitura interrompida: " + arquivos.get(i), e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Erro ao ler " + arquivos.get(i) + ": " + e.getCause(), e.getCause());
+            }
+        }
+
+        double[] valores = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            valores[i * n + i] = 1;
+        }
+        long pares = (long) n * (n - 1) / 2;
+        pool.invoke(new TarefaPares(lidos, metrica, valores, n, 0, pares));
+        return new MatrizComparacao(arquivos, metrica, valores);
+    }
+
+    /**
+     * Lista os arquivos FASTA de um diretório, em ordem alfabética.
+     *
+     * @param diretorio O diretório.
+     * @return Os caminhos dos arquivos com as extensões de {@link #EXTENSOES}.
+     * @throws IOException Se o diretório não puder ser listado.
+     */
+    public static List<String> listarFasta(String diretorio) throws IOException {
+        try (Stream<Path> caminhos = Files.list(Paths.get(diretorio))) {
+            return caminhos.filter(Files::isRegularFile)
+                    .map(Path::toString)
+                    .filter(MatrizComparacao::ehFasta)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean ehFasta(String arquivo) {
+        String nome = arquivo.toLowerCase(Locale.ROOT);
+        for (String extensao : EXTENSOES) {
+            if (nome.endsWith(extensao)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lê uma matriz salva por {@link #salvarBinario(String)}.
+     *
+     * @param arquivo O nome do arquivo binário.
+     * @return A matriz lida.
+     * @throws IOException Se o arquivo não puder ser lido ou não for uma matriz.
+     */
+    public static MatrizComparacao lerBinario(String arquivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(arquivo))))) {
+            if (entrada.readInt() != MAGICO) {
+                throw new IOException("Arquivo de matriz inválido: " + arquivo);
+            }
+            Metrica metrica = Metrica.valueOf(entrada.readUTF());
+            int n = entrada.readInt();
+            List<String> arquivos = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                arquivos.add(entrada.readUTF());
+            }
+            double[] valores = new double[n * n];
+            for (int i = 0; i < valores.length; i++) {
+                valores[i] = entrada.readDouble();
+            }
+            return new MatrizComparacao(arquivos, metrica, valores);
+        }
+    }
+
+    /**
+     * Grava a matriz em CSV, com os nomes dos arquivos na primeira linha e na primeira coluna.
+     * O arquivo é substituído de uma vez, como em {@link #salvarBinario(String)}.
+     *
+     * @param arquivo O nome do arquivo de saída.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public void salvarCsv(String arquivo) throws IOException {
+        int n = arquivos.size();
+        Arquivos.gravar(Paths.get(arquivo), saida -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            writer.write("arquivo");
+            for (String nome : arquivos) {
+                writer.write(',');
+                writer.write(Arquivos.campoCsv(new File(nome).getName()));
+            }
+            writer.newLine();
+            for (int i = 0; i < n; i++) {
+                writer.write(Arquivos.campoCsv(new File(arquivos.get(i)).getName()));
+                for (int j = 0; j < n; j++) {
+                    writer.write(',');
+                    writer.write(String.format(Locale.ROOT, "%.6f", valores[i * n + j]));
+                }
+                writer.newLine();
+            }
+            writer.flush();
+        });
+    }
+
+    /**
+     * Grava a matriz em formato binário: a métrica, os nomes dos arquivos e os N×N valores. O
+     * arquivo é escrito em um temporário e só substitui o destino quando está completo.
+     *
+     * @param arquivo O nome do arquivo de saída.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public void salvarBinario(String arquivo) throws IOException {
+        Arquivos.gravar(Paths.get(arquivo), destino -> {
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(destino));
+            saida.writeInt(MAGICO);
+            saida.writeUTF(metrica.name());
+            saida.writeInt(arquivos.size());
+            for (String nome : arquivos) {
+                saida.writeUTF(nome);
+            }
+            for (double valor : valores) {
+                saida.writeDouble(valor);
+            }
+            saida.flush();
+        });
+    }
+
+    /**
+     * @return Os arquivos comparados, na ordem das linhas e colunas.
+     */
+    public List<String> arquivos() {
+        return arquivos;
+    }
+
+    /**
+     * @return A métrica usada na comparação.
+     */
+    public Metrica metrica() {
+        return metrica;
+    }
+
+    /**
+     * @return O número de arquivos (linhas e colunas).
+     */
+    public int tamanho() {
+        return arquivos.size();
+    }
+
+    /**
+     * Retorna a similaridade entre dois arquivos.
+     *
+     * @param i A linha.
+     * @param j A coluna.
+     * @return A similaridade, entre 0 e 1.
+     */
+    public double valor(int i, int j) {
+        return valores[i * arquivos.size() + j];
+    }
+
+    static double comparar(Object a, Object b, Metrica metrica) {
+        if (metrica == Metrica.ESBOCO) {
+            return ((EsbocoMinHash) a).ani((EsbocoMinHash) b);
+        }
+        SequenciaCompacta seq1 = (SequenciaCompacta) a;
+        SequenciaCompacta seq2 = (SequenciaCompacta) b;
+        long maior = Math.max(seq1.comprimento(), seq2.comprimento());
+        return maior == 0 ? 0 : (double) FastaComparar.calculateSimilarity(seq1, seq2) / maior;
+    }
+
+    /**
+     * Calcula um intervalo de pares do triângulo superior, numerados em ordem de linha.
+     */
+    private static class TarefaPares extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] lidos;
+        private final Metrica metrica;
+        private final double[] valores;
+        private final int n;
+        private final long de;
+        private final long ate;
+
+        TarefaPares(Object[] lidos, Metrica metrica, double[] valores, int n, long de, long ate) {
+            this.lidos = lidos;
+            this.metrica = metrica;
+            this.valores = valores;
+            this.n = n;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de > PARES_POR_TAREFA) {
+                long meio = (de + ate) >>> 1;
+                invokeAll(new TarefaPares(lidos, metrica, valores, n, de, meio),
+                        new TarefaPares(lidos, metrica, valores, n, meio, ate));
+                return;
+            }
+            // Localiza a linha do primeiro par e segue em ordem
+            int i = 0;
+            long inicioLinha = 0;
+            while (inicioLinha + (n - 1 - i) <= de) {
+                inicioLinha += n - 1 - i;
+                i++;
+            }
+            int j = (int) (i + 1 + (de - inicioLinha));
+            for (long par = de; par < ate; par++) {
+                double valor = comparar(lidos[i], lidos[j], metrica);
+                valores[i * n + j] = valor;
+                valores[j * n + i] = valor;
+                if (++j == n) {
+                    i++;
+                    j = i + 1;
+                }
+            }
+        }
+    }
+}
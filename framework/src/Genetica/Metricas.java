@@ -0,0 +1,249 @@
+package Genetica;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * A classe Metricas reúne as métricas de cada etapa do processamento: latência das requisições
+ * HTTP, bytes baixados, leitura dos arquivos FASTA, contagem de códons, comparação e escrita dos
+ * resultados.
+ *
+ * <p>Cada etapa é uma {@link MetricasEtapa} registrada no servidor JMX da plataforma na primeira vez
+ * em que é usada, de modo que pode ser acompanhada pelo JConsole ou VisualVM durante um lote. Um
+ * instantâneo de todas as etapas pode ser gravado em JSON sob demanda ou periodicamente.</p>
+ *
+ * <pre>
+ * try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.CODONS, Metricas.BASES)) {
+ *     ...
+ *     medicao.unidades(bases).concluir();
+ * }
+ * </pre>
+ * @author rezende
+ */
+public class Metricas {
+
+    /** Requisições HTTP às E-utilities (tempo até os cabeçalhos da resposta). */
+    public static final String HTTP = "http";
+    /** Cópia do corpo das respostas para o disco. */
+    public static final String DOWNLOAD = "download";
+    /** Leitura de arquivos FASTA para a memória. */
+    public static final String LEITURA = "leitura";
+    /** Contagem de códons. */
+    public static final String CODONS = "codons";
+    /** Comparação de sequências, incluindo as colunas dos relatórios gravados durante a comparação. */
+    public static final String COMPARACAO = "comparacao";
+    /** Escrita de relatórios e arquivos de saída (nos relatórios em fluxo, só o fechamento). */
+    public static final String ESCRITA = "escrita";
+
+    /** Unidade das etapas que contam bytes. */
+    public static final String BYTES = "bytes";
+    /** Unidade das etapas que contam bases. */
+    public static final String BASES = "bases";
+
+    private static final Logger LOG = LoggerFactory.getLogger(Metricas.class);
+    private static final Metricas GLOBAL = new Metricas(true);
+
+    private final ConcurrentHashMap<String, MetricasEtapa> etapas = new ConcurrentHashMap<>();
+    private final boolean registrarJmx;
+    private final ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private ScheduledExecutorService agendador;
+
+    /**
+     * Cria um conjunto de métricas independente do global, sem registro no JMX.
+     */
+    public Metricas() {
+        this(false);
+    }
+
+    private Metricas(boolean registrarJmx) {
+        this.registrarJmx = registrarJmx;
+    }
+
+    /**
+     * @return As métricas compartilhadas por todas as classes do framework.
+     */
+    public static Metricas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Retorna a etapa com o nome informado, criando-a (e registrando-a no JMX) se necessário.
+     *
+     * @param nome O nome da etapa.
+     * @param unidade A unidade contada pela etapa, usada apenas na criação.
+     * @return A etapa.
+     */
+    public MetricasEtapa etapa(String nome, String unidade) {
+        return etapas.computeIfAbsent(nome, n -> {
+            MetricasEtapa etapa = new MetricasEtapa(n, unidade);
+            if (registrarJmx) {
+                registrar(etapa);
+            }
+            return etapa;
+        });
+    }
+
+    /**
+     * Começa a medir uma execução da etapa. A medição é registrada ao ser fechada.
+     *
+     * @param nome O nome da etapa.
+     * @param unidade A unidade contada pela etapa.
+     * @return A medição em andamento.
+     */
+    public Medicao iniciar(String nome, String unidade) {
+        return new Medicao(etapa(nome, unidade));
+    }
+
+    /**
+     * @return Os valores atuais de todas as etapas, por nome.
+     */
+    public Map<String, Object> instantaneo() {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        valores.put("momento", Instant.now().toString());
+        Map<String, Object> porEtapa = new LinkedHashMap<>();
+        etapas.keySet().stream().sorted().forEach(nome -> porEtapa.put(nome, etapas.get(nome).valores()));
+        valores.put("etapas", porEtapa);
+        return valores;
+    }
+
+    /**
+     * Grava o instantâneo atual em JSON. O arquivo é substituído de uma vez, então quem o lê
+     * nunca encontra um JSON pela metade.
+     *
+     * @param destino O arquivo de saída.
+     * @throws IOException Se o arquivo não puder ser gravado.
+     */
+    public void salvarJson(Path destino) throws IOException {
+        Arquivos.gravar(destino, saida -> json.writeValue(saida, instantaneo()));
+    }
+
+    /**
+     * Passa a gravar o instantâneo em JSON periodicamente, em uma thread de fundo. Uma chamada
+     * anterior é substituída.
+     *
+     * @param destino O arquivo de saída.
+     * @param intervalo O intervalo entre as gravações.
+     */
+    public synchronized void iniciarInstantaneos(Path destino, Duration intervalo) {
+        pararInstantaneos();
+        agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "genetica-metricas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleAtFixedRate(() -> {
+            try {
+                salvarJson(destino);
+            } catch (IOException e) {
+                LOG.warn("Não foi possível gravar as métricas em {}: {}", destino, e.getMessage());
+            }
+        }, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Para a gravação periódica do instantâneo, se houver.
+     */
+    public synchronized void pararInstantaneos() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+    }
+
+    /**
+     * Zera os contadores de todas as etapas.
+     */
+    public void zerar() {
+        etapas.values().forEach(MetricasEtapa::zerar);
+    }
+
+    private static void registrar(MetricasEtapa etapa) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(etapa,
+                    new ObjectName("Genetica:type=Metricas,name=" + ObjectName.quote(etapa.nome())));
+        } catch (JMException e) {
+            LOG.warn("Não foi possível registrar a etapa {} no JMX: {}", etapa.nome(), e.getMessage());
+        }
+    }
+
+    /**
+     * Uma execução de etapa em andamento. A execução conta como erro a menos que
+     * {@link #concluir()} seja chamado antes de {@link #close()}, então uma exceção que sai do
+     * bloco try-with-resources é registrada como falha sem tratamento extra:
+     * <pre>
+     * try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.CODONS, Metricas.BASES)) {
+     *     ...
+     *     medicao.unidades(bases).concluir();
+     * }
+     * </pre>
+     */
+    public static final class Medicao implements AutoCloseable {
+        private final MetricasEtapa etapa;
+        private final long inicio = System.nanoTime();
+        private long unidades;
+        private boolean concluida;
+        private boolean erro;
+
+        private Medicao(MetricasEtapa etapa) {
+            this.etapa = etapa;
+        }
+
+        /**
+         * Soma unidades processadas nesta execução.
+         *
+         * @param quantidade Os bytes ou bases processados.
+         * @return Esta medição.
+         */
+        public Medicao unidades(long quantidade) {
+            unidades += quantidade;
+            return this;
+        }
+
+        /**
+         * Marca a execução como terminada com sucesso.
+         *
+         * @return Esta medição.
+         */
+        public Medicao concluir() {
+            concluida = true;
+            return this;
+        }
+
+        /**
+         * Marca a execução como terminada com erro, mesmo que {@link #concluir()} seja chamado.
+         *
+         * @return Esta medição.
+         */
+        public Medicao erro() {
+            erro = true;
+            return this;
+        }
+
+        /**
+         * Registra a duração, as unidades e o erro na etapa; sem {@link #concluir()}, a execução
+         * conta como erro.
+         */
+        @Override
+        public void close() {
+            etapa.registrar(System.nanoTime() - inicio, unidades, erro || !concluida);
+        }
+    }
+}
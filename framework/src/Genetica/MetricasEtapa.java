@@ -0,0 +1,120 @@
+package Genetica;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A classe MetricasEtapa acumula o tempo, o número de execuções, os erros e as unidades processadas
+ * (bytes ou bases) de uma etapa do processamento. Os contadores são {@link LongAdder}, então várias
+ * threads podem registrar ao mesmo tempo sem disputar um bloqueio.
+ * @author rezende
+ */
+public class MetricasEtapa implements MetricasEtapaMXBean {
+
+    private final String nome;
+    private final String unidade;
+    private final LongAdder chamadas = new LongAdder();
+    private final LongAdder erros = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAccumulator maximoNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder unidades = new LongAdder();
+
+    MetricasEtapa(String nome, String unidade) {
+        this.nome = nome;
+        this.unidade = unidade;
+    }
+
+    /**
+     * Registra uma execução da etapa.
+     *
+     * @param duracaoNanos A duração, em nanossegundos.
+     * @param quantidade As unidades processadas.
+     * @param erro Se a execução terminou com erro.
+     */
+    public void registrar(long duracaoNanos, long quantidade, boolean erro) {
+        chamadas.increment();
+        nanos.add(duracaoNanos);
+        maximoNanos.accumulate(duracaoNanos);
+        unidades.add(quantidade);
+        if (erro) {
+            erros.increment();
+        }
+    }
+
+    /**
+     * @return O nome da etapa.
+     */
+    public String nome() {
+        return nome;
+    }
+
+    @Override
+    public long getChamadas() {
+        return chamadas.sum();
+    }
+
+    @Override
+    public long getErros() {
+        return erros.sum();
+    }
+
+    @Override
+    public double getTempoTotalMs() {
+        return nanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getTempoMedioMs() {
+        long total = chamadas.sum();
+        return total == 0 ? 0 : nanos.sum() / 1e6 / total;
+    }
+
+    @Override
+    public double getTempoMaximoMs() {
+        return maximoNanos.get() / 1e6;
+    }
+
+    @Override
+    public long getUnidades() {
+        return unidades.sum();
+    }
+
+    @Override
+    public double getUnidadesPorSegundo() {
+        long tempo = nanos.sum();
+        return tempo == 0 ? 0 : unidades.sum() * (double) TimeUnit.SECONDS.toNanos(1) / tempo;
+    }
+
+    @Override
+    public String getUnidade() {
+        return unidade;
+    }
+
+    @Override
+    public void zerar() {
+        chamadas.reset();
+        erros.reset();
+        nanos.reset();
+        maximoNanos.reset();
+        unidades.reset();
+    }
+
+    /**
+     * @return Os valores atuais, na ordem em que aparecem no JSON.
+     */
+    Map<String, Object> valores() {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        valores.put("chamadas", getChamadas());
+        valores.put("erros", getErros());
+        valores.put("tempoTotalMs", getTempoTotalMs());
+        valores.put("tempoMedioMs", getTempoMedioMs());
+        valores.put("tempoMaximoMs", getTempoMaximoMs());
+        valores.put("unidade", unidade);
+        valores.put("unidades", getUnidades());
+        valores.put("unidadesPorSegundo", getUnidadesPorSegundo());
+        return valores;
+    }
+}
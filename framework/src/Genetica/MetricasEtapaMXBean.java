@@ -0,0 +1,53 @@
+package Genetica;
+
+/**
+ * Interface JMX das métricas de uma etapa, registrada como "Genetica:type=Metricas,name=etapa".
+ * @author rezende
+ */
+public interface MetricasEtapaMXBean {
+
+    /**
+     * @return O número de execuções da etapa.
+     */
+    long getChamadas();
+
+    /**
+     * @return O número de execuções que terminaram com erro.
+     */
+    long getErros();
+
+    /**
+     * @return A soma das durações, em milissegundos.
+     */
+    double getTempoTotalMs();
+
+    /**
+     * @return A duração média, em milissegundos.
+     */
+    double getTempoMedioMs();
+
+    /**
+     * @return A maior duração, em milissegundos.
+     */
+    double getTempoMaximoMs();
+
+    /**
+     * @return O total de unidades processadas (bytes ou bases, conforme {@link #getUnidade()}).
+     */
+    long getUnidades();
+
+    /**
+     * @return As unidades processadas por segundo de execução da etapa.
+     */
+    double getUnidadesPorSegundo();
+
+    /**
+     * @return O nome da unidade contada pela etapa.
+     */
+    String getUnidade();
+
+    /**
+     * Zera os contadores da etapa.
+     */
+    void zerar();
+}
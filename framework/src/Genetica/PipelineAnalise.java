@@ -0,0 +1,140 @@
+package Genetica;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A classe PipelineAnalise executa a análise completa de duas espécies como um grafo de etapas
+ * assíncronas, em vez de uma sequência fixa de download, download, comparação, códons e códons.
+ *
+ * <pre>
+ * download 1 → leitura 1 ─┬─────────────→ códons 1
+ *                         └→ comparação
+ * download 2 → leitura 2 ─┴─────────────→ códons 2
+ * </pre>
+ *
+ * <p>Os downloads rodam em threads próprias e o restante no executor de CPU (o ForkJoinPool comum,
+ * por padrão). Cada arquivo é lido uma única vez para uma {@link SequenciaCompacta}, compartilhada
+ * pela comparação e pela análise de códons, então a análise de uma espécie começa assim que o seu
+ * arquivo chega, mesmo com o outro download em andamento. A falha de uma etapa só afeta as que
+ * dependem dela: se o download da segunda espécie falhar, os códons da primeira ainda são gerados.</p>
+ * @author rezende
+ */
+public class PipelineAnalise {
+
+    private final FastaBaixar fastaBaixar;
+    private final Executor cpu;
+
+    /**
+     * Cria um pipeline que usa o ForkJoinPool comum para as etapas de CPU.
+     *
+     * @param fastaBaixar O responsável pelos downloads.
+     */
+    public PipelineAnalise(FastaBaixar fastaBaixar) {
+        this(fastaBaixar, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Cria um pipeline com um executor específico para a leitura, a comparação e os códons.
+     *
+     * @param fastaBaixar O responsável pelos downloads.
+     * @param cpu O executor das etapas de CPU.
+     */
+    public PipelineAnalise(FastaBaixar fastaBaixar, Executor cpu) {
+        this.fastaBaixar = fastaBaixar;
+        this.cpu = cpu;
+    }
+
+    /**
+     * Baixa as duas espécies, compara as sequências e analisa os códons de cada uma, esperando
+     * todas as etapas terminarem. Os relatórios são os mesmos de
+     * {@link FastaComparar#CompararArquivos(String, String)} e {@link Codon#CodonAnalise(String)}.
+     *
+     * @param scientificName1 O nome científico da primeira espécie.
+     * @param scientificName2 O nome científico da segunda espécie.
+     * @return true se todas as etapas terminaram sem erro.
+     */
+    public boolean executar(String scientificName1, String scientificName2) {
+        ExecutorService rede = Executors.newFixedThreadPool(2);
+        try {
+            // A mesma espécie nas duas posições é baixada e lida uma vez só
+            Map<String, CompletableFuture<SequenciaCompacta>> sequencias = new LinkedHashMap<>();
+            for (String scientificName : List.of(scientificName1, scientificName2)) {
+                sequencias.computeIfAbsent(scientificName, nome -> carregar(nome, rede));
+            }
+
+            String file1 = scientificName1 + ".fasta";
+            String file2 = scientificName2 + ".fasta";
+            List<CompletableFuture<Boolean>> etapas = new ArrayList<>();
+            etapas.add(etapa("comparação de " + file1 + " e " + file2,
+                    sequencias.get(scientificName1).thenCombineAsync(sequencias.get(scientificName2),
+                            (seq1, seq2) -> executar(() -> FastaComparar.compararSequencias(seq1, seq2, file1, file2)),
+                            cpu)));
+            for (Map.Entry<String, CompletableFuture<SequenciaCompacta>> sequencia : sequencias.entrySet()) {
+                String file = sequencia.getKey() + ".fasta";
+                etapas.add(etapa("análise de códons de " + file,
+                        sequencia.getValue().thenApplyAsync(seq -> executar(() -> {
+                            String saida = Codon.CodonAnalise(seq, file);
+                            System.out.println("Análise de códons concluída. Resultado salvo em: " + saida);
+                            return saida;
+                        }), cpu)));
+            }
+
+            boolean sucesso = true;
+            for (CompletableFuture<Boolean> etapa : etapas) {
+                sucesso &= etapa.join();
+            }
+            return sucesso;
+        } finally {
+            rede.shutdownNow();
+        }
+    }
+
+    /**
+     * Baixa o arquivo da espécie na thread de rede e o lê no executor de CPU.
+     */
+    private CompletableFuture<SequenciaCompacta> carregar(String scientificName, Executor rede) {
+        String file = scientificName + ".fasta";
+        return CompletableFuture.supplyAsync(() -> fastaBaixar.baixarUm(scientificName), rede)
+                .thenApplyAsync(existe -> executar(() -> {
+                    if (!existe) {
+                        throw new IOException("O arquivo " + file + " não foi baixado");
+                    }
+                    return SequenciaCompacta.lerFasta(file, false);
+                }), cpu);
+    }
+
+    /**
+     * Informa o erro de uma etapa sem propagá-lo, para que as demais continuem.
+     */
+    private static <T> CompletableFuture<Boolean> etapa(String descricao, CompletableFuture<T> futuro) {
+        return futuro.handle((resultado, erro) -> {
+            if (erro == null) {
+                return true;
+            }
+            System.out.println("Erro na " + descricao + ": " + Arquivos.causa(erro).getMessage());
+            return false;
+        });
+    }
+
+    private interface Tarefa<T> {
+        T executar() throws IOException;
+    }
+
+    private static <T> T executar(Tarefa<T> tarefa) {
+        try {
+            return tarefa.executar();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
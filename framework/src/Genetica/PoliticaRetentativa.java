@@ -0,0 +1,153 @@
+package Genetica;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A classe PoliticaRetentativa define quantas vezes uma requisição ao NCBI é repetida, quanto tempo
+ * se espera entre as tentativas e os tempos limite de conexão, de resposta e de leitura do corpo.
+ *
+ * <p>As esperas crescem exponencialmente a partir da espera inicial, até a espera máxima, e são
+ * sorteadas entre zero e esse valor (full jitter), para que várias threads que falharam juntas não
+ * voltem todas no mesmo instante. Quando o servidor envia o cabeçalho Retry-After, o valor dele é
+ * usado no lugar do sorteio, limitado à espera máxima para que um valor alto não prenda a thread.</p>
+ * @author rezende
+ */
+public class PoliticaRetentativa {
+
+    private final int tentativas;
+    private final Duration esperaInicial;
+    private final Duration esperaMaxima;
+    private final Duration timeoutConexao;
+    private final Duration timeoutResposta;
+    private final Duration timeoutLeitura;
+
+    /**
+     * Cria uma política de retentativas em que o tempo limite de leitura do corpo é igual ao de
+     * resposta.
+     *
+     * @param tentativas O número máximo de tentativas de cada requisição, incluindo a primeira.
+     * @param esperaInicial A espera máxima antes da segunda tentativa.
+     * @param esperaMaxima O teto das esperas sorteadas e das pedidas pelo Retry-After.
+     * @param timeoutConexao O tempo limite para abrir a conexão.
+     * @param timeoutResposta O tempo limite para receber os cabeçalhos da resposta.
+     */
+    public PoliticaRetentativa(int tentativas, Duration esperaInicial, Duration esperaMaxima,
+            Duration timeoutConexao, Duration timeoutResposta) {
+        this(tentativas, esperaInicial, esperaMaxima, timeoutConexao, timeoutResposta, timeoutResposta);
+    }
+
+    /**
+     * Cria uma política de retentativas.
+     *
+     * @param tentativas O número máximo de tentativas de cada requisição, incluindo a primeira.
+     * @param esperaInicial A espera máxima antes da segunda tentativa.
+     * @param esperaMaxima O teto das esperas sorteadas e das pedidas pelo Retry-After.
+     * @param timeoutConexao O tempo limite para abrir a conexão.
+     * @param timeoutResposta O tempo limite para receber os cabeçalhos da resposta.
+     * @param timeoutLeitura O tempo máximo sem receber nenhum byte do corpo de um download.
+     */
+    public PoliticaRetentativa(int tentativas, Duration esperaInicial, Duration esperaMaxima,
+            Duration timeoutConexao, Duration timeoutResposta, Duration timeoutLeitura) {
+        if (tentativas < 1) {
+            throw new IllegalArgumentException("O número de tentativas deve ser positivo: " + tentativas);
+        }
+        this.tentativas = tentativas;
+        this.esperaInicial = esperaInicial;
+        this.esperaMaxima = esperaMaxima;
+        this.timeoutConexao = timeoutConexao;
+        this.timeoutResposta = timeoutResposta;
+        this.timeoutLeitura = timeoutLeitura;
+    }
+
+    /**
+     * @return A política padrão: 5 tentativas, esperas de 0,5 s até 30 s, conexão em até 30 s,
+     *         resposta em até 2 minutos e no máximo 1 minuto sem receber bytes do corpo.
+     */
+    public static PoliticaRetentativa padrao() {
+        return new PoliticaRetentativa(5, Duration.ofMillis(500), Duration.ofSeconds(30),
+                Duration.ofSeconds(30), Duration.ofMinutes(2), Duration.ofMinutes(1));
+    }
+
+    /**
+     * Indica se uma resposta com o código informado deve ser repetida: 408, 429 e os erros 5xx de
+     * sobrecarga ou indisponibilidade.
+     *
+     * @param status O código HTTP.
+     * @return true se a requisição deve ser repetida.
+     */
+    public boolean retentavel(int status) {
+        return status == 408 || status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Calcula a espera antes da próxima tentativa.
+     *
+     * @param tentativa O número da tentativa que acabou de falhar, a partir de 1.
+     * @param retryAfter O valor do cabeçalho Retry-After, ou null.
+     * @return O tempo a esperar, nunca maior que a espera máxima.
+     */
+    public Duration espera(int tentativa, String retryAfter) {
+        Duration pedida = retryAfter(retryAfter);
+        if (pedida != null) {
+            return pedida.compareTo(esperaMaxima) > 0 ? esperaMaxima : pedida;
+        }
+        long teto = esperaInicial.toMillis() << Math.min(tentativa - 1, 30);
+        teto = Math.min(Math.max(teto, 0), esperaMaxima.toMillis());
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(teto + 1));
+    }
+
+    /**
+     * Interpreta o cabeçalho Retry-After, que pode trazer segundos ou uma data HTTP.
+     *
+     * @return A espera pedida, ou null se o valor estiver ausente ou for inválido.
+     */
+    static Duration retryAfter(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(valor.trim())));
+        } catch (NumberFormatException e) {
+            // Não é um número: tenta o formato de data
+        }
+        try {
+            Duration ate = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(valor.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return ate.isNegative() ? Duration.ZERO : ate;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return O número máximo de tentativas de cada requisição.
+     */
+    public int tentativas() {
+        return tentativas;
+    }
+
+    /**
+     * @return O tempo limite para abrir a conexão.
+     */
+    public Duration timeoutConexao() {
+        return timeoutConexao;
+    }
+
+    /**
+     * @return O tempo limite para receber os cabeçalhos da resposta.
+     */
+    public Duration timeoutResposta() {
+        return timeoutResposta;
+    }
+
+    /**
+     * @return O tempo máximo sem receber nenhum byte do corpo de um download.
+     */
+    public Duration timeoutLeitura() {
+        return timeoutLeitura;
+    }
+}
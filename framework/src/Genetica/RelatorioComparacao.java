@@ -0,0 +1,186 @@
+package Genetica;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A classe RelatorioComparacao grava o relatório de comparação diretamente no disco, em blocos
+ * intercalados de largura fixa como em um visualizador de alinhamentos:
+ *
+ * <pre>
+ * Seq1 1            ATGC-TACGTA...
+ * Seq2 1            ATGC-TACGTA...
+ * </pre>
+ *
+ * <p>As colunas passam por um buffer de tamanho fixo e são escritas por um {@link FileChannel}, de
+ * modo que a memória usada não depende do tamanho das sequências. Campos do resumo que só são
+ * conhecidos no final (como a similaridade) são reservados no cabeçalho com espaços e preenchidos
+ * no lugar ao fechar o relatório.</p>
+ * @author rezende
+ */
+public class RelatorioComparacao implements Closeable {
+
+    /** Número de colunas por bloco. */
+    public static final int LARGURA_BLOCO = 60;
+
+    // Espaço reservado no cabeçalho para cada campo preenchido no final
+    private static final int LARGURA_CAMPO = 24;
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+    private final long[] posicaoCampos;
+    private final String[] valoresCampos;
+
+    private final byte[] linha1 = new byte[LARGURA_BLOCO];
+    private final byte[] linha2 = new byte[LARGURA_BLOCO];
+    private int colunas;
+    private long posicao1;
+    private long posicao2;
+    private long inicioBloco1;
+    private long inicioBloco2;
+    private long escritos;
+
+    /**
+     * Cria o arquivo do relatório e grava o cabeçalho.
+     *
+     * @param saida O nome do arquivo de saída.
+     * @param cabecalho O texto inicial do relatório, já conhecido.
+     * @param camposAtrasados Os rótulos dos campos preenchidos em {@link #preencher(int, String)}.
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    public RelatorioComparacao(String saida, String cabecalho, String... camposAtrasados) throws IOException {
+        canal = FileChannel.open(Paths.get(saida), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        posicaoCampos = new long[camposAtrasados.length];
+        valoresCampos = new String[camposAtrasados.length];
+        escrever(cabecalho);
+        for (int c = 0; c < camposAtrasados.length; c++) {
+            escrever(camposAtrasados[c] + ": ");
+            posicaoCampos[c] = escritos;
+            escrever(" ".repeat(LARGURA_CAMPO) + "\n");
+        }
+        escrever("\nSequências compatíveis:\n");
+    }
+
+    /**
+     * Define a posição (a partir de 0) da primeira base de cada sequência, para relatórios que não
+     * começam no início das sequências, como os de alinhamento local.
+     *
+     * @param inicio1 A posição inicial na primeira sequência.
+     * @param inicio2 A posição inicial na segunda sequência.
+     */
+    public void iniciarEm(long inicio1, long inicio2) {
+        posicao1 = inicio1;
+        posicao2 = inicio2;
+    }
+
+    /**
+     * Acrescenta uma coluna ao relatório.
+     *
+     * @param exibido1 O caractere exibido para a primeira sequência.
+     * @param exibido2 O caractere exibido para a segunda sequência.
+     * @param base1 Se a coluna consome uma base da primeira sequência (false para lacunas).
+     * @param base2 Se a coluna consome uma base da segunda sequência (false para lacunas).
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public void coluna(int exibido1, int exibido2, boolean base1, boolean base2) throws IOException {
+        if (colunas == 0) {
+            inicioBloco1 = posicao1;
+            inicioBloco2 = posicao2;
+        }
+        linha1[colunas] = (byte) exibido1;
+        linha2[colunas] = (byte) exibido2;
+        colunas++;
+        if (base1) {
+            posicao1++;
+        }
+        if (base2) {
+            posicao2++;
+        }
+        if (colunas == LARGURA_BLOCO) {
+            escreverBloco();
+        }
+    }
+
+    /**
+     * Define o valor de um campo reservado no cabeçalho. O valor é gravado ao fechar o relatório.
+     *
+     * @param campo O índice do campo, na ordem do construtor.
+     * @param valor O valor, com no máximo 24 caracteres.
+     */
+    public void preencher(int campo, String valor) {
+        if (valor.getBytes(StandardCharsets.UTF_8).length > LARGURA_CAMPO) {
+            throw new IllegalArgumentException("Valor longo demais para o campo: " + valor);
+        }
+        valoresCampos[campo] = valor;
+    }
+
+    /**
+     * Grava o último bloco, preenche os campos do cabeçalho e fecha o arquivo.
+     *
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    @Override
+    public void close() throws IOException {
+        // As colunas são gravadas durante a comparação; aqui se mede o fechamento e o total gravado
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.ESCRITA, Metricas.BYTES)) {
+            if (colunas > 0) {
+                escreverBloco();
+            }
+            esvaziar();
+            for (int c = 0; c < posicaoCampos.length; c++) {
+                if (valoresCampos[c] != null) {
+                    ByteBuffer valor = ByteBuffer.wrap(valoresCampos[c].getBytes(StandardCharsets.UTF_8));
+                    long destino = posicaoCampos[c];
+                    while (valor.hasRemaining()) {
+                        destino += canal.write(valor, destino);
+                    }
+                }
+            }
+            medicao.unidades(escritos).concluir();
+        } finally {
+            canal.close();
+        }
+    }
+
+    private void escreverBloco() throws IOException {
+        escrever(String.format("Seq1 %-12d ", inicioBloco1 + 1));
+        escrever(linha1, colunas);
+        escrever(String.format("\nSeq2 %-12d ", inicioBloco2 + 1));
+        escrever(linha2, colunas);
+        escrever("\n\n");
+        colunas = 0;
+    }
+
+    private void escrever(String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escrever(bytes, bytes.length);
+    }
+
+    private void escrever(byte[] bytes, int tamanho) throws IOException {
+        int deslocamento = 0;
+        while (deslocamento < tamanho) {
+            if (!buffer.hasRemaining()) {
+                esvaziar();
+            }
+            int parte = Math.min(buffer.remaining(), tamanho - deslocamento);
+            buffer.put(bytes, deslocamento, parte);
+            deslocamento += parte;
+        }
+        escritos += tamanho;
+    }
+
+    private void esvaziar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,166 @@
+package Genetica;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A classe SaidaVariantes grava apenas as posições em que duas sequências diferem, à medida que a
+ * comparação avança, em vez de repetir o genoma inteiro com hífens.
+ *
+ * <p>No formato {@link Formato#INTERVALOS} as posições diferentes consecutivas são agrupadas em
+ * intervalos (codificação por comprimento de sequência), uma linha "início fim comprimento" por
+ * intervalo, com coordenadas a partir de 0 e fim exclusivo. No formato {@link Formato#VCF} cada
+ * posição vira um registro de SNP (posição a partir de 1, base de referência e base alternativa).
+ * A saída pode ser compactada com gzip.</p>
+ * @author rezende
+ */
+public class SaidaVariantes implements Closeable {
+
+    /** Formato da saída. */
+    public enum Formato {
+        /** Intervalos de posições diferentes, separados por tabulação. */
+        INTERVALOS,
+        /** Registros de SNP no formato VCF 4.2. */
+        VCF
+    }
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final Path arquivo;
+    private final BufferedWriter writer;
+    private final Formato formato;
+    private final String cromossomo;
+
+    private long inicioIntervalo = -1;
+    private long fimIntervalo = -1;
+    private long diferencas;
+    private long intervalos;
+
+    /**
+     * Cria o arquivo de saída e grava o cabeçalho do formato.
+     *
+     * @param saida O nome do arquivo de saída.
+     * @param formato O formato da saída.
+     * @param gzip Se true, a saída é compactada com gzip.
+     * @param cromossomo O nome da sequência de referência (a primeira), usado na coluna CHROM do VCF.
+     * @param descricao Uma linha descrevendo a comparação, gravada como comentário.
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    public SaidaVariantes(String saida, Formato formato, boolean gzip, String cromossomo, String descricao) throws IOException {
+        this.arquivo = Paths.get(saida);
+        OutputStream destino = Files.newOutputStream(arquivo);
+        OutputStream saidaBytes = gzip ? new GZIPOutputStream(destino, TAMANHO_BUFFER) : new BufferedOutputStream(destino, TAMANHO_BUFFER);
+        this.writer = new BufferedWriter(new OutputStreamWriter(saidaBytes, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+        this.formato = formato;
+        this.cromossomo = cromossomo.replaceAll("\\s", "_");
+        if (formato == Formato.VCF) {
+            writer.write("##fileformat=VCFv4.2\n");
+            writer.write("##source=Genetica.FastaComparar\n");
+            writer.write("##comparacao=" + descricao + "\n");
+            writer.write("##contig=<ID=" + this.cromossomo + ">\n");
+            writer.write("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\n");
+        } else {
+            writer.write("# " + descricao + "\n");
+            writer.write("# inicio\tfim\tcomprimento (a partir de 0, fim exclusivo)\n");
+        }
+    }
+
+    /**
+     * Registra uma posição em que as sequências diferem. As posições devem chegar em ordem crescente.
+     *
+     * @param posicao A posição, a partir de 0.
+     * @param referencia A base da primeira sequência.
+     * @param alternativa A base da segunda sequência.
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    public void diferenca(long posicao, int referencia, int alternativa) throws IOException {
+        diferencas++;
+        if (formato == Formato.VCF) {
+            char ref = baseVcf(referencia);
+            char alt = baseVcf(alternativa);
+            if (ref == alt) {
+                // Dois símbolos ambíguos diferentes viram N e N: a posição conta, mas não há SNP a gravar
+                return;
+            }
+            writer.write(cromossomo);
+            writer.write('\t');
+            writer.write(Long.toString(posicao + 1));
+            writer.write("\t.\t");
+            writer.write(ref);
+            writer.write('\t');
+            writer.write(alt);
+            writer.write("\t.\tPASS\t.\n");
+            return;
+        }
+        if (posicao == fimIntervalo) {
+            fimIntervalo++;
+            return;
+        }
+        escreverIntervalo();
+        inicioIntervalo = posicao;
+        fimIntervalo = posicao + 1;
+    }
+
+    /**
+     * @return O número de posições diferentes registradas, o mesmo nos dois formatos. No VCF pode
+     *         ser maior que o número de registros, já que posições com dois símbolos ambíguos
+     *         diferentes não viram SNP.
+     */
+    public long diferencas() {
+        return diferencas;
+    }
+
+    /**
+     * @return O número de intervalos gravados (apenas no formato de intervalos).
+     */
+    public long intervalos() {
+        return intervalos;
+    }
+
+    /**
+     * Grava o último intervalo e fecha o arquivo.
+     *
+     * @throws IOException Se ocorrer um erro na escrita do arquivo.
+     */
+    @Override
+    public void close() throws IOException {
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.ESCRITA, Metricas.BYTES)) {
+            try {
+                escreverIntervalo();
+            } finally {
+                writer.close();
+            }
+            medicao.unidades(Files.size(arquivo)).concluir();
+        }
+    }
+
+    private void escreverIntervalo() throws IOException {
+        if (inicioIntervalo < 0) {
+            return;
+        }
+        writer.write(Long.toString(inicioIntervalo));
+        writer.write('\t');
+        writer.write(Long.toString(fimIntervalo));
+        writer.write('\t');
+        writer.write(Long.toString(fimIntervalo - inicioIntervalo));
+        writer.write('\n');
+        intervalos++;
+        inicioIntervalo = -1;
+    }
+
+    /**
+     * O VCF só aceita A, C, G, T e N; os demais símbolos IUPAC são gravados como N.
+     */
+    private static char baseVcf(int base) {
+        return SequenciaCompacta.codigo(base) >= 0 ? (char) base : 'N';
+    }
+}
@@ -0,0 +1,370 @@
+package Genetica;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A classe SequenciaCompacta armazena uma sequência de nucleotídeos usando 2 bits por base
+ * (32 bases por long), em vez de uma String com 2 bytes por caractere.
+ *
+ * <p>As bases A, C, G e T são codificadas como 0, 1, 2 e 3. Qualquer outro símbolo (N e os demais
+ * códigos de ambiguidade IUPAC) é guardado em uma máscara lateral de trechos contínuos, de forma
+ * que a sequência original em maiúsculas pode ser reconstruída sem perdas.</p>
+ * @author rezende
+ */
+public class SequenciaCompacta {
+
+    /** As bases na ordem dos seus códigos de 2 bits. */
+    public static final String BASES = "ACGT";
+
+    private static final byte[] CODIGO = new byte[256];
+
+    static {
+        Arrays.fill(CODIGO, (byte) -1);
+        for (int i = 0; i < BASES.length(); i++) {
+            CODIGO[BASES.charAt(i)] = (byte) i;
+            CODIGO[Character.toLowerCase(BASES.charAt(i))] = (byte) i;
+        }
+    }
+
+    private long[] palavras;
+    private long comprimento;
+
+    // Máscara de ambiguidade: trechos [inicio, fim) que repetem o mesmo símbolo
+    private long[] ambInicio = new long[4];
+    private long[] ambFim = new long[4];
+    private byte[] ambSimbolo = new byte[4];
+    private int trechos;
+
+    /**
+     * Cria uma sequência vazia.
+     */
+    public SequenciaCompacta() {
+        this(64);
+    }
+
+    /**
+     * Cria uma sequência vazia com espaço reservado para o número de bases informado.
+     *
+     * @param capacidade O número de bases esperado.
+     */
+    public SequenciaCompacta(long capacidade) {
+        this.palavras = new long[palavrasPara(Math.max(capacidade, 1))];
+    }
+
+    /**
+     * Cria uma sequência compacta a partir de um texto.
+     *
+     * @param texto A sequência de nucleotídeos.
+     * @return A sequência compacta correspondente.
+     */
+    public static SequenciaCompacta doTexto(CharSequence texto) {
+        SequenciaCompacta sequencia = new SequenciaCompacta(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            sequencia.adicionar(texto.charAt(i));
+        }
+        return sequencia;
+    }
+
+    /**
+     * Lê um arquivo FASTA diretamente para a forma compacta, sem montar a sequência como String.
+     * As linhas de cabeçalho são ignoradas e as demais são concatenadas.
+     *
+     * @param filename O nome do arquivo FASTA a ser lido.
+     * @param exigirCabecalho Se true, o arquivo precisa começar com uma linha "&gt;".
+     * @return A sequência contida no arquivo.
+     * @throws IOException Se ocorrer um erro na leitura ou o arquivo não tiver cabeçalho quando exigido.
+     */
+    public static SequenciaCompacta lerFasta(String filename, boolean exigirCabecalho) throws IOException {
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.LEITURA, Metricas.BASES);
+             FastaReader reader = new FastaReader(filename)) {
+            if (exigirCabecalho) {
+                reader.exigirCabecalho();
+            }
+            // O tamanho do arquivo é um limite superior para o número de bases
+            SequenciaCompacta sequencia = new SequenciaCompacta(reader.tamanho());
+            reader.percorrer(sequencia::adicionar);
+            medicao.unidades(sequencia.comprimento()).concluir();
+            return sequencia;
+        }
+    }
+
+    /**
+     * Lê um único registro de um arquivo FASTA com vários registros, indo direto ao seu
+     * deslocamento pelo índice ".fai" (que é construído e salvo na primeira vez).
+     *
+     * @param filename O nome do arquivo FASTA.
+     * @param id O identificador do registro (o cabeçalho até o primeiro espaço).
+     * @return A sequência do registro.
+     * @throws IOException Se ocorrer um erro na leitura ou o registro não existir.
+     */
+    public static SequenciaCompacta lerRegistro(String filename, String id) throws IOException {
+        IndiceFasta.Entrada registro = IndiceFasta.paraArquivo(filename).buscar(id);
+        if (registro == null) {
+            throw new IOException("Registro " + id + " não encontrado em " + filename);
+        }
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.LEITURA, Metricas.BASES);
+             FastaReader reader = new FastaReader(filename)) {
+            SequenciaCompacta sequencia = new SequenciaCompacta(registro.comprimento());
+            reader.percorrerRegistro(registro, sequencia::adicionar);
+            medicao.unidades(sequencia.comprimento()).concluir();
+            return sequencia;
+        }
+    }
+
+    /**
+     * Adiciona uma base ao final da sequência.
+     *
+     * @param base O símbolo da base (ASCII); símbolos fora de ACGT entram na máscara de ambiguidade.
+     */
+    public void adicionar(int base) {
+        garantirCapacidade(comprimento + 1);
+        int codigo = CODIGO[base & 0xFF];
+        if (codigo < 0) {
+            marcarAmbigua(comprimento, (byte) Character.toUpperCase((char) (base & 0xFF)));
+            codigo = 0;
+        }
+        palavras[(int) (comprimento >>> 5)] |= (long) codigo << ((comprimento & 31) << 1);
+        comprimento++;
+    }
+
+    /**
+     * Adiciona ao final da sequência todas as bases restantes do buffer.
+     *
+     * @param bases Os bytes das bases (ASCII).
+     */
+    public void adicionar(ByteBuffer bases) {
+        for (int i = bases.position(); i < bases.limit(); i++) {
+            adicionar(bases.get(i));
+        }
+    }
+
+    /**
+     * Retorna o número de bases da sequência.
+     *
+     * @return O comprimento da sequência.
+     */
+    public long comprimento() {
+        return comprimento;
+    }
+
+    /**
+     * Retorna o código de 2 bits da base na posição informada. Posições ambíguas retornam 0.
+     *
+     * @param posicao A posição da base (a partir de 0).
+     * @return O código da base, entre 0 e 3.
+     */
+    public int codigoEm(long posicao) {
+        return (int) (palavras[(int) (posicao >>> 5)] >>> ((posicao & 31) << 1)) & 3;
+    }
+
+    /**
+     * Retorna o símbolo da base na posição informada, em maiúsculas.
+     *
+     * @param posicao A posição da base (a partir de 0).
+     * @return O símbolo original da base.
+     */
+    public char charAt(long posicao) {
+        byte simbolo = simboloAmbiguo(posicao);
+        return simbolo != 0 ? (char) simbolo : BASES.charAt(codigoEm(posicao));
+    }
+
+    /**
+     * Retorna o símbolo de ambiguidade guardado para a posição, ou 0 se a base for A, C, G ou T.
+     *
+     * @param posicao A posição da base (a partir de 0).
+     * @return O símbolo ambíguo ou 0.
+     */
+    public byte simboloAmbiguo(long posicao) {
+        int trecho = primeiroTrechoApos(posicao);
+        if (trecho < trechos && ambInicio[trecho] <= posicao) {
+            return ambSimbolo[trecho];
+        }
+        return 0;
+    }
+
+    /**
+     * Retorna o índice (0 a 63) do códon que começa na posição informada, calculado como
+     * 16 * b1 + 4 * b2 + b3 sobre os códigos de 2 bits. A máscara de ambiguidade não é consultada.
+     *
+     * @param posicao A posição da primeira base do códon.
+     * @return O índice do códon.
+     */
+    public int indiceCodon(long posicao) {
+        return (codigoEm(posicao) << 4) | (codigoEm(posicao + 1) << 2) | codigoEm(posicao + 2);
+    }
+
+    /**
+     * Converte um índice de códon (0 a 63) no texto do códon.
+     *
+     * @param indice O índice do códon.
+     * @return O códon, por exemplo "ATG".
+     */
+    public static String codonDoIndice(int indice) {
+        return new String(new char[] {
+            BASES.charAt((indice >> 4) & 3), BASES.charAt((indice >> 2) & 3), BASES.charAt(indice & 3)
+        });
+    }
+
+    /**
+     * Retorna o código de 2 bits de um símbolo, ou -1 se ele não for A, C, G ou T.
+     *
+     * @param base O símbolo da base (ASCII).
+     * @return O código da base ou -1.
+     */
+    public static int codigo(int base) {
+        return CODIGO[base & 0xFF];
+    }
+
+    /**
+     * Retorna a palavra de 64 bits com as bases 32*i até 32*i+31 (a base mais baixa nos bits menos
+     * significativos). Os bits após o fim da sequência são zero.
+     *
+     * @param indice O índice da palavra.
+     * @return A palavra compactada.
+     */
+    public long palavra(int indice) {
+        return palavras[indice];
+    }
+
+    /**
+     * Retorna o número de palavras ocupadas pela sequência.
+     *
+     * @return O número de palavras de 64 bits em uso.
+     */
+    public int numeroPalavras() {
+        return palavrasPara(comprimento);
+    }
+
+    /**
+     * Retorna o número de trechos na máscara de ambiguidade.
+     *
+     * @return O número de trechos ambíguos.
+     */
+    public int trechosAmbiguos() {
+        return trechos;
+    }
+
+    /**
+     * Retorna a posição inicial (inclusiva) de um trecho ambíguo.
+     *
+     * @param trecho O índice do trecho.
+     * @return A posição inicial do trecho.
+     */
+    public long inicioTrecho(int trecho) {
+        return ambInicio[trecho];
+    }
+
+    /**
+     * Retorna a posição final (exclusiva) de um trecho ambíguo.
+     *
+     * @param trecho O índice do trecho.
+     * @return A posição final do trecho.
+     */
+    public long fimTrecho(int trecho) {
+        return ambFim[trecho];
+    }
+
+    /**
+     * Retorna o símbolo repetido em um trecho ambíguo.
+     *
+     * @param trecho O índice do trecho.
+     * @return O símbolo do trecho.
+     */
+    public byte simboloTrecho(int trecho) {
+        return ambSimbolo[trecho];
+    }
+
+    /**
+     * Retorna o índice do primeiro trecho ambíguo que termina depois da posição informada.
+     *
+     * @param posicao A posição de referência.
+     * @return O índice do trecho, ou o número de trechos se não houver nenhum.
+     */
+    public int primeiroTrechoApos(long posicao) {
+        int baixo = 0;
+        int alto = trechos;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (ambFim[meio] <= posicao) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    /**
+     * Reconstrói a sequência como um array de bytes ASCII, um por base.
+     *
+     * @return As bases em maiúsculas, incluindo os símbolos ambíguos originais.
+     */
+    public byte[] paraBytes() {
+        if (comprimento > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Sequência longa demais para um array: " + comprimento);
+        }
+        byte[] bytes = new byte[(int) comprimento];
+        int trecho = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            while (trecho < trechos && ambFim[trecho] <= i) {
+                trecho++;
+            }
+            if (trecho < trechos && ambInicio[trecho] <= i) {
+                bytes[i] = ambSimbolo[trecho];
+            } else {
+                bytes[i] = (byte) BASES.charAt(codigoEm(i));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Reconstrói a sequência como String. Use apenas para sequências pequenas.
+     *
+     * @return A sequência em maiúsculas.
+     */
+    @Override
+    public String toString() {
+        return new String(paraBytes(), StandardCharsets.ISO_8859_1);
+    }
+
+    static boolean ehEspaco(int b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+    }
+
+    private void marcarAmbigua(long posicao, byte simbolo) {
+        if (trechos > 0 && ambFim[trechos - 1] == posicao && ambSimbolo[trechos - 1] == simbolo) {
+            ambFim[trechos - 1]++;
+            return;
+        }
+        if (trechos == ambInicio.length) {
+            int novo = trechos + (trechos >> 1);
+            ambInicio = Arrays.copyOf(ambInicio, novo);
+            ambFim = Arrays.copyOf(ambFim, novo);
+            ambSimbolo = Arrays.copyOf(ambSimbolo, novo);
+        }
+        ambInicio[trechos] = posicao;
+        ambFim[trechos] = posicao + 1;
+        ambSimbolo[trechos] = simbolo;
+        trechos++;
+    }
+
+    private void garantirCapacidade(long bases) {
+        int necessario = palavrasPara(bases);
+        if (necessario > palavras.length) {
+            long novo = Math.max(necessario, (long) palavras.length + (palavras.length >> 1));
+            palavras = Arrays.copyOf(palavras, (int) Math.min(novo, Integer.MAX_VALUE - 8));
+        }
+    }
+
+    private static int palavrasPara(long bases) {
+        long n = (bases + 31) >>> 5;
+        if (n > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Sequência longa demais: " + bases + " bases");
+        }
+        return (int) n;
+    }
+}
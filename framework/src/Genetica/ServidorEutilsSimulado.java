@@ -0,0 +1,282 @@
+package Genetica;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A classe ServidorEutilsSimulado é um substituto local das E-utilities do NCBI, usado para medir
+ * e testar o download sem rede e de forma reproduzível.
+ *
+ * <p>O servidor responde a esearch.fcgi (com Count, WebEnv, QueryKey e IdList) e a efetch.fcgi,
+ * tanto por id quanto por query_key/WebEnv com retstart e retmax, gerando registros FASTA
+ * sintéticos: a sequência de cada ID é sempre a mesma para a mesma semente. A latência de cada
+ * resposta, a fração de respostas 503 e o tamanho de cada registro são configuráveis; as falhas
+ * são sorteadas a partir da semente e da ordem das requisições. O corpo é gerado em fluxo, sem
+ * montar o registro inteiro na memória, e é compactado com gzip quando o cliente aceita.</p>
+ * @author rezende
+ */
+public class ServidorEutilsSimulado implements Closeable {
+
+    private static final int LARGURA_LINHA = 70;
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+    private static final String PREFIXO_WEBENV = "SIMULADO_";
+
+    private final Duration latencia;
+    private final double taxaErro;
+    private final long tamanhoRegistro;
+    private final long registros;
+    private final long semente;
+
+    private final AtomicLong requisicoes = new AtomicLong();
+    private final AtomicLong erros = new AtomicLong();
+    private final AtomicLong bytesEnviados = new AtomicLong();
+
+    private HttpServer servidor;
+    private ExecutorService executor;
+
+    /**
+     * Cria um servidor simulado, ainda parado.
+     *
+     * @param latencia O atraso aplicado antes de cada resposta.
+     * @param taxaErro A fração de requisições respondidas com 503, entre 0 e 1.
+     * @param tamanhoRegistro O número de bases de cada registro FASTA.
+     * @param registros O número de registros encontrados por qualquer esearch.
+     * @param semente A semente que define as sequências e a ordem das falhas.
+     */
+    public ServidorEutilsSimulado(Duration latencia, double taxaErro, long tamanhoRegistro, long registros, long semente) {
+        if (taxaErro < 0 || taxaErro > 1 || tamanhoRegistro < 1 || registros < 0) {
+            throw new IllegalArgumentException("Parâmetros inválidos: taxaErro=" + taxaErro
+                    + ", tamanhoRegistro=" + tamanhoRegistro + ", registros=" + registros);
+        }
+        this.latencia = latencia;
+        this.taxaErro = taxaErro;
+        this.tamanhoRegistro = tamanhoRegistro;
+        this.registros = registros;
+        this.semente = semente;
+    }
+
+    /**
+     * Inicia o servidor em uma porta livre de 127.0.0.1.
+     *
+     * @return Este servidor.
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public synchronized ServidorEutilsSimulado iniciar() throws IOException {
+        if (servidor != null) {
+            return this;
+        }
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/esearch.fcgi", troca -> atender(troca, this::esearch));
+        servidor.createContext("/efetch.fcgi", troca -> atender(troca, this::efetch));
+        // Uma thread por conexão, para que a latência simulada não serialize as requisições
+        executor = Executors.newCachedThreadPool();
+        servidor.setExecutor(executor);
+        servidor.start();
+        return this;
+    }
+
+    /**
+     * @return O endereço base das E-utilities simuladas, para o {@link ClienteNcbi}.
+     */
+    public synchronized String url() {
+        if (servidor == null) {
+            throw new IllegalStateException("O servidor simulado não foi iniciado");
+        }
+        return "http://127.0.0.1:" + servidor.getAddress().getPort() + "/";
+    }
+
+    /**
+     * @return O número de requisições recebidas.
+     */
+    public long requisicoes() {
+        return requisicoes.get();
+    }
+
+    /**
+     * @return O número de requisições respondidas com erro simulado.
+     */
+    public long erros() {
+        return erros.get();
+    }
+
+    /**
+     * @return O número de bytes de corpo enviados, antes da compactação.
+     */
+    public long bytesEnviados() {
+        return bytesEnviados.get();
+    }
+
+    /**
+     * Para o servidor.
+     */
+    @Override
+    public synchronized void close() {
+        if (servidor != null) {
+            servidor.stop(0);
+            executor.shutdownNow();
+            servidor = null;
+        }
+    }
+
+    private interface Resposta {
+        void escrever(Map<String, String> parametros, OutputStream saida) throws IOException;
+    }
+
+    private void atender(HttpExchange troca, Resposta resposta) throws IOException {
+        long ordem = requisicoes.getAndIncrement();
+        try {
+            Thread.sleep(latencia.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            troca.close();
+            return;
+        }
+        if (taxaErro > 0 && sorteio(semente ^ ordem * 0x9E3779B97F4A7C15L) < taxaErro) {
+            erros.incrementAndGet();
+            troca.sendResponseHeaders(503, -1);
+            troca.close();
+            return;
+        }
+        Map<String, String> parametros = parametros(troca.getRequestURI().getRawQuery());
+        String aceita = troca.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = aceita != null && aceita.contains("gzip");
+        if (gzip) {
+            troca.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        troca.sendResponseHeaders(200, 0);
+        try (OutputStream corpo = gzip ? new GZIPOutputStream(troca.getResponseBody(), 1 << 16)
+                : new BufferedOutputStream(troca.getResponseBody(), 1 << 16);
+             OutputStream contador = new Contador(corpo)) {
+            resposta.escrever(parametros, contador);
+        }
+    }
+
+    private void esearch(Map<String, String> parametros, OutputStream saida) throws IOException {
+        String chave = Integer.toHexString(parametros.getOrDefault("term", "").hashCode());
+        int retmax = (int) Math.min(registros, Long.parseLong(parametros.getOrDefault("retmax", "20")));
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<eSearchResult>");
+        xml.append("<Count>").append(registros).append("</Count>");
+        xml.append("<RetMax>").append(retmax).append("</RetMax><RetStart>0</RetStart>");
+        if ("y".equals(parametros.get("usehistory"))) {
+            xml.append("<QueryKey>1</QueryKey><WebEnv>").append(PREFIXO_WEBENV).append(chave).append("</WebEnv>");
+        }
+        xml.append("<IdList>");
+        for (int i = 0; i < retmax; i++) {
+            xml.append("<Id>").append(id(chave, i)).append("</Id>");
+        }
+        xml.append("</IdList></eSearchResult>\n");
+        saida.write(xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void efetch(Map<String, String> parametros, OutputStream saida) throws IOException {
+        String ids = parametros.get("id");
+        if (ids != null) {
+            for (String id : ids.split(",")) {
+                registro(Long.parseLong(id.trim()), saida);
+            }
+            return;
+        }
+        // O WebEnv carrega a chave do termo, então os registros são os mesmos da IdList do esearch
+        String chave = parametros.getOrDefault("WebEnv", PREFIXO_WEBENV).substring(PREFIXO_WEBENV.length());
+        long inicio = Long.parseLong(parametros.getOrDefault("retstart", "0"));
+        long fim = Math.min(registros, inicio + Long.parseLong(parametros.getOrDefault("retmax", "20")));
+        for (long i = inicio; i < fim; i++) {
+            registro(id(chave, i), saida);
+        }
+    }
+
+    /**
+     * Escreve um registro FASTA sintético, linha a linha, gerado a partir do ID e da semente.
+     */
+    private void registro(long id, OutputStream saida) throws IOException {
+        saida.write((">SIM" + id + ".1 Sequência sintética " + id + "\n").getBytes(StandardCharsets.UTF_8));
+        byte[] linha = new byte[LARGURA_LINHA + 1];
+        long estado = semente * 31 + id;
+        for (long escritos = 0; escritos < tamanhoRegistro; ) {
+            int tamanho = (int) Math.min(LARGURA_LINHA, tamanhoRegistro - escritos);
+            for (int i = 0; i < tamanho; i++) {
+                estado = estado * 6364136223846793005L + 1442695040888963407L;
+                linha[i] = BASES[(int) (estado >>> 62)];
+            }
+            linha[tamanho] = '\n';
+            saida.write(linha, 0, tamanho + 1);
+            escritos += tamanho;
+        }
+    }
+
+    private long id(String chave, long indice) {
+        // IDs positivos, estáveis para o mesmo termo e semente
+        return (misturar(semente ^ chave.hashCode()) & Long.MAX_VALUE) % 1_000_000_000L + indice;
+    }
+
+    private static double sorteio(long valor) {
+        return (misturar(valor) >>> 11) * 0x1.0p-53;
+    }
+
+    private static long misturar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xff51afd7ed558ccdL;
+        valor ^= valor >>> 33;
+        valor *= 0xc4ceb9fe1a85ec53L;
+        valor ^= valor >>> 33;
+        return valor;
+    }
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    /**
+     * Conta os bytes do corpo antes da compactação.
+     */
+    private final class Contador extends OutputStream {
+        private final OutputStream destino;
+
+        Contador(OutputStream destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            destino.write(b);
+            bytesEnviados.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int deslocamento, int tamanho) throws IOException {
+            destino.write(b, deslocamento, tamanho);
+            bytesEnviados.addAndGet(tamanho);
+        }
+
+        @Override
+        public void close() throws IOException {
+            destino.close();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package Genetica;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A classe TabelaGenetica representa um código genético do NCBI como uma tabela de 64 bytes,
+ * indexada pelo índice do códon usado em {@link SequenciaCompacta#indiceCodon(long)}.
+ *
+ * <p>Além do código padrão (tabela 1), estão disponíveis os códigos mitocondriais, de plastídeos
+ * e os demais códigos alternativos do NCBI, identificados pelo mesmo número usado por ele.</p>
+ * @author rezende
+ */
+public class TabelaGenetica {
+
+    /** Identificador do código genético padrão do NCBI. */
+    public static final int PADRAO = 1;
+
+    /** Ordem das bases usada nas tabelas do NCBI. */
+    private static final String ORDEM_NCBI = "TCAG";
+
+    private static final Map<Integer, TabelaGenetica> TABELAS = new TreeMap<>();
+
+    static {
+        registrar(1, "Padrão", "FFLLSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(2, "Mitocondrial de vertebrados", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSS**VVVVAAAADDEEGGGG");
+        registrar(3, "Mitocondrial de leveduras", "FFLLSSSSYY**CCWWTTTTPPPPHHQQRRRRIIMMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(4, "Mitocondrial de fungos, protozoários e Mycoplasma", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(5, "Mitocondrial de invertebrados", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSSSSVVVVAAAADDEEGGGG");
+        registrar(6, "Nuclear de ciliados e Dasycladaceae", "FFLLSSSSYYQQCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(9, "Mitocondrial de equinodermos e platelmintos", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNNKSSSSVVVVAAAADDEEGGGG");
+        registrar(10, "Nuclear de Euplotidae", "FFLLSSSSYY**CCCWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(11, "Bactérias, arqueias e plastídeos", "FFLLSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(12, "Nuclear alternativo de leveduras", "FFLLSSSSYY**CC*WLLLSPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(13, "Mitocondrial de ascídias", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSSGGVVVVAAAADDEEGGGG");
+        registrar(14, "Mitocondrial alternativo de platelmintos", "FFLLSSSSYYY*CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNNKSSSSVVVVAAAADDEEGGGG");
+        registrar(16, "Mitocondrial de clorofíceas", "FFLLSSSSYY*LCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(21, "Mitocondrial de trematódeos", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNNKSSSSVVVVAAAADDEEGGGG");
+        registrar(22, "Mitocondrial de Scenedesmus obliquus", "FFLLSS*SYY*LCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(23, "Mitocondrial de Thraustochytrium", "FF*LSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+        registrar(24, "Mitocondrial de Rhabdopleuridae", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSSKVVVVAAAADDEEGGGG");
+        registrar(25, "Bactérias candidatas SR1 e Gracilibacteria", "FFLLSSSSYY**CCGWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG");
+    }
+
+    private final int id;
+    private final String nome;
+    private final byte[] aminoacidos = new byte[64];
+
+    private TabelaGenetica(int id, String nome, String tabelaNcbi) {
+        this.id = id;
+        this.nome = nome;
+        // Converte da ordem TCAG do NCBI para a ordem ACGT dos índices de códon
+        for (int i = 0; i < 64; i++) {
+            int b1 = SequenciaCompacta.codigo(ORDEM_NCBI.charAt(i >> 4));
+            int b2 = SequenciaCompacta.codigo(ORDEM_NCBI.charAt((i >> 2) & 3));
+            int b3 = SequenciaCompacta.codigo(ORDEM_NCBI.charAt(i & 3));
+            aminoacidos[(b1 << 4) | (b2 << 2) | b3] = (byte) tabelaNcbi.charAt(i);
+        }
+    }
+
+    private static void registrar(int id, String nome, String tabelaNcbi) {
+        TABELAS.put(id, new TabelaGenetica(id, nome, tabelaNcbi));
+    }
+
+    /**
+     * Retorna o código genético padrão (tabela 1 do NCBI).
+     *
+     * @return A tabela padrão.
+     */
+    public static TabelaGenetica padrao() {
+        return TABELAS.get(PADRAO);
+    }
+
+    /**
+     * Retorna um código genético pelo identificador do NCBI.
+     *
+     * @param id O identificador da tabela (por exemplo 2 para mitocondrial de vertebrados).
+     * @return A tabela correspondente.
+     * @throws IllegalArgumentException Se o identificador não for conhecido.
+     */
+    public static TabelaGenetica porId(int id) {
+        TabelaGenetica tabela = TABELAS.get(id);
+        if (tabela == null) {
+            throw new IllegalArgumentException("Código genético desconhecido: " + id + ". Disponíveis: " + TABELAS.keySet());
+        }
+        return tabela;
+    }
+
+    /**
+     * Retorna os identificadores das tabelas disponíveis.
+     *
+     * @return Os identificadores, em ordem crescente.
+     */
+    public static Set<Integer> idsDisponiveis() {
+        return Collections.unmodifiableSet(TABELAS.keySet());
+    }
+
+    /**
+     * @return O identificador da tabela no NCBI.
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * @return O nome do código genético.
+     */
+    public String nome() {
+        return nome;
+    }
+
+    /**
+     * Traduz um códon pelo seu índice.
+     *
+     * @param indiceCodon O índice do códon (0 a 63).
+     * @return O aminoácido em uma letra, ou '*' para códons de parada.
+     */
+    public byte traduzir(int indiceCodon) {
+        return aminoacidos[indiceCodon];
+    }
+
+    /**
+     * Indica se o códon é de parada nesta tabela.
+     *
+     * @param indiceCodon O índice do códon (0 a 63).
+     * @return true se o códon for de parada.
+     */
+    public boolean ehParada(int indiceCodon) {
+        return aminoacidos[indiceCodon] == '*';
+    }
+
+    /**
+     * Converte um aminoácido de uma letra no nome de três letras usado nos relatórios.
+     *
+     * @param aminoacido O aminoácido em uma letra, ou '*' para parada.
+     * @return O nome de três letras, "Stop" para parada ou "???" se desconhecido.
+     */
+    public static String nomeTresLetras(int aminoacido) {
+        switch (aminoacido) {
+            case 'A': return "Ala";
+            case 'R': return "Arg";
+            case 'N': return "Asn";
+            case 'D': return "Asp";
+            case 'C': return "Cys";
+            case 'Q': return "Gln";
+            case 'E': return "Glu";
+            case 'G': return "Gly";
+            case 'H': return "His";
+            case 'I': return "Ile";
+            case 'L': return "Leu";
+            case 'K': return "Lys";
+            case 'M': return "Met";
+            case 'F': return "Phe";
+            case 'P': return "Pro";
+            case 'S': return "Ser";
+            case 'T': return "Thr";
+            case 'W': return "Trp";
+            case 'Y': return "Tyr";
+            case 'V': return "Val";
+            case '*': return "Stop";
+            default: return "???";
+        }
+    }
+}
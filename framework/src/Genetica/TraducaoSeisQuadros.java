@@ -0,0 +1,161 @@
+package Genetica;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A classe TraducaoSeisQuadros traduz e conta códons nos seis quadros de leitura
+ * (+1, +2, +3 na fita direta e -1, -2, -3 no complemento reverso) em uma única passada.
+ *
+ * <p>Os códons são mantidos em uma janela deslizante de 6 bits para a fita direta e outra para o
+ * complemento reverso, de modo que cada base lida atualiza os seis quadros sem criar Strings nem
+ * inverter a sequência. A tradução usa a tabela de 64 bytes de {@link TabelaGenetica}.</p>
+ * @author rezende
+ */
+public class TraducaoSeisQuadros {
+
+    /** Nomes dos quadros, na ordem dos arrays retornados. */
+    public static final String[] QUADROS = {"+1", "+2", "+3", "-1", "-2", "-3"};
+
+    /**
+     * Conta os códons dos seis quadros de leitura de um arquivo FASTA, lendo-o uma única vez
+     * pelo {@link FastaReader}. Os registros são concatenados, como em {@link Codon#CodonAnalise(String)}.
+     *
+     * @param fastaFile O nome do arquivo FASTA.
+     * @param exigirCabecalho Se true, o arquivo precisa começar com uma linha "&gt;".
+     * @return Seis contadores, na ordem de {@link #QUADROS}.
+     * @throws IOException Se ocorrer um erro na leitura ou o arquivo não tiver cabeçalho quando exigido.
+     */
+    public static ContadorCodons[] contarArquivo(String fastaFile, boolean exigirCabecalho) throws IOException {
+        try (FastaReader reader = new FastaReader(fastaFile)) {
+            if (exigirCabecalho) {
+                reader.exigirCabecalho();
+            }
+            Passada passada = new Passada(null, -1);
+            reader.percorrer(bases -> {
+                for (int i = bases.position(); i < bases.limit(); i++) {
+                    int codigo = SequenciaCompacta.codigo(bases.get(i));
+                    passada.adicionar(codigo < 0 ? 0 : codigo, codigo < 0);
+                }
+            });
+            return passada.contadores();
+        }
+    }
+
+    /**
+     * Conta os códons dos seis quadros de leitura de uma sequência compacta.
+     *
+     * @param sequencia A sequência compactada.
+     * @return Seis contadores, na ordem de {@link #QUADROS}.
+     */
+    public static ContadorCodons[] contar(SequenciaCompacta sequencia) {
+        Passada passada = new Passada(null, sequencia.comprimento());
+        percorrer(sequencia, passada);
+        return passada.contadores();
+    }
+
+    /**
+     * Traduz os seis quadros de leitura de uma sequência em uma única passada. Códons com bases
+     * ambíguas são traduzidos como 'X' e códons de parada como '*'.
+     *
+     * @param sequencia A sequência compactada.
+     * @param tabela O código genético usado na tradução.
+     * @return Seis proteínas em uma letra, na ordem de {@link #QUADROS}.
+     */
+    public static String[] traduzir(SequenciaCompacta sequencia, TabelaGenetica tabela) {
+        if (sequencia.comprimento() / 3 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Sequência longa demais para traduzir: " + sequencia.comprimento());
+        }
+        Passada passada = new Passada(tabela, sequencia.comprimento());
+        percorrer(sequencia, passada);
+        String[] proteinas = new String[6];
+        for (int q = 0; q < 6; q++) {
+            proteinas[q] = new String(passada.proteinas[q], StandardCharsets.US_ASCII);
+        }
+        return proteinas;
+    }
+
+    private static void percorrer(SequenciaCompacta sequencia, Passada passada) {
+        int trecho = 0;
+        for (long i = 0; i < sequencia.comprimento(); i++) {
+            while (trecho < sequencia.trechosAmbiguos() && sequencia.fimTrecho(trecho) <= i) {
+                trecho++;
+            }
+            boolean ambigua = trecho < sequencia.trechosAmbiguos() && sequencia.inicioTrecho(trecho) <= i;
+            passada.adicionar(sequencia.codigoEm(i), ambigua);
+        }
+    }
+
+    /**
+     * Estado da passada única: as janelas da fita direta e do complemento reverso, os contadores
+     * e, opcionalmente, as proteínas sendo montadas.
+     */
+    private static class Passada {
+        private final ContadorCodons[] diretos = new ContadorCodons[3];
+        // Códons do complemento reverso agrupados pela fase da posição inicial na fita direta
+        private final ContadorCodons[] reversosPorFase = new ContadorCodons[3];
+        private final TabelaGenetica tabela;
+        private final long comprimento;
+        private final byte[][] proteinas;
+
+        private long posicao;
+        private long ultimaAmbigua = -1;
+        private int janela;
+        private int janelaReversa;
+
+        Passada(TabelaGenetica tabela, long comprimento) {
+            for (int f = 0; f < 3; f++) {
+                diretos[f] = new ContadorCodons();
+                reversosPorFase[f] = new ContadorCodons();
+            }
+            this.tabela = tabela;
+            this.comprimento = comprimento;
+            if (tabela != null) {
+                proteinas = new byte[6][];
+                for (int f = 0; f < 3; f++) {
+                    int tamanho = (int) Math.max(0, (comprimento - f) / 3);
+                    proteinas[f] = new byte[tamanho];
+                    proteinas[3 + f] = new byte[tamanho];
+                }
+            } else {
+                proteinas = null;
+            }
+        }
+
+        void adicionar(int codigo, boolean ambigua) {
+            if (ambigua) {
+                ultimaAmbigua = posicao;
+            }
+            janela = ((janela << 2) | codigo) & 63;
+            janelaReversa = (janelaReversa >>> 2) | ((3 - codigo) << 4);
+            if (posicao >= 2) {
+                long inicio = posicao - 2;
+                int fase = (int) (inicio % 3);
+                boolean codonAmbiguo = ultimaAmbigua >= inicio;
+                diretos[fase].registrar(janela, codonAmbiguo);
+                reversosPorFase[fase].registrar(janelaReversa, codonAmbiguo);
+                if (proteinas != null) {
+                    proteinas[fase][(int) (inicio / 3)] = codonAmbiguo ? (byte) 'X' : tabela.traduzir(janela);
+                    long inicioReverso = comprimento - 3 - inicio;
+                    proteinas[3 + (int) (inicioReverso % 3)][(int) (inicioReverso / 3)] =
+                            codonAmbiguo ? (byte) 'X' : tabela.traduzir(janelaReversa);
+                }
+            }
+            posicao++;
+        }
+
+        ContadorCodons[] contadores() {
+            ContadorCodons[] quadros = new ContadorCodons[6];
+            for (int f = 0; f < 3; f++) {
+                quadros[f] = diretos[f];
+                quadros[3 + f] = new ContadorCodons();
+            }
+            // O quadro reverso de um códon só é conhecido ao final, quando o comprimento é sabido
+            for (int fase = 0; fase < 3; fase++) {
+                int quadroReverso = (int) Math.floorMod(posicao - 3 - fase, 3L);
+                quadros[3 + quadroReverso].somar(reversosPorFase[fase]);
+            }
+            return quadros;
+        }
+    }
+}
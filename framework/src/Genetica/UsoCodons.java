@@ -0,0 +1,423 @@
+package Genetica;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A classe UsoCodons calcula, para cada registro de um multi-FASTA de sequências codificantes
+ * (um gene por registro), as contagens de códons, o RSCU e o CAI.
+ *
+ * <ul>
+ *   <li>RSCU (uso relativo de códons sinônimos): a contagem do códon dividida pela média das
+ *       contagens dos códons do mesmo aminoácido. 1 indica uso uniforme; 0 quando o aminoácido
+ *       não aparece no registro.</li>
+ *   <li>CAI (índice de adaptação de códons, Sharp e Li): a média geométrica dos pesos dos códons
+ *       do registro, em que o peso de um códon é a sua frequência no conjunto de referência
+ *       dividida pela do sinônimo mais usado. Códons de parada e de aminoácidos com um único códon
+ *       (Met e Trp no código padrão) não entram; códons ausentes da referência contam como 0,5.</li>
+ * </ul>
+ *
+ * <p>O arquivo é lido uma vez, em sequência, e cada registro é analisado em paralelo assim que é
+ * separado. Os resultados são entregues na ordem do arquivo, à medida que ficam prontos, e só
+ * alguns registros por thread ficam em memória ao mesmo tempo, então o tamanho do arquivo não
+ * importa, apenas o do maior registro. O quadro de leitura recomeça em cada registro.</p>
+ * @author rezende
+ */
+public class UsoCodons {
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    // Registros em análise por thread antes de esperar o mais antigo ser entregue
+    private static final int REGISTROS_POR_THREAD = 4;
+    // Contagem usada para códons ausentes da referência
+    private static final double AUSENTE = 0.5;
+
+    /** Recebe os resultados, na ordem dos registros no arquivo. */
+    public interface Saida {
+        /**
+         * @param resultado O resultado de um registro.
+         * @throws IOException Para interromper o processamento com erro.
+         */
+        void aceitar(Resultado resultado) throws IOException;
+    }
+
+    private final TabelaGenetica tabela;
+    // Número de códons que codificam o mesmo aminoácido que cada códon
+    private final int[] sinonimos = new int[64];
+    // Logaritmo do peso de cada códon, ou NaN para os que não entram no CAI
+    private final double[] logPesos = new double[64];
+
+    /**
+     * Prepara o cálculo com um conjunto de referência, usando o código genético padrão.
+     *
+     * @param referencia As contagens de códons dos genes de referência (por exemplo, genes muito
+     *        expressos), como as de {@link #contarReferencia(String)}.
+     */
+    public UsoCodons(ContadorCodons referencia) {
+        this(referencia, TabelaGenetica.padrao());
+    }
+
+    /**
+     * Prepara o cálculo com um conjunto de referência e um código genético.
+     *
+     * @param referencia As contagens de códons dos genes de referência.
+     * @param tabela O código genético que define os códons sinônimos.
+     */
+    public UsoCodons(ContadorCodons referencia, TabelaGenetica tabela) {
+        this.tabela = tabela;
+        double[] maximo = new double[128];
+        for (int i = 0; i < 64; i++) {
+            int aminoacido = tabela.traduzir(i);
+            for (int j = 0; j < 64; j++) {
+                if (tabela.traduzir(j) == aminoacido) {
+                    sinonimos[i]++;
+                }
+            }
+            maximo[aminoacido] = Math.max(maximo[aminoacido], frequencia(referencia, i));
+        }
+        for (int i = 0; i < 64; i++) {
+            if (tabela.ehParada(i) || sinonimos[i] == 1) {
+                logPesos[i] = Double.NaN;
+            } else {
+                logPesos[i] = Math.log(frequencia(referencia, i) / maximo[tabela.traduzir(i)]);
+            }
+        }
+    }
+
+    private static double frequencia(ContadorCodons referencia, int indice) {
+        int contagem = referencia.contagem(indice);
+        return contagem == 0 ? AUSENTE : contagem;
+    }
+
+    /**
+     * Soma as contagens de códons de todos os registros de um multi-FASTA, reiniciando o quadro de
+     * leitura em cada registro, para uso como conjunto de referência.
+     *
+     * @param fastaFile O arquivo FASTA com os genes de referência.
+     * @return As contagens somadas.
+     * @throws IOException Se ocorrer um erro na leitura ou o arquivo não começar com um cabeçalho.
+     */
+    public static ContadorCodons contarReferencia(String fastaFile) throws IOException {
+        ContadorCodons soma = new ContadorCodons();
+        try (Registros registros = new Registros(fastaFile)) {
+            byte[] registro;
+            while ((registro = registros.proximo()) != null) {
+                soma.somar(contar(registro));
+            }
+        }
+        return soma;
+    }
+
+    /**
+     * Calcula o RSCU e o CAI de um registro já contado.
+     *
+     * @param id O identificador do registro.
+     * @param contador As contagens de códons do registro.
+     * @return O resultado do registro.
+     */
+    public Resultado analisar(String id, ContadorCodons contador) {
+        int[] porAminoacido = new int[128];
+        for (int i = 0; i < 64; i++) {
+            porAminoacido[tabela.traduzir(i)] += contador.contagem(i);
+        }
+        double[] rscu = new double[64];
+        double somaLog = 0;
+        long usados = 0;
+        for (int i = 0; i < 64; i++) {
+            int contagem = contador.contagem(i);
+            int familia = porAminoacido[tabela.traduzir(i)];
+            rscu[i] = familia == 0 ? 0 : (double) contagem * sinonimos[i] / familia;
+            if (contagem > 0 && !Double.isNaN(logPesos[i])) {
+                somaLog += contagem * logPesos[i];
+                usados += contagem;
+            }
+        }
+        return new Resultado(id, contador, rscu, usados == 0 ? Double.NaN : Math.exp(somaLog / usados));
+    }
+
+    /**
+     * Processa os registros de um multi-FASTA no pool comum.
+     *
+     * @param fastaFile O arquivo FASTA com um gene por registro.
+     * @param saida Recebe cada resultado, na ordem do arquivo.
+     * @return O número de registros processados.
+     * @throws IOException Se ocorrer um erro na leitura, o arquivo não começar com um cabeçalho
+     *         ou a saída falhar.
+     */
+    public long processar(String fastaFile, Saida saida) throws IOException {
+        return processar(fastaFile, ForkJoinPool.commonPool(), saida);
+    }
+
+    /**
+     * Processa os registros de um multi-FASTA: a thread que chama lê e separa os registros, o pool
+     * conta e calcula cada um, e os resultados são entregues à saída pela thread que chama, na
+     * ordem do arquivo.
+     *
+     * @param fastaFile O arquivo FASTA com um gene por registro.
+     * @param pool O pool onde os registros são analisados.
+     * @param saida Recebe cada resultado, na ordem do arquivo.
+     * @return O número de registros processados.
+     * @throws IOException Se ocorrer um erro na leitura, o arquivo não começar com um cabeçalho
+     *         ou a saída falhar.
+     */
+    public long processar(String fastaFile, ForkJoinPool pool, Saida saida) throws IOException {
+        int limite = Math.max(1, pool.getParallelism()) * REGISTROS_POR_THREAD;
+        ArrayDeque<CompletableFuture<Resultado>> pendentes = new ArrayDeque<>();
+        long processados = 0;
+        long bases = 0;
+        try (Metricas.Medicao medicao = Metricas.global().iniciar(Metricas.CODONS, Metricas.BASES);
+             Registros registros = new Registros(fastaFile)) {
+            try {
+                byte[] registro;
+                while ((registro = registros.proximo()) != null) {
+                    byte[] atual = registro;
+                    pendentes.add(CompletableFuture.supplyAsync(() -> {
+                        return analisar(cabecalho(atual), contar(atual));
+                    }, pool));
+                    while (pendentes.size() >= limite || (!pendentes.isEmpty() && pendentes.peek().isDone())) {
+                        bases += entregar(pendentes.poll(), saida);
+                        processados++;
+                    }
+                }
+                while (!pendentes.isEmpty()) {
+                    bases += entregar(pendentes.poll(), saida);
+                    processados++;
+                }
+            } finally {
+                for (CompletableFuture<Resultado> pendente : pendentes) {
+                    pendente.cancel(false);
+                }
+            }
+            medicao.unidades(bases).concluir();
+        }
+        return processados;
+    }
+
+    private static long entregar(CompletableFuture<Resultado> futuro, Saida saida) throws IOException {
+        Resultado resultado;
+        try {
+            resultado = futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        saida.aceitar(resultado);
+        return resultado.contador().total() * 3;
+    }
+
+    /**
+     * Processa um multi-FASTA e grava um CSV com uma linha por registro:
+     * "registro,codons,ambiguos,cai" seguidos do RSCU de AAA a TTT. O CAI fica vazio quando o
+     * registro não tem códons que entram no índice.
+     *
+     * @param fastaFile O arquivo FASTA com um gene por registro.
+     * @param destino O arquivo CSV de saída, que aparece no destino só ao final.
+     * @return O número de registros processados.
+     * @throws IOException Se ocorrer um erro na leitura ou na escrita.
+     */
+    public long salvarCsv(String fastaFile, Path destino) throws IOException {
+        long[] processados = new long[1];
+        FormatoCodons.gravar(destino, saida -> {
+            Writer writer = FormatoCodons.texto(saida);
+            StringBuilder linha = new StringBuilder("registro,codons,ambiguos,cai");
+            for (int i = 0; i < 64; i++) {
+                linha.append(',').append(FormatoCodons.codon(i));
+            }
+            writer.write(linha.append('\n').toString());
+            processados[0] = processar(fastaFile, resultado -> {
+                linha.setLength(0);
+                linha.append(Arquivos.campoCsv(resultado.id())).append(',').append(resultado.contador().total() - resultado.contador().ambiguos())
+                        .append(',').append(resultado.contador().ambiguos()).append(',');
+                if (!Double.isNaN(resultado.cai())) {
+                    decimal(linha, resultado.cai());
+                }
+                for (int i = 0; i < 64; i++) {
+                    decimal(linha.append(','), resultado.rscu(i));
+                }
+                writer.write(linha.append('\n').toString());
+            });
+            writer.flush();
+        });
+        return processados[0];
+    }
+
+    /**
+     * Escreve um valor não negativo com quatro casas decimais, sem passar por String.format.
+     */
+    private static void decimal(StringBuilder destino, double valor) {
+        long escalado = Math.round(valor * 10000);
+        long fracao = escalado % 10000;
+        destino.append(escalado / 10000).append('.');
+        for (long casa = 1000; casa > fracao && casa > 1; casa /= 10) {
+            destino.append('0');
+        }
+        destino.append(fracao);
+    }
+
+    /**
+     * Retorna o identificador do registro: o cabeçalho sem o "&gt;", até o primeiro espaço.
+     */
+    private static String cabecalho(byte[] registro) {
+        int fim = 1;
+        while (fim < registro.length && registro[fim] != '\n' && registro[fim] != '\r'
+                && registro[fim] != ' ' && registro[fim] != '\t') {
+            fim++;
+        }
+        return new String(registro, 1, fim - 1, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Conta os códons das linhas de sequência de um registro.
+     */
+    private static ContadorCodons contar(byte[] registro) {
+        ContadorCodons contador = new ContadorCodons();
+        int i = 0;
+        while (i < registro.length && registro[i] != '\n' && registro[i] != '\r') {
+            i++;
+        }
+        for (; i < registro.length; i++) {
+            if (!SequenciaCompacta.ehEspaco(registro[i])) {
+                contador.adicionar(registro[i]);
+            }
+        }
+        return contador;
+    }
+
+    /**
+     * O resultado de um registro.
+     */
+    public static final class Resultado {
+        private final String id;
+        private final ContadorCodons contador;
+        private final double[] rscu;
+        private final double cai;
+
+        Resultado(String id, ContadorCodons contador, double[] rscu, double cai) {
+            this.id = id;
+            this.contador = contador;
+            this.rscu = rscu;
+            this.cai = cai;
+        }
+
+        /**
+         * @return O identificador do registro.
+         */
+        public String id() {
+            return id;
+        }
+
+        /**
+         * @return As contagens de códons do registro.
+         */
+        public ContadorCodons contador() {
+            return contador;
+        }
+
+        /**
+         * Retorna o RSCU de um códon.
+         *
+         * @param indice O índice do códon (0 a 63).
+         * @return O RSCU, ou 0 se o aminoácido do códon não aparece no registro.
+         */
+        public double rscu(int indice) {
+            return rscu[indice];
+        }
+
+        /**
+         * @return Uma cópia dos 64 valores de RSCU, pelo índice do códon.
+         */
+        public double[] rscu() {
+            return rscu.clone();
+        }
+
+        /**
+         * @return O CAI do registro, ou NaN se ele não tiver códons que entram no índice.
+         */
+        public double cai() {
+            return cai;
+        }
+    }
+
+    /**
+     * Separa os registros de um arquivo FASTA lendo-o em sequência. Cada registro é devolvido com
+     * o cabeçalho e as linhas de sequência, como estão no arquivo.
+     */
+    private static final class Registros implements AutoCloseable {
+        private final String fastaFile;
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+        private byte[] registro = new byte[TAMANHO_BUFFER];
+        private int tamanho;
+        private boolean inicioLinha = true;
+        private boolean primeiro = true;
+        private boolean fim;
+
+        Registros(String fastaFile) throws IOException {
+            this.fastaFile = fastaFile;
+            this.canal = FileChannel.open(Paths.get(fastaFile), StandardOpenOption.READ);
+            buffer.flip();
+        }
+
+        /**
+         * @return O próximo registro, ou null no fim do arquivo.
+         */
+        byte[] proximo() throws IOException {
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    buffer.clear();
+                    if (fim || canal.read(buffer) < 0) {
+                        fim = true;
+                        buffer.flip();
+                        return tamanho == 0 ? null : cortar();
+                    }
+                    buffer.flip();
+                }
+                byte b = buffer.get();
+                if (primeiro) {
+                    if (SequenciaCompacta.ehEspaco(b)) {
+                        continue;
+                    }
+                    if (b != '>') {
+                        throw new IOException("Arquivo FASTA inválido: " + fastaFile);
+                    }
+                    primeiro = false;
+                }
+                byte[] pronto = null;
+                if (inicioLinha && b == '>' && tamanho > 0) {
+                    pronto = cortar();
+                }
+                if (tamanho == registro.length) {
+                    registro = Arrays.copyOf(registro, registro.length * 2);
+                }
+                registro[tamanho++] = b;
+                inicioLinha = b == '\n' || b == '\r';
+                if (pronto != null) {
+                    return pronto;
+                }
+            }
+        }
+
+        private byte[] cortar() {
+            byte[] pronto = Arrays.copyOf(registro, tamanho);
+            tamanho = 0;
+            return pronto;
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
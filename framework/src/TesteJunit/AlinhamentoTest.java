@@ -0,0 +1,189 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.Alinhamento;
+import Genetica.FastaComparar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlinhamentoTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGlobalComLacuna() {
+        Alinhamento alinhamento = Alinhamento.padrao(Alinhamento.Modo.GLOBAL);
+        Alinhamento.Resultado resultado = alinhamento.alinhar("ACGTACGT", "ACGACGT");
+
+        assertEquals(5, resultado.pontuacao());
+        assertEquals(8, resultado.colunas());
+        assertEquals(7, resultado.identicos());
+        assertEquals(1, resultado.lacunas());
+        assertEquals("Seq1: ACGTACGT\nSeq2: ACG-ACGT",
+                FastaComparar.getCompatibleSequences(bytes("ACGTACGT"), bytes("ACGACGT"), resultado));
+    }
+
+    @Test
+    void testLocalEncontraTrecho() {
+        Alinhamento alinhamento = Alinhamento.padrao(Alinhamento.Modo.LOCAL);
+        Alinhamento.Resultado resultado = alinhamento.alinhar("TTTTGATTACACCCC", "GGGATTACAGG");
+
+        assertEquals(7, resultado.pontuacao());
+        assertEquals("7=", resultado.cigar());
+        assertEquals(4, resultado.inicio1());
+        assertEquals(11, resultado.fim1());
+        assertEquals(2, resultado.inicio2());
+        assertEquals(9, resultado.fim2());
+    }
+
+    @Test
+    void testHirschbergIgualAMatrizCompleta() {
+        Random random = new Random(11);
+        for (int rodada = 0; rodada < 20; rodada++) {
+            byte[] a = mutar(random, aleatoria(random, 300 + random.nextInt(400)));
+            byte[] b = mutar(random, a);
+            for (Alinhamento.Modo modo : Alinhamento.Modo.values()) {
+                Alinhamento alinhamento = new Alinhamento(modo, 2, -3, -4);
+                Alinhamento.Resultado resultado = alinhamento.alinhar(a, b);
+
+                assertEquals(pontuacaoIngenua(a, b, modo, 2, -3, -4), resultado.pontuacao());
+                assertEquals(resultado.pontuacao(), pontuacaoDasColunas(a, b, resultado, 2, -3, -4));
+                assertEquals(resultado.pontuacao(), alinhamento.pontuacao(a, b));
+            }
+        }
+    }
+
+    @Test
+    void testBandaLargaIgualSemBanda() {
+        Random random = new Random(5);
+        byte[] a = aleatoria(random, 800);
+        byte[] b = mutar(random, a);
+        Alinhamento semBanda = new Alinhamento(Alinhamento.Modo.GLOBAL, 1, -1, -2);
+        Alinhamento comBanda = new Alinhamento(Alinhamento.Modo.GLOBAL, 1, -1, -2, 2000);
+        Alinhamento estreita = new Alinhamento(Alinhamento.Modo.GLOBAL, 1, -1, -2, 3);
+
+        assertEquals(semBanda.alinhar(a, b).pontuacao(), comBanda.alinhar(a, b).pontuacao());
+        Alinhamento.Resultado resultado = estreita.alinhar(a, b);
+        assertTrue(resultado.pontuacao() <= semBanda.alinhar(a, b).pontuacao());
+        assertEquals(resultado.pontuacao(), pontuacaoDasColunas(a, b, resultado, 1, -1, -2));
+
+        Alinhamento localEstreita = new Alinhamento(Alinhamento.Modo.LOCAL, 1, -1, -2, 3);
+        Alinhamento.Resultado local = localEstreita.alinhar(a, b);
+        assertEquals(local.pontuacao(), pontuacaoDasColunas(a, b, local, 1, -1, -2));
+    }
+
+    @Test
+    void testBandaEstreitaComComprimentosDiferentes() {
+        Random random = new Random(17);
+        for (int rodada = 0; rodada < 30; rodada++) {
+            byte[] a = aleatoria(random, 150 + random.nextInt(200));
+            byte[] b = aleatoria(random, 450 + random.nextInt(150));
+            for (int banda : new int[] {2, 3, 5}) {
+                Alinhamento alinhamento = new Alinhamento(Alinhamento.Modo.GLOBAL, 2, -1, -2, banda);
+                Alinhamento.Resultado resultado = alinhamento.alinhar(a, b);
+
+                assertEquals(alinhamento.pontuacao(a, b), resultado.pontuacao());
+                assertEquals(resultado.pontuacao(), pontuacaoDasColunas(a, b, resultado, 2, -1, -2));
+            }
+        }
+    }
+
+    @Test
+    void testCompararArquivosComAlinhamento() throws IOException {
+        Path fasta1 = tempDir.resolve("a.fasta");
+        Path fasta2 = tempDir.resolve("b.fasta");
+        Files.writeString(fasta1, ">a\nACGTACGT\n");
+        Files.writeString(fasta2, ">b\nACGACGT\n");
+
+        FastaComparar.CompararArquivos(fasta1.toString(), fasta2.toString(), Alinhamento.padrao(Alinhamento.Modo.GLOBAL));
+
+        Path relatorio = Path.of("comparacao_a.fasta_e_b.fasta_alinhamento_global.txt");
+        try {
+            String conteudo = Files.readString(relatorio);
+            assertTrue(conteudo.contains("Pontuação: 5"));
+            assertTrue(conteudo.contains("CIGAR: 3=1D4="));
+            assertTrue(conteudo.contains("Seq2 1            ACG-ACGT\n"));
+        } finally {
+            Files.deleteIfExists(relatorio);
+        }
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] aleatoria(Random random, int tamanho) {
+        byte[] sequencia = new byte[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            sequencia[i] = (byte) "ACGT".charAt(random.nextInt(4));
+        }
+        return sequencia;
+    }
+
+    private static byte[] mutar(Random random, byte[] origem) {
+        StringBuilder mutada = new StringBuilder();
+        for (byte base : origem) {
+            int sorteio = random.nextInt(20);
+            if (sorteio == 0) {
+                continue;
+            }
+            mutada.append(sorteio == 1 ? "ACGT".charAt(random.nextInt(4)) : (char) base);
+            if (sorteio == 2) {
+                mutada.append("ACGT".charAt(random.nextInt(4)));
+            }
+        }
+        return bytes(mutada.toString());
+    }
+
+    private static int pontuacaoIngenua(byte[] a, byte[] b, Alinhamento.Modo modo, int acerto, int erro, int lacuna) {
+        int[][] h = new int[a.length + 1][b.length + 1];
+        int melhor = 0;
+        for (int i = 0; i <= a.length; i++) {
+            for (int j = 0; j <= b.length; j++) {
+                if (i == 0 || j == 0) {
+                    h[i][j] = modo == Alinhamento.Modo.LOCAL ? 0 : (i + j) * lacuna;
+                    continue;
+                }
+                int valor = h[i - 1][j - 1] + (a[i - 1] == b[j - 1] ? acerto : erro);
+                valor = Math.max(valor, Math.max(h[i - 1][j], h[i][j - 1]) + lacuna);
+                if (modo == Alinhamento.Modo.LOCAL) {
+                    valor = Math.max(valor, 0);
+                    melhor = Math.max(melhor, valor);
+                }
+                h[i][j] = valor;
+            }
+        }
+        return modo == Alinhamento.Modo.LOCAL ? melhor : h[a.length][b.length];
+    }
+
+    private static int pontuacaoDasColunas(byte[] a, byte[] b, Alinhamento.Resultado resultado,
+            int acerto, int erro, int lacuna) {
+        int i = resultado.inicio1();
+        int j = resultado.inicio2();
+        int pontuacao = 0;
+        for (byte operacao : resultado.operacoes()) {
+            if (operacao == Alinhamento.IGUAL || operacao == Alinhamento.DIFERENTE) {
+                assertEquals(operacao == Alinhamento.IGUAL, a[i] == b[j]);
+                pontuacao += a[i++] == b[j++] ? acerto : erro;
+            } else if (operacao == Alinhamento.DELECAO) {
+                i++;
+                pontuacao += lacuna;
+            } else {
+                j++;
+                pontuacao += lacuna;
+            }
+        }
+        assertEquals(resultado.fim1(), i);
+        assertEquals(resultado.fim2(), j);
+        return pontuacao;
+    }
+}
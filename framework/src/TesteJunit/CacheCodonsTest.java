@@ -0,0 +1,126 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.CacheCodons;
+import Genetica.Codon;
+import Genetica.ContadorCodons;
+import Genetica.Metricas;
+import Genetica.MetricasEtapa;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheCodonsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testArquivoInalteradoNaoERelido() throws Exception {
+        Path fasta = tempDir.resolve("a.fasta");
+        Files.writeString(fasta, ">a\nATGAAACCCGGG\n");
+        ContadorCodons primeiro = CacheCodons.contar(fasta.toString());
+        assertArrayEquals(ContadorCodons.contarArquivo(fasta.toString(), true).contagens(), primeiro.contagens());
+        assertTrue(Files.exists(Path.of(CacheCodons.nomeDoCache(fasta.toString()))));
+
+        // Mesmo tamanho e mesma data: as contagens vêm do cache, sem ler o conteúdo novo
+        FileTime data = Files.getLastModifiedTime(fasta);
+        Files.writeString(fasta, ">a\nTTTTTTTTTTTT\n");
+        Files.setLastModifiedTime(fasta, data);
+        assertArrayEquals(primeiro.contagens(), CacheCodons.contar(fasta.toString()).contagens());
+    }
+
+    @Test
+    void testAcrescimoContaSoOTrechoNovo() throws Exception {
+        Path fasta = tempDir.resolve("b.fasta");
+        // O conteúdo anterior termina no meio de um códon e o acréscimo começa com um cabeçalho
+        Files.writeString(fasta, ">b1 primeiro\nATGAAACCCGG\nGTTAN");
+        ContadorCodons antes = CacheCodons.contar(fasta.toString());
+
+        Files.writeString(fasta, "ACG\n>b2 segundo\nacgTTTNNNGGA\r\nCC", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(fasta, FileTime.fromMillis(Files.getLastModifiedTime(fasta).toMillis() + 1000));
+        MetricasEtapa codons = Metricas.global().etapa(Metricas.CODONS, Metricas.BASES);
+        long unidades = codons.getUnidades();
+        ContadorCodons depois = CacheCodons.contar(fasta.toString());
+
+        ContadorCodons completo = ContadorCodons.contarArquivo(fasta.toString(), true);
+        assertArrayEquals(completo.contagens(), depois.contagens());
+        assertEquals(completo.ambiguos(), depois.ambiguos());
+        assertEquals((completo.total() - antes.total()) * 3, codons.getUnidades() - unidades);
+    }
+
+    @Test
+    void testConteudoAlteradoERecontado() throws Exception {
+        Path fasta = tempDir.resolve("c.fasta");
+        Files.writeString(fasta, ">c\nATGAAACCCGGG\n");
+        CacheCodons.contar(fasta.toString());
+
+        Files.writeString(fasta, ">c\nATGAAACCCGGA\nTTT\n");
+        Files.setLastModifiedTime(fasta, FileTime.fromMillis(Files.getLastModifiedTime(fasta).toMillis() + 1000));
+        assertArrayEquals(ContadorCodons.contarArquivo(fasta.toString(), true).contagens(),
+                CacheCodons.contar(fasta.toString()).contagens());
+    }
+
+    @Test
+    void testConferenciaDetectaEdicaoComMesmaData() throws Exception {
+        Path fasta = tempDir.resolve("f.fasta");
+        Files.writeString(fasta, ">f\nATGAAACCCGGG\n");
+        CacheCodons.contar(fasta.toString());
+
+        FileTime data = Files.getLastModifiedTime(fasta);
+        Files.writeString(fasta, ">f\nTTTTTTTTTTTT\n");
+        Files.setLastModifiedTime(fasta, data);
+        ContadorCodons atual = ContadorCodons.contarArquivo(fasta.toString(), true);
+        assertArrayEquals(atual.contagens(), CacheCodons.contar(fasta.toString(), true).contagens());
+        // A entrada corrigida passa a valer também sem conferência
+        assertArrayEquals(atual.contagens(), CacheCodons.contar(fasta.toString()).contagens());
+    }
+
+    @Test
+    void testAcrescimoComInicioAlteradoERecontado() throws Exception {
+        Path fasta = tempDir.resolve("g.fasta");
+        // Maior que a janela conferida, para que a alteração no início fique fora dela
+        String corpo = "ACGT".repeat(CacheCodons.JANELA / 4) + "\n";
+        Files.writeString(fasta, ">g\nAAA" + corpo);
+        CacheCodons.contar(fasta.toString());
+
+        Files.writeString(fasta, ">g\nCCC" + corpo + "GGG\n");
+        Files.setLastModifiedTime(fasta, FileTime.fromMillis(Files.getLastModifiedTime(fasta).toMillis() + 1000));
+        assertArrayEquals(ContadorCodons.contarArquivo(fasta.toString(), true).contagens(),
+                CacheCodons.contar(fasta.toString()).contagens());
+    }
+
+    @Test
+    void testRelatorioRefeitoQuandoOCacheNaoPodeSerSalvo() throws Exception {
+        Path fasta = tempDir.resolve("e.fasta");
+        Files.writeString(fasta, ">e\nAAAAAA\n");
+        // Um diretório no lugar do ".codons" impede que as contagens sejam salvas
+        Path bloqueio = Files.createDirectory(Path.of(CacheCodons.nomeDoCache(fasta.toString())));
+        Files.writeString(bloqueio.resolve("x"), "x");
+        Path relatorio = tempDir.resolve("e_codon_analysis.txt");
+
+        Codon.CodonAnalise(fasta.toString());
+        assertTrue(Files.readString(relatorio).contains("AAA"));
+
+        Files.writeString(fasta, ">e\nCCCCCC\n");
+        Files.setLastModifiedTime(fasta, FileTime.fromMillis(Files.getLastModifiedTime(fasta).toMillis() + 1000));
+        Codon.CodonAnalise(fasta.toString());
+        String atual = Files.readString(relatorio);
+        assertTrue(atual.contains("CCC"));
+        assertFalse(atual.contains("AAA"));
+    }
+
+    @Test
+    void testExigeCabecalho() throws Exception {
+        Path fasta = tempDir.resolve("d.fasta");
+        Files.writeString(fasta, "ATGAAA\n");
+        assertThrows(IOException.class, () -> CacheCodons.contar(fasta.toString()));
+    }
+}
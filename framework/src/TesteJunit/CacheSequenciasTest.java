@@ -0,0 +1,190 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.CacheSequencias;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheSequenciasTest {
+
+    private static final String FASTA = ">NC_012920.1 Homo sapiens mitochondrion\nACGTACGTAC\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSegundaChamadaNaoBaixa() throws Exception {
+        CacheSequencias cache = new CacheSequencias(tempDir, 1 << 20, Duration.ofDays(1));
+        AtomicInteger downloads = new AtomicInteger();
+        CacheSequencias.Fonte fonte = destino -> {
+            downloads.incrementAndGet();
+            Files.writeString(destino, FASTA);
+            return FASTA.length();
+        };
+
+        Path primeiro = cache.obter("nucleotide", "Homo sapiens", null, fonte);
+        Path segundo = cache.obter("nucleotide", "Homo sapiens", null, fonte);
+
+        assertEquals(1, downloads.get());
+        assertEquals(primeiro, segundo);
+        assertEquals(FASTA, Files.readString(segundo));
+        Properties meta = cache.metadados("nucleotide", "Homo sapiens", null);
+        assertEquals("NC_012920.1", meta.getProperty("versao"));
+        assertEquals(Integer.toString(FASTA.length()), meta.getProperty("bytes"));
+        assertEquals(64, meta.getProperty("sha256").length());
+        assertNull(cache.metadados("nucleotide", "Homo sapiens", "NC_012920.1"));
+    }
+
+    @Test
+    void testEntradaExpiradaBaixaDeNovo() throws Exception {
+        CacheSequencias cache = new CacheSequencias(tempDir, 1 << 20, Duration.ofMillis(50));
+        AtomicInteger downloads = new AtomicInteger();
+        CacheSequencias.Fonte fonte = destino -> {
+            downloads.incrementAndGet();
+            Files.writeString(destino, FASTA);
+            return FASTA.length();
+        };
+
+        cache.obter("nucleotide", "Anura", null, fonte);
+        Thread.sleep(100);
+        cache.obter("nucleotide", "Anura", null, fonte);
+
+        assertEquals(2, downloads.get());
+    }
+
+    @Test
+    void testEntradaCorrompidaBaixaDeNovo() throws Exception {
+        CacheSequencias cache = new CacheSequencias(tempDir, 1 << 20, Duration.ofDays(1));
+        AtomicInteger downloads = new AtomicInteger();
+        CacheSequencias.Fonte fonte = destino -> {
+            downloads.incrementAndGet();
+            Files.writeString(destino, FASTA);
+            return FASTA.length();
+        };
+        Path dados = cache.obter("nucleotide", "Gallus gallus", null, fonte);
+        // Mesmo tamanho, conteúdo diferente
+        Files.writeString(dados, FASTA.replace('A', 'T'));
+
+        Path segundo = cache.obter("nucleotide", "Gallus gallus", null, fonte);
+
+        assertEquals(2, downloads.get());
+        assertEquals(FASTA, Files.readString(segundo));
+    }
+
+    @Test
+    void testFonteVaziaNaoCriaEntrada() throws Exception {
+        CacheSequencias cache = new CacheSequencias(tempDir, 1 << 20, Duration.ofDays(1));
+
+        assertNull(cache.obter("nucleotide", "Nada", null, destino -> 0));
+        assertNull(cache.metadados("nucleotide", "Nada", null));
+    }
+
+    @Test
+    void testEvictaMenosUsadaRecentemente() throws Exception {
+        CacheSequencias cache = new CacheSequencias(tempDir, 250, Duration.ofDays(1));
+        CacheSequencias.Fonte cemBytes = destino -> {
+            Files.writeString(destino, ">x\n" + "A".repeat(96) + "\n");
+            return 100;
+        };
+        cache.obter("nucleotide", "a", null, cemBytes);
+        cache.obter("nucleotide", "b", null, cemBytes);
+        // "a" passa a ser a mais recente; "b" é a menos usada
+        envelhecer("b", 10_000);
+        envelhecer("a", 5_000);
+        cache.obter("nucleotide", "a", null, cemBytes);
+
+        cache.obter("nucleotide", "c", null, cemBytes);
+
+        assertNotNull(cache.metadados("nucleotide", "a", null));
+        assertNull(cache.metadados("nucleotide", "b", null));
+        assertNotNull(cache.metadados("nucleotide", "c", null));
+        assertFalse(Files.exists(tempDir.resolve(CacheSequencias.chave("nucleotide", "b", null) + ".fasta")));
+        assertFalse(Files.exists(tempDir.resolve(CacheSequencias.chave("nucleotide", "b", null) + ".lock")));
+        // "b" volta a ser baixada normalmente depois de removida
+        assertNotNull(cache.obter("nucleotide", "b", null, cemBytes));
+    }
+
+    @Test
+    void testLeituraComEntradaBloqueada() throws Exception {
+        // Cota menor que a entrada: qualquer evicção tentaria removê-la
+        CacheSequencias cache = new CacheSequencias(tempDir, 1, Duration.ofDays(1));
+        CacheSequencias.Fonte fonte = destino -> {
+            Files.writeString(destino, FASTA);
+            return FASTA.length();
+        };
+        Path copia = tempDir.resolve("copia.fasta");
+        AtomicInteger removidas = new AtomicInteger(-1);
+
+        assertTrue(cache.obter("nucleotide", "Mus musculus", null, fonte, dados -> {
+            Thread outra = new Thread(() -> {
+                try {
+                    removidas.set(cache.evictar());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outra.start();
+            try {
+                outra.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Files.copy(dados, copia);
+        }));
+
+        assertEquals(0, removidas.get());
+        assertEquals(FASTA, Files.readString(copia));
+        assertFalse(cache.obter("nucleotide", "Vazio", null, destino -> 0, dados -> fail("Sem dados para ler")));
+    }
+
+    @Test
+    void testThreadsConcorrentesBaixamUmaVez() throws Exception {
+        CacheSequencias cache = new CacheSequencias(tempDir, 1 << 20, Duration.ofDays(1));
+        AtomicInteger downloads = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Path>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return cache.obter("nucleotide", "Danio rerio", null, destino -> {
+                        downloads.incrementAndGet();
+                        Thread.sleep(50);
+                        Files.writeString(destino, FASTA);
+                        return FASTA.length();
+                    });
+                }));
+            }
+            largada.countDown();
+            for (Future<Path> resultado : resultados) {
+                assertEquals(FASTA, Files.readString(resultado.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, downloads.get());
+    }
+
+    private void envelhecer(String consulta, long milissegundos) throws IOException {
+        Path meta = tempDir.resolve(CacheSequencias.chave("nucleotide", consulta, null) + ".meta");
+        Files.setLastModifiedTime(meta, FileTime.fromMillis(System.currentTimeMillis() - milissegundos));
+    }
+}
@@ -0,0 +1,234 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import Genetica.ClienteNcbi;
+import Genetica.DisjuntorCircuito;
+import Genetica.LimitadorTaxa;
+import Genetica.PoliticaRetentativa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClienteNcbiTest {
+
+    private static final String FASTA = ">seq1\n" + "ACGT".repeat(5000) + "\n";
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private ExecutorService executor;
+    private HttpServer servidor;
+    private ClienteNcbi cliente;
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // Um servidor que para no meio do corpo não pode impedir o atendimento das outras requisições
+        executor = Executors.newCachedThreadPool();
+        servidor.setExecutor(executor);
+        servidor.createContext("/efetch.fcgi", troca -> {
+            byte[] corpo = FASTA.getBytes(StandardCharsets.US_ASCII);
+            String aceita = troca.getRequestHeaders().getFirst("Accept-Encoding");
+            if (aceita != null && aceita.contains("gzip")) {
+                ByteArrayOutputStream compactado = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compactado)) {
+                    gzip.write(corpo);
+                }
+                corpo = compactado.toByteArray();
+                troca.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        });
+        servidor.createContext("/erro.fcgi", troca -> {
+            chamadas.incrementAndGet();
+            troca.sendResponseHeaders(500, -1);
+            troca.close();
+        });
+        servidor.createContext("/instavel.fcgi", troca -> {
+            // Duas respostas 503 com Retry-After antes de responder normalmente
+            if (chamadas.incrementAndGet() <= 2) {
+                troca.getResponseHeaders().set("Retry-After", "0");
+                troca.sendResponseHeaders(503, -1);
+                troca.close();
+                return;
+            }
+            byte[] corpo = "ok".getBytes(StandardCharsets.US_ASCII);
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        });
+        servidor.createContext("/ausente.fcgi", troca -> {
+            chamadas.incrementAndGet();
+            troca.sendResponseHeaders(404, -1);
+            troca.close();
+        });
+        servidor.start();
+        cliente = new ClienteNcbi("http://127.0.0.1:" + servidor.getAddress().getPort() + "/", null, new LimitadorTaxa(1000),
+                new PoliticaRetentativa(3, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5), Duration.ofSeconds(5)),
+                new DisjuntorCircuito(100, Duration.ofMillis(50)));
+    }
+
+    @AfterEach
+    void pararServidor() {
+        liberar.countDown();
+        servidor.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testBaixarArquivoDescompactaGzip() throws Exception {
+        Path destino = tempDir.resolve("especie.fasta");
+        long bytes = cliente.baixarArquivo(cliente.url("efetch.fcgi", "db=nucleotide&id=1"), destino);
+
+        assertEquals(FASTA.length(), bytes);
+        assertEquals(FASTA, Files.readString(destino));
+        // Nenhum arquivo temporário fica para trás
+        try (var arquivos = Files.list(tempDir)) {
+            assertEquals(1, arquivos.count());
+        }
+    }
+
+    @Test
+    void testErroNaoCriaArquivo() throws Exception {
+        Path destino = tempDir.resolve("erro.fasta");
+        assertEquals(0, cliente.baixarArquivo(cliente.url("erro.fcgi", "id=1"), destino));
+        assertFalse(Files.exists(destino));
+        assertNull(cliente.get(cliente.url("erro.fcgi", "id=1")));
+        // Três tentativas em cada chamada
+        assertEquals(6, chamadas.get());
+    }
+
+    @Test
+    void testRepeteErroTransitorio() throws Exception {
+        assertEquals("ok", cliente.get(cliente.url("instavel.fcgi", "id=1")));
+        assertEquals(3, chamadas.get());
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, cliente.disjuntor().estado());
+    }
+
+    @Test
+    void testNaoRepeteErroDefinitivo() throws Exception {
+        assertNull(cliente.get(cliente.url("ausente.fcgi", "id=1")));
+        assertEquals(1, chamadas.get());
+    }
+
+    @Test
+    void testTempoEsgotadoERepetido() throws Exception {
+        servidor.createContext("/lento.fcgi", troca -> {
+            chamadas.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            troca.sendResponseHeaders(200, -1);
+            troca.close();
+        });
+        ClienteNcbi impaciente = new ClienteNcbi(cliente.urlBase(), null, new LimitadorTaxa(1000),
+                new PoliticaRetentativa(2, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofSeconds(1), Duration.ofMillis(100)),
+                new DisjuntorCircuito(100, Duration.ofMillis(50)));
+
+        assertThrows(java.net.http.HttpTimeoutException.class, () -> impaciente.get(impaciente.url("lento.fcgi", "id=1")));
+    }
+
+    @Test
+    void testCorpoParadoEsgotaOTempo() throws Exception {
+        servidor.createContext("/parado.fcgi", troca -> {
+            chamadas.incrementAndGet();
+            troca.sendResponseHeaders(200, 0);
+            OutputStream saida = troca.getResponseBody();
+            saida.write(">seq1\nACGT".getBytes(StandardCharsets.US_ASCII));
+            saida.flush();
+            try {
+                // Os cabeçalhos e parte do corpo chegaram; o resto nunca vem
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            troca.close();
+        });
+        ClienteNcbi impaciente = new ClienteNcbi(cliente.urlBase(), null, new LimitadorTaxa(1000),
+                new PoliticaRetentativa(2, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofSeconds(1),
+                        Duration.ofSeconds(5), Duration.ofMillis(200)),
+                new DisjuntorCircuito(100, Duration.ofMillis(50)));
+        Path destino = tempDir.resolve("parado.fasta");
+
+        long inicio = System.nanoTime();
+        assertThrows(java.net.http.HttpTimeoutException.class,
+                () -> impaciente.baixarArquivo(impaciente.url("parado.fcgi", "id=1"), destino));
+        assertTrue(System.nanoTime() - inicio < Duration.ofSeconds(4).toNanos());
+        assertEquals(2, chamadas.get());
+        assertFalse(Files.exists(destino));
+    }
+
+    @Test
+    void testRetentativasDoCorpoDividemOLimite() throws Exception {
+        servidor.createContext("/oscilante.fcgi", troca -> {
+            // Um 503 e depois respostas que param no meio do corpo
+            if (chamadas.incrementAndGet() == 1) {
+                troca.getResponseHeaders().set("Retry-After", "0");
+                troca.sendResponseHeaders(503, -1);
+                troca.close();
+                return;
+            }
+            troca.sendResponseHeaders(200, 0);
+            troca.getResponseBody().write(">seq1\n".getBytes(StandardCharsets.US_ASCII));
+            troca.getResponseBody().flush();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            troca.close();
+        });
+        ClienteNcbi impaciente = new ClienteNcbi(cliente.urlBase(), null, new LimitadorTaxa(1000),
+                new PoliticaRetentativa(3, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofSeconds(1),
+                        Duration.ofSeconds(5), Duration.ofMillis(100)),
+                new DisjuntorCircuito(100, Duration.ofMillis(50)));
+
+        assertThrows(java.net.http.HttpTimeoutException.class,
+                () -> impaciente.baixarArquivo(impaciente.url("oscilante.fcgi", "id=1"), tempDir.resolve("oscilante.fasta")));
+        // Três requisições no total, e não três tentativas de cópia com três requisições cada
+        assertEquals(3, chamadas.get());
+    }
+
+    @Test
+    void testRetryAfterLimitadoAEsperaMaxima() {
+        PoliticaRetentativa politica = new PoliticaRetentativa(3, Duration.ofMillis(10), Duration.ofSeconds(2),
+                Duration.ofSeconds(1), Duration.ofSeconds(1));
+        assertEquals(Duration.ofSeconds(1), politica.espera(1, "1"));
+        assertEquals(Duration.ofSeconds(2), politica.espera(1, "3600"));
+        assertEquals(Duration.ofSeconds(2), politica.espera(1, "Fri, 31 Dec 2100 23:59:59 GMT"));
+    }
+
+    @Test
+    void testUrlComChaveApi() {
+        ClienteNcbi comChave = new ClienteNcbi("http://localhost/eutils", "abc");
+        assertEquals("http://localhost/eutils/esearch.fcgi?db=nucleotide&api_key=abc", comChave.url("esearch.fcgi", "db=nucleotide"));
+        assertEquals(ClienteNcbi.TAXA_COM_CHAVE, comChave.limitador().porSegundo(), 1e-9);
+    }
+}
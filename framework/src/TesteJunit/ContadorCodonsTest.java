@@ -0,0 +1,135 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.Codon;
+import Genetica.ContadorCodons;
+import Genetica.SequenciaCompacta;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContadorCodonsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testContagemIgualAoMetodoOriginal() throws IOException {
+        String sequence = "ATGCGATAGCTAGCTAACGCGTAGCTAGCTAGGCTAATG";
+        ContadorCodons contador = ContadorCodons.contar(new StringReader(">seq\n" + sequence));
+
+        assertEquals(Codon.calculateCodonFrequency(sequence), contador.paraMapa());
+        assertEquals(13, contador.total());
+        assertEquals(0, contador.ambiguos());
+    }
+
+    @Test
+    void testCodonsAmbiguosSeparados() throws IOException {
+        ContadorCodons contador = ContadorCodons.contar(new StringReader(">seq\nATGNNNATGARA\n"));
+
+        assertEquals(2, contador.paraMapa().get("ATG"));
+        assertEquals(2, contador.ambiguos());
+        assertFalse(contador.paraMapa().containsKey("NNN"));
+    }
+
+    @Test
+    void testCodonAtravessaLinhasECabecalhos() throws IOException {
+        Path fastaFile = tempDir.resolve("linhas.fasta");
+        Files.writeString(fastaFile, ">seq1\r\nAT\r\nGA\n>seq2\nAA\n");
+
+        ContadorCodons contador = ContadorCodons.contarArquivo(fastaFile.toString(), true);
+        assertEquals(1, contador.paraMapa().get("ATG"));
+        assertEquals(1, contador.paraMapa().get("AAA"));
+    }
+
+    @Test
+    void testArquivoSemCabecalho() throws IOException {
+        Path fastaFile = tempDir.resolve("invalido.fasta");
+        Files.writeString(fastaFile, "ATGATG\n");
+
+        assertThrows(IOException.class, () -> ContadorCodons.contarArquivo(fastaFile.toString(), true));
+        assertThrows(IOException.class, () -> ContadorCodons.contar(
+                Channels.newChannel(new ByteArrayInputStream("ATGATG\n".getBytes(StandardCharsets.US_ASCII))), true));
+    }
+
+    @Test
+    void testSomarEContarSequenciaCompacta() {
+        ContadorCodons contador = ContadorCodons.contar(SequenciaCompacta.doTexto("ATGNTT"));
+        contador.somar(ContadorCodons.contar(SequenciaCompacta.doTexto("ATGCCC")));
+
+        assertEquals(2, contador.contagem(SequenciaCompacta.doTexto("ATG").indiceCodon(0)));
+        assertEquals(1, contador.ambiguos());
+        assertEquals(4, contador.total());
+    }
+
+    @Test
+    void testContagemParalelaIgualASerial() throws IOException {
+        // Vários registros com linhas de 7 bases, para que os blocos cortem linhas e registros
+        Random random = new Random(42);
+        StringBuilder conteudo = new StringBuilder();
+        for (int r = 0; r < 5; r++) {
+            conteudo.append(">registro").append(r).append('\n');
+            int bases = 500 + random.nextInt(400);
+            for (int i = 0; i < bases; i++) {
+                conteudo.append(random.nextInt(50) == 0 ? 'N' : "ACGT".charAt(random.nextInt(4)));
+                if (i % 7 == 6 || i == bases - 1) {
+                    conteudo.append('\n');
+                }
+            }
+        }
+        Path fastaFile = tempDir.resolve("paralelo.fasta");
+        Files.writeString(fastaFile, conteudo.toString());
+
+        ContadorCodons serial = ContadorCodons.contarArquivo(fastaFile.toString(), true);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long bloco : new long[] {3, 30, 100, 1000}) {
+                ContadorCodons paralelo = ContadorCodons.contarArquivoParalelo(fastaFile.toString(), true, pool, bloco);
+                assertTrue(Arrays.equals(serial.contagens(), paralelo.contagens()));
+                assertEquals(serial.ambiguos(), paralelo.ambiguos());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testContagemParalelaComIdsRepetidos() throws IOException {
+        StringBuilder conteudo = new StringBuilder();
+        Random random = new Random(7);
+        for (int r = 0; r < 4; r++) {
+            conteudo.append(">x\n");
+            for (int i = 0; i < 100; i++) {
+                conteudo.append("ACGT".charAt(random.nextInt(4)));
+                if (i % 10 == 9) {
+                    conteudo.append('\n');
+                }
+            }
+        }
+        Path fastaFile = tempDir.resolve("repetidos.fasta");
+        Files.writeString(fastaFile, conteudo.toString());
+
+        ContadorCodons serial = ContadorCodons.contarArquivo(fastaFile.toString(), true);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ContadorCodons paralelo = ContadorCodons.contarArquivoParalelo(fastaFile.toString(), true, pool, 30);
+            assertEquals(133, serial.total());
+            assertTrue(Arrays.equals(serial.contagens(), paralelo.contagens()));
+            assertEquals(serial.total(), paralelo.total());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+
+import Genetica.DisjuntorCircuito;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisjuntorCircuitoTest {
+
+    @Test
+    void testAbreDepoisDoLimite() throws InterruptedException {
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito(3, Duration.ofMillis(200));
+        disjuntor.falha();
+        disjuntor.falha();
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.estado());
+        disjuntor.falha();
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, disjuntor.estado());
+
+        long inicio = System.nanoTime();
+        disjuntor.aguardar();
+        assertTrue(System.nanoTime() - inicio >= Duration.ofMillis(150).toNanos());
+        // Quem sai da espera faz a sondagem
+        assertEquals(DisjuntorCircuito.Estado.MEIO_ABERTO, disjuntor.estado());
+        disjuntor.sucesso();
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.estado());
+        assertEquals(1, disjuntor.aberturas());
+    }
+
+    @Test
+    void testSucessoZeraFalhasSeguidas() throws InterruptedException {
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito(2, Duration.ofSeconds(10));
+        disjuntor.falha();
+        disjuntor.sucesso();
+        disjuntor.falha();
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, disjuntor.estado());
+        disjuntor.aguardar();
+    }
+
+    @Test
+    void testSondagemComFalhaReabre() throws InterruptedException {
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito(1, Duration.ofMillis(500));
+        disjuntor.falha();
+        disjuntor.aguardar();
+        Thread outra = new Thread(() -> {
+            try {
+                disjuntor.aguardar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        outra.start();
+        outra.join(100);
+        // A outra thread espera o resultado da sondagem
+        assertTrue(outra.isAlive());
+
+        disjuntor.falha();
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, disjuntor.estado());
+        outra.join(2000);
+        assertFalse(outra.isAlive());
+        assertEquals(2, disjuntor.aberturas());
+    }
+
+    @Test
+    void testSondagemAbandonadaELiberada() throws InterruptedException {
+        DisjuntorCircuito disjuntor = new DisjuntorCircuito(1, Duration.ofMillis(100));
+        disjuntor.falha();
+        disjuntor.aguardar();
+        // A sondagem nunca informa o resultado: outra thread a assume depois de uma pausa
+        long inicio = System.nanoTime();
+        disjuntor.aguardar();
+        assertTrue(System.nanoTime() - inicio >= Duration.ofMillis(50).toNanos());
+        assertEquals(DisjuntorCircuito.Estado.MEIO_ABERTO, disjuntor.estado());
+
+        // Quem desiste da sondagem a passa adiante na hora
+        disjuntor.desistir();
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, disjuntor.estado());
+        inicio = System.nanoTime();
+        disjuntor.aguardar();
+        assertTrue(System.nanoTime() - inicio < Duration.ofMillis(50).toNanos());
+        assertEquals(1, disjuntor.aberturas());
+    }
+}
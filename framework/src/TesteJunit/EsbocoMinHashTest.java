@@ -0,0 +1,105 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.EsbocoMinHash;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EsbocoMinHashTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testComplementoReversoTemMesmoEsboco() {
+        String sequencia = aleatoria(new Random(1), 5000);
+        EsbocoMinHash direto = EsbocoMinHash.doTexto(sequencia, 21, 200);
+        EsbocoMinHash reverso = EsbocoMinHash.doTexto(complementoReverso(sequencia), 21, 200);
+
+        assertEquals(200, direto.hashes().length);
+        assertArrayEquals(direto.hashes(), reverso.hashes());
+        assertEquals(1.0, direto.jaccard(reverso));
+        assertEquals(0.0, direto.distanciaMash(reverso));
+    }
+
+    @Test
+    void testSimilaridadeEstimada() {
+        Random random = new Random(2);
+        String sequencia = aleatoria(random, 50000);
+        StringBuilder mutada = new StringBuilder(sequencia);
+        // Cerca de 1% de substituições
+        for (int i = 0; i < mutada.length(); i += 100) {
+            mutada.setCharAt(i, mutada.charAt(i) == 'A' ? 'C' : 'A');
+        }
+        EsbocoMinHash original = EsbocoMinHash.doTexto(sequencia, 21, 1000);
+        EsbocoMinHash parecido = EsbocoMinHash.doTexto(mutada, 21, 1000);
+        EsbocoMinHash diferente = EsbocoMinHash.doTexto(aleatoria(random, 50000), 21, 1000);
+
+        assertEquals(0.99, original.ani(parecido), 0.005);
+        assertTrue(original.jaccard(diferente) < 0.01);
+        assertEquals(1.0, original.distanciaMash(diferente));
+    }
+
+    @Test
+    void testAmbiguidadeECabecalhoReiniciamKmer() {
+        // Nenhum trecho contínuo tem 4 bases válidas
+        assertEquals(0, EsbocoMinHash.doTexto("ACGNACGNACG", 4, 10).hashes().length);
+        assertEquals(2, EsbocoMinHash.doTexto("ACGTNAAAA", 4, 10).hashes().length);
+    }
+
+    @Test
+    void testEsbocoGuardadoAoLadoDoFasta() throws IOException {
+        Path fasta = tempDir.resolve("genoma.fasta");
+        Files.writeString(fasta, ">r1\n" + aleatoria(new Random(3), 3000) + "\n>r2\nACGTACGTACGTACGTACGTACGTA\n");
+
+        EsbocoMinHash calculado = EsbocoMinHash.paraArquivo(fasta.toString(), 15, 100);
+        Path arquivo = tempDir.resolve("genoma.fasta.k15s100.esboco");
+        assertTrue(Files.exists(arquivo));
+
+        EsbocoMinHash lido = EsbocoMinHash.paraArquivo(fasta.toString(), 15, 100);
+        assertArrayEquals(calculado.hashes(), lido.hashes());
+        assertArrayEquals(calculado.hashes(), EsbocoMinHash.ler(arquivo.toString()).hashes());
+        assertArrayEquals(calculado.hashes(), EsbocoMinHash.calcular(fasta.toString(), 15, 100).hashes());
+    }
+
+    @Test
+    void testRecalculaComMesmaDataETamanhoDiferente() throws IOException {
+        Path fasta = tempDir.resolve("editado.fasta");
+        Files.writeString(fasta, ">r1\n" + aleatoria(new Random(5), 2000) + "\n");
+        FileTime data = Files.getLastModifiedTime(fasta);
+        EsbocoMinHash antes = EsbocoMinHash.paraArquivo(fasta.toString(), 15, 100);
+
+        // Conteúdo trocado no mesmo tique do relógio: a data não muda, o tamanho sim
+        Files.writeString(fasta, ">r1\n" + aleatoria(new Random(6), 2500) + "\n");
+        Files.setLastModifiedTime(fasta, data);
+
+        EsbocoMinHash depois = EsbocoMinHash.paraArquivo(fasta.toString(), 15, 100);
+        assertFalse(Arrays.equals(antes.hashes(), depois.hashes()));
+        assertArrayEquals(EsbocoMinHash.calcular(fasta.toString(), 15, 100).hashes(), depois.hashes());
+    }
+
+    private static String aleatoria(Random random, int tamanho) {
+        StringBuilder sequencia = new StringBuilder(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            sequencia.append("ACGT".charAt(random.nextInt(4)));
+        }
+        return sequencia.toString();
+    }
+
+    private static String complementoReverso(String sequencia) {
+        StringBuilder reverso = new StringBuilder(sequencia.length());
+        for (int i = sequencia.length() - 1; i >= 0; i--) {
+            reverso.append("TGCA".charAt("ACGT".indexOf(sequencia.charAt(i))));
+        }
+        return reverso.toString();
+    }
+}
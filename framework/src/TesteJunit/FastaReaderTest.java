@@ -0,0 +1,103 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.FastaReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastaReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String lerTudo(FastaReader reader, List<String> cabecalhos) throws IOException {
+        StringBuilder sequencia = new StringBuilder();
+        reader.percorrer(new FastaReader.Visitante() {
+            @Override
+            public void cabecalho(String texto, long deslocamento) {
+                cabecalhos.add(texto + "@" + deslocamento);
+            }
+
+            @Override
+            public void sequencia(ByteBuffer bases) {
+                for (int i = 0; i < bases.limit(); i++) {
+                    sequencia.append((char) bases.get(i));
+                }
+            }
+        });
+        return sequencia.toString();
+    }
+
+    @Test
+    void testPercorrerPulaCabecalhosEQuebras() throws IOException {
+        Path fastaFile = tempDir.resolve("multi.fasta");
+        Files.writeString(fastaFile, ">seq1 teste\r\nACGT\r\nAC GT\n>seq2\nNNAA\n");
+
+        List<String> cabecalhos = new ArrayList<>();
+        try (FastaReader reader = new FastaReader(fastaFile.toString())) {
+            assertTrue(reader.comecaComCabecalho());
+            assertEquals("ACGTACGTNNAA", lerTudo(reader, cabecalhos));
+        }
+        assertEquals(List.of("seq1 teste@0", "seq2@25"), cabecalhos);
+    }
+
+    @Test
+    void testRegioesPequenasDaoOMesmoResultado() throws IOException {
+        Path fastaFile = tempDir.resolve("regioes.fasta");
+        String conteudo = ">um cabecalho longo que cruza regioes\nACGTACGTAC\nGGTTAA\n>dois\nTTTTCCCCGGGG\n";
+        Files.writeString(fastaFile, conteudo);
+
+        List<String> esperado = new ArrayList<>();
+        String sequencia;
+        try (FastaReader reader = new FastaReader(fastaFile.toString())) {
+            sequencia = lerTudo(reader, esperado);
+        }
+        for (int regiao = 1; regiao <= 8; regiao++) {
+            List<String> cabecalhos = new ArrayList<>();
+            try (FastaReader reader = new FastaReader(fastaFile.toString(), regiao)) {
+                assertEquals(sequencia, lerTudo(reader, cabecalhos));
+            }
+            assertEquals(esperado, cabecalhos);
+        }
+    }
+
+    @Test
+    void testExigirCabecalho() throws IOException {
+        Path fastaFile = tempDir.resolve("invalido.fasta");
+        Files.writeString(fastaFile, "ACGT\n");
+
+        try (FastaReader reader = new FastaReader(fastaFile.toString())) {
+            assertFalse(reader.comecaComCabecalho());
+            assertThrows(IOException.class, reader::exigirCabecalho);
+        }
+    }
+
+    @Test
+    void testCursorEntregaBlocosCompletos() throws IOException {
+        Path fastaFile = tempDir.resolve("cursor.fasta");
+        Files.writeString(fastaFile, ">um cabecalho longo que cruza regioes\nACGTACGTAC\r\nGG TTAA\n>dois\nTTTTCCCCGGGG\n");
+
+        for (int regiao = 1; regiao <= 8; regiao++) {
+            try (FastaReader reader = new FastaReader(fastaFile.toString(), regiao)) {
+                FastaReader.Cursor cursor = reader.cursor();
+                List<String> blocos = new ArrayList<>();
+                byte[] bloco = new byte[5];
+                int lidos;
+                while ((lidos = cursor.ler(bloco, 0, bloco.length)) > 0) {
+                    blocos.add(new String(bloco, 0, lidos, StandardCharsets.US_ASCII));
+                }
+                assertEquals(List.of("ACGTA", "CGTAC", "GGTTA", "ATTTT", "CCCCG", "GGG"), blocos);
+            }
+        }
+    }
+}
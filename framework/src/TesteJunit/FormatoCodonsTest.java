@@ -0,0 +1,57 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.ContadorCodons;
+import Genetica.FormatoCodons;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormatoCodonsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ContadorCodons contador() throws Exception {
+        Path fasta = tempDir.resolve("a.fasta");
+        Files.writeString(fasta, ">a\nATGAAAAAATTTNNNTAA\n");
+        return ContadorCodons.contarArquivo(fasta.toString(), true);
+    }
+
+    @Test
+    void testBinarioIdaEVolta() throws Exception {
+        ContadorCodons contador = contador();
+        Path destino = tempDir.resolve("a.cdc");
+        FormatoCodons.salvar(contador, "a.fasta", FormatoCodons.Formato.BINARIO, destino);
+        ContadorCodons lido = FormatoCodons.lerBinario(destino);
+        assertArrayEquals(contador.contagens(), lido.contagens());
+        assertEquals(1, lido.ambiguos());
+    }
+
+    @Test
+    void testJsonIdaEVolta() throws Exception {
+        ContadorCodons contador = contador();
+        Path destino = tempDir.resolve("a.json");
+        FormatoCodons.salvar(contador, "a.fasta", FormatoCodons.Formato.JSON, destino);
+        ContadorCodons lido = FormatoCodons.lerJson(destino);
+        assertArrayEquals(contador.contagens(), lido.contagens());
+        assertEquals(contador.total(), lido.total());
+        assertTrue(Files.readString(destino).contains("{\"codon\":\"AAA\",\"aminoacido\":\"Lys\",\"frequencia\":2}"));
+    }
+
+    @Test
+    void testCsvTemOs64Codons() throws Exception {
+        Path destino = tempDir.resolve("a.csv");
+        FormatoCodons.salvar(contador(), "a.fasta", FormatoCodons.Formato.CSV, destino);
+        List<String> linhas = Files.readAllLines(destino);
+        assertEquals(65, linhas.size());
+        assertEquals("codon,aminoacido,frequencia", linhas.get(0));
+        assertEquals("AAA,Lys,2", linhas.get(1));
+        assertEquals("TTT,Phe,1", linhas.get(64));
+    }
+}
@@ -0,0 +1,155 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import Genetica.ClienteNcbi;
+import Genetica.DisjuntorCircuito;
+import Genetica.FastaBaixar;
+import Genetica.HistoricoNcbi;
+import Genetica.LimitadorTaxa;
+import Genetica.PoliticaRetentativa;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoricoNcbiTest {
+
+    private static final int REGISTROS = 23;
+    private static final String ESEARCH = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+            + "<!DOCTYPE eSearchResult PUBLIC \"-//NLM//DTD esearch 20060628//EN\" "
+            + "\"https://eutils.ncbi.nlm.nih.gov/eutils/dtd/20060628/esearch.dtd\">\n"
+            + "<eSearchResult><Count>" + REGISTROS + "</Count><RetMax>0</RetMax><RetStart>0</RetStart>"
+            + "<QueryKey>1</QueryKey><WebEnv>MCID_abc+def</WebEnv><IdList></IdList>"
+            + "<TranslationSet/><TranslationStack><TermSet><Term>Anura[Organism]</Term>"
+            + "<Field>Organism</Field><Count>999</Count></TermSet></TranslationStack></eSearchResult>";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer servidor;
+    private ClienteNcbi cliente;
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/esearch.fcgi", troca -> responder(troca, ESEARCH));
+        servidor.createContext("/efetch.fcgi", troca -> {
+            Map<String, String> parametros = parametros(troca.getRequestURI().getRawQuery());
+            if (!"1".equals(parametros.get("query_key")) || !"MCID_abc%2Bdef".equals(parametros.get("WebEnv"))) {
+                troca.sendResponseHeaders(400, -1);
+                troca.close();
+                return;
+            }
+            int inicio = Integer.parseInt(parametros.get("retstart"));
+            int fim = Math.min(REGISTROS, inicio + Integer.parseInt(parametros.get("retmax")));
+            try {
+                // Páginas iniciais demoram mais, para que terminem fora de ordem
+                Thread.sleep(inicio == 0 ? 100 : 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            responder(troca, registros(inicio, fim));
+        });
+        servidor.setExecutor(java.util.concurrent.Executors.newFixedThreadPool(4));
+        servidor.start();
+        cliente = new ClienteNcbi("http://127.0.0.1:" + servidor.getAddress().getPort() + "/", null, new LimitadorTaxa(1000),
+                new PoliticaRetentativa(3, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5), Duration.ofSeconds(5)),
+                new DisjuntorCircuito(100, Duration.ofMillis(50)));
+    }
+
+    @AfterEach
+    void pararServidor() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void testLerHistorico() throws IOException {
+        HistoricoNcbi historico = HistoricoNcbi.ler(ESEARCH);
+
+        assertEquals(REGISTROS, historico.total());
+        assertEquals("1", historico.queryKey());
+        assertEquals("MCID_abc+def", historico.webEnv());
+        assertTrue(historico.temHistorico());
+        assertTrue(historico.ids().isEmpty());
+    }
+
+    @Test
+    void testLerIds() throws IOException {
+        HistoricoNcbi historico = HistoricoNcbi.ler("<eSearchResult><Count>2</Count>"
+                + "<IdList><Id>11</Id>\n<Id>22</Id></IdList></eSearchResult>");
+
+        assertEquals(2, historico.total());
+        assertEquals(java.util.List.of("11", "22"), historico.ids());
+        assertFalse(historico.temHistorico());
+        assertThrows(IOException.class, () -> HistoricoNcbi.ler("<eSearchResult><Count>"));
+        assertThrows(IOException.class, () -> HistoricoNcbi.ler("<eSearchResult><ERROR>Empty term</ERROR></eSearchResult>"));
+    }
+
+    @Test
+    void testBaixarTodosEmOrdem() throws Exception {
+        Path destino = tempDir.resolve("anura_todos.fasta");
+        long bytes = new FastaBaixar(cliente).baixarTodos("Anura", destino, 5);
+
+        String esperado = registros(0, REGISTROS);
+        assertEquals(esperado.length(), bytes);
+        assertEquals(esperado, Files.readString(destino));
+        // Nenhum arquivo temporário fica para trás
+        try (var arquivos = Files.list(tempDir)) {
+            assertEquals(1, arquivos.count());
+        }
+    }
+
+    @Test
+    void testPaginaComErroNaoCriaArquivo() throws Exception {
+        servidor.removeContext("/efetch.fcgi");
+        servidor.createContext("/efetch.fcgi", troca -> {
+            troca.sendResponseHeaders(500, -1);
+            troca.close();
+        });
+        Path destino = tempDir.resolve("anura_todos.fasta");
+
+        assertThrows(IOException.class, () -> new FastaBaixar(cliente).baixarTodos("Anura", destino, 5));
+        try (var arquivos = Files.list(tempDir)) {
+            assertEquals(0, arquivos.count());
+        }
+    }
+
+    private static String registros(int inicio, int fim) {
+        StringBuilder fasta = new StringBuilder();
+        for (int i = inicio; i < fim; i++) {
+            fasta.append(">seq").append(i).append('\n').append("ACGT".repeat(20 + i)).append("\n\n");
+        }
+        return fasta.toString();
+    }
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            parametros.put(par.substring(0, igual), par.substring(igual + 1));
+        }
+        return parametros;
+    }
+
+    private static void responder(com.sun.net.httpserver.HttpExchange troca, String corpo) throws IOException {
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.sendResponseHeaders(200, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.Codon;
+import Genetica.ContadorCodons;
+import Genetica.IndiceFasta;
+import Genetica.SequenciaCompacta;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class IndiceFastaTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path criarMultiFasta() throws IOException {
+        Path fastaFile = tempDir.resolve("contigs.fasta");
+        Files.writeString(fastaFile,
+                ">contig1 primeiro\nACGTA\nCGTAC\nGT\n"
+                + ">contig2\r\nTTTTT\r\nGGG\r\n"
+                + ">contig3 irregular\nAAA\nCCCCC\nG\n");
+        return fastaFile;
+    }
+
+    @Test
+    void testConstruirIndice() throws IOException {
+        IndiceFasta indice = IndiceFasta.construir(criarMultiFasta().toString());
+
+        assertEquals(3, indice.tamanho());
+        IndiceFasta.Entrada contig1 = indice.buscar("contig1");
+        assertEquals(12, contig1.comprimento());
+        assertEquals(18, contig1.deslocamento());
+        assertEquals(5, contig1.basesPorLinha());
+        assertEquals(6, contig1.bytesPorLinha());
+
+        IndiceFasta.Entrada contig2 = indice.buscar("contig2");
+        assertEquals(8, contig2.comprimento());
+        assertEquals(7, contig2.bytesPorLinha());
+
+        assertFalse(indice.buscar("contig3").regular());
+        assertNull(indice.buscar("inexistente"));
+    }
+
+    @Test
+    void testIndiceSalvoEReaproveitado() throws IOException {
+        Path fastaFile = criarMultiFasta();
+        IndiceFasta indice = IndiceFasta.paraArquivo(fastaFile.toString());
+
+        Path fai = tempDir.resolve("contigs.fasta.fai");
+        assertTrue(Files.exists(fai));
+        assertTrue(Files.readString(fai).startsWith("contig1\t12\t18\t5\t6\n"));
+
+        IndiceFasta lido = IndiceFasta.ler(fai.toString());
+        assertEquals(indice.entradas().size(), lido.entradas().size());
+        assertEquals(indice.buscar("contig2").deslocamento(), lido.buscar("contig2").deslocamento());
+    }
+
+    @Test
+    void testReconstroiComMesmaDataETamanhoDiferente() throws IOException {
+        Path fastaFile = criarMultiFasta();
+        FileTime data = Files.getLastModifiedTime(fastaFile);
+        assertEquals(3, IndiceFasta.paraArquivo(fastaFile.toString()).tamanho());
+
+        // Registro acrescentado no mesmo tique do relógio: a data não muda, o tamanho sim
+        Files.writeString(fastaFile, ">contig4\nACGT\n", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(fastaFile, data);
+
+        IndiceFasta indice = IndiceFasta.paraArquivo(fastaFile.toString());
+        assertEquals(4, indice.tamanho());
+        assertEquals(4, indice.buscar("contig4").comprimento());
+    }
+
+    @Test
+    void testIndiceComPermissoesPadrao() throws IOException {
+        assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path fastaFile = criarMultiFasta();
+        IndiceFasta.paraArquivo(fastaFile.toString());
+
+        // O índice é criado com a umask, como o próprio FASTA, e não só para o dono
+        assertEquals(Files.getPosixFilePermissions(fastaFile),
+                Files.getPosixFilePermissions(tempDir.resolve("contigs.fasta.fai")));
+    }
+
+    @Test
+    void testLerRegistroPorId() throws IOException {
+        Path fastaFile = criarMultiFasta();
+
+        assertEquals("ACGTACGTACGT", SequenciaCompacta.lerRegistro(fastaFile.toString(), "contig1").toString());
+        assertEquals("TTTTTGGG", SequenciaCompacta.lerRegistro(fastaFile.toString(), "contig2").toString());
+        assertEquals("AAACCCCCG", SequenciaCompacta.lerRegistro(fastaFile.toString(), "contig3").toString());
+        assertThrows(IOException.class, () -> SequenciaCompacta.lerRegistro(fastaFile.toString(), "contig9"));
+    }
+
+    @Test
+    void testLinhasVaziasAntesDaSequencia() throws IOException {
+        Path fastaFile = tempDir.resolve("vazias.fasta");
+        Files.writeString(fastaFile, ">a\n\nACGTAC\nGTA\n>b\r\n\r\n\r\nTTTAAA\r\nCCC\r\n");
+
+        assertEquals("ACGTACGTA", SequenciaCompacta.lerRegistro(fastaFile.toString(), "a").toString());
+        assertEquals("TTTAAACCC", SequenciaCompacta.lerRegistro(fastaFile.toString(), "b").toString());
+        ContadorCodons contador = ContadorCodons.contarRegistro(fastaFile.toString(), "a");
+        assertEquals(1, contador.paraMapa().get("GTA"));
+        assertEquals(3, contador.total());
+    }
+
+    @Test
+    void testCodonAnalisePorRegistro() throws IOException {
+        Path fastaFile = criarMultiFasta();
+
+        ContadorCodons contador = ContadorCodons.contarRegistro(fastaFile.toString(), "contig2");
+        assertEquals(1, contador.paraMapa().get("TTT"));
+        assertEquals(1, contador.paraMapa().get("TTG"));
+
+        Codon.CodonAnalise(fastaFile.toString(), "contig2");
+        assertTrue(Files.exists(tempDir.resolve("contigs_contig2_codon_analysis.txt")));
+    }
+}
@@ -0,0 +1,96 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+
+import Genetica.LimitadorTaxa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorTaxaTest {
+
+    @Test
+    void testSemRajadaInicial() throws InterruptedException {
+        LimitadorTaxa limitador = new LimitadorTaxa(3);
+        long inicio = System.nanoTime();
+        limitador.adquirir();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 200);
+        assertFalse(limitador.tentarAdquirir());
+        // A segunda e a terceira esperam um terço de segundo cada: no primeiro segundo não passam de 3
+        limitador.adquirir();
+        limitador.adquirir();
+        long decorrido = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertTrue(decorrido >= 640, "Decorrido: " + decorrido);
+        assertFalse(limitador.tentarAdquirir());
+    }
+
+    @Test
+    void testCapacidadeSoAcumulaDepoisDeOcioso() throws InterruptedException {
+        LimitadorTaxa limitador = new LimitadorTaxa(20, 3);
+        assertTrue(limitador.tentarAdquirir());
+        assertFalse(limitador.tentarAdquirir());
+        TimeUnit.MILLISECONDS.sleep(300);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limitador.tentarAdquirir());
+        }
+        assertFalse(limitador.tentarAdquirir());
+    }
+
+    @Test
+    void testThreadsRespeitamATaxa() throws InterruptedException {
+        LimitadorTaxa limitador = new LimitadorTaxa(20, 1);
+        List<Thread> threads = new ArrayList<>();
+        long inicio = System.nanoTime();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 3; i++) {
+                        limitador.adquirir();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 12 fichas com uma disponível no início: pelo menos 11 intervalos de 50 ms
+        long decorrido = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertTrue(decorrido >= 540, "Decorrido: " + decorrido);
+        assertTrue(decorrido < 2000, "Decorrido: " + decorrido);
+    }
+
+    @Test
+    void testEsperaInterrompidaDevolveAFicha() throws InterruptedException {
+        LimitadorTaxa limitador = new LimitadorTaxa(2, 1);
+        limitador.adquirir();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    limitador.adquirir();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join();
+        }
+        // Sem as reservas das threads interrompidas, a próxima ficha sai em meio segundo, e não em dois
+        long inicio = System.nanoTime();
+        limitador.adquirir();
+        long decorrido = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertTrue(decorrido < 1000, "Decorrido: " + decorrido);
+    }
+}
@@ -0,0 +1,104 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.DiarioCheckpoint;
+import Genetica.FastaBaixar;
+import Genetica.FonteDiretorio;
+import Genetica.Lote;
+import Genetica.Main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoteTest {
+
+    private static final String[] SAIDAS = {
+        "Lote um.fasta", "Lote dois.fasta", "comparacao_Lote um.fasta_e_Lote dois.fasta.txt",
+        "Lote um_codon_analysis.txt", "Lote um.fasta.codons"
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void limpar() throws Exception {
+        for (String saida : SAIDAS) {
+            Files.deleteIfExists(Paths.get(saida));
+        }
+    }
+
+    @Test
+    void testRetomaDoCheckpoint() throws Exception {
+        Path fontes = Files.createDirectory(tempDir.resolve("fontes"));
+        Files.writeString(fontes.resolve("Lote um.fasta"), ">um\nATGAAACCCGGG\n");
+        Files.writeString(fontes.resolve("Lote dois.fasta"), ">dois\nATGAAACCCGGA\n");
+        Path local = tempDir.resolve("local.fasta");
+        Files.writeString(local, ">local\nATGATG\n");
+        Path manifesto = tempDir.resolve("manifesto.tsv");
+        Files.writeString(manifesto, "# teste\nLote um\nLote um\tLote dois\n\n" + local + "\n");
+        Path checkpoint = tempDir.resolve("manifesto.checkpoint");
+        Lote lote = new Lote(new FastaBaixar(new FonteDiretorio(fontes)), 2, 2);
+
+        Lote.Resumo primeira;
+        try (DiarioCheckpoint diario = new DiarioCheckpoint(checkpoint)) {
+            primeira = lote.executar(Lote.lerManifesto(manifesto), diario);
+        }
+        // baixar um, baixar dois, codons um, comparar, codons local
+        assertEquals(5, primeira.concluidas());
+        assertEquals(0, primeira.falhas());
+        assertTrue(Files.exists(Paths.get(SAIDAS[2])));
+        Path codonsLocal = tempDir.resolve("local_codon_analysis.txt");
+        assertTrue(Files.exists(codonsLocal));
+
+        Files.delete(codonsLocal);
+        Lote.Resumo segunda;
+        try (DiarioCheckpoint diario = new DiarioCheckpoint(checkpoint)) {
+            segunda = lote.executar(Lote.lerManifesto(manifesto), diario);
+        }
+        assertEquals(0, segunda.concluidas());
+        assertEquals(5, segunda.puladas());
+        assertFalse(Files.exists(codonsLocal));
+    }
+
+    @Test
+    void testFalhaSoAfetaDependentes() throws Exception {
+        Path local = tempDir.resolve("local.fasta");
+        Files.writeString(local, ">local\nATGATG\n");
+        Path checkpoint = tempDir.resolve("diario");
+        Lote lote = new Lote(new FastaBaixar(new FonteDiretorio(tempDir)), 1, 1);
+
+        try (DiarioCheckpoint diario = new DiarioCheckpoint(checkpoint)) {
+            Lote.Resumo resumo = lote.executar(List.of(List.of("Lote um"), List.of(local.toString())), diario);
+            // O download falha e leva junto a análise de códons que dependia dele
+            assertEquals(2, resumo.falhas());
+            assertEquals(1, resumo.concluidas());
+        }
+        assertEquals(List.of("codons\t" + local), Files.readAllLines(checkpoint));
+    }
+
+    @Test
+    void testLinhaIncompletaDescartada() throws Exception {
+        Path checkpoint = tempDir.resolve("diario");
+        Files.writeString(checkpoint, "baixar\tA\nbaixar\tB");
+        try (DiarioCheckpoint diario = new DiarioCheckpoint(checkpoint)) {
+            assertTrue(diario.concluida("baixar\tA"));
+            assertFalse(diario.concluida("baixar\tB"));
+            diario.registrar("baixar\tC");
+        }
+        assertEquals(List.of("baixar\tA", "baixar\tC"), Files.readAllLines(checkpoint));
+    }
+
+    @Test
+    void testArgumentosInvalidos() {
+        assertEquals(Main.SAIDA_USO, Main.executar("--rede", "0", "-m", "x.tsv"));
+        assertEquals(Main.SAIDA_USO, Main.executar("--cpu", "2"));
+        assertEquals(0, Main.executar("--ajuda"));
+    }
+}
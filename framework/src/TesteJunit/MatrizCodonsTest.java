@@ -0,0 +1,83 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.ContadorCodons;
+import Genetica.FormatoCodons;
+import Genetica.MatrizCodons;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrizCodonsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<String> fastas() throws Exception {
+        Path a = tempDir.resolve("especie_a.fasta");
+        Path b = tempDir.resolve("especie_b.fasta");
+        Files.writeString(a, ">a\nAAAAAACCC\n");
+        Files.writeString(b, ">b\nTTTNNN\n");
+        return List.of(a.toString(), b.toString());
+    }
+
+    @Test
+    void testCsvUmaLinhaPorEspecie() throws Exception {
+        Path destino = tempDir.resolve("matriz.csv");
+        assertEquals(2, MatrizCodons.agregar(fastas(), FormatoCodons.Formato.CSV, destino));
+        List<String> linhas = Files.readAllLines(destino);
+        assertEquals(3, linhas.size());
+        assertTrue(linhas.get(0).startsWith("especie,AAA,AAC,"));
+        assertTrue(linhas.get(0).endsWith(",TTT,ambiguos"));
+        String[] a = linhas.get(1).split(",");
+        assertEquals(66, a.length);
+        assertEquals("especie_a", a[0]);
+        assertEquals("2", a[1]);
+        assertEquals("1", a[1 + 21]); // CCC
+        assertTrue(linhas.get(2).startsWith("especie_b,"));
+        assertTrue(linhas.get(2).endsWith(",1,1"));
+    }
+
+    @Test
+    void testBinarioPercorridoNaOrdem() throws Exception {
+        List<String> fastas = fastas();
+        Path destino = tempDir.resolve("matriz.cdm");
+        MatrizCodons.agregar(fastas, FormatoCodons.Formato.BINARIO, destino);
+        List<String> especies = new ArrayList<>();
+        int lidas = MatrizCodons.percorrerBinario(destino, (especie, contador) -> {
+            especies.add(especie);
+            ContadorCodons esperado = ContadorCodons.contarArquivo(fastas.get(especies.size() - 1), true);
+            assertArrayEquals(esperado.contagens(), contador.contagens());
+            assertEquals(esperado.ambiguos(), contador.ambiguos());
+        });
+        assertEquals(2, lidas);
+        assertEquals(List.of("especie_a", "especie_b"), especies);
+    }
+
+    @Test
+    void testJsonEFalhaNaoDeixaArquivo() throws Exception {
+        Path destino = tempDir.resolve("matriz.json");
+        MatrizCodons.agregar(fastas(), FormatoCodons.Formato.JSON, destino);
+        String json = Files.readString(destino);
+        assertTrue(json.startsWith("{\"codons\":[\"AAA\",\"AAC\""));
+        assertTrue(json.contains("{\"especie\":\"especie_b\",\"contagens\":["));
+
+        Path outro = tempDir.resolve("outra.json");
+        List<String> comFaltante = new ArrayList<>(fastas());
+        comFaltante.add(tempDir.resolve("nao_existe.fasta").toString());
+        assertThrows(IOException.class,
+                () -> MatrizCodons.agregar(comFaltante, FormatoCodons.Formato.JSON, outro));
+        assertFalse(Files.exists(outro));
+        try (Stream<Path> arquivos = Files.list(tempDir)) {
+            assertTrue(arquivos.noneMatch(p -> p.toString().endsWith(".parcial")));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.FastaComparar;
+import Genetica.MatrizComparacao;
+import Genetica.SequenciaCompacta;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrizComparacaoTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatrizPosicionalIgualAosPares() throws IOException {
+        Random random = new Random(4);
+        String base = aleatoria(random, 2000);
+        for (int f = 0; f < 9; f++) {
+            StringBuilder variante = new StringBuilder(base);
+            for (int i = 0; i < f * 50; i++) {
+                variante.setCharAt(random.nextInt(variante.length()), "ACGT".charAt(random.nextInt(4)));
+            }
+            Files.writeString(tempDir.resolve("especie" + f + ".fasta"), ">s" + f + "\n" + variante + "\n");
+        }
+        Files.writeString(tempDir.resolve("leiame.txt"), "não é FASTA");
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        MatrizComparacao matriz;
+        try {
+            matriz = MatrizComparacao.calcular(MatrizComparacao.listarFasta(tempDir.toString()),
+                    MatrizComparacao.Metrica.POSICIONAL, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(9, matriz.tamanho());
+        List<String> arquivos = matriz.arquivos();
+        for (int i = 0; i < 9; i++) {
+            assertEquals(1.0, matriz.valor(i, i));
+            for (int j = 0; j < 9; j++) {
+                SequenciaCompacta a = SequenciaCompacta.lerFasta(arquivos.get(i), false);
+                SequenciaCompacta b = SequenciaCompacta.lerFasta(arquivos.get(j), false);
+                if (i != j) {
+                    assertEquals((double) FastaComparar.calculateSimilarity(a, b) / 2000, matriz.valor(i, j), 1e-12);
+                }
+                assertEquals(matriz.valor(i, j), matriz.valor(j, i));
+            }
+        }
+    }
+
+    @Test
+    void testSalvarCsvEBinario() throws IOException {
+        Files.writeString(tempDir.resolve("a.fa"), ">a\nACGTACGTACGTACGTACGTACGTACGT\n");
+        Files.writeString(tempDir.resolve("b.fa"), ">b\nACGTACGTACGTACGTACGTACGTACGA\n");
+
+        MatrizComparacao matriz = MatrizComparacao.doDiretorio(tempDir.toString(), MatrizComparacao.Metrica.ESBOCO);
+        Path csv = tempDir.resolve("matriz.csv");
+        Path binario = tempDir.resolve("matriz.bin");
+        matriz.salvarCsv(csv.toString());
+        matriz.salvarBinario(binario.toString());
+
+        List<String> linhas = Files.readAllLines(csv);
+        assertEquals("arquivo,a.fa,b.fa", linhas.get(0));
+        assertTrue(linhas.get(1).startsWith("a.fa,1.000000,"));
+
+        MatrizComparacao lida = MatrizComparacao.lerBinario(binario.toString());
+        assertEquals(matriz.arquivos(), lida.arquivos());
+        assertEquals(MatrizComparacao.Metrica.ESBOCO, lida.metrica());
+        assertEquals(matriz.valor(0, 1), lida.valor(0, 1));
+        assertTrue(lida.valor(0, 1) > 0.8 && lida.valor(0, 1) < 1);
+    }
+
+    private static String aleatoria(Random random, int tamanho) {
+        StringBuilder sequencia = new StringBuilder(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            sequencia.append("ACGT".charAt(random.nextInt(4)));
+        }
+        return sequencia.toString();
+    }
+}
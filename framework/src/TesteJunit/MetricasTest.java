@@ -0,0 +1,93 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.Codon;
+import Genetica.Metricas;
+import Genetica.MetricasEtapa;
+
+import java.lang.management.ManagementFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricasTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAcumulaMedicoes() {
+        Metricas metricas = new Metricas();
+        try (Metricas.Medicao medicao = metricas.iniciar(Metricas.CODONS, Metricas.BASES)) {
+            medicao.unidades(300).concluir();
+        }
+        try (Metricas.Medicao medicao = metricas.iniciar(Metricas.CODONS, Metricas.BASES)) {
+            medicao.unidades(600).concluir().erro();
+        }
+        // Uma exceção antes de concluir() conta como erro
+        assertThrows(IllegalStateException.class, () -> {
+            try (Metricas.Medicao medicao = metricas.iniciar(Metricas.CODONS, Metricas.BASES)) {
+                medicao.unidades(50);
+                throw new IllegalStateException("falha");
+            }
+        });
+
+        MetricasEtapa etapa = metricas.etapa(Metricas.CODONS, Metricas.BASES);
+        assertEquals(3, etapa.getChamadas());
+        assertEquals(2, etapa.getErros());
+        assertEquals(950, etapa.getUnidades());
+        assertEquals(Metricas.BASES, etapa.getUnidade());
+        assertTrue(etapa.getTempoMaximoMs() <= etapa.getTempoTotalMs());
+
+        metricas.zerar();
+        assertEquals(0, etapa.getChamadas());
+        assertEquals(0, etapa.getUnidades());
+    }
+
+    @Test
+    void testSalvaJson() throws Exception {
+        Metricas metricas = new Metricas();
+        try (Metricas.Medicao medicao = metricas.iniciar(Metricas.DOWNLOAD, Metricas.BYTES)) {
+            medicao.unidades(1024).concluir();
+        }
+        Path destino = tempDir.resolve("metricas.json");
+        metricas.salvarJson(destino);
+
+        JsonNode etapa = new ObjectMapper().readTree(destino.toFile()).path("etapas").path(Metricas.DOWNLOAD);
+        assertEquals(1, etapa.path("chamadas").asLong());
+        assertEquals(0, etapa.path("erros").asLong());
+        assertEquals(1024, etapa.path("unidades").asLong());
+        assertEquals(Metricas.BYTES, etapa.path("unidade").asText());
+    }
+
+    @Test
+    void testEtapasGlobaisNoJmx() throws Exception {
+        Path fasta = tempDir.resolve("metricas.fasta");
+        Files.writeString(fasta, ">m\nATGAAACCCGGG\n");
+        MetricasEtapa leitura = Metricas.global().etapa(Metricas.LEITURA, Metricas.BASES);
+        long antes = leitura.getUnidades();
+
+        assertEquals("ATGAAACCCGGG", Codon.readFastaSequence(fasta.toString()));
+        assertEquals(antes + 12, leitura.getUnidades());
+        long errosAntes = leitura.getErros();
+        Path semCabecalho = tempDir.resolve("sem_cabecalho.fasta");
+        Files.writeString(semCabecalho, "ATGAAA\n");
+        assertThrows(IOException.class, () -> Codon.readFastaSequence(semCabecalho.toString()));
+        assertEquals(errosAntes + 1, leitura.getErros());
+
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nome = new ObjectName("Genetica:type=Metricas,name=" + ObjectName.quote(Metricas.LEITURA));
+        assertTrue(servidor.isRegistered(nome));
+        assertEquals(Metricas.BASES, servidor.getAttribute(nome, "Unidade"));
+    }
+}
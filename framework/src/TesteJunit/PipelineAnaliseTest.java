@@ -0,0 +1,70 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.Codon;
+import Genetica.FastaBaixar;
+import Genetica.FastaComparar;
+import Genetica.FonteDiretorio;
+import Genetica.PipelineAnalise;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineAnaliseTest {
+
+    private static final String[] SAIDAS = {
+        "Pipeline um.fasta", "Pipeline dois.fasta",
+        "Pipeline um_codon_analysis.txt", "Pipeline dois_codon_analysis.txt",
+        "comparacao_Pipeline um.fasta_e_Pipeline dois.fasta.txt",
+        "Pipeline um.fasta.codons", "Pipeline dois.fasta.codons"
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void limpar() throws Exception {
+        for (String saida : SAIDAS) {
+            Files.deleteIfExists(Paths.get(saida));
+        }
+    }
+
+    @Test
+    void testMesmosRelatoriosDaAnaliseSequencial() throws Exception {
+        Files.writeString(tempDir.resolve("Pipeline um.fasta"), ">um\nATGAAACCCGGGTTTnnACGT\nACGTAC\n");
+        Files.writeString(tempDir.resolve("Pipeline dois.fasta"), ">dois\natgaaaCCCGGGTTAAACGTRCG\n");
+        PipelineAnalise pipeline = new PipelineAnalise(new FastaBaixar(new FonteDiretorio(tempDir)));
+
+        assertTrue(pipeline.executar("Pipeline um", "Pipeline dois"));
+
+        String comparacao = Files.readString(Paths.get(SAIDAS[4]));
+        String codons1 = Files.readString(Paths.get(SAIDAS[2]));
+        String codons2 = Files.readString(Paths.get(SAIDAS[3]));
+
+        // Os métodos sequenciais leem os arquivos de novo e devem gerar os mesmos relatórios
+        FastaComparar.CompararArquivos(SAIDAS[0], SAIDAS[1]);
+        Codon.CodonAnalise(SAIDAS[0]);
+        Codon.CodonAnalise(SAIDAS[1]);
+        assertEquals(Files.readString(Paths.get(SAIDAS[4])), comparacao);
+        assertEquals(Files.readString(Paths.get(SAIDAS[2])), codons1);
+        assertEquals(Files.readString(Paths.get(SAIDAS[3])), codons2);
+    }
+
+    @Test
+    void testFalhaNaoBloqueiaOutraEspecie() throws Exception {
+        Files.writeString(tempDir.resolve("Pipeline um.fasta"), ">um\nATGAAACCC\n");
+        PipelineAnalise pipeline = new PipelineAnalise(new FastaBaixar(new FonteDiretorio(tempDir)));
+
+        assertFalse(pipeline.executar("Pipeline um", "Pipeline dois"));
+
+        assertTrue(Files.exists(Paths.get(SAIDAS[2])));
+        assertFalse(Files.exists(Paths.get(SAIDAS[3])));
+        assertFalse(Files.exists(Paths.get(SAIDAS[4])));
+    }
+}
@@ -0,0 +1,64 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.FastaComparar;
+import Genetica.RelatorioComparacao;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelatorioComparacaoTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBlocosECamposPreenchidos() throws IOException {
+        Path saida = tempDir.resolve("relatorio.txt");
+        try (RelatorioComparacao relatorio = new RelatorioComparacao(saida.toString(), "Título\n", "Similaridade")) {
+            for (int i = 0; i < RelatorioComparacao.LARGURA_BLOCO + 2; i++) {
+                relatorio.coluna('A', i == 1 ? '-' : 'A', true, i != 1);
+            }
+            relatorio.preencher(0, "98.39%");
+        }
+
+        List<String> linhas = Files.readAllLines(saida);
+        assertEquals("Título", linhas.get(0));
+        assertEquals("Similaridade: 98.39%", linhas.get(1).trim());
+        assertEquals("Sequências compatíveis:", linhas.get(3));
+        assertEquals("Seq1 1            " + "A".repeat(60), linhas.get(4));
+        assertEquals("Seq2 1            A-" + "A".repeat(58), linhas.get(5));
+        assertEquals("Seq1 61           AA", linhas.get(7));
+        assertEquals("Seq2 60           AA", linhas.get(8));
+    }
+
+    @Test
+    void testCompararArquivosEmStreaming() throws IOException {
+        Path fasta1 = tempDir.resolve("longo1.fasta");
+        Path fasta2 = tempDir.resolve("longo2.fasta");
+        String sequencia = "ACGT".repeat(50000);
+        Files.writeString(fasta1, ">a\n" + sequencia + "\n");
+        Files.writeString(fasta2, ">b\n" + sequencia.toLowerCase().replace("cgta", "cgtt") + "GGGG\n");
+
+        FastaComparar.CompararArquivos(fasta1.toString(), fasta2.toString());
+
+        Path relatorio = Path.of("comparacao_longo1.fasta_e_longo2.fasta.txt");
+        try {
+            List<String> linhas = Files.readAllLines(relatorio);
+            // Uma troca a cada 4 bases e 4 bases a mais na segunda sequência
+            long identicos = 200000 - 49999;
+            assertEquals("Número de caracteres idênticos: " + identicos, linhas.get(2).trim());
+            assertEquals(String.format("Similaridade: %.2f%%", identicos * 100.0 / 200004), linhas.get(1).trim());
+            assertEquals("Seq1 1            ACGT-CGT-CGT-CGT", linhas.get(5).substring(0, 34));
+            assertEquals("Seq2 1            ACGT-CGT-CGT-CGT", linhas.get(6).substring(0, 34));
+        } finally {
+            Files.deleteIfExists(relatorio);
+        }
+    }
+}
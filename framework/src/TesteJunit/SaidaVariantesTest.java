@@ -0,0 +1,77 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.FastaComparar;
+import Genetica.SaidaVariantes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaidaVariantesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIntervalosAgrupamPosicoesConsecutivas() throws IOException {
+        Path saida = tempDir.resolve("diferencas.tsv");
+        try (SaidaVariantes variantes = new SaidaVariantes(saida.toString(), SaidaVariantes.Formato.INTERVALOS, false, "ref", "teste")) {
+            variantes.diferenca(3, 'A', 'C');
+            variantes.diferenca(4, 'A', 'C');
+            variantes.diferenca(5, 'A', 'C');
+            variantes.diferenca(10, 'G', 'T');
+            assertEquals(4, variantes.diferencas());
+        }
+
+        List<String> linhas = Files.readAllLines(saida);
+        assertEquals(List.of("3\t6\t3", "10\t11\t1"), linhas.subList(2, linhas.size()));
+    }
+
+    @Test
+    void testAmbiguosContamNosDoisFormatos() throws IOException {
+        for (SaidaVariantes.Formato formato : SaidaVariantes.Formato.values()) {
+            Path saida = tempDir.resolve("ambiguos." + formato);
+            try (SaidaVariantes variantes = new SaidaVariantes(saida.toString(), formato, false, "ref", "teste")) {
+                variantes.diferenca(2, 'A', 'C');
+                variantes.diferenca(7, 'R', 'Y');
+                assertEquals(2, variantes.diferencas());
+            }
+        }
+        // No VCF a posição com R contra Y conta, mas não vira registro
+        List<String> linhas = Files.readAllLines(tempDir.resolve("ambiguos.VCF"));
+        assertEquals("ref\t3\t.\tA\tC\t.\tPASS\t.", linhas.get(linhas.size() - 1));
+        assertEquals(6, linhas.size());
+    }
+
+    @Test
+    void testVcfCompactado() throws IOException {
+        Path fasta1 = tempDir.resolve("ref.fasta");
+        Path fasta2 = tempDir.resolve("alt.fasta");
+        Files.writeString(fasta1, ">ref\nACGTACGTAC\nGTRCGT\n");
+        Files.writeString(fasta2, ">alt\nACGTTCGTAC\ngtycgtAAAA\n");
+
+        FastaComparar.CompararVariantes(fasta1.toString(), fasta2.toString(), SaidaVariantes.Formato.VCF, true);
+
+        Path vcf = Path.of("comparacao_ref.fasta_e_alt.fasta.vcf.gz");
+        try {
+            String conteudo;
+            try (InputStream entrada = new GZIPInputStream(Files.newInputStream(vcf))) {
+                conteudo = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(conteudo.startsWith("##fileformat=VCFv4.2\n"));
+            // R contra Y vira N contra N e não é registrado
+            assertTrue(conteudo.endsWith("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\nref.fasta\t5\t.\tA\tT\t.\tPASS\t.\n"));
+        } finally {
+            Files.deleteIfExists(vcf);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.Codon;
+import Genetica.FastaComparar;
+import Genetica.SequenciaCompacta;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenciaCompactaTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReconstroiSequenciaComAmbiguidades() {
+        // Sequência com mais de uma palavra de 64 bits e trechos ambíguos
+        String texto = "ACGTNNNNACGTRYacgtACGTACGTACGTACGTACGTNACGT";
+        SequenciaCompacta sequencia = SequenciaCompacta.doTexto(texto);
+
+        assertEquals(texto.length(), sequencia.comprimento());
+        assertEquals(texto.toUpperCase(), sequencia.toString());
+        assertEquals('N', sequencia.charAt(5));
+        assertEquals('R', sequencia.charAt(12));
+        assertEquals(4, sequencia.trechosAmbiguos());
+    }
+
+    @Test
+    void testIndiceCodon() {
+        SequenciaCompacta sequencia = SequenciaCompacta.doTexto("ATGTTT");
+        assertEquals("ATG", SequenciaCompacta.codonDoIndice(sequencia.indiceCodon(0)));
+        assertEquals("TTT", SequenciaCompacta.codonDoIndice(sequencia.indiceCodon(3)));
+    }
+
+    @Test
+    void testLerFastaIgnoraCabecalhos() throws IOException {
+        Path fastaFile = tempDir.resolve("multi.fasta");
+        Files.writeString(fastaFile, ">seq1 descricao\nATGC\r\nGGNN\n>seq2\nttaa\n");
+
+        SequenciaCompacta sequencia = SequenciaCompacta.lerFasta(fastaFile.toString(), true);
+        assertEquals("ATGCGGNNTTAA", sequencia.toString());
+    }
+
+    @Test
+    void testLerFastaSemCabecalho() throws IOException {
+        Path fastaFile = tempDir.resolve("invalido.fasta");
+        Files.writeString(fastaFile, "ATGC\n");
+
+        assertThrows(IOException.class, () -> SequenciaCompacta.lerFasta(fastaFile.toString(), true));
+        assertEquals("ATGC", SequenciaCompacta.lerFasta(fastaFile.toString(), false).toString());
+    }
+
+    @Test
+    void testCodonFrequencyIgualAoTexto() {
+        String texto = "ATGCGATAGCTAGCTAACGCGTAGCTAGCTAGGCTAATGNNATGA";
+        Map<String, Integer> esperado = Codon.calculateCodonFrequency(texto);
+        Map<String, Integer> obtido = Codon.calculateCodonFrequency(SequenciaCompacta.doTexto(texto));
+        assertEquals(esperado, obtido);
+    }
+
+    @Test
+    void testSimilaridadeIgualAoTexto() {
+        String seq1 = "ATGCGTACGTANNA";
+        String seq2 = "ATGCATACGTANCAGG";
+        SequenciaCompacta compacta1 = SequenciaCompacta.doTexto(seq1);
+        SequenciaCompacta compacta2 = SequenciaCompacta.doTexto(seq2);
+
+        assertEquals(FastaComparar.calculateSimilarity(seq1, seq2), FastaComparar.calculateSimilarity(compacta1, compacta2));
+        assertEquals(FastaComparar.getCompatibleSequences(seq1, seq2), FastaComparar.getCompatibleSequences(compacta1, compacta2));
+    }
+
+    @Test
+    void testSimilaridadePorPalavrasComAmbiguidades() {
+        Random random = new Random(7);
+        for (int rodada = 0; rodada < 50; rodada++) {
+            String seq1 = sequenciaAleatoria(random, 1 + random.nextInt(300));
+            String seq2 = sequenciaAleatoria(random, 1 + random.nextInt(300));
+            assertEquals(FastaComparar.calculateSimilarity(seq1, seq2),
+                    FastaComparar.calculateSimilarity(SequenciaCompacta.doTexto(seq1), SequenciaCompacta.doTexto(seq2)));
+        }
+    }
+
+    private static String sequenciaAleatoria(Random random, int tamanho) {
+        StringBuilder sequencia = new StringBuilder();
+        while (sequencia.length() < tamanho) {
+            if (random.nextInt(10) == 0) {
+                // Trechos de N, R ou Y de tamanhos variados, às vezes coincidindo entre as sequências
+                char simbolo = "NRY".charAt(random.nextInt(3));
+                for (int i = random.nextInt(40); i >= 0 && sequencia.length() < tamanho; i--) {
+                    sequencia.append(simbolo);
+                }
+            } else {
+                sequencia.append(random.nextInt(3) == 0 ? 'A' : "ACGT".charAt(random.nextInt(4)));
+            }
+        }
+        return sequencia.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.ClienteNcbi;
+import Genetica.DisjuntorCircuito;
+import Genetica.FastaBaixar;
+import Genetica.FonteDiretorio;
+import Genetica.FonteNcbi;
+import Genetica.GeneticaFacade;
+import Genetica.LimitadorTaxa;
+import Genetica.PoliticaRetentativa;
+import Genetica.ServidorEutilsSimulado;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServidorEutilsSimuladoTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSequenciaDeterministica() throws Exception {
+        try (ServidorEutilsSimulado servidor = new ServidorEutilsSimulado(Duration.ZERO, 0, 1000, 1, 7).iniciar()) {
+            FonteNcbi fonte = new FonteNcbi(cliente(servidor));
+            Path primeiro = tempDir.resolve("a.fasta");
+            Path segundo = tempDir.resolve("b.fasta");
+
+            assertTrue(fonte.baixar("Homo sapiens", primeiro) > 1000);
+            fonte.baixar("Homo sapiens", segundo);
+
+            List<String> linhas = Files.readAllLines(primeiro);
+            assertTrue(linhas.get(0).startsWith(">SIM"));
+            assertEquals(1000, linhas.stream().skip(1).mapToInt(String::length).sum());
+            assertEquals(Files.readString(primeiro), Files.readString(segundo));
+        }
+    }
+
+    @Test
+    void testLoteComErrosSimulados() throws Exception {
+        try (ServidorEutilsSimulado servidor = new ServidorEutilsSimulado(Duration.ofMillis(5), 0.3, 500, 1, 3).iniciar()) {
+            FastaBaixar baixar = new FastaBaixar(new FonteNcbi(cliente(servidor)));
+            List<String> nomes = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                nomes.add("simulada_" + i);
+            }
+            try {
+                Map<String, Boolean> resultado = baixar.baixarLote(nomes);
+
+                assertFalse(resultado.containsValue(false));
+                assertTrue(servidor.erros() > 0);
+                assertEquals(20 + servidor.erros(), servidor.requisicoes());
+            } finally {
+                for (String nome : nomes) {
+                    Files.deleteIfExists(Paths.get(nome + ".fasta"));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBaixarTodosNoServidorSimulado() throws Exception {
+        try (ServidorEutilsSimulado servidor = new ServidorEutilsSimulado(Duration.ZERO, 0, 100, 12, 1).iniciar()) {
+            Path destino = tempDir.resolve("todos.fasta");
+            new FastaBaixar(new FonteNcbi(cliente(servidor))).baixarTodos("Anura", destino, 5);
+
+            assertEquals(12, Files.readAllLines(destino).stream().filter(linha -> linha.startsWith(">")).count());
+        }
+    }
+
+    @Test
+    void testFonteDiretorio() throws Exception {
+        Files.writeString(tempDir.resolve("Danio rerio.fa"), ">d\nACGT\n");
+        FonteDiretorio fonte = new FonteDiretorio(tempDir);
+        Path destino = tempDir.resolve("copia.fasta");
+
+        assertEquals(8, fonte.baixar("Danio rerio", destino));
+        assertEquals(">d\nACGT\n", Files.readString(destino));
+        assertEquals(0, fonte.baixar("Inexistente", tempDir.resolve("nada.fasta")));
+
+        Path local = Paths.get("Danio rerio.fasta");
+        try {
+            new GeneticaFacade(fonte).BaixarFasta("Danio rerio");
+            assertEquals(">d\nACGT\n", Files.readString(local));
+        } finally {
+            Files.deleteIfExists(local);
+        }
+    }
+
+    private static ClienteNcbi cliente(ServidorEutilsSimulado servidor) {
+        return new ClienteNcbi(servidor.url(), null, new LimitadorTaxa(10_000),
+                new PoliticaRetentativa(10, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5), Duration.ofSeconds(5)),
+                new DisjuntorCircuito(1000, Duration.ofMillis(10)));
+    }
+}
@@ -0,0 +1,93 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.Codon;
+import Genetica.ContadorCodons;
+import Genetica.SequenciaCompacta;
+import Genetica.TabelaGenetica;
+import Genetica.TraducaoSeisQuadros;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraducaoSeisQuadrosTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String complementoReverso(String sequencia) {
+        StringBuilder reverso = new StringBuilder();
+        for (int i = sequencia.length() - 1; i >= 0; i--) {
+            reverso.append("TGCAN".charAt("ACGTN".indexOf(sequencia.charAt(i))));
+        }
+        return reverso.toString();
+    }
+
+    @Test
+    void testTabelasAlternativas() {
+        int tga = SequenciaCompacta.doTexto("TGA").indiceCodon(0);
+        assertEquals('*', TabelaGenetica.padrao().traduzir(tga));
+        assertEquals('W', TabelaGenetica.porId(2).traduzir(tga));
+        assertEquals("Trp", Codon.getAminoacid("TGA", TabelaGenetica.porId(2)));
+        assertEquals("Stop", Codon.getAminoacid("AGA", TabelaGenetica.porId(2)));
+        assertThrows(IllegalArgumentException.class, () -> TabelaGenetica.porId(7));
+    }
+
+    @Test
+    void testSeisQuadros() {
+        String sequencia = "ATGGCCTTTAAAGGGTAGC";
+        String[] proteinas = TraducaoSeisQuadros.traduzir(SequenciaCompacta.doTexto(sequencia), TabelaGenetica.padrao());
+        assertEquals("MAFKG*", proteinas[0]);
+
+        // Cada quadro deve ser igual à tradução ingênua da fita correspondente
+        String reverso = complementoReverso(sequencia);
+        for (int f = 0; f < 3; f++) {
+            assertEquals(traduzirIngenuo(sequencia.substring(f)), proteinas[f]);
+            assertEquals(traduzirIngenuo(reverso.substring(f)), proteinas[3 + f]);
+        }
+    }
+
+    @Test
+    void testContagemPorQuadroIgualAoContador() throws IOException {
+        String sequencia = "ATGGCCTTTNAAAGGGTAGCTTAGGCA";
+        Path fastaFile = tempDir.resolve("quadros.fasta");
+        Files.writeString(fastaFile, ">q\nATGGCCTTTN\nAAAGGGTAGC\nTTAGGCA\n");
+
+        ContadorCodons[] quadros = TraducaoSeisQuadros.contarArquivo(fastaFile.toString(), true);
+        String reverso = complementoReverso(sequencia);
+        for (int f = 0; f < 3; f++) {
+            ContadorCodons direto = ContadorCodons.contar(SequenciaCompacta.doTexto(sequencia.substring(f)));
+            assertEquals(direto.paraMapa(), quadros[f].paraMapa());
+            assertEquals(direto.ambiguos(), quadros[f].ambiguos());
+
+            ContadorCodons inverso = ContadorCodons.contar(SequenciaCompacta.doTexto(reverso.substring(f)));
+            assertEquals(inverso.paraMapa(), quadros[3 + f].paraMapa());
+            assertEquals(inverso.ambiguos(), quadros[3 + f].ambiguos());
+        }
+        // A fita reversa do quadro -1 começa no último códon da sequência
+        assertEquals(1, quadros[3].paraMapa().get("TGC"));
+    }
+
+    private static String traduzirIngenuo(String sequencia) {
+        StringBuilder proteina = new StringBuilder();
+        for (int i = 0; i + 3 <= sequencia.length(); i += 3) {
+            String nome = Codon.getAminoacid(sequencia.substring(i, i + 3));
+            proteina.append(nome.equals("Stop") ? '*' : umaLetra(nome));
+        }
+        return proteina.toString();
+    }
+
+    private static char umaLetra(String nome) {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            if (TabelaGenetica.nomeTresLetras(c).equals(nome)) {
+                return c;
+            }
+        }
+        return 'X';
+    }
+}
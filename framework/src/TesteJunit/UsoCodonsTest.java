@@ -0,0 +1,133 @@
+package TesteJunit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import Genetica.ContadorCodons;
+import Genetica.UsoCodons;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsoCodonsTest {
+
+    private static final int AAA = 0;
+    private static final int AAG = 2;
+    private static final int CCC = 21;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRscuECai() throws Exception {
+        Path referencia = tempDir.resolve("ref.fasta");
+        Files.writeString(referencia, ">r1\nAAAAAA\n>r2\nAAG\n");
+        UsoCodons uso = new UsoCodons(UsoCodons.contarReferencia(referencia.toString()));
+
+        Path genes = tempDir.resolve("genes.fasta");
+        Files.writeString(genes, ">g1 lisina\nAAAAAA\nAAAAAG\n>g2\nAAGAAG\n>g3\nATGTGG\n>g4\r\nAAAATG\r\n");
+        List<UsoCodons.Resultado> resultados = new ArrayList<>();
+        assertEquals(4, uso.processar(genes.toString(), resultados::add));
+
+        UsoCodons.Resultado g1 = resultados.get(0);
+        assertEquals("g1", g1.id());
+        assertEquals(3, g1.contador().contagem(AAA));
+        assertEquals(1.5, g1.rscu(AAA), 1e-9);
+        assertEquals(0.5, g1.rscu(AAG), 1e-9);
+        assertEquals(0, g1.rscu(CCC), 1e-9);
+        assertEquals(Math.pow(0.5, 0.25), g1.cai(), 1e-9);
+        assertEquals(0.5, resultados.get(1).cai(), 1e-9);
+        // Met e Trp não entram no CAI
+        assertTrue(Double.isNaN(resultados.get(2).cai()));
+        assertEquals("g4", resultados.get(3).id());
+        assertEquals(1.0, resultados.get(3).cai(), 1e-9);
+    }
+
+    @Test
+    void testQuebrasDeLinhaSoComCr() throws Exception {
+        Path genes = tempDir.resolve("cr.fasta");
+        Files.writeString(genes, ">g1\rATGAAAGCC\r>g2\rATGTTT\r");
+        List<UsoCodons.Resultado> resultados = new ArrayList<>();
+        UsoCodons uso = new UsoCodons(UsoCodons.contarReferencia(genes.toString()));
+
+        assertEquals(2, uso.processar(genes.toString(), resultados::add));
+        assertEquals("g1", resultados.get(0).id());
+        assertEquals(3, resultados.get(0).contador().total());
+        assertEquals("g2", resultados.get(1).id());
+        assertEquals(2, resultados.get(1).contador().total());
+        assertEquals(ContadorCodons.contarArquivo(genes.toString(), true).total(),
+                UsoCodons.contarReferencia(genes.toString()).total());
+    }
+
+    @Test
+    void testQuadroRecomecaEmCadaRegistro() throws Exception {
+        Path genes = tempDir.resolve("genes.fasta");
+        Files.writeString(genes, ">a\nAAAA\n>b\nCCC\n");
+        ContadorCodons soma = UsoCodons.contarReferencia(genes.toString());
+        assertEquals(1, soma.contagem(AAA));
+        assertEquals(1, soma.contagem(CCC));
+        assertEquals(2, soma.total());
+    }
+
+    @Test
+    void testOrdemDoArquivoComVariasThreads() throws Exception {
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            conteudo.append(">gene").append(i).append('\n');
+            for (int j = 0; j <= i % 37; j++) {
+                conteudo.append(j % 2 == 0 ? "AAA" : "CCCAAG").append(j % 5 == 0 ? "\n" : "");
+            }
+            conteudo.append('\n');
+        }
+        Path genes = tempDir.resolve("genes.fasta");
+        Files.writeString(genes, conteudo);
+        UsoCodons uso = new UsoCodons(UsoCodons.contarReferencia(genes.toString()));
+
+        List<String> ids = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            uso.processar(genes.toString(), pool, resultado -> {
+                int i = ids.size();
+                ids.add(resultado.id());
+                int repeticoes = i % 37 + 1;
+                assertEquals((repeticoes + 1) / 2, resultado.contador().contagem(AAA));
+                assertEquals(repeticoes / 2, resultado.contador().contagem(CCC));
+            });
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(500, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals("gene" + i, ids.get(i));
+        }
+    }
+
+    @Test
+    void testCsv() throws Exception {
+        Path genes = tempDir.resolve("genes.fasta");
+        Files.writeString(genes, ">g1\nAAAAAAAAAAAG\n>g2\nATG\n");
+        Path destino = tempDir.resolve("uso.csv");
+        UsoCodons uso = new UsoCodons(UsoCodons.contarReferencia(genes.toString()));
+        assertEquals(2, uso.salvarCsv(genes.toString(), destino));
+
+        List<String> linhas = Files.readAllLines(destino);
+        assertEquals(3, linhas.size());
+        assertTrue(linhas.get(0).startsWith("registro,codons,ambiguos,cai,AAA,AAC,AAG,"));
+        assertTrue(linhas.get(1).startsWith("g1,4,0,0.7598,1.5000,0.0000,0.5000,"));
+        assertTrue(linhas.get(2).startsWith("g2,1,0,,0.0000,"));
+    }
+
+    @Test
+    void testArquivoSemCabecalho() throws Exception {
+        Path genes = tempDir.resolve("genes.fasta");
+        Files.writeString(genes, "ACGT\n>a\nAAA\n");
+        UsoCodons uso = new UsoCodons(new ContadorCodons());
+        assertThrows(IOException.class, () -> uso.processar(genes.toString(), resultado -> { }));
+    }
+}
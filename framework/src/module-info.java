@@ -5,4 +5,14 @@
  * 
  */
 module Genetica {
+    // O JMX lê os atributos das MXBeans por reflexão, a partir de um módulo sem nome
+    exports Genetica;
+
+    requires java.net.http;
+    requires java.xml;
+    requires jdk.httpserver;
+    requires java.management;
+    requires org.slf4j;
+    requires com.fasterxml.jackson.databind;
+    requires commons.cli;
 }
\ No newline at end of file